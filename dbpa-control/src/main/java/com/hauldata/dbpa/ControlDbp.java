@@ -107,6 +107,8 @@ public class ControlDbp {
 
 		LATEST,
 		RUNNING,
+		RESUME,
+		TRACE,
 
 		LIKE,
 		FROM,
@@ -908,6 +910,9 @@ public class ControlDbp {
 
 			String name = nextEntityName(tokenizer);
 
+			boolean resume = tokenizer.skipWordIgnoreCase(KW.RESUME.name());
+			boolean trace = tokenizer.skipWordIgnoreCase(KW.TRACE.name());
+
 			List<ScriptArgument> arguments = null;
 			if (skipWordOrPluralIgnoreCase(tokenizer, KW.ARGUMENT.name())) {
 				arguments = nextArguments(tokenizer);
@@ -921,7 +926,7 @@ public class ControlDbp {
 
 			// Execute.
 
-			int id = jobs.run(name, arguments);
+			int id = jobs.run(name, resume ? Boolean.TRUE : null, trace ? Boolean.TRUE : null, arguments);
 
 			String message = String.format("Running job \"%s\" with ID %d\n", name, id);
 
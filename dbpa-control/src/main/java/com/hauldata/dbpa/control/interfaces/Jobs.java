@@ -96,7 +96,7 @@ public interface Jobs {
 
 	@POST
 	@Path("-/running/{name}")
-	public int run(@PathParam("name") String name, List<ScriptArgument> arguments);
+	public int run(@PathParam("name") String name, @QueryParam("resume") Boolean resume, @QueryParam("trace") Boolean trace, List<ScriptArgument> arguments);
 
 	@GET
 	@Path("-/running/{id}")
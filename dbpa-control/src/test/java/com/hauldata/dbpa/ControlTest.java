@@ -229,7 +229,7 @@ public class ControlTest extends TestCase {
 		System.out.println();
 
 		id = -1;
-		id = jobs.run(runName, noArgs);
+		id = jobs.run(runName, null, null, noArgs);
 
 		System.out.println("Job run '" + runName + "' id: " + String.valueOf(id));
 
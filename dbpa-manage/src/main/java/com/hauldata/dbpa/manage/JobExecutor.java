@@ -26,7 +26,6 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -35,6 +34,7 @@ import com.hauldata.dbpa.manage_control.api.JobRun;
 import com.hauldata.dbpa.manage_control.api.JobStatus;
 import com.hauldata.dbpa.process.Context;
 import com.hauldata.dbpa.process.DbProcess;
+import com.hauldata.dbpa.process.TaskThreads;
 
 /**
  * Concurrent job executor
@@ -108,7 +108,7 @@ public class JobExecutor {
 
 	public JobExecutor() {
 
-		es = Executors.newCachedThreadPool();
+		es = TaskThreads.newExecutor();
 		ecs = new ExecutorCompletionService<JobRun>(es);
 
 		// Note: Intentionally not using ConcurrentHashMap.  See comment in submit().
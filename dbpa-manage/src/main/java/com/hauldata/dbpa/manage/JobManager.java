@@ -55,6 +55,7 @@ import com.hauldata.dbpa.process.Alert;
 import com.hauldata.dbpa.process.Context;
 import com.hauldata.dbpa.process.ContextProperties;
 import com.hauldata.dbpa.process.DbProcess;
+import com.hauldata.dbpa.process.TaskThreadPool;
 import com.timgroup.statsd.StatsDClient;
 
 public class JobManager {
@@ -355,6 +356,13 @@ public class JobManager {
 		}
 	}
 
+	private void recordTaskPoolGauges() {
+		TaskThreadPool.Metrics metrics = TaskThreadPool.getMetrics();
+		statsd.recordGaugeValue("taskThreads", metrics.threadCount);
+		statsd.recordGaugeValue("taskThreadsActive", metrics.activeThreadCount);
+		statsd.recordGaugeValue("taskQueueDepth", metrics.queueDepth);
+	}
+
 	private class JobMonitor implements Runnable {
 
 		/**
@@ -369,6 +377,7 @@ public class JobManager {
 					try {
 						updateRun(result);
 						statsd.incrementCounter(result.getState().getStatus().name());
+						recordTaskPoolGauges();
 
 						if (result.getState().getStatus() == JobStatus.runFailed) {
 
@@ -454,6 +463,18 @@ public class JobManager {
 	 * @throws SQLException
 	 */
 	public JobRun run(String jobName, Job job) throws IOException, NamingException, SQLException {
+		return run(jobName, job, false, false);
+	}
+
+	/**
+	 * Start a job by name, optionally resuming its failed previous run.
+	 * Resuming requires the "directory" property to be set in the job journal properties.
+	 *
+	 * @param resume is true to skip the tasks that succeeded in the failed previous run
+	 * @param trace is true to write a trace of the run's task execution
+	 * @return the run object.  Use the getRunId() member to retrieve the unique run ID.
+	 */
+	public JobRun run(String jobName, Job job, boolean resume, boolean trace) throws IOException, NamingException, SQLException {
 
 		if (!isStarted()) {
 			throw new JobManagerException.NotStarted(JobManagerException.mustStartupBeforeJobRunMessage);
@@ -466,6 +487,7 @@ public class JobManager {
 
 		LOGGER.info("Running job: {}", jobName);
 		statsd.incrementCounter(JobStatus.runInProgress.name());
+		recordTaskPoolGauges();
 
 		// Instantiate the process, arguments, and context,
 		// submit the process to the executor,
@@ -486,6 +508,15 @@ public class JobManager {
 
 		jobContext = jobContextProps.createContext(jobName);
 
+		try {
+			jobContext.journal = jobContextProps.openJournal(jobName, resume);
+			jobContext.trace = trace ? jobContextProps.openTrace(jobName) : null;
+		}
+		catch (IOException | RuntimeException ex) {
+			try { jobContext.close(); } catch (Exception exx) {}
+			throw ex;
+		}
+
 		if (analyzer != null) {
 			jobContext.logger.addAppender(analyzer);
 		}
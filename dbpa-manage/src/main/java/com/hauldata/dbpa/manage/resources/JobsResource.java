@@ -962,6 +962,9 @@ public class JobsResource {
 	 * Run a job optionally changing the value(s) of argument(s) passed to the job
 	 *
 	 * @param name is the name of the job to run
+	 * @param resume is true to resume the failed previous run of the job recorded in its run journal,
+	 * skipping the tasks that succeeded in that run
+	 * @param trace is true to write a trace of the run's task execution in Chrome trace format
 	 * @param arguments is a list of (name, value) pairs where each "name" matches an argument
 	 * in the job definition and the corresponding "value" replaces the argument value in the
 	 * job definition when invoking the job
@@ -975,7 +978,7 @@ public class JobsResource {
 	@POST
 	@Path("-/running/{name}")
 	@Timed
-	public int run(@PathParam("name") String name, List<ScriptArgument> arguments) throws SQLException, IOException, NamingException {
+	public int run(@PathParam("name") String name, @QueryParam("resume") Boolean resume, @QueryParam("trace") Boolean trace, List<ScriptArgument> arguments) throws SQLException, IOException, NamingException {
 
 		Job job = get(name);
 
@@ -990,7 +993,7 @@ public class JobsResource {
 			}
 		}
 
-		return JobManager.getInstance().run(name, job).getRunId();
+		return JobManager.getInstance().run(name, job, (resume != null) && resume, (trace != null) && trace).getRunId();
 	}
 
 	@GET
@@ -272,7 +272,7 @@ public class JobsResourceTest extends TestCase {
 		Job job = new Job(sleepJobName, null, null, true);
 		jobsResource.put(sleepJobName, job);
 
-		int id = jobsResource.run(sleepJobName, null);
+		int id = jobsResource.run(sleepJobName, null, null, null);
 
 		assertTrue(statsdServer.waitForMessageLike(statsdPrefix + JobStatus.runInProgress.name() + ":*", 100L, true));
 
@@ -321,7 +321,7 @@ public class JobsResourceTest extends TestCase {
 		Job job = new Job(stopJobName, null, null, true);
 		jobsResource.put(stopJobName, job);
 
-		int id = jobsResource.run(stopJobName, null);
+		int id = jobsResource.run(stopJobName, null, null, null);
 
 		try { Thread.sleep(1000L); } catch (InterruptedException e) {}
 
@@ -25,6 +25,8 @@ public class RunOptions {
 	private boolean versionOnly = false;
 	private boolean checkOnly = false;
 	private boolean alert = false;
+	private boolean resume = false;
+	private boolean trace = false;
 	private String scheduleName = null;
 
 	private RunOptions() {}
@@ -74,6 +76,12 @@ public class RunOptions {
 		else if (option.equals("alert")) {
 			result.alert = true;
 		}
+		else if (option.equals("resume")) {
+			result.resume = true;
+		}
+		else if (option.equals("trace")) {
+			result.trace = true;
+		}
 		else if (option.equals("schedule")) {
 			throw new RuntimeException("Schedule option must be followed by :file_name");
 		}
@@ -107,6 +115,12 @@ public class RunOptions {
 			else if (option == 'a') {
 				result.alert = true;
 			}
+			else if (option == 'r') {
+				result.resume = true;
+			}
+			else if (option == 't') {
+				result.trace = true;
+			}
 			else {
 				throw new RuntimeException("Invalid option: " + option);
 			}
@@ -121,6 +135,14 @@ public class RunOptions {
 		return alert;
 	}
 
+	public boolean isResume() {
+		return resume;
+	}
+
+	public boolean isTrace() {
+		return trace;
+	}
+
 	public boolean isScheduled() {
 		return (scheduleName != null);
 	}
@@ -45,10 +45,10 @@ public abstract class Runner {
 			return new TestRunner(processID, contextProps, args, options.isScheduled(), options.getScheduleName());
 		}
 		else if (options.isScheduled()) {
-			return new ScheduledRunner(processID, contextProps, args, options.getScheduleName());
+			return new ScheduledRunner(processID, contextProps, args, options.getScheduleName(), options.isResume(), options.isTrace());
 		}
 		else {
-			return new OneTimeRunner(processID, contextProps, args);
+			return new OneTimeRunner(processID, contextProps, args, options.isResume(), options.isTrace());
 		}
 	}
 
@@ -69,6 +69,8 @@ public abstract class Runner {
 
 abstract class ExecuteRunner extends Runner {
 
+	protected String processID;
+	protected ContextProperties contextProps;
 	protected String[] args;
 	protected Context context =  null;
 	protected DbProcess process = null;
@@ -83,6 +85,8 @@ abstract class ExecuteRunner extends Runner {
 			throw new RuntimeException("No script name was specified");
 		}
 
+		this.processID = processID;
+		this.contextProps = contextProps;
 		this.args = args;
 
 		try {
@@ -98,6 +102,25 @@ abstract class ExecuteRunner extends Runner {
 		}
 	}
 
+	/**
+	 * Run the process, journaling the run if configured so that a failed run can be resumed.
+	 *
+	 * @param resume is true to resume the failed run recorded in the journal
+	 * @param trace is true to write a trace of the run
+	 */
+	protected void runProcess(boolean resume, boolean trace) throws Exception {
+
+		context.journal = contextProps.openJournal(processID, resume);
+		context.trace = trace ? contextProps.openTrace(processID) : null;
+		try {
+			process.run(args, context);
+		}
+		finally {
+			context.journal = null;
+			context.trace = null;
+		}
+	}
+
 	@Override
 	public void close(int status) {
 
@@ -139,31 +162,42 @@ class HookThread extends Thread {
 
 class OneTimeRunner extends ExecuteRunner {
 
+	private boolean resume;
+	private boolean trace;
+
 	protected OneTimeRunner(
 			String processID,
 			ContextProperties contextProps,
-			String[] args) throws IOException, NamingException {
+			String[] args,
+			boolean resume,
+			boolean trace) throws IOException, NamingException {
 		super(processID, contextProps, args);
+		this.resume = resume;
+		this.trace = trace;
 	}
 
 	@Override
 	public void run() throws Exception {
-		process.run(args, context);
+		runProcess(resume, trace);
 	}
 }
 
 class ScheduledRunner extends ExecuteRunner {
 
-	private String processID;
 	private ScheduleSet schedule;
+	private boolean resume;
+	private boolean trace;
 
 	protected ScheduledRunner(
 			String processID,
 			ContextProperties contextProps,
 			String[] args,
-			String scheduleName) throws IOException, NamingException {
+			String scheduleName,
+			boolean resume,
+			boolean trace) throws IOException, NamingException {
 		super(processID, contextProps, args);
-		this.processID = processID;
+		this.resume = resume;
+		this.trace = trace;
 
 		schedule = getSchedule(context, scheduleName);
 	}
@@ -171,15 +205,19 @@ class ScheduledRunner extends ExecuteRunner {
 	@Override
 	public void run() throws Exception {
 
+		// Only the first run resumes a failed run; later scheduled runs start afresh.
+
 		if (schedule.isImmediate()) {
-			process.run(args, context);
+			runProcess(resume, trace);
+			resume = false;
 		}
 
 		while (schedule.sleepUntilNext()) {
 
 			process = context.loader.load(processID);
 
-			process.run(args, context);
+			runProcess(resume, trace);
+			resume = false;
 		}
 	}
 }
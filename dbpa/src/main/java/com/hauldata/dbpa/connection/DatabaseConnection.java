@@ -64,6 +64,9 @@ public class DatabaseConnection extends com.hauldata.dbpa.connection.Connection
 			if ((conn == null) && (getProperties() != null)) {
 
 				setLongSleepSeconds("longSleepSeconds");
+				setQueryTimeoutSeconds("queryTimeoutSeconds");
+				setFetchSize("fetchSize");
+				setCursorFetch("useCursorFetch");
 
 				String driver = getProperties().getProperty("driver");
 				String url = getProperties().getProperty("url");
@@ -123,6 +126,18 @@ public class DatabaseConnection extends com.hauldata.dbpa.connection.Connection
 		}
 	}
 
+	/**
+	 * Indicate that a JDBC connection acquired with getConnection() is no longer needed
+	 * by the acquirer but must not be reused, e.g., because a statement is still running on it.
+	 * The acquirer is responsible for closing it.
+	 */
+	public void discard(Connection conn) {
+
+		synchronized (this) {
+			--activeConnectionCount;
+		}
+	}
+
 	/**
 	 * Close all idle JDBC connections.  It is assumed there are no active connections.
 	 * @throws SQLException
@@ -135,6 +150,61 @@ public class DatabaseConnection extends com.hauldata.dbpa.connection.Connection
 		idleConnections.clear();
 	}
 
+	// Query timeout.  Zero means no timeout.
+
+	private int queryTimeoutSeconds = 0;
+
+	private void setQueryTimeoutSeconds(String propName) {
+		String queryTimeoutSecondsString = getProperties().getProperty(propName, "0");
+		int queryTimeoutSeconds = 0;
+		try { queryTimeoutSeconds = Integer.parseInt(queryTimeoutSecondsString); } catch (Exception ex) {}
+		this.queryTimeoutSeconds = queryTimeoutSeconds;
+	}
+
+	/**
+	 * @return the number of seconds a statement on this connection may run before it is cancelled
+	 * by the driver, or zero if there is no limit.  Set from the "queryTimeoutSeconds" property.
+	 */
+	public int getQueryTimeoutSeconds() {
+		return queryTimeoutSeconds;
+	}
+
+	// Default fetch size of queries.  Zero means the driver default.
+
+	private int fetchSize = 0;
+
+	private void setFetchSize(String propName) {
+		String fetchSizeString = getProperties().getProperty(propName, "0");
+		int fetchSize = 0;
+		try { fetchSize = Integer.parseInt(fetchSizeString); } catch (Exception ex) {}
+		this.fetchSize = Math.max(fetchSize, 0);
+	}
+
+	/**
+	 * @return the number of rows a query on this connection fetches from the database at a time
+	 * unless the query specifies otherwise, or zero to leave it to the driver.
+	 * Set from the "fetchSize" property.
+	 */
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	// Cursor fetch.  MySQL Connector/J fetches the rows of a query a fetch size at a time
+	// only when this is set on the connection, either as a property or in the URL.
+
+	private boolean cursorFetch = false;
+
+	private void setCursorFetch(String propName) {
+		cursorFetch = Boolean.parseBoolean(getProperties().getProperty(propName, "false"));
+	}
+
+	/**
+	 * @return true if the "useCursorFetch" property of this connection is true.
+	 */
+	public boolean isCursorFetch() {
+		return cursorFetch;
+	}
+
 	// Sleep functions.  These are intended to release the database connection
 	// when all active tasks are in a long sleep period.
 	
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.math.BigDecimal;
+import java.time.temporal.Temporal;
+import java.util.Date;
+
+/**
+ * Batch size that adapts to the observed latency of executing batches.
+ * <p>
+ * After each full batch executes, the time it took per row is averaged with that of earlier batches
+ * and used to compute the batch size that would take the target latency.  The size moves toward that value by at most a factor
+ * of two per batch and only when it differs by more than a tolerance, so that it settles rather
+ * than chasing every fluctuation.  The size is also capped so that the estimated bytes in a batch,
+ * based on the average width of the values in the last batch, do not exceed a maximum.
+ */
+public class AdaptiveBatchSize {
+
+	public static final int defaultLatencyMillis = 500;
+	public static final long defaultMaxBytes = 16L * 1024L * 1024L;
+
+	static final int initialSize = 100;
+	static final int minSize = 10;
+	static final int maxSize = 100000;
+
+	private static final double tolerance = 0.2;
+	private static final double smoothing = 0.5;
+
+	private long latencyNanos;
+	private long maxBytes;
+
+	private int size;
+	private long batchBytes;
+	private long rowWidth;
+	private double rowNanos;
+	private int batchCount;
+
+	/**
+	 * @param latencyMillis is the target time to execute a batch in milliseconds
+	 * @param maxBytes is the maximum estimated number of bytes in a batch
+	 */
+	public AdaptiveBatchSize(int latencyMillis, long maxBytes) {
+
+		if (latencyMillis < 1) {
+			throw new RuntimeException("Batch latency must be at least 1 millisecond");
+		}
+
+		this.latencyNanos = latencyMillis * 1000000L;
+		this.maxBytes = maxBytes;
+
+		this.size = initialSize;
+		this.batchBytes = 0;
+		this.rowWidth = 0;
+		this.rowNanos = 0.0;
+		this.batchCount = 0;
+	}
+
+	/**
+	 * @return the number of rows to put in the next batch
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the estimated width in bytes of a row in the last batch recorded
+	 */
+	public long getRowWidth() {
+		return rowWidth;
+	}
+
+	/**
+	 * @return the number of batches recorded
+	 */
+	public int getBatchCount() {
+		return batchCount;
+	}
+
+	/**
+	 * Account for a value added to the current batch
+	 */
+	public void addValue(Object value) {
+		batchBytes += estimateWidth(value);
+	}
+
+	/**
+	 * Record the execution of a batch and adjust the batch size
+	 *
+	 * @param rowCount is the number of rows in the batch
+	 * @param elapsedNanos is the time taken to execute the batch
+	 * @return true if the batch size changed
+	 */
+	public boolean record(int rowCount, long elapsedNanos) {
+
+		if (rowCount <= 0) {
+			return false;
+		}
+
+		++batchCount;
+		rowWidth = Math.max(1L, batchBytes / rowCount);
+		batchBytes = 0;
+
+		long byteCap = Math.max(1L, maxBytes / rowWidth);
+
+		int newSize;
+		if (rowCount < size) {
+			// A partial batch says little about the latency of a full one,
+			// but its rows may show that a full batch would be too large.
+
+			newSize = (int)Math.min(size, byteCap);
+		}
+		else {
+			double batchRowNanos = (double)Math.max(elapsedNanos, 1L) / rowCount;
+			rowNanos = (rowNanos == 0.0) ? batchRowNanos : smoothing * batchRowNanos + (1.0 - smoothing) * rowNanos;
+
+			double ideal = latencyNanos / rowNanos;
+			ideal = Math.max(size / 2.0, Math.min(size * 2.0, ideal));
+
+			if (Math.abs(ideal - size) <= size * tolerance) {
+				ideal = size;
+			}
+
+			newSize = (int)Math.min((long)ideal, byteCap);
+		}
+
+		newSize = Math.max(minSize, Math.min(maxSize, newSize));
+
+		boolean changed = (newSize != size);
+		size = newSize;
+		return changed;
+	}
+
+	/**
+	 * @return a rough estimate of the number of bytes a value occupies when sent to the database
+	 */
+	static long estimateWidth(Object value) {
+
+		if (value == null) {
+			return 1;
+		}
+		else if (value instanceof String) {
+			return ((String)value).length() + 2;
+		}
+		else if (value instanceof Integer || value instanceof Float) {
+			return 4;
+		}
+		else if (value instanceof Long || value instanceof Double) {
+			return 8;
+		}
+		else if (value instanceof Short) {
+			return 2;
+		}
+		else if (value instanceof Byte || value instanceof Boolean) {
+			return 1;
+		}
+		else if (value instanceof BigDecimal) {
+			return ((BigDecimal)value).precision() / 2 + 4;
+		}
+		else if (value instanceof byte[]) {
+			return ((byte[])value).length + 2;
+		}
+		else if (value instanceof Date || value instanceof Temporal) {
+			return 8;
+		}
+		else {
+			return value.toString().length() + 2;
+		}
+	}
+}
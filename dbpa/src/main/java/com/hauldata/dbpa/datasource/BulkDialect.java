@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Native bulk load path of a database system, used in place of batched INSERT statements
+ * by a TABLE data target declared with BULK.
+ * <p>
+ * Dialects are registered with {@link #register(BulkDialect)} and selected by the database
+ * product of the target connection.  The H2 dialect is registered by default.
+ */
+public abstract class BulkDialect {
+
+	/**
+	 * Runner of SQL statements on the target connection so that they are cancelled
+	 * if the thread running them is interrupted
+	 */
+	public interface StatementRunner {
+		int executeUpdate(String sql) throws SQLException, InterruptedException;
+	}
+
+	/**
+	 * Bulk load of rows into a table in progress
+	 */
+	public interface Load {
+
+		/**
+		 * Add a row to the load.  The values array may be reused by the caller once this returns.
+		 */
+		void addRow(Object[] values) throws SQLException;
+
+		/**
+		 * Load the rows added since the last flush into the table
+		 */
+		void flush(StatementRunner runner) throws SQLException, InterruptedException;
+
+		/**
+		 * Release the resources of the load, discarding rows that have not been flushed
+		 */
+		void close();
+	}
+
+	/**
+	 * @return true if this dialect can bulk load into the database described by the metadata
+	 */
+	public abstract boolean supports(DatabaseMetaData metaData) throws SQLException;
+
+	/**
+	 * Begin a bulk load into a table
+	 *
+	 * @param conn is the connection to the database
+	 * @param table is the name of the table
+	 * @param columnNames are the names of the table columns to load, delimited as needed for
+	 * the database, or null to load all columns of the table in order
+	 * @param columnCount is the number of values in each row
+	 * @return the load
+	 */
+	public abstract Load begin(Connection conn, String table, List<String> columnNames, int columnCount) throws SQLException;
+
+	// Static members
+
+	private static List<BulkDialect> dialects = new ArrayList<BulkDialect>();
+
+	static {
+		register(new H2BulkDialect());
+	}
+
+	/**
+	 * Register a bulk load dialect.  Dialects registered later take precedence
+	 * over those registered earlier for the same database.
+	 */
+	public static synchronized void register(BulkDialect dialect) {
+		dialects.add(0, dialect);
+	}
+
+	/**
+	 * @return the dialect that bulk loads into the database of the connection
+	 * @throws RuntimeException if no registered dialect supports the database
+	 */
+	public static synchronized BulkDialect get(Connection conn) throws SQLException {
+
+		DatabaseMetaData metaData = conn.getMetaData();
+		for (BulkDialect dialect : dialects) {
+			if (dialect.supports(metaData)) {
+				return dialect;
+			}
+		}
+		throw new RuntimeException("Bulk load is not supported for database " + metaData.getDatabaseProductName());
+	}
+}
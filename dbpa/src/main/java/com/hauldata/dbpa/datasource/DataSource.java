@@ -16,29 +16,305 @@
 
 package com.hauldata.dbpa.datasource;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
 import com.hauldata.dbpa.connection.DatabaseConnection;
+import com.hauldata.dbpa.expression.Expression;
 import com.hauldata.dbpa.process.Context;
+import com.hauldata.dbpa.process.TaskTrace;
 
 public abstract class DataSource extends DataStore implements Source {
 
 	private boolean singleRow;
+	private Expression<Integer> fetchSizeExpression;
+
+	private int connectionFetchSize;
+	private boolean streamOnly;
 
 	protected ResultSet rs;
 
+	// Restriction of the query of a partitionable source; see PartitionableSource.
+
+	private String predicate;
+	private boolean counting;
+
+	// Incremental read of the rows added since the last run; see startIncrement().
+
+	private Expression<String> incrementalColumnExpression;
+	private String incrementalColumn;
+	private Object incrementalMark;
+	private int incrementalColumnIndex;
+	private Object incrementalMax;
+
 	protected DataSource(DatabaseConnection connection, boolean singleRow) {
 
 		super(connection);
 		this.singleRow = singleRow;
+		this.fetchSizeExpression = null;
+		this.predicate = null;
+		this.counting = false;
+		this.incrementalColumnExpression = null;
+		this.incrementalColumn = null;
+	}
+
+	/**
+	 * Set the number of rows fetched from the database at a time by the query of this source
+	 *
+	 * @param fetchSizeExpression is the fetch size, or null for the default of the connection
+	 */
+	public void setFetchSize(Expression<Integer> fetchSizeExpression) {
+		this.fetchSizeExpression = fetchSizeExpression;
+	}
+
+	/**
+	 * Read only the rows added since the last run, as identified by a column whose values increase
+	 * as rows are added.  This is only effective for a source whose query is restricted; see restricted().
+	 *
+	 * @param columnExpression is the name of the column, or null to read all rows
+	 */
+	public void setIncremental(Expression<String> columnExpression) {
+		this.incrementalColumnExpression = columnExpression;
+	}
+
+	/**
+	 * @return true if this source reads only the rows added since the last run
+	 */
+	public boolean isIncremental() {
+		return incrementalColumnExpression != null;
+	}
+
+	/**
+	 * Start an incremental read.  The query of this source and of partitions made from it
+	 * afterwards is restricted to rows whose incremental column is greater than the mark,
+	 * and the greatest value of the column among the rows read is tracked.
+	 *
+	 * @param mark is the greatest value read by the last run, or null to read all rows
+	 */
+	public void startIncrement(Object mark) {
+
+		incrementalColumn = incrementalColumnExpression.evaluate();
+		if (incrementalColumn == null) {
+			throw new RuntimeException("INCREMENTAL column name evaluates to NULL");
+		}
+		incrementalMark = mark;
+		incrementalColumnIndex = 0;
+		incrementalMax = null;
+	}
+
+	/**
+	 * @return the greatest value of the incremental column among the rows read since
+	 * the increment started, or null if no rows were read
+	 */
+	public Object getIncrementalMax() {
+		return incrementalMax;
+	}
+
+	/**
+	 * Make a source a partition of this source by restricting its query, which must be
+	 * the query of this source, to the rows that satisfy a predicate
+	 *
+	 * @param predicate is the predicate, or null to restrict the partition only as this source is restricted
+	 * @return the partition source
+	 */
+	protected DataSource partitionOf(DataSource partition, String predicate) {
+		partition.fetchSizeExpression = fetchSizeExpression;
+		partition.predicate = predicate;
+		partition.incrementalColumnExpression = incrementalColumnExpression;
+		partition.incrementalColumn = incrementalColumn;
+		partition.incrementalMark = incrementalMark;
+		return partition;
+	}
+
+	/**
+	 * @return the query restricted as set by partitionOf() and startIncrement(), or if counting,
+	 * a query for the count of rows returned by the restricted query
+	 */
+	protected String restricted(String query) {
+		if ((incrementalColumn != null) && (incrementalMark != null)) {
+			query = "SELECT * FROM (" + query + ") dbpa_increment WHERE " + incrementalColumn + " > " + toLiteral(incrementalMark);
+		}
+		if (predicate != null) {
+			query = "SELECT * FROM (" + query + ") dbpa_partition WHERE (" + predicate + ")";
+		}
+		if (counting) {
+			query = "SELECT COUNT(*) FROM (" + query + ") dbpa_count";
+		}
+		return query;
+	}
+
+	private static final DateTimeFormatter timestampEscapeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSSSSS");
+
+	/**
+	 * @return an incremental mark as an SQL literal.  A date or timestamp is written as a JDBC
+	 * escape sequence, which the driver translates to the literal syntax of its database.
+	 */
+	private static String toLiteral(Object mark) {
+
+		if (mark instanceof Long) {
+			return mark.toString();
+		}
+		else if (mark instanceof BigDecimal) {
+			return ((BigDecimal)mark).toPlainString();
+		}
+		else if (mark instanceof LocalDateTime) {
+			return "{ts '" + ((LocalDateTime)mark).format(timestampEscapeFormatter) + "'}";
+		}
+		else if (mark instanceof LocalDate) {
+			return "{d '" + ((LocalDate)mark).toString() + "'}";
+		}
+		else {
+			return "'" + mark.toString().replace("'", "''") + "'";
+		}
+	}
+
+	/**
+	 * Track the greatest value of the incremental column of the current row
+	 */
+	private void trackIncrement() throws SQLException {
+
+		if (incrementalColumnIndex == 0) {
+			int columnCount = getColumnCount();
+			for (int i = 1; i <= columnCount; ++i) {
+				if (getColumnLabel(i).equalsIgnoreCase(incrementalColumn)) {
+					incrementalColumnIndex = i;
+					break;
+				}
+			}
+			if (incrementalColumnIndex == 0) {
+				throw new RuntimeException("INCREMENTAL column is not one of the source columns: " + incrementalColumn);
+			}
+		}
+
+		Object value = toMark(rs.getObject(incrementalColumnIndex));
+		if ((value != null) && ((incrementalMax == null) || isGreater(value, incrementalMax))) {
+			incrementalMax = value;
+		}
+	}
+
+	/**
+	 * @return a column value as an incremental mark, which is a Long, BigDecimal, LocalDate, LocalDateTime or String
+	 */
+	private static Object toMark(Object value) {
+
+		if ((value == null) || (value instanceof Long) || (value instanceof BigDecimal) || (value instanceof String)) {
+			return value;
+		}
+		else if ((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+			return ((Number)value).longValue();
+		}
+		else if ((value instanceof BigInteger) || (value instanceof Double) || (value instanceof Float)) {
+			return new BigDecimal(value.toString());
+		}
+		else if (value instanceof Timestamp) {
+			return ((Timestamp)value).toLocalDateTime();
+		}
+		else if (value instanceof java.sql.Date) {
+			return ((java.sql.Date)value).toLocalDate();
+		}
+		else if ((value instanceof LocalDate) || (value instanceof LocalDateTime)) {
+			return value;
+		}
+		else {
+			throw new RuntimeException("Unsupported INCREMENTAL column type: " + value.getClass().getName());
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static boolean isGreater(Object value, Object max) {
+		return ((Comparable)value).compareTo(max) > 0;
+	}
+
+	/**
+	 * Count the rows returned by the query of a source by executing a count query in its place.
+	 * The counting source is closed.
+	 */
+	protected static long countRows(Context context, DataSource counter) throws SQLException, InterruptedException {
+
+		counter.counting = true;
+		try {
+			counter.executeQuery(context);
+			return counter.rs.next() ? counter.rs.getLong(1) : 0L;
+		}
+		finally {
+			counter.close(context);
+		}
 	}
 
 	protected int getResultSetType() {
 		return singleRow ? ResultSet.TYPE_SCROLL_INSENSITIVE : ResultSet.TYPE_FORWARD_ONLY;
 	}
 
+	@Override
+	protected void getConnection(Context context) {
+
+		super.getConnection(context);
+
+		DatabaseConnection dbconn = context.resolveConnection(connection);
+		connectionFetchSize = dbconn.getFetchSize();
+
+		try {
+			DatabaseMetaData metaData = conn.getMetaData();
+			streamOnly = isStreamOnly(metaData.getDatabaseProductName(), metaData.getURL(), dbconn.isCursorFetch());
+		}
+		catch (SQLException ex) {
+			streamOnly = false;
+		}
+	}
+
+	/**
+	 * Determine if a driver ignores a positive fetch size and instead either reads the entire result set
+	 * into memory or, when the fetch size is Integer.MIN_VALUE, streams it a row at a time.
+	 * This is the case for MySQL Connector/J unless cursor fetch is enabled on the connection,
+	 * either in its URL or by its "useCursorFetch" property.
+	 *
+	 * @param productName is the database product name of the connection
+	 * @param url is the URL of the connection
+	 * @param cursorFetch is true if the connection properties enable cursor fetch
+	 */
+	static boolean isStreamOnly(String productName, String url, boolean cursorFetch) {
+
+		if (!productName.equalsIgnoreCase("MySQL") || cursorFetch) {
+			return false;
+		}
+
+		return (url == null) || !url.toLowerCase().contains("usecursorfetch=true");
+	}
+
+	/**
+	 * Set the fetch size on the statement about to be executed.  With a driver that only streams,
+	 * a positive fetch size on a forward-only query selects streaming so that the result set is
+	 * not read into memory.
+	 */
+	private void setStatementFetchSize() throws SQLException {
+
+		Integer fetchSize = (fetchSizeExpression != null) ? fetchSizeExpression.evaluate() : (Integer)connectionFetchSize;
+		if ((fetchSize == null) || (fetchSize < 0)) {
+			throw new RuntimeException("Fetch size must not be negative");
+		}
+
+		if (fetchSize == 0) {
+			return;
+		}
+
+		if (streamOnly) {
+			if (!singleRow) {
+				stmt.setFetchSize(Integer.MIN_VALUE);
+			}
+		}
+		else {
+			stmt.setFetchSize(fetchSize);
+		}
+	}
+
 	public abstract void executeUpdate(Context context) throws SQLException, InterruptedException;
 
 	@Override
@@ -59,12 +335,24 @@ public abstract class DataSource extends DataStore implements Source {
 		return rs.getMetaData().getColumnLabel(column);
 	}
 
+	@Override
+	public int getColumnType(int column) throws SQLException {
+		return rs.getMetaData().getColumnType(column);
+	}
+
 	@Override
 	public boolean next() throws SQLException, InterruptedException {
 		if (Thread.interrupted()) {
 			throw new InterruptedException();
 		}
-		return rs.next();
+		if (!rs.next()) {
+			return false;
+		}
+		if (incrementalColumn != null) {
+			trackIncrement();
+		}
+		TaskTrace.countRowRead();
+		return true;
 	}
 
 	@Override
@@ -72,6 +360,13 @@ public abstract class DataSource extends DataStore implements Source {
 		return rs.getObject(columnIndex);
 	}
 
+	/**
+	 * @return the result set of the executed query, for use by a TransferPlan
+	 */
+	ResultSet getResultSet() {
+		return rs;
+	}
+
 	@Override
 	public boolean isLast() throws SQLException {
 		return rs.isLast();
@@ -103,6 +398,8 @@ public abstract class DataSource extends DataStore implements Source {
 
 		SQLQueryExecutor executor = new SQLQueryExecutor(sql);
 
+		setStatementFetchSize();
+
 		execute(executor);
 
 		return executor.getResult();
@@ -186,6 +483,8 @@ public abstract class DataSource extends DataStore implements Source {
 
 		SQLPreparedQueryExecutor executor = new SQLPreparedQueryExecutor();
 
+		setStatementFetchSize();
+
 		execute(executor);
 
 		return executor.getResult();
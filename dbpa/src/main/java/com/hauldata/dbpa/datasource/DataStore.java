@@ -26,6 +26,7 @@ import java.util.Date;
 
 import com.hauldata.dbpa.connection.DatabaseConnection;
 import com.hauldata.dbpa.process.Context;
+import com.hauldata.dbpa.process.TaskTrace;
 import com.hauldata.dbpa.variable.VariableType;
 
 public abstract class DataStore {
@@ -87,11 +88,17 @@ public abstract class DataStore {
 	protected Connection conn;
 	protected Statement stmt;
 
+	private int queryTimeoutSeconds;
+	private SQLExecutor abandoned;
+
 	protected DataStore(DatabaseConnection connection) {
 		this.connection = connection;
 
 		this.conn = null;
 		this.stmt = null;
+
+		this.queryTimeoutSeconds = 0;
+		this.abandoned = null;
 	}
 
 	protected void getConnection(Context context) {
@@ -100,42 +107,92 @@ public abstract class DataStore {
 		if (conn == null) {
 			throw new RuntimeException("Database connection properties are not defined");
 		}
+
+		queryTimeoutSeconds = context.resolveConnection(connection).getQueryTimeoutSeconds();
 	}
 
 	public void close(Context context) {
 
-		if (stmt != null) try { stmt.close(); } catch (Exception ex) {}
+		closeStatement(stmt);
 		if (conn != null) context.releaseConnection(connection, conn);
 
+		// The connection of an abandoned statement is closed along with the statement; see SQLExecutor.close().
+		if (abandoned != null) context.resolveConnection(connection).discard(abandoned.statementConn);
+
 		stmt = null;
 		conn = null;
+		abandoned = null;
 	}
 
-	protected void execute(SQLExecutor executor) throws SQLException, InterruptedException {
+	/**
+	 * Close a statement unless it was abandoned while running, in which case it is closed
+	 * on the thread running it when it returns.
+	 */
+	protected void closeStatement(Statement statement) {
+		if ((statement != null) && ((abandoned == null) || (statement != abandoned.statement))) try { statement.close(); } catch (Exception ex) {}
+	}
 
-		Thread executorThread = new Thread(executor);
+	/**
+	 * Execute a statement so that it is cancelled if this thread is interrupted.
+	 * <p>
+	 * The statement runs on a pooled thread while this thread waits for it; see {@link StatementRunner}.
+	 * No thread is created per statement.  If a query timeout is set in the connection properties,
+	 * it is applied to the statement before execution.
+	 *
+	 * @throws InterruptedException if this thread was interrupted before or while the statement was
+	 * in progress, in which case the statement execution is attempted to be terminated subject
+	 * to the limitations specified on Statement.cancel().  If the statement does not finish soon after
+	 * it is cancelled, it is abandoned and no further statement can be executed on the connection.
+	 */
+	protected void execute(SQLExecutor executor) throws SQLException, InterruptedException {
 
-		executorThread.start();
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
 
-		try {
-			executorThread.join();
+		if (abandoned != null) {
+			throw new SQLException("Database connection is in use by a statement that did not respond to cancellation");
 		}
-		catch (InterruptedException iex) {
-			executor.cancel();
-			throw iex;
+
+		if (queryTimeoutSeconds > 0) {
+			stmt.setQueryTimeout(queryTimeoutSeconds);
 		}
+
+		TaskTrace.countRoundTrip();
+
+		executor.statement = stmt;
+		executor.statementConn = conn;
+
+		StatementRunner.run(executor);
 	}
 
-	protected abstract class SQLExecutor implements Runnable {
+	protected abstract class SQLExecutor implements StatementRunner.Call {
 
 		protected SQLException ex;
 
+		private Statement statement;
+		private Connection statementConn;
+
 		public SQLExecutor() {
 			ex = null;
 		}
 
+		@Override
 		public void cancel() throws SQLException {
-			stmt.cancel();
+			statement.cancel();
+		}
+
+		@Override
+		public void abandon() {
+			abandoned = this;
+			stmt = null;
+			conn = null;
+		}
+
+		@Override
+		public void close() {
+			try { statement.close(); } catch (Exception ex) {}
+			try { statementConn.close(); } catch (Exception ex) {}
 		}
 
 		protected void getException() throws SQLException {
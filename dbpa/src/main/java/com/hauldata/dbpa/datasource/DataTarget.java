@@ -16,58 +16,516 @@
 
 package com.hauldata.dbpa.datasource;
 
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
 
 import com.hauldata.dbpa.connection.DatabaseConnection;
 import com.hauldata.dbpa.expression.Expression;
 import com.hauldata.dbpa.file.Columns;
+import com.hauldata.dbpa.log.Logger;
 import com.hauldata.dbpa.process.Context;
+import com.hauldata.dbpa.process.TaskTrace;
+import com.hauldata.dbpa.task.Task;
 
 public abstract class DataTarget extends DataStore implements Target {
 
+	public static final String batchSizeChangedMessage = "Adaptive batch size changed to ";
+	public static final String batchSizeSettledMessage = "Adaptive batch size settled at ";
+
 	private Expression<Integer> batchSizeExpression;
 
 	private final int batchSizeMaxDefault = 1000;
 	private Integer batchSizeMax;
 	private int batchSize;
 
+	// Adaptive batch size state; see setAutoBatchSize().
+
+	private boolean autoBatchSize;
+	private Expression<Integer> batchLatencyExpression;
+	private AdaptiveBatchSize adaptive;
+	private Logger logger;
+	private String taskName;
+
+	// Chunked commit state; see setCommitEvery().
+
+	private Expression<Integer> commitEveryExpression;
+	private int commitEvery;
+	private int uncommittedRowCount;
+	private long committedRowCount;
+	private CommitListener commitListener;
+	private Boolean previousAutoCommit;
+
+	private BulkDialect.Load bulkLoad;
+	private Object[] bulkRow;
+
+	// Multi-row INSERT state.  Row values are buffered until there are enough
+	// to set the parameters of a statement that inserts multiRowCount rows.
+
+	private String multiRowHead;
+	private int multiRowCount;
+	private int multiRowColumnCount;
+	private Object[] multiRowValues;
+	private int pendingRowCount;
+
 	public DataTarget(DatabaseConnection connection, Expression<Integer> batchSizeExpression) {
 		super(connection);
 		this.batchSizeExpression = batchSizeExpression;
+		this.autoBatchSize = false;
+		this.batchLatencyExpression = null;
+		this.adaptive = null;
+		this.commitEveryExpression = null;
+		this.commitEvery = 0;
+		this.committedRowCount = 0;
+		this.commitListener = null;
+		this.bulkLoad = null;
+		this.bulkRow = null;
+		this.multiRowCount = 0;
+	}
+
+	/**
+	 * @return a new target that writes to the same destination as this target.
+	 * The new target acquires its own connection when its statement is prepared.
+	 */
+	public abstract DataTarget copy();
+
+	protected Expression<Integer> getBatchSizeExpression() {
+		return batchSizeExpression;
+	}
+
+	/**
+	 * Adapt the batch size to the time taken to execute each batch in place of a fixed batch size.
+	 * The size grows or shrinks toward the size that executes in the target latency, capped by
+	 * the estimated bytes in a batch.  Changes in the size are written to the log of the running task.
+	 *
+	 * @param batchLatencyExpression is the target latency in milliseconds, or null for the default
+	 * @see AdaptiveBatchSize
+	 */
+	public void setAutoBatchSize(Expression<Integer> batchLatencyExpression) {
+		this.autoBatchSize = true;
+		this.batchLatencyExpression = batchLatencyExpression;
+	}
+
+	/**
+	 * Listener notified each time a target that commits every so many rows commits
+	 */
+	public interface CommitListener {
+
+		/**
+		 * @param rowCount is the total number of rows committed, including those committed
+		 * in an earlier run as given to resumeAfter()
+		 */
+		void committed(long rowCount);
+	}
+
+	/**
+	 * Turn off auto-commit on the connection while rows are written and instead commit each
+	 * time the given number of rows have been added, and when the batch is executed after
+	 * the last row.  Rows not committed when the target is closed are rolled back.
+	 *
+	 * @param commitEveryExpression is the number of rows to commit at a time
+	 */
+	public void setCommitEvery(Expression<Integer> commitEveryExpression) {
+		this.commitEveryExpression = commitEveryExpression;
+	}
+
+	/**
+	 * @return true if this target commits every so many rows
+	 */
+	public boolean commitsEvery() {
+		return commitEveryExpression != null;
+	}
+
+	/**
+	 * Set the number of rows already committed by an earlier run whose rows are being resumed,
+	 * and the listener to notify of the total rows committed as they are committed.
+	 * Must be called before the statement is prepared.
+	 */
+	public void resumeAfter(long committedRowCount, CommitListener commitListener) {
+		this.committedRowCount = committedRowCount;
+		this.commitListener = commitListener;
+	}
+
+	/**
+	 * Give a copy of this target the batch size settings of this target not passed to its constructor
+	 *
+	 * @return the copy
+	 */
+	protected DataTarget copied(DataTarget copy) {
+		copy.autoBatchSize = autoBatchSize;
+		copy.batchLatencyExpression = batchLatencyExpression;
+		copy.commitEveryExpression = commitEveryExpression;
+		return copy;
+	}
+
+	/**
+	 * Set the number of rows at which a batch is executed as rows are added
+	 *
+	 * @param batchSizeMaxDefault is the batch size when none is specified, or null for unlimited
+	 */
+	private void startBatches(Context context, Integer batchSizeMaxDefault) throws SQLException {
+
+		if (commitEveryExpression != null) {
+			Integer commitEvery = commitEveryExpression.evaluate();
+			if ((commitEvery == null) || (commitEvery < 1)) {
+				throw new RuntimeException("Commit row count must be at least 1");
+			}
+
+			this.commitEvery = commitEvery;
+			uncommittedRowCount = 0;
+
+			previousAutoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+		}
+
+		if (autoBatchSize) {
+			Integer latency = (batchLatencyExpression != null) ? batchLatencyExpression.evaluate() : (Integer)AdaptiveBatchSize.defaultLatencyMillis;
+			if (latency == null) {
+				throw new RuntimeException("Batch latency must be at least 1 millisecond");
+			}
+
+			adaptive = new AdaptiveBatchSize(latency, AdaptiveBatchSize.defaultMaxBytes);
+			logger = context.logger;
+			taskName = Task.getRunningName();
+
+			setBatchSizeMax(adaptive.getSize());
+		}
+		else {
+			setBatchSizeMax((batchSizeExpression != null) ? batchSizeExpression.evaluate() : batchSizeMaxDefault);
+		}
+		batchSize = 0;
+	}
+
+	/**
+	 * Set the batch size, which with multi-row statements is rounded up to a whole number of statements
+	 */
+	private void setBatchSizeMax(Integer batchSizeMax) {
+		if ((batchSizeMax != null) && (multiRowCount > 1)) {
+			batchSizeMax = ((batchSizeMax + multiRowCount - 1) / multiRowCount) * multiRowCount;
+		}
+		this.batchSizeMax = batchSizeMax;
 	}
 
 	public abstract void prepareStatement(Context context, Columns columns) throws SQLException;
 
+	/**
+	 * Prepare the statement executed for each row.  A subclass that needs the connection
+	 * before preparing the statement may get it first, in which case it is used.
+	 */
 	protected void prepareStatement(Context context, String sql) throws SQLException {
 
-		getConnection(context);
+		if (conn == null) {
+			getConnection(context);
+		}
 
 		stmt = conn.prepareStatement(sql);
 
-		batchSizeMax = (batchSizeExpression != null) ? batchSizeExpression.evaluate() : batchSizeMaxDefault;
-		batchSize = 0;
+		startBatches(context, batchSizeMaxDefault);
+	}
+
+	/**
+	 * Prepare an INSERT statement that inserts multiple rows with a VALUES list in place of
+	 * a single-row statement.  Each time enough rows have been added, a statement for them is
+	 * added to the batch.  When the batch is executed, rows left over are inserted with a
+	 * statement prepared for just those rows.  A batch size is rounded up to a whole number
+	 * of statements.
+	 *
+	 * @param head is the statement up to and including the VALUES keyword
+	 * @param columnCount is the number of values in each row
+	 * @param rowCount is the requested number of rows per statement, which is reduced
+	 * if needed to stay within the limits of the database
+	 */
+	protected void prepareMultiRowStatement(Context context, String head, int columnCount, int rowCount) throws SQLException {
+
+		getConnection(context);
+
+		multiRowHead = head;
+		multiRowColumnCount = columnCount;
+		multiRowCount = Math.max(1, Math.min(rowCount, getMaxMultiRowCount(conn.getMetaData(), columnCount)));
+		multiRowValues = new Object[multiRowCount * columnCount];
+		pendingRowCount = 0;
+
+		stmt = conn.prepareStatement(getMultiRowStatement(multiRowCount));
+
+		startBatches(context, batchSizeMaxDefault);
+	}
+
+	private String getMultiRowStatement(int rowCount) {
+
+		StringBuilder row = new StringBuilder("(");
+		for (int i = 0; i < multiRowColumnCount; ++i) {
+			row.append((i > 0) ? "," : "").append("?");
+		}
+		row.append(")");
+
+		StringBuilder statement = new StringBuilder(multiRowHead);
+		for (int i = 0; i < rowCount; ++i) {
+			statement.append((i > 0) ? "," : "").append(row);
+		}
+		return statement.toString();
+	}
+
+	/**
+	 * @return the largest number of rows of the given width that a single INSERT statement
+	 * can insert on the database, limited by the number of parameters its driver accepts
+	 * in a statement and the number of rows it accepts in a VALUES list
+	 */
+	private static int getMaxMultiRowCount(DatabaseMetaData metaData, int columnCount) throws SQLException {
+
+		String product = metaData.getDatabaseProductName().toLowerCase();
+
+		int maxParameterCount;
+		int maxRowCount = Integer.MAX_VALUE;
+		if (product.contains("sql server")) {
+			maxParameterCount = 2099;
+			maxRowCount = 1000;
+		}
+		else if (product.contains("postgres") || product.contains("redshift")) {
+			maxParameterCount = 32767;
+		}
+		else if (product.contains("mysql") || product.contains("mariadb") || product.equals("h2")) {
+			maxParameterCount = 65535;
+		}
+		else {
+			maxParameterCount = 2000;
+		}
+
+		return Math.min(maxRowCount, maxParameterCount / Math.max(columnCount, 1));
+	}
+
+	private void setMultiRowParameters(PreparedStatement statement, int rowCount) throws SQLException {
+
+		int parameterCount = rowCount * multiRowColumnCount;
+		for (int i = 0; i < parameterCount; ++i) {
+			statement.setObject(i + 1, multiRowValues[i]);
+			multiRowValues[i] = null;
+		}
+	}
+
+	/**
+	 * Insert the rows left over from the last full multi-row statement with a statement for just those rows
+	 */
+	private void executePendingRows() throws SQLException, InterruptedException {
+
+		PreparedStatement partial = conn.prepareStatement(getMultiRowStatement(pendingRowCount));
+		Statement full = stmt;
+		try {
+			setMultiRowParameters(partial, pendingRowCount);
+			partial.addBatch();
+
+			stmt = partial;
+			super.executeBatch();
+		}
+		finally {
+			stmt = full;
+			pendingRowCount = 0;
+
+			try { partial.close(); } catch (Exception ex) {}
+		}
+	}
+
+	/**
+	 * Prepare to bulk load rows into a table through the bulk dialect of the database
+	 * in place of a prepared statement.  Rows are loaded when the batch is executed and,
+	 * if a batch size is given, each time that many rows have been added.
+	 *
+	 * @see BulkDialect#begin(java.sql.Connection, String, java.util.List, int)
+	 */
+	protected void prepareBulkLoad(Context context, String table, List<String> columnNames, int columnCount) throws SQLException {
+
+		getConnection(context);
+
+		stmt = conn.createStatement();
+
+		bulkLoad = BulkDialect.get(conn).begin(conn, table, columnNames, columnCount);
+		bulkRow = new Object[columnCount];
+
+		startBatches(context, null);
+	}
+
+	/**
+	 * @return the prepared statement whose parameters are set directly from each row, for use
+	 * by a TransferPlan, or null if rows are buffered or their values are examined as they are set
+	 */
+	PreparedStatement getDirectStatement() {
+		if ((bulkLoad != null) || (multiRowCount > 0) || (adaptive != null) || !(stmt instanceof PreparedStatement)) {
+			return null;
+		}
+		return (PreparedStatement)stmt;
 	}
 
 	public int getParameterCount() throws SQLException {
+		if (bulkLoad != null) {
+			return bulkRow.length;
+		}
+		else if (multiRowCount > 0) {
+			return multiRowColumnCount;
+		}
 		return ((PreparedStatement)stmt).getParameterMetaData().getParameterCount();
 	}
 
 	public int getParameterType(int parameterIndex) throws SQLException {
+		if (bulkLoad != null) {
+			return Types.OTHER;
+		}
 		return ((PreparedStatement)stmt).getParameterMetaData().getParameterType(parameterIndex);
 	}
 
 	public void setObject(int parameterIndex, Object x) throws SQLException {
+		if (adaptive != null) {
+			adaptive.addValue(x);
+		}
+
+		if (bulkLoad != null) {
+			bulkRow[parameterIndex - 1] = x;
+			return;
+		}
+		else if (multiRowCount > 0) {
+			multiRowValues[pendingRowCount * multiRowColumnCount + parameterIndex - 1] = x;
+			return;
+		}
 		((PreparedStatement)stmt).setObject(parameterIndex, x);
 	}
 
 	public void addBatch() throws SQLException, InterruptedException {
-		((PreparedStatement)stmt).addBatch();
+		if (bulkLoad != null) {
+			bulkLoad.addRow(bulkRow);
+			Arrays.fill(bulkRow, null);
+		}
+		else if (multiRowCount > 0) {
+			if (++pendingRowCount == multiRowCount) {
+				setMultiRowParameters((PreparedStatement)stmt, multiRowCount);
+				((PreparedStatement)stmt).addBatch();
+				pendingRowCount = 0;
+			}
+		}
+		else {
+			((PreparedStatement)stmt).addBatch();
+		}
+		TaskTrace.countRowWritten();
 
 		++batchSize;
-		if ((batchSizeMax != null) && (batchSizeMax <= batchSize)) {
+		if ((commitEvery > 0) && (commitEvery <= ++uncommittedRowCount)) {
 			executeBatch();
-			batchSize = 0;
 		}
+		else if ((batchSizeMax != null) && (batchSizeMax <= batchSize)) {
+			flushBatch();
+		}
+	}
+
+	/**
+	 * Execute the batch and, if committing every so many rows, commit the rows
+	 */
+	@Override
+	public int[] executeBatch() throws SQLException, InterruptedException {
+
+		int[] result = flushBatch();
+
+		batchExecuted();
+
+		if ((commitEvery > 0) && (uncommittedRowCount > 0)) {
+			conn.commit();
+
+			committedRowCount += uncommittedRowCount;
+			uncommittedRowCount = 0;
+
+			if (commitListener != null) {
+				commitListener.committed(committedRowCount);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Called when the batch is executed, after all rows added so far have been written
+	 * by the statement and before they are committed.  A subclass can override this
+	 * to complete the work on those rows.
+	 */
+	protected void batchExecuted() throws SQLException, InterruptedException {}
+
+	private int[] flushBatch() throws SQLException, InterruptedException {
+
+		long startNanos = System.nanoTime();
+
+		int[] result;
+		if (bulkLoad != null) {
+			bulkLoad.flush(this::executeUpdate);
+			result = new int[0];
+		}
+		else if ((multiRowCount > 0) && (pendingRowCount > 0)) {
+			result = super.executeBatch();
+			executePendingRows();
+		}
+		else {
+			result = super.executeBatch();
+		}
+
+		if ((adaptive != null) && adaptive.record(batchSize, System.nanoTime() - startNanos)) {
+			setBatchSizeMax(adaptive.getSize());
+			log(batchSizeChangedMessage + String.valueOf(batchSizeMax) + " rows after " +
+					String.valueOf(batchSize) + " rows of about " + String.valueOf(adaptive.getRowWidth()) + " bytes took " +
+					String.valueOf((System.nanoTime() - startNanos) / 1000000L) + " ms");
+		}
+		batchSize = 0;
+
+		return result;
+	}
+
+	/**
+	 * If committing every so many rows, roll back rows not committed and restore the auto-commit
+	 * mode of the connection.  Called when the target is closed, or earlier by a subclass that
+	 * has further statements to execute outside the transaction.
+	 */
+	protected void rollbackUncommitted() {
+
+		if (previousAutoCommit != null) {
+			try {
+				conn.rollback();
+				conn.setAutoCommit(previousAutoCommit);
+			}
+			catch (Exception ex) {}
+		}
+
+		previousAutoCommit = null;
+	}
+
+	private void log(String message) {
+		logger.info((taskName != null) ? taskName : "", message);
+	}
+
+	@Override
+	public void close(Context context) {
+
+		if (bulkLoad != null) {
+			bulkLoad.close();
+		}
+
+		bulkLoad = null;
+		bulkRow = null;
+
+		rollbackUncommitted();
+
+		commitEvery = 0;
+		uncommittedRowCount = 0;
+		committedRowCount = 0;
+		commitListener = null;
+
+		if ((adaptive != null) && (adaptive.getBatchCount() > 0)) {
+			log(batchSizeSettledMessage + String.valueOf(batchSizeMax) + " rows after " + String.valueOf(adaptive.getBatchCount()) + " batches");
+		}
+
+		adaptive = null;
+		logger = null;
+
+		multiRowCount = 0;
+		multiRowValues = null;
+		pendingRowCount = 0;
+
+		super.close(context);
 	}
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Bulk load into H2 with CSVREAD.
+ * <p>
+ * The H2 driver has no API for streaming rows to the database, so rows are spooled to a temporary
+ * CSV file as they are added and each flush inserts the file contents with a single
+ * <code>INSERT ... SELECT * FROM CSVREAD(...)</code> statement.  The database must be able to read
+ * the temporary file, so this works with embedded databases and servers on the local machine.
+ */
+public class H2BulkDialect extends BulkDialect {
+
+	@Override
+	public boolean supports(DatabaseMetaData metaData) throws SQLException {
+		return metaData.getDatabaseProductName().equalsIgnoreCase("H2");
+	}
+
+	@Override
+	public Load begin(Connection conn, String table, List<String> columnNames, int columnCount) throws SQLException {
+		return new H2Load(table, columnNames, columnCount);
+	}
+
+	private static class H2Load implements Load {
+
+		private String insert;
+		private String csvColumnNames;
+
+		private Path path;
+		private Writer writer;
+		private long rowCount;
+
+		H2Load(String table, List<String> columnNames, int columnCount) {
+
+			StringBuilder insert = new StringBuilder();
+			insert.append("INSERT INTO ").append(table).append(" ");
+			if (columnNames != null) {
+				insert.append("(").append(String.join(", ", columnNames)).append(") ");
+			}
+			this.insert = insert.toString();
+
+			StringBuilder csvColumnNames = new StringBuilder();
+			for (int i = 1; i <= columnCount; ++i) {
+				csvColumnNames.append((i > 1) ? "," : "").append("C").append(i);
+			}
+			this.csvColumnNames = csvColumnNames.toString();
+
+			path = null;
+			writer = null;
+			rowCount = 0;
+		}
+
+		@Override
+		public void addRow(Object[] values) throws SQLException {
+
+			try {
+				if (writer == null) {
+					path = Files.createTempFile("dbpa-bulk-", ".csv");
+					writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+				}
+
+				for (int i = 0; i < values.length; ++i) {
+					if (i > 0) {
+						writer.write(',');
+					}
+					writeValue(values[i]);
+				}
+				writer.write('\n');
+			}
+			catch (IOException ex) {
+				throw new SQLException("Error writing bulk load file: " + ex.getMessage(), ex);
+			}
+
+			++rowCount;
+		}
+
+		/**
+		 * Write a value in a form that CSVREAD reads back and H2 converts to the column type.
+		 * NULL is written as an empty unquoted field; all other values are quoted.
+		 */
+		private void writeValue(Object value) throws IOException {
+
+			if (value == null) {
+				return;
+			}
+
+			String text;
+			if (value instanceof Boolean) {
+				text = ((Boolean)value) ? "TRUE" : "FALSE";
+			}
+			else if (value instanceof Date) {
+				text = (value instanceof java.sql.Date || value instanceof java.sql.Time || value instanceof Timestamp) ?
+						value.toString() : new Timestamp(((Date)value).getTime()).toString();
+			}
+			else if (value instanceof LocalDateTime) {
+				text = Timestamp.valueOf((LocalDateTime)value).toString();
+			}
+			else if (value instanceof BigDecimal) {
+				text = ((BigDecimal)value).toPlainString();
+			}
+			else if (value instanceof byte[]) {
+				StringBuilder hex = new StringBuilder();
+				for (byte b : (byte[])value) {
+					hex.append(String.format("%02x", b));
+				}
+				text = hex.toString();
+			}
+			else {
+				text = value.toString();
+			}
+
+			writer.write('"');
+			writer.write(text.replace("\"", "\"\""));
+			writer.write('"');
+		}
+
+		@Override
+		public void flush(StatementRunner runner) throws SQLException, InterruptedException {
+
+			if (rowCount == 0) {
+				return;
+			}
+
+			try {
+				writer.close();
+				writer = null;
+
+				String file = path.toAbsolutePath().toString().replace("'", "''");
+				runner.executeUpdate(insert + "SELECT * FROM CSVREAD('" + file + "', '" + csvColumnNames + "', 'charset=UTF-8')");
+			}
+			catch (IOException ex) {
+				throw new SQLException("Error writing bulk load file: " + ex.getMessage(), ex);
+			}
+			finally {
+				close();
+			}
+		}
+
+		@Override
+		public void close() {
+
+			if (writer != null) try { writer.close(); } catch (Exception ex) {}
+			if (path != null) try { Files.deleteIfExists(path); } catch (Exception ex) {}
+
+			writer = null;
+			path = null;
+			rowCount = 0;
+		}
+	}
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.hauldata.dbpa.connection.DatabaseConnection;
+import com.hauldata.dbpa.expression.Expression;
+import com.hauldata.dbpa.file.Columns;
+import com.hauldata.dbpa.process.Context;
+
+/**
+ * Target that upserts rows into a table keyed on declared columns.
+ * <p>
+ * Rows are inserted in batches into a staging table with the same columns as the target table,
+ * created on the target connection when the statement is prepared and dropped when the target
+ * is closed.  The staging table is a temporary table on databases where the merge statements
+ * can use one; see createStageStatement().  Each time the batch is executed, the staged rows are merged into the target table
+ * with a single MERGE statement, or on databases without MERGE, with an UPDATE of the matching
+ * rows followed by an INSERT of the rest, and the staging table is emptied.  Staged rows must be
+ * unique on the key columns.
+ */
+public class MergeDataTarget extends DataTarget {
+
+	Expression<String> table;
+	List<Expression<String>> keys;
+	Expression<String> delimiter;
+
+	private Statement setStatement;
+	private String product;
+	private String stage;
+	private List<String> mergeStatements;
+	private long stagedRowCount;
+
+	public MergeDataTarget(
+			DatabaseConnection connection,
+			Expression<Integer> batchSize,
+			Expression<String> table,
+			List<Expression<String>> keys,
+			Expression<String> delimiter) {
+
+		super(connection, batchSize);
+		this.table = table;
+		this.keys = keys;
+		this.delimiter = delimiter;
+	}
+
+	@Override
+	public DataTarget copy() {
+		return copied(new MergeDataTarget(connection, getBatchSizeExpression(), table, keys, delimiter));
+	}
+
+	@Override
+	public void prepareStatement(Context context, Columns columns) throws SQLException {
+
+		String table = this.table.evaluate();
+		String delimiter = (this.delimiter != null) ? this.delimiter.evaluate() : "";
+
+		if (!columns.toMetadata()) {
+			throw new RuntimeException("Column names are required for MERGE data target");
+		}
+
+		List<String> columnNames = new ArrayList<String>();
+		for (String caption : columns.getCaptions()) {
+			if (caption.length() == 0) {
+				throw new RuntimeException("File has a blank column header - not allowed when headers are not explicitly provided");
+			}
+			columnNames.add(caption);
+		}
+
+		List<String> keyNames = new ArrayList<String>();
+		for (Expression<String> key : keys) {
+			String keyName = key.evaluate();
+			String columnName = find(columnNames, keyName);
+			if (columnName == null) {
+				throw new RuntimeException("MERGE key is not one of the columns: " + String.valueOf(keyName));
+			}
+			keyNames.add(columnName);
+		}
+
+		getConnection(context);
+
+		DatabaseMetaData metaData = conn.getMetaData();
+		product = metaData.getDatabaseProductName().toLowerCase();
+		boolean isSqlServer = product.contains("sql server");
+
+		stage = (isSqlServer ? "#" : "") + "dbpa_stage_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+
+		String columnList = list(columnNames, delimiter, null);
+
+		setStatement = conn.createStatement();
+		try {
+			executeSetStatement(createStageStatement(product, stage, table, columnList));
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Creating staging table terminated due to interruption");
+		}
+
+		mergeStatements = usesMerge(metaData) ?
+				getMergeStatements(table, stage, columnNames, keyNames, delimiter, isSqlServer) :
+				getUpdateInsertStatements(table, stage, columnNames, keyNames, delimiter);
+
+		StringBuilder parameters = new StringBuilder();
+		for (int i = 0; i < columnNames.size(); ++i) {
+			parameters.append((i > 0) ? "," : "").append("?");
+		}
+
+		prepareStatement(context, "INSERT INTO " + stage + " (" + columnList + ") VALUES (" + parameters + ")");
+
+		stagedRowCount = 0;
+	}
+
+	private static String find(List<String> names, String name) {
+		for (String candidate : names) {
+			if (candidate.equalsIgnoreCase(name)) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the statement that creates an empty staging table with the given columns of the target table.
+	 * <p>
+	 * The staging table is a temporary table on SQL Server, H2, PostgreSQL and Oracle, so that its rows are
+	 * private to the connection and are not logged as those of a permanent table are.  On Oracle, this is
+	 * a global temporary table whose rows are kept across commits.  Other databases get a permanent table:
+	 * MySQL does not allow a temporary table to be named more than once in a statement, as the UPDATE
+	 * of getUpdateInsertStatements() does, and a DB2 temporary table requires a user temporary tablespace.
+	 *
+	 * @param product is the lower-case database product name
+	 */
+	static String createStageStatement(String product, String stage, String table, String columnList) {
+
+		String select = "SELECT " + columnList + " FROM " + table + " WHERE 1 = 0";
+
+		if (product.contains("sql server")) {
+			// The # prefix of the name makes the table temporary.
+			return "SELECT " + columnList + " INTO " + stage + " FROM " + table + " WHERE 1 = 0";
+		}
+		else if (product.equals("h2")) {
+			return "CREATE LOCAL TEMPORARY TABLE " + stage + " AS " + select;
+		}
+		else if (product.contains("postgres")) {
+			return "CREATE TEMPORARY TABLE " + stage + " AS " + select;
+		}
+		else if (product.contains("oracle")) {
+			return "CREATE GLOBAL TEMPORARY TABLE " + stage + " ON COMMIT PRESERVE ROWS AS " + select;
+		}
+		else if (product.contains("db2")) {
+			return "CREATE TABLE " + stage + " AS (" + select + ") WITH NO DATA";
+		}
+		else {
+			return "CREATE TABLE " + stage + " AS " + select;
+		}
+	}
+
+	/**
+	 * @return the statements that drop the staging table
+	 */
+	static List<String> getDropStageStatements(String product, String stage) {
+
+		List<String> statements = new ArrayList<String>();
+		if (product.contains("oracle")) {
+			// Oracle does not drop a global temporary table that holds rows of the session.
+			statements.add("TRUNCATE TABLE " + stage);
+		}
+		statements.add("DROP TABLE " + stage);
+		return statements;
+	}
+
+	/**
+	 * @return true if the database supports the standard MERGE statement
+	 */
+	static boolean usesMerge(DatabaseMetaData metaData) throws SQLException {
+
+		String product = metaData.getDatabaseProductName().toLowerCase();
+		if (product.contains("sql server") || product.contains("oracle") || product.contains("db2") || product.equals("h2")) {
+			return true;
+		}
+		else if (product.contains("postgres")) {
+			return 15 <= metaData.getDatabaseMajorVersion();
+		}
+		else {
+			return false;
+		}
+	}
+
+	/**
+	 * @return a comma-separated list of delimited column names, each qualified by alias if not null
+	 */
+	private static String list(List<String> names, String delimiter, String alias) {
+		StringBuilder list = new StringBuilder();
+		for (String name : names) {
+			list.append((list.length() > 0) ? ", " : "");
+			if (alias != null) {
+				list.append(alias).append(".");
+			}
+			list.append(delimiter).append(name).append(delimiter);
+		}
+		return list.toString();
+	}
+
+	private static String keysMatch(List<String> keyNames, String delimiter) {
+		StringBuilder condition = new StringBuilder();
+		for (String key : keyNames) {
+			condition.append((condition.length() > 0) ? " AND " : "");
+			condition.append("t.").append(delimiter).append(key).append(delimiter);
+			condition.append(" = s.").append(delimiter).append(key).append(delimiter);
+		}
+		return condition.toString();
+	}
+
+	private static List<String> nonKeys(List<String> columnNames, List<String> keyNames) {
+		List<String> nonKeys = new ArrayList<String>(columnNames);
+		nonKeys.removeAll(keyNames);
+		return nonKeys;
+	}
+
+	static List<String> getMergeStatements(String table, String stage, List<String> columnNames, List<String> keyNames, String delimiter, boolean terminate) {
+
+		StringBuilder merge = new StringBuilder();
+		merge.append("MERGE INTO ").append(table).append(" t USING ").append(stage).append(" s ON (").append(keysMatch(keyNames, delimiter)).append(")");
+
+		List<String> nonKeys = nonKeys(columnNames, keyNames);
+		if (!nonKeys.isEmpty()) {
+			merge.append(" WHEN MATCHED THEN UPDATE SET ");
+			String separator = "";
+			for (String column : nonKeys) {
+				merge.append(separator).append(delimiter).append(column).append(delimiter).append(" = s.").append(delimiter).append(column).append(delimiter);
+				separator = ", ";
+			}
+		}
+
+		merge.append(" WHEN NOT MATCHED THEN INSERT (").append(list(columnNames, delimiter, null)).append(") VALUES (").append(list(columnNames, delimiter, "s")).append(")");
+
+		if (terminate) {
+			// SQL Server requires MERGE to be terminated.
+			merge.append(";");
+		}
+
+		List<String> statements = new ArrayList<String>();
+		statements.add(merge.toString());
+		return statements;
+	}
+
+	static List<String> getUpdateInsertStatements(String table, String stage, List<String> columnNames, List<String> keyNames, String delimiter) {
+
+		List<String> statements = new ArrayList<String>();
+
+		String match = "SELECT 1 FROM " + stage + " s WHERE " + keysMatch(keyNames, delimiter);
+
+		List<String> nonKeys = nonKeys(columnNames, keyNames);
+		if (!nonKeys.isEmpty()) {
+			StringBuilder update = new StringBuilder();
+			update.append("UPDATE ").append(table).append(" t SET ");
+			String separator = "";
+			for (String column : nonKeys) {
+				String name = delimiter + column + delimiter;
+				update.append(separator).append(name).append(" = (SELECT s.").append(name).append(" FROM ").append(stage).append(" s WHERE ").append(keysMatch(keyNames, delimiter)).append(")");
+				separator = ", ";
+			}
+			update.append(" WHERE EXISTS (").append(match).append(")");
+			statements.add(update.toString());
+		}
+
+		StringBuilder insert = new StringBuilder();
+		insert.append("INSERT INTO ").append(table).append(" (").append(list(columnNames, delimiter, null)).append(") ");
+		insert.append("SELECT ").append(list(columnNames, delimiter, "s")).append(" FROM ").append(stage).append(" s ");
+		insert.append("WHERE NOT EXISTS (SELECT 1 FROM ").append(table).append(" t WHERE ").append(keysMatch(keyNames, delimiter)).append(")");
+		statements.add(insert.toString());
+
+		return statements;
+	}
+
+	@Override
+	public void addBatch() throws SQLException, InterruptedException {
+		// Count first, as adding the row may execute the batch.
+		++stagedRowCount;
+		super.addBatch();
+	}
+
+	/**
+	 * Merge the staged rows into the target table and empty the staging table
+	 */
+	@Override
+	protected void batchExecuted() throws SQLException, InterruptedException {
+
+		if (stagedRowCount == 0) {
+			return;
+		}
+
+		for (String statement : mergeStatements) {
+			executeSetStatement(statement);
+		}
+		executeSetStatement("DELETE FROM " + stage);
+
+		stagedRowCount = 0;
+	}
+
+	/**
+	 * Execute a statement other than the prepared statement that inserts rows into the staging table
+	 */
+	private int executeSetStatement(String sql) throws SQLException, InterruptedException {
+
+		Statement prepared = stmt;
+		stmt = setStatement;
+		try {
+			return executeUpdate(sql);
+		}
+		finally {
+			stmt = prepared;
+		}
+	}
+
+	@Override
+	public void close(Context context) {
+
+		// Drop the staging table outside any transaction in progress, so that the drop is not rolled back.
+
+		rollbackUncommitted();
+
+		if (setStatement != null) {
+			for (String statement : getDropStageStatements(product, stage)) {
+				try { executeSetStatement(statement); } catch (Exception ex) {}
+			}
+			closeStatement(setStatement);
+		}
+
+		setStatement = null;
+		product = null;
+		stage = null;
+		mergeStatements = null;
+
+		super.close(context);
+	}
+}
@@ -25,7 +25,7 @@ import com.hauldata.dbpa.connection.DatabaseConnection;
 import com.hauldata.dbpa.expression.ExpressionBase;
 import com.hauldata.dbpa.process.Context;
 
-public class ParameterizedStatementDataSource extends DataSource {
+public class ParameterizedStatementDataSource extends DataSource implements PartitionableSource {
 
 	private List<ExpressionBase> expressions;
 	private String statement;
@@ -44,7 +44,7 @@ public class ParameterizedStatementDataSource extends DataSource {
 	@Override
 	public void executeUpdate(Context context) throws SQLException, InterruptedException {
 
-		prepareStatement(context);
+		prepareStatement(context, statement);
 
 		executePreparedUpdate();
 	}
@@ -52,12 +52,22 @@ public class ParameterizedStatementDataSource extends DataSource {
 	@Override
 	public void executeQuery(Context context) throws SQLException, InterruptedException {
 
-		prepareStatement(context);
+		prepareStatement(context, restricted(statement));
 
 		rs = executePreparedQuery();
 	}
 
-	private void prepareStatement(Context context) throws SQLException {
+	@Override
+	public DataSource partition(String predicate) {
+		return partitionOf(new ParameterizedStatementDataSource(connection, expressions, statement, false), predicate);
+	}
+
+	@Override
+	public long countRows(Context context) throws SQLException, InterruptedException {
+		return countRows(context, partitionOf(new ParameterizedStatementDataSource(connection, expressions, statement, false), null));
+	}
+
+	private void prepareStatement(Context context, String statement) throws SQLException {
 
 		getConnection(context);
 
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.sql.SQLException;
+
+import com.hauldata.dbpa.process.Context;
+
+/**
+ * Database query source whose rows can be split into partitions that are read separately
+ */
+public interface PartitionableSource extends Source {
+
+	/**
+	 * @return a new source for the rows of the query of this source that satisfy the predicate.
+	 * The new source acquires its own connection when its query is executed.
+	 */
+	DataSource partition(String predicate);
+
+	/**
+	 * Count the rows returned by the query of this source, on a separate connection.
+	 */
+	long countRows(Context context) throws SQLException, InterruptedException;
+}
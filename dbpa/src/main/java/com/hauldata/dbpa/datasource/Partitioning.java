@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.hauldata.dbpa.expression.Expression;
+
+/**
+ * Division of the rows of a query into partitions, each selected by an SQL predicate.
+ * <p>
+ * Modulo and range partitioning place every row of the query in exactly one partition, including
+ * rows where the partitioning column is NULL, which fall in the first partition.
+ */
+public abstract class Partitioning {
+
+	/**
+	 * Evaluate the predicates that select the partitions
+	 *
+	 * @return the predicates, one per partition
+	 */
+	public abstract List<String> evaluate();
+
+	private static int evaluateCount(Expression<Integer> count) {
+
+		Integer result = count.evaluate();
+		if ((result == null) || (result < 1)) {
+			throw new RuntimeException("Partition count must be at least 1");
+		}
+		return result;
+	}
+
+	private static String evaluateColumn(Expression<String> column) {
+
+		String result = column.evaluate();
+		if ((result == null) || result.trim().isEmpty()) {
+			throw new RuntimeException("Partition column name is blank");
+		}
+		return result;
+	}
+
+	/**
+	 * Partitioning by the remainder of an integer column divided by the partition count
+	 */
+	public static class Modulo extends Partitioning {
+
+		private Expression<String> column;
+		private Expression<Integer> count;
+
+		public Modulo(Expression<String> column, Expression<Integer> count) {
+			this.column = column;
+			this.count = count;
+		}
+
+		@Override
+		public List<String> evaluate() {
+
+			String column = evaluateColumn(this.column);
+			int count = evaluateCount(this.count);
+
+			// The remainder of a negative value is negative on most database systems,
+			// so its absolute value selects the partition.
+
+			List<String> predicates = new ArrayList<String>();
+			for (int i = 0; i < count; ++i) {
+				String predicate = "ABS(" + column + " % " + String.valueOf(count) + ") = " + String.valueOf(i);
+				if (i == 0) {
+					predicate = predicate + " OR " + column + " IS NULL";
+				}
+				predicates.add(predicate);
+			}
+			return predicates;
+		}
+	}
+
+	/**
+	 * Partitioning by equal ranges of the values of an integer column between a low and high value.
+	 * Values below the low value fall in the first partition and values above the high value
+	 * fall in the last.
+	 */
+	public static class Range extends Partitioning {
+
+		private Expression<String> column;
+		private Expression<Integer> low;
+		private Expression<Integer> high;
+		private Expression<Integer> count;
+
+		public Range(Expression<String> column, Expression<Integer> low, Expression<Integer> high, Expression<Integer> count) {
+			this.column = column;
+			this.low = low;
+			this.high = high;
+			this.count = count;
+		}
+
+		@Override
+		public List<String> evaluate() {
+
+			String column = evaluateColumn(this.column);
+			Integer low = this.low.evaluate();
+			Integer high = this.high.evaluate();
+			int count = evaluateCount(this.count);
+
+			if ((low == null) || (high == null) || (high < low)) {
+				throw new RuntimeException("Partition range high value must not be less than the low value");
+			}
+
+			long width = ((long)high - (long)low + count) / count;
+
+			List<String> predicates = new ArrayList<String>();
+			for (int i = 0; i < count; ++i) {
+				String lowerBound = column + " >= " + String.valueOf(low + i * width);
+				String upperBound = column + " < " + String.valueOf(low + (i + 1) * width);
+
+				String predicate;
+				if (count == 1) {
+					predicate = "1 = 1";
+				}
+				else if (i == 0) {
+					predicate = upperBound + " OR " + column + " IS NULL";
+				}
+				else if (i == count - 1) {
+					predicate = lowerBound;
+				}
+				else {
+					predicate = lowerBound + " AND " + upperBound;
+				}
+				predicates.add(predicate);
+			}
+			return predicates;
+		}
+	}
+
+	/**
+	 * Partitioning by a list of predicates supplied by the user.  The predicates are used as given
+	 * and are expected to select each row in exactly one partition.
+	 */
+	public static class Predicates extends Partitioning {
+
+		private List<Expression<String>> predicates;
+
+		public Predicates(List<Expression<String>> predicates) {
+			this.predicates = predicates;
+		}
+
+		@Override
+		public List<String> evaluate() {
+
+			List<String> result = new ArrayList<String>();
+			for (Expression<String> predicate : predicates) {
+				String evaluated = predicate.evaluate();
+				if ((evaluated == null) || evaluated.trim().isEmpty()) {
+					throw new RuntimeException("Partition predicate is blank");
+				}
+				result.add(evaluated);
+			}
+			return result;
+		}
+	}
+}
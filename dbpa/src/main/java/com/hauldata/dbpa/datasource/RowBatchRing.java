@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded ring of row batches passed from a single producer thread to a single consumer thread.
+ * <p>
+ * The batches and their row arrays are allocated once and reused as they go around the ring,
+ * so rows are passed without allocation.  The producer claims the next free batch, fills it
+ * and publishes it; the consumer takes the next published batch, drains it and releases it.
+ * When all batches are full or being drained, the producer waits, so a slow consumer
+ * holds back the producer.
+ * <p>
+ * Either side may end the exchange early.  The producer reports its failure with
+ * {@link #fail(Exception)}, which the consumer sees as the exception thrown from {@link #take()}
+ * once the batches published before it are drained.  The consumer abandons the exchange with
+ * {@link #abort()}, after which {@link #claim()} returns null so that the producer stops.
+ */
+public class RowBatchRing {
+
+	/**
+	 * Batch of rows; the first <code>size</code> rows are valid
+	 */
+	public static class Batch {
+
+		public final Object[][] rows;
+		public int size;
+
+		Batch(int rowCount, int columnCount) {
+			rows = new Object[rowCount][columnCount];
+			size = 0;
+		}
+
+		public boolean isFull() {
+			return size == rows.length;
+		}
+	}
+
+	private Batch[] batches;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notFull = lock.newCondition();
+	private final Condition notEmpty = lock.newCondition();
+
+	// Batches are filled at index published and taken at index head.  Batches from head
+	// up to published are waiting to be drained or are being drained; the batch at head
+	// is free again when the consumer releases it.
+
+	private long head = 0;
+	private long published = 0;
+	private boolean taken = false;
+
+	private boolean finished = false;
+	private boolean aborted = false;
+	private Exception failure = null;
+
+	/**
+	 * Construct the ring
+	 *
+	 * @param batchCount is the number of batches in the ring
+	 * @param rowCount is the maximum number of rows in a batch
+	 * @param columnCount is the number of columns in a row
+	 */
+	public RowBatchRing(int batchCount, int rowCount, int columnCount) {
+
+		if ((batchCount < 2) || (rowCount < 1)) {
+			throw new IllegalArgumentException("A row batch ring must have at least two batches of at least one row");
+		}
+
+		batches = new Batch[batchCount];
+		for (int i = 0; i < batchCount; ++i) {
+			batches[i] = new Batch(rowCount, columnCount);
+		}
+	}
+
+	private Batch at(long index) {
+		return batches[(int)(index % batches.length)];
+	}
+
+	// Producer side
+
+	/**
+	 * Claim the next free batch to fill, waiting until one is free
+	 *
+	 * @return the empty batch, or null if the consumer has aborted
+	 * @throws InterruptedException if this thread is interrupted while waiting
+	 */
+	public Batch claim() throws InterruptedException {
+
+		lock.lockInterruptibly();
+		try {
+			while (!aborted && (published - head == batches.length)) {
+				notFull.await();
+			}
+			if (aborted) {
+				return null;
+			}
+			Batch batch = at(published);
+			batch.size = 0;
+			return batch;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Publish the batch most recently claimed so that the consumer can take it
+	 */
+	public void publish() {
+
+		lock.lock();
+		try {
+			++published;
+			notEmpty.signal();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Signal that no more batches will be published
+	 */
+	public void finish() {
+
+		lock.lock();
+		try {
+			finished = true;
+			notEmpty.signal();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Signal that the producer failed; no more batches will be published
+	 */
+	public void fail(Exception ex) {
+
+		lock.lock();
+		try {
+			failure = ex;
+			finished = true;
+			notEmpty.signal();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	// Consumer side
+
+	/**
+	 * Take the next published batch, waiting until one is published.
+	 * The batch must be released before the next one is taken.
+	 *
+	 * @return the batch, or null if the producer finished and all batches have been taken
+	 * @throws InterruptedException if this thread is interrupted while waiting
+	 * @throws Exception the exception reported by the producer if it failed
+	 */
+	public Batch take() throws Exception {
+
+		lock.lockInterruptibly();
+		try {
+			while ((head == published) && !finished) {
+				notEmpty.await();
+			}
+			if (head == published) {
+				if (failure != null) {
+					throw failure;
+				}
+				return null;
+			}
+			taken = true;
+			return at(head);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Release the batch most recently taken so that the producer can reuse it
+	 */
+	public void release() {
+
+		lock.lock();
+		try {
+			if (taken) {
+				++head;
+				taken = false;
+				notFull.signal();
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Abandon the exchange so that the producer stops
+	 */
+	public void abort() {
+
+		lock.lock();
+		try {
+			aborted = true;
+			notFull.signal();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+}
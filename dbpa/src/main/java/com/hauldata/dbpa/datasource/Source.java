@@ -17,6 +17,7 @@
 package com.hauldata.dbpa.datasource;
 
 import java.sql.SQLException;
+import java.sql.Types;
 
 import com.hauldata.dbpa.process.Context;
 
@@ -30,6 +31,13 @@ public interface Source {
 
 	String getColumnLabel(int column) throws SQLException;
 
+	/**
+	 * @return the SQL type of a column from java.sql.Types, or Types.OTHER if it is not known
+	 */
+	default int getColumnType(int column) throws SQLException {
+		return Types.OTHER;
+	}
+
 	boolean next() throws SQLException, InterruptedException;
 
 	Object getObject(int columnIndex) throws SQLException;
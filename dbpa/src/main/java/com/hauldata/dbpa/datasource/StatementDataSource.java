@@ -23,7 +23,7 @@ import com.hauldata.dbpa.connection.DatabaseConnection;
 import com.hauldata.dbpa.expression.Expression;
 import com.hauldata.dbpa.process.Context;
 
-public class StatementDataSource extends DataSource {
+public class StatementDataSource extends DataSource implements PartitionableSource {
 
 	private Expression<String> statement;
 
@@ -49,7 +49,17 @@ public class StatementDataSource extends DataSource {
 
 		String evaluatedStatement = evaluateStatement(context);
 
-		rs = executeQuery(evaluatedStatement);
+		rs = executeQuery(restricted(evaluatedStatement));
+	}
+
+	@Override
+	public DataSource partition(String predicate) {
+		return partitionOf(new StatementDataSource(connection, statement, false), predicate);
+	}
+
+	@Override
+	public long countRows(Context context) throws SQLException, InterruptedException {
+		return countRows(context, partitionOf(new StatementDataSource(connection, statement, false), null));
 	}
 
 	private String evaluateStatement(Context context) throws SQLException {
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.hauldata.dbpa.process.TaskThreads;
+
+/**
+ * Runner of database statements that cancels a statement when the thread waiting for it is interrupted.
+ * <p>
+ * A JDBC call generally does not respond to an interrupt of the thread that makes it, and some
+ * drivers, such as H2 on an NIO file channel, lose the connection if that thread is interrupted
+ * during the call.  So each call runs on a separate thread that is never interrupted, taken from
+ * a pool shared by the JVM so that no thread is created per call.  The calling thread waits for
+ * the call.  If the calling thread is interrupted, the statement is cancelled and the calling thread
+ * still waits a few seconds for the call to finish, so that the statement is not reused or closed while
+ * it runs.  A call that has not finished by then is abandoned: its owner stops using the statement and
+ * the statement is closed on the pooled thread when the call finally returns.
+ * <p>
+ * A call is cancelled only while it is running.  Cancelling and finishing are serialized, so a
+ * cancellation that arrives after the call has finished never reaches a later use of the statement.
+ */
+class StatementRunner {
+
+	private static final ExecutorService pool = TaskThreads.newExecutor(new StatementThreadFactory());
+
+	/**
+	 * Milliseconds to wait for a call to finish after it is cancelled before abandoning it
+	 */
+	static final long cancelWaitMillis = 5000L;
+
+	/**
+	 * Statement call that can be cancelled from another thread, e.g., by Statement.cancel()
+	 */
+	interface Call extends Runnable {
+		void cancel() throws SQLException;
+
+		/**
+		 * Stop using the statement of a call that did not finish after it was cancelled.
+		 * Called on the waiting thread.
+		 */
+		void abandon();
+
+		/**
+		 * Close the statement of an abandoned call.  Called on the pooled thread when the call returns.
+		 */
+		void close();
+	}
+
+	private static class StatementThreadFactory implements ThreadFactory {
+
+		private AtomicInteger threadNumber = new AtomicInteger(1);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			// Daemon threads so that idle pool threads do not hold up JVM exit.
+			Thread thread = new Thread(r, "dbpa-statement-" + String.valueOf(threadNumber.getAndIncrement()));
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	/**
+	 * Run a call on a pooled thread and wait for it to finish.
+	 *
+	 * @throws InterruptedException if the current thread was interrupted while waiting, in which
+	 * case the call was cancelled if it was running or was never run if it had not yet started
+	 */
+	static void run(Call call) throws InterruptedException {
+		run(call, cancelWaitMillis);
+	}
+
+	/**
+	 * Run a call on a pooled thread and wait for it to finish, abandoning it if it does not finish
+	 * within the indicated time after it is cancelled.
+	 */
+	static void run(Call call, long cancelWaitMillis) throws InterruptedException {
+
+		Execution execution = new Execution(call);
+		pool.execute(execution);
+
+		try {
+			execution.await();
+		}
+		catch (InterruptedException ex) {
+			execution.cancel();
+			if (!execution.awaitOrAbandon(cancelWaitMillis)) {
+				call.abandon();
+			}
+			throw ex;
+		}
+	}
+
+	/**
+	 * State of a single call
+	 */
+	private static class Execution implements Runnable {
+
+		private enum State { pending, running, cancelled, done };
+
+		private Call call;
+		private State state;
+		private boolean abandoned;
+
+		Execution(Call call) {
+			this.call = call;
+			this.state = State.pending;
+			this.abandoned = false;
+		}
+
+		@Override
+		public void run() {
+
+			synchronized (this) {
+				if (state == State.cancelled) {
+					state = State.done;
+					notifyAll();
+					return;
+				}
+				state = State.running;
+			}
+
+			boolean wasAbandoned;
+			try {
+				call.run();
+			}
+			finally {
+				// Blocks while a cancellation is in progress.
+				synchronized (this) {
+					state = State.done;
+					notifyAll();
+					wasAbandoned = abandoned;
+				}
+			}
+
+			if (wasAbandoned) {
+				call.close();
+			}
+		}
+
+		/**
+		 * Cancel the call if it is running or prevent it from running if it has not started
+		 */
+		synchronized void cancel() {
+			if (state == State.running) {
+				try { call.cancel(); } catch (Exception ex) {}
+			}
+			else if (state == State.pending) {
+				state = State.cancelled;
+			}
+		}
+
+		synchronized void await() throws InterruptedException {
+			while (state != State.done) {
+				wait();
+			}
+		}
+
+		/**
+		 * Wait up to the indicated time for the call to finish without responding to interrupts.
+		 * If it has not finished by then, abandon it so that it is closed when it returns.
+		 *
+		 * @return true if the call finished or false if it was abandoned
+		 */
+		synchronized boolean awaitOrAbandon(long millis) {
+			boolean interrupted = false;
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+			long remaining;
+			while ((state != State.done) && ((remaining = deadline - System.nanoTime()) > 0)) {
+				try {
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+				catch (InterruptedException ex) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (state != State.done) {
+				abandoned = true;
+			}
+			return !abandoned;
+		}
+	}
+}
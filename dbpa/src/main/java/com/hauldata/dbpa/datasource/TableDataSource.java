@@ -23,7 +23,7 @@ import com.hauldata.dbpa.connection.DatabaseConnection;
 import com.hauldata.dbpa.expression.Expression;
 import com.hauldata.dbpa.process.Context;
 
-public class TableDataSource extends DataSource {
+public class TableDataSource extends DataSource implements PartitionableSource {
 
 	private Expression<String> table;
 
@@ -50,6 +50,16 @@ public class TableDataSource extends DataSource {
 
 		stmt = conn.createStatement(getResultSetType(), ResultSet.CONCUR_READ_ONLY);
 
-		rs = executeQuery(statement);
+		rs = executeQuery(restricted(statement));
+	}
+
+	@Override
+	public DataSource partition(String predicate) {
+		return partitionOf(new TableDataSource(connection, table, false), predicate);
+	}
+
+	@Override
+	public long countRows(Context context) throws SQLException, InterruptedException {
+		return countRows(context, partitionOf(new TableDataSource(connection, table, false), null));
 	}
 }
@@ -17,6 +17,9 @@
 package com.hauldata.dbpa.datasource;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
 import com.hauldata.dbpa.connection.DatabaseConnection;
 import com.hauldata.dbpa.expression.Expression;
 import com.hauldata.dbpa.file.Columns;
@@ -27,6 +30,8 @@ public class TableDataTarget extends DataTarget {
 	Expression<String> table;
 	Expression<String> delimiter;
 	Expression<String> prefix;
+	Expression<Integer> multiRow;
+	boolean bulk;
 
 	public TableDataTarget(
 			DatabaseConnection connection,
@@ -34,11 +39,38 @@ public class TableDataTarget extends DataTarget {
 			Expression<String> table,
 			Expression<String> delimiter,
 			Expression<String> prefix) {
+		this(connection, batchSize, table, delimiter, prefix, null, false);
+	}
+
+	/**
+	 * Construct a table target
+	 *
+	 * @param multiRow is the number of rows to insert with each INSERT statement using a multi-row
+	 * VALUES list, which is reduced as needed to stay within the limits of the database, or null
+	 * to insert one row per statement
+	 * @param bulk is true to load rows through the bulk dialect of the database
+	 * rather than batched INSERT statements, in which case prefix and multiRow must be null
+	 */
+	public TableDataTarget(
+			DatabaseConnection connection,
+			Expression<Integer> batchSize,
+			Expression<String> table,
+			Expression<String> delimiter,
+			Expression<String> prefix,
+			Expression<Integer> multiRow,
+			boolean bulk) {
 
 		super(connection, batchSize);
 		this.table = table;
 		this.delimiter = delimiter;
 		this.prefix = prefix;
+		this.multiRow = multiRow;
+		this.bulk = bulk;
+	}
+
+	@Override
+	public DataTarget copy() {
+		return copied(new TableDataTarget(connection, getBatchSizeExpression(), table, delimiter, prefix, multiRow, bulk));
 	}
 
 	@Override
@@ -48,6 +80,13 @@ public class TableDataTarget extends DataTarget {
 		String delimiter = (this.delimiter != null) ? this.delimiter.evaluate() : "";
 		String prefix = (this.prefix != null) ? this.prefix.evaluate() : null;
 
+		List<String> columnNames = columns.toMetadata() ? getColumnNames(columns, delimiter) : null;
+
+		if (bulk) {
+			prepareBulkLoad(context, table, columnNames, columns.size());
+			return;
+		}
+
 		StringBuilder statement = new StringBuilder();
 		if (prefix != null) {
 			statement.append(prefix).append(" ");
@@ -55,21 +94,23 @@ public class TableDataTarget extends DataTarget {
 
 		statement.append("INSERT INTO ").append(table).append(" ");
 
-		if (columns.toMetadata()) {
-			statement.append("(");
+		if (columnNames != null) {
+			statement.append("(").append(String.join(", ", columnNames)).append(") ");
+		}
+
+		statement.append("VALUES ");
 
-			String separator = "";
-			for (String caption : columns.getCaptions()) {
-				if (caption.length() == 0) {
-					throw new RuntimeException("File has a blank column header - not allowed when headers are not explicitly provided");
-				}
-				statement.append(separator).append(delimiter).append(caption).append(delimiter);
-				separator = ", ";
+		if (multiRow != null) {
+			Integer rowCount = multiRow.evaluate();
+			if ((rowCount == null) || (rowCount < 1)) {
+				throw new RuntimeException("Multi-row insert row count must be at least 1");
 			}
-			statement.append(") ");
+
+			prepareMultiRowStatement(context, statement.toString(), columns.size(), rowCount);
+			return;
 		}
 
-		statement.append("VALUES (");
+		statement.append("(");
 
 		String separator = "";
 		for (int i = 0; i < columns.size(); ++i) {
@@ -81,4 +122,19 @@ public class TableDataTarget extends DataTarget {
 
 		prepareStatement(context, statement.toString());
 	}
+
+	/**
+	 * @return the column captions, delimited, as the column names of the table
+	 */
+	private static List<String> getColumnNames(Columns columns, String delimiter) {
+
+		List<String> columnNames = new ArrayList<String>();
+		for (String caption : columns.getCaptions()) {
+			if (caption.length() == 0) {
+				throw new RuntimeException("File has a blank column header - not allowed when headers are not explicitly provided");
+			}
+			columnNames.add(delimiter + caption + delimiter);
+		}
+		return columnNames;
+	}
 }
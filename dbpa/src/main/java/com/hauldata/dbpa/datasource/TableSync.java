@@ -0,0 +1,726 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.hauldata.dbpa.connection.DatabaseConnection;
+import com.hauldata.dbpa.process.Context;
+
+/**
+ * Synchronization of a target table with a source table, possibly on another database,
+ * that changes only the target rows that differ.
+ * <p>
+ * Both tables are divided into chunks of a fixed range of values of an integer key column.
+ * A digest of each chunk, the count of its rows and the sum of a hash of each row, is computed
+ * for both tables.  When both tables are on the same kind of database and the database has a
+ * suitable hash function, the digests are computed by the database with a single aggregate query
+ * per table.  Otherwise the rows of both tables are read in key order and hashed here, which
+ * still avoids writing unchanged rows.  The rows of each chunk whose digests differ are then read
+ * from both tables and compared, and the target rows are inserted, updated or deleted to match.
+ * The changes to each chunk are committed together.  Since synchronization is idempotent,
+ * a failed run is recovered by running it again.
+ */
+public class TableSync {
+
+	private Side source;
+	private Side target;
+	private String key;
+	private long chunkSize;
+
+	private List<String> columns;
+	private int keyIndex;
+
+	/**
+	 * Differences between the source and target rows of a chunk
+	 */
+	public static class ChunkDiff {
+
+		public final long low;
+		public final long high;
+
+		public final List<Long> insertKeys = new ArrayList<Long>();
+		public final List<Long> updateKeys = new ArrayList<Long>();
+		public final List<Long> deleteKeys = new ArrayList<Long>();
+
+		ChunkDiff(long low, long high) {
+			this.low = low;
+			this.high = high;
+		}
+
+		public boolean isEmpty() {
+			return insertKeys.isEmpty() && updateKeys.isEmpty() && deleteKeys.isEmpty();
+		}
+	}
+
+	/**
+	 * Differences found in a chunk by a dry run: the counts of the rows to change and the first few of their keys
+	 */
+	public static class ChunkReport {
+
+		public final long low;
+		public final long high;
+
+		public final long insertCount;
+		public final long updateCount;
+		public final long deleteCount;
+
+		public final List<Long> insertKeys;
+		public final List<Long> updateKeys;
+		public final List<Long> deleteKeys;
+
+		ChunkReport(ChunkDiff diff) {
+			this.low = diff.low;
+			this.high = diff.high;
+
+			this.insertCount = diff.insertKeys.size();
+			this.updateCount = diff.updateKeys.size();
+			this.deleteCount = diff.deleteKeys.size();
+
+			this.insertKeys = firstKeys(diff.insertKeys);
+			this.updateKeys = firstKeys(diff.updateKeys);
+			this.deleteKeys = firstKeys(diff.deleteKeys);
+		}
+
+		private static List<Long> firstKeys(List<Long> keys) {
+			return new ArrayList<Long>(keys.subList(0, Math.min(keys.size(), reportedKeyCount)));
+		}
+	}
+
+	/**
+	 * Greatest number of differing chunks, and of keys of each kind per chunk, kept in the report of a dry run
+	 */
+	public static final int reportedChunkCount = 10;
+	public static final int reportedKeyCount = 10;
+
+	/**
+	 * Outcome of a synchronization.  The counts cover all chunks; the differences of individual
+	 * chunks are kept only for a dry run, and then only for the first few chunks that differ.
+	 */
+	public static class Report {
+
+		public long chunkCount;
+		public long diffCount;
+		public boolean databaseDigests;
+		public final List<ChunkReport> diffs = new ArrayList<ChunkReport>();
+
+		private long insertCount;
+		private long updateCount;
+		private long deleteCount;
+
+		void add(ChunkDiff diff, boolean dryRun) {
+
+			++diffCount;
+			insertCount += diff.insertKeys.size();
+			updateCount += diff.updateKeys.size();
+			deleteCount += diff.deleteKeys.size();
+
+			if (dryRun && (diffs.size() < reportedChunkCount)) {
+				diffs.add(new ChunkReport(diff));
+			}
+		}
+
+		public long getInsertCount() {
+			return insertCount;
+		}
+
+		public long getUpdateCount() {
+			return updateCount;
+		}
+
+		public long getDeleteCount() {
+			return deleteCount;
+		}
+	}
+
+	/**
+	 * Construct a table synchronization
+	 *
+	 * @param key is the name of an integer column that uniquely identifies the rows of both tables
+	 * @param chunkSize is the range of key values of each chunk
+	 */
+	public TableSync(
+			DatabaseConnection sourceConnection,
+			String sourceTable,
+			DatabaseConnection targetConnection,
+			String targetTable,
+			String key,
+			long chunkSize) {
+
+		if (chunkSize < 1) {
+			throw new RuntimeException("Chunk size must be at least 1");
+		}
+
+		this.source = new Side(sourceConnection, sourceTable);
+		this.target = new Side(targetConnection, targetTable);
+		this.key = key;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Synchronize the target table with the source table
+	 *
+	 * @param dryRun is true to find the differences without changing the target table
+	 * @return the differences found, which unless dryRun have been resolved
+	 */
+	public Report run(Context context, boolean dryRun) throws SQLException, InterruptedException {
+
+		try {
+			source.open(context);
+			target.open(context);
+
+			setColumns();
+
+			Report report = new Report();
+
+			long[] sourceBounds = source.getKeyBounds(key);
+			long[] targetBounds = target.getKeyBounds(key);
+			if ((sourceBounds == null) && (targetBounds == null)) {
+				return report;
+			}
+
+			long low = Math.min(
+					(sourceBounds != null) ? sourceBounds[0] : Long.MAX_VALUE,
+					(targetBounds != null) ? targetBounds[0] : Long.MAX_VALUE);
+
+			report.databaseDigests = (HashDialect.of(source.product) != null) && source.product.equalsIgnoreCase(target.product);
+
+			Map<Long, Digest> sourceDigests = report.databaseDigests ? source.getDatabaseDigests(columns, key, low, chunkSize) : source.getDigests(columns, keyIndex, low, chunkSize);
+			Map<Long, Digest> targetDigests = report.databaseDigests ? target.getDatabaseDigests(columns, key, low, chunkSize) : target.getDigests(columns, keyIndex, low, chunkSize);
+
+			TreeSet<Long> chunks = new TreeSet<Long>(sourceDigests.keySet());
+			chunks.addAll(targetDigests.keySet());
+			report.chunkCount = chunks.size();
+
+			for (long chunk : chunks) {
+				if (!Objects.equals(sourceDigests.get(chunk), targetDigests.get(chunk))) {
+
+					ChunkDiff diff = new ChunkDiff(low + chunk * chunkSize, low + (chunk + 1) * chunkSize);
+					List<Object[]> upserts = new ArrayList<Object[]>();
+					compare(diff, upserts);
+
+					if (!diff.isEmpty()) {
+						report.add(diff, dryRun);
+						if (!dryRun) {
+							target.apply(columns, keyIndex, diff, upserts);
+						}
+					}
+				}
+			}
+
+			return report;
+		}
+		finally {
+			target.close(context);
+			source.close(context);
+		}
+	}
+
+	/**
+	 * Find the columns to synchronize, which are the columns of the source table
+	 * and must all be present in the target table
+	 */
+	private void setColumns() throws SQLException, InterruptedException {
+
+		columns = source.getColumns(key);
+		keyIndex = columns.indexOf(key);
+
+		List<String> targetColumns = target.getColumns(key);
+		for (String column : columns) {
+			boolean found = false;
+			for (String targetColumn : targetColumns) {
+				found = found || targetColumn.equalsIgnoreCase(column);
+			}
+			if (!found) {
+				throw new RuntimeException("SYNC target table does not have source column: " + column);
+			}
+		}
+	}
+
+	/**
+	 * Compare the source and target rows of a chunk in key order
+	 *
+	 * @param diff receives the keys of the rows to insert, update and delete
+	 * @param upserts receives the source rows to insert and update, in the order of their keys in diff
+	 */
+	private void compare(ChunkDiff diff, List<Object[]> upserts) throws SQLException, InterruptedException {
+
+		ResultSet sourceRows = source.getChunk(columns, key, diff.low, diff.high);
+		ResultSet targetRows = target.getChunk(columns, key, diff.low, diff.high);
+
+		Object[] sourceRow = next(sourceRows);
+		Object[] targetRow = next(targetRows);
+
+		while ((sourceRow != null) || (targetRow != null)) {
+
+			long sourceKey = (sourceRow != null) ? keyOf(sourceRow, keyIndex) : Long.MAX_VALUE;
+			long targetKey = (targetRow != null) ? keyOf(targetRow, keyIndex) : Long.MAX_VALUE;
+
+			if (sourceKey < targetKey) {
+				diff.insertKeys.add(sourceKey);
+				upserts.add(sourceRow);
+				sourceRow = next(sourceRows);
+			}
+			else if (targetKey < sourceKey) {
+				diff.deleteKeys.add(targetKey);
+				targetRow = next(targetRows);
+			}
+			else {
+				for (int i = 0; i < sourceRow.length; ++i) {
+					if (!Objects.equals(normalize(sourceRow[i]), normalize(targetRow[i]))) {
+						diff.updateKeys.add(sourceKey);
+						upserts.add(sourceRow);
+						break;
+					}
+				}
+				sourceRow = next(sourceRows);
+				targetRow = next(targetRows);
+			}
+		}
+	}
+
+	/**
+	 * @return the values of the next row of a result set, or null if there are no more rows
+	 */
+	private static Object[] next(ResultSet rs) throws SQLException, InterruptedException {
+
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		if (!rs.next()) {
+			return null;
+		}
+
+		Object[] row = new Object[rs.getMetaData().getColumnCount()];
+		for (int i = 0; i < row.length; ++i) {
+			row[i] = rs.getObject(i + 1);
+		}
+		return row;
+	}
+
+	private static long keyOf(Object[] row, int keyIndex) {
+		return ((BigDecimal)normalize(row[keyIndex])).longValueExact();
+	}
+
+	/**
+	 * @return a column value in a form that compares equal to the same value read from another kind of database
+	 */
+	static Object normalize(Object value) {
+
+		if (value instanceof Boolean) {
+			return (Boolean)value ? BigDecimal.ONE : BigDecimal.ZERO;
+		}
+		else if (value instanceof Number) {
+			BigDecimal number =
+					(value instanceof BigDecimal) ? (BigDecimal)value :
+					(value instanceof BigInteger) ? new BigDecimal((BigInteger)value) :
+					((value instanceof Double) || (value instanceof Float)) ? new BigDecimal(value.toString()) :
+					BigDecimal.valueOf(((Number)value).longValue());
+			return (number.signum() == 0) ? BigDecimal.ZERO : number.stripTrailingZeros();
+		}
+		else if (value instanceof java.sql.Timestamp) {
+			return ((java.sql.Timestamp)value).toLocalDateTime();
+		}
+		else if (value instanceof java.sql.Date) {
+			return ((java.sql.Date)value).toLocalDate();
+		}
+		else if (value instanceof java.sql.Time) {
+			return ((java.sql.Time)value).toLocalTime();
+		}
+		else if (value instanceof byte[]) {
+			return ByteBuffer.wrap((byte[])value);
+		}
+		else {
+			return value;
+		}
+	}
+
+	/**
+	 * @return a hash of the normalized values of a row
+	 */
+	static long hash(Object[] row) {
+
+		long hash = 0xcbf29ce484222325L;
+		for (Object value : row) {
+			value = normalize(value);
+			hash ^= (value != null) ? value.hashCode() : 0x5bd1e995L;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * Count of the rows of a chunk and sum of their hashes
+	 */
+	static class Digest {
+
+		long count;
+		BigDecimal sum;
+
+		Digest(long count, BigDecimal sum) {
+			this.count = count;
+			this.sum = (sum != null) ? sum : BigDecimal.ZERO;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return (other instanceof Digest) && (count == ((Digest)other).count) && (sum.compareTo(((Digest)other).sum) == 0);
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(count);
+		}
+	}
+
+	/**
+	 * SQL expressions for the hash of a row that a kind of database can compute and sum
+	 */
+	static abstract class HashDialect {
+
+		static HashDialect of(String product) {
+			product = product.toLowerCase();
+			if (product.contains("microsoft sql server")) {
+				return new HashDialect() { String rowHash(List<String> columns) {
+					return "CAST(BINARY_CHECKSUM(" + String.join(", ", columns) + ") AS BIGINT)"; } };
+			}
+			else if (product.contains("postgresql")) {
+				return new HashDialect() { String rowHash(List<String> columns) {
+					return "('x' || substr(md5(ROW(" + String.join(", ", columns) + ")::text), 1, 15))::bit(60)::bigint"; } };
+			}
+			else if (product.contains("mysql") || product.contains("mariadb")) {
+				return new HashDialect() { String rowHash(List<String> columns) {
+					return "CAST(CONV(SUBSTRING(MD5(CONCAT_WS('|', " + withNullIndicators(columns, ", ") + ")), 1, 15), 16, 10) AS UNSIGNED)"; } };
+			}
+			else if (product.equals("h2")) {
+				return new HashDialect() { String rowHash(List<String> columns) {
+					return "ORA_HASH(CONCAT(" + withNullIndicators(columns, ", '|', ") + "))"; } };
+			}
+			else if (product.contains("oracle")) {
+				return new HashDialect() { String rowHash(List<String> columns) {
+					return "ORA_HASH(" + withNullIndicators(columns, " || '|' || ") + ")"; } };
+			}
+			return null;
+		}
+
+		abstract String rowHash(List<String> columns);
+
+		/**
+		 * @return the columns separated for concatenation by a function or operator that ignores nulls,
+		 * each followed by a null indicator so that a null is distinguished from an empty string
+		 */
+		static String withNullIndicators(List<String> columns, String separator) {
+			StringBuilder result = new StringBuilder();
+			for (String column : columns) {
+				result.append((result.length() == 0) ? "" : separator);
+				result.append(column).append(separator).append("CASE WHEN ").append(column).append(" IS NULL THEN '1' ELSE '0' END");
+			}
+			return result.toString();
+		}
+	}
+
+	/**
+	 * One of the tables being synchronized on its own connection
+	 */
+	private static class Side extends DataStore {
+
+		private String table;
+		String product;
+
+		private Statement query;
+		private PreparedStatement insert;
+		private PreparedStatement update;
+		private PreparedStatement delete;
+
+		Side(DatabaseConnection connection, String table) {
+			super(connection);
+			this.table = table;
+		}
+
+		void open(Context context) throws SQLException {
+			getConnection(context);
+			product = conn.getMetaData().getDatabaseProductName();
+		}
+
+		/**
+		 * @return the column names of the table, with the key column named as given
+		 */
+		List<String> getColumns(String key) throws SQLException, InterruptedException {
+
+			ResultSetMetaData metaData = query("SELECT * FROM " + table + " WHERE 1 = 0").getMetaData();
+
+			List<String> columns = new ArrayList<String>();
+			boolean hasKey = false;
+			for (int i = 1; i <= metaData.getColumnCount(); ++i) {
+				String column = metaData.getColumnLabel(i);
+				if (column.equalsIgnoreCase(key)) {
+					if (!isInteger(metaData.getColumnType(i), metaData.getScale(i))) {
+						throw new RuntimeException("SYNC key must be an integer column: " + key);
+					}
+					column = key;
+					hasKey = true;
+				}
+				columns.add(column);
+			}
+			if (!hasKey) {
+				throw new RuntimeException("SYNC key is not one of the columns of " + table + ": " + key);
+			}
+			return columns;
+		}
+
+		private static boolean isInteger(int type, int scale) {
+			switch (type) {
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+			case Types.BIGINT:
+				return true;
+			case Types.NUMERIC:
+			case Types.DECIMAL:
+				return scale == 0;
+			default:
+				return false;
+			}
+		}
+
+		/**
+		 * @return the lowest and highest key values, or null if the table is empty
+		 */
+		long[] getKeyBounds(String key) throws SQLException, InterruptedException {
+
+			ResultSet rs = query("SELECT MIN(" + key + "), MAX(" + key + ") FROM " + table);
+			rs.next();
+			long[] bounds = new long[] { rs.getLong(1), rs.getLong(2) };
+			return rs.wasNull() ? null : bounds;
+		}
+
+		/**
+		 * @return the digests of the chunks of the table computed by the database
+		 */
+		Map<Long, Digest> getDatabaseDigests(List<String> columns, String key, long low, long chunkSize) throws SQLException, InterruptedException {
+
+			String chunk = "FLOOR((" + key + " - " + String.valueOf(low) + ") / " + String.valueOf(chunkSize) + ")";
+			ResultSet rs = query(
+					"SELECT " + chunk + " AS dbpa_chunk, COUNT(*), SUM(" + HashDialect.of(product).rowHash(columns) + ") " +
+					"FROM " + table + " GROUP BY " + chunk);
+
+			Map<Long, Digest> digests = new TreeMap<Long, Digest>();
+			while (rs.next()) {
+				digests.put(rs.getLong(1), new Digest(rs.getLong(2), rs.getBigDecimal(3)));
+			}
+			return digests;
+		}
+
+		/**
+		 * @return the digests of the chunks of the table computed from all of its rows
+		 */
+		Map<Long, Digest> getDigests(List<String> columns, int keyIndex, long low, long chunkSize) throws SQLException, InterruptedException {
+
+			ResultSet rs = query("SELECT " + String.join(", ", columns) + " FROM " + table);
+
+			Map<Long, long[]> sums = new TreeMap<Long, long[]>();
+			Object[] row;
+			while ((row = next(rs)) != null) {
+				long chunk = Math.floorDiv(keyOf(row, keyIndex) - low, chunkSize);
+				long[] sum = sums.computeIfAbsent(chunk, c -> new long[2]);
+				sum[0]++;
+				sum[1] += hash(row);
+			}
+
+			Map<Long, Digest> digests = new TreeMap<Long, Digest>();
+			for (Map.Entry<Long, long[]> entry : sums.entrySet()) {
+				digests.put(entry.getKey(), new Digest(entry.getValue()[0], BigDecimal.valueOf(entry.getValue()[1])));
+			}
+			return digests;
+		}
+
+		/**
+		 * @return the rows of a chunk in key order
+		 */
+		ResultSet getChunk(List<String> columns, String key, long low, long high) throws SQLException, InterruptedException {
+			return query(
+					"SELECT " + String.join(", ", columns) + " FROM " + table +
+					" WHERE " + key + " >= " + String.valueOf(low) + " AND " + key + " < " + String.valueOf(high) +
+					" ORDER BY " + key);
+		}
+
+		private ResultSet query(String sql) throws SQLException, InterruptedException {
+
+			if (query != null) {
+				query.close();
+			}
+			query = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+
+			SQLQueryExecutor executor = new SQLQueryExecutor(sql);
+			stmt = query;
+			execute(executor);
+			return executor.getResult();
+		}
+
+		private class SQLQueryExecutor extends SQLExecutor {
+
+			private String sql;
+			private ResultSet result;
+
+			SQLQueryExecutor(String sql) {
+				this.sql = sql;
+			}
+
+			@Override
+			public void run() {
+				try {
+					result = stmt.executeQuery(sql);
+				} catch (SQLException ex) {
+					this.ex = ex;
+				}
+			}
+
+			public ResultSet getResult() throws SQLException {
+				getException();
+				return result;
+			}
+		}
+
+		/**
+		 * Insert, update and delete the rows of a chunk and commit the changes
+		 */
+		void apply(List<String> columns, int keyIndex, ChunkDiff diff, List<Object[]> upserts) throws SQLException, InterruptedException {
+
+			if (insert == null) {
+				prepareChanges(columns, keyIndex);
+			}
+
+			int upsertIndex = 0;
+			int insertIndex = 0;
+			int updateIndex = 0;
+			while (upsertIndex < upserts.size()) {
+				Object[] row = upserts.get(upsertIndex++);
+				long key = keyOf(row, keyIndex);
+
+				if ((insertIndex < diff.insertKeys.size()) && (diff.insertKeys.get(insertIndex) == key)) {
+					++insertIndex;
+					for (int i = 0; i < row.length; ++i) {
+						insert.setObject(i + 1, row[i]);
+					}
+					insert.addBatch();
+				}
+				else {
+					++updateIndex;
+					int parameterIndex = 1;
+					for (int i = 0; i < row.length; ++i) {
+						if (i != keyIndex) {
+							update.setObject(parameterIndex++, row[i]);
+						}
+					}
+					update.setObject(parameterIndex, key);
+					update.addBatch();
+				}
+			}
+
+			for (long key : diff.deleteKeys) {
+				delete.setObject(1, key);
+				delete.addBatch();
+			}
+
+			try {
+				if (!diff.deleteKeys.isEmpty()) {
+					executeBatch(delete);
+				}
+				if (updateIndex > 0) {
+					executeBatch(update);
+				}
+				if (insertIndex > 0) {
+					executeBatch(insert);
+				}
+				conn.commit();
+			}
+			catch (SQLException | InterruptedException ex) {
+				try { conn.rollback(); } catch (Exception exx) {}
+				throw ex;
+			}
+		}
+
+		private void prepareChanges(List<String> columns, int keyIndex) throws SQLException {
+
+			conn.setAutoCommit(false);
+
+			StringBuilder parameters = new StringBuilder();
+			StringBuilder assignments = new StringBuilder();
+			for (int i = 0; i < columns.size(); ++i) {
+				parameters.append((i > 0) ? ", " : "").append("?");
+				if (i != keyIndex) {
+					assignments.append((assignments.length() > 0) ? ", " : "").append(columns.get(i)).append(" = ?");
+				}
+			}
+
+			String key = columns.get(keyIndex);
+			insert = conn.prepareStatement("INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" + parameters + ")");
+			update = (assignments.length() > 0) ? conn.prepareStatement("UPDATE " + table + " SET " + assignments + " WHERE " + key + " = ?") : null;
+			delete = conn.prepareStatement("DELETE FROM " + table + " WHERE " + key + " = ?");
+		}
+
+		private void executeBatch(PreparedStatement prepared) throws SQLException, InterruptedException {
+
+			SQLBatchExecutor executor = new SQLBatchExecutor();
+			stmt = prepared;
+			execute(executor);
+			executor.getException();
+		}
+
+		private class SQLBatchExecutor extends SQLExecutor {
+
+			@Override
+			public void run() {
+				try {
+					stmt.executeBatch();
+				} catch (SQLException ex) {
+					this.ex = ex;
+				}
+			}
+		}
+
+		@Override
+		public void close(Context context) {
+
+			if ((conn != null) && (insert != null)) {
+				try { conn.rollback(); } catch (Exception ex) {}
+				try { conn.setAutoCommit(true); } catch (Exception ex) {}
+			}
+
+			for (Statement statement : new Statement[] { query, insert, update, delete }) {
+				if (statement != stmt) closeStatement(statement);
+			}
+			query = insert = update = delete = null;
+
+			super.close(context);
+		}
+	}
+}
@@ -36,6 +36,11 @@ public class TokenizedStatementDataTarget extends DataTarget {
 		this.statement = statement;
 	}
 
+	@Override
+	public DataTarget copy() {
+		return copied(new TokenizedStatementDataTarget(connection, getBatchSizeExpression(), statement));
+	}
+
 	@Override
 	public void prepareStatement(Context context, Columns columns) throws SQLException {
 
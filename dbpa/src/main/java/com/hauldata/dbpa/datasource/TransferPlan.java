@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Plan for moving the columns of the current row of a database source to the parameters
+ * of a database target with typed getters and setters in place of getObject() and setObject(),
+ * so that numeric and boolean values are moved without being boxed.
+ * <p>
+ * The plan is built once per statement from the result set metadata of the source and,
+ * where the driver provides it, the parameter metadata of the target.  A column is moved
+ * with a typed getter and setter only when the source column and target parameter types
+ * are of the same kind; otherwise it is moved with getObject() and setObject() as before.
+ */
+public class TransferPlan {
+
+	private ResultSet rs;
+	private PreparedStatement stmt;
+	private ColumnMover[] movers;
+
+	/**
+	 * Build a plan to move rows from a source to a target
+	 *
+	 * @return the plan, or null if the source is not a database query or the target does not
+	 * write each row directly to the parameters of a prepared statement
+	 */
+	public static TransferPlan build(Source source, Target target) throws SQLException {
+
+		if (!(source instanceof DataSource) || !(target instanceof DataTarget)) {
+			return null;
+		}
+
+		ResultSet rs = ((DataSource)source).getResultSet();
+		PreparedStatement stmt = ((DataTarget)target).getDirectStatement();
+		if ((rs == null) || (stmt == null)) {
+			return null;
+		}
+
+		return build(rs, stmt);
+	}
+
+	/**
+	 * Build a plan to move rows from a result set to the parameters of a prepared statement
+	 */
+	static TransferPlan build(ResultSet rs, PreparedStatement stmt) throws SQLException {
+
+		ResultSetMetaData columns = rs.getMetaData();
+		int columnCount = columns.getColumnCount();
+
+		int[] parameterTypes = getParameterTypes(stmt, columnCount);
+
+		ColumnMover[] movers = new ColumnMover[columnCount];
+		for (int i = 0; i < columnCount; ++i) {
+			int column = i + 1;
+			movers[i] = ColumnMover.of(column, columns.getColumnType(column), columns.isSigned(column), parameterTypes[i]);
+		}
+
+		return new TransferPlan(rs, stmt, movers);
+	}
+
+	/**
+	 * @return the SQL types of the parameters of a statement, with Types.OTHER for any
+	 * that cannot be determined
+	 */
+	private static int[] getParameterTypes(PreparedStatement stmt, int parameterCount) {
+
+		int[] types = new int[parameterCount];
+		try {
+			ParameterMetaData parameters = stmt.getParameterMetaData();
+			for (int i = 0; i < parameterCount; ++i) {
+				types[i] = parameters.getParameterType(i + 1);
+			}
+		}
+		catch (SQLException | RuntimeException ex) {
+			// Not all drivers describe the parameters of a statement.
+			for (int i = 0; i < parameterCount; ++i) {
+				types[i] = Types.OTHER;
+			}
+		}
+		return types;
+	}
+
+	private TransferPlan(ResultSet rs, PreparedStatement stmt, ColumnMover[] movers) {
+		this.rs = rs;
+		this.stmt = stmt;
+		this.movers = movers;
+	}
+
+	/**
+	 * Set the parameters of the target statement from the columns of the current source row
+	 */
+	public void transfer() throws SQLException {
+		for (ColumnMover mover : movers) {
+			mover.move(rs, stmt);
+		}
+	}
+
+	/**
+	 * @return a description of how each column is moved, for diagnostics
+	 */
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		for (ColumnMover mover : movers) {
+			result.append((result.length() > 0) ? "," : "").append(mover.getKind().name());
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Kinds of column types that are moved with the same typed getter and setter
+	 */
+	enum Kind { INT, LONG, DOUBLE, BOOLEAN, DECIMAL, STRING, DATE, TIME, TIMESTAMP, OBJECT };
+
+	static Kind kindOf(int type) {
+		switch (type) {
+		case Types.TINYINT:
+		case Types.SMALLINT:
+		case Types.INTEGER:
+			return Kind.INT;
+		case Types.BIGINT:
+			return Kind.LONG;
+		case Types.REAL:
+		case Types.FLOAT:
+		case Types.DOUBLE:
+			return Kind.DOUBLE;
+		case Types.BIT:
+		case Types.BOOLEAN:
+			return Kind.BOOLEAN;
+		case Types.DECIMAL:
+		case Types.NUMERIC:
+			return Kind.DECIMAL;
+		case Types.CHAR:
+		case Types.VARCHAR:
+		case Types.LONGVARCHAR:
+		case Types.NCHAR:
+		case Types.NVARCHAR:
+		case Types.LONGNVARCHAR:
+			return Kind.STRING;
+		case Types.DATE:
+			return Kind.DATE;
+		case Types.TIME:
+			return Kind.TIME;
+		case Types.TIMESTAMP:
+			return Kind.TIMESTAMP;
+		default:
+			return Kind.OBJECT;
+		}
+	}
+
+	/**
+	 * Choose how to move a column given the types of the source column and target parameter
+	 */
+	static Kind kindOf(int columnType, boolean isSigned, int parameterType) {
+
+		Kind columnKind = kindOf(columnType);
+		if (columnKind == Kind.OBJECT) {
+			return Kind.OBJECT;
+		}
+
+		if ((columnKind == Kind.INT) && !isSigned) {
+			// An unsigned INTEGER may not fit in an int.
+			columnKind = Kind.LONG;
+		}
+
+		if (parameterType == Types.OTHER) {
+			return columnKind;
+		}
+
+		Kind parameterKind = kindOf(parameterType);
+		if (columnKind == parameterKind) {
+			return columnKind;
+		}
+		else if (((columnKind == Kind.INT) || (columnKind == Kind.LONG)) && ((parameterKind == Kind.INT) || (parameterKind == Kind.LONG))) {
+			// Let the database check the range of a BIGINT going to a narrower type.
+			return Kind.LONG;
+		}
+		else {
+			return Kind.OBJECT;
+		}
+	}
+
+	private static abstract class ColumnMover {
+
+		protected final int column;
+		protected final int nullType;
+
+		static ColumnMover of(int column, int columnType, boolean isSigned, int parameterType) {
+
+			int nullType = (parameterType != Types.OTHER) ? parameterType : columnType;
+
+			switch (kindOf(columnType, isSigned, parameterType)) {
+			case INT: return new IntMover(column, nullType);
+			case LONG: return new LongMover(column, nullType);
+			case DOUBLE: return new DoubleMover(column, nullType);
+			case BOOLEAN: return new BooleanMover(column, nullType);
+			case DECIMAL: return new DecimalMover(column);
+			case STRING: return new StringMover(column);
+			case DATE: return new DateMover(column);
+			case TIME: return new TimeMover(column);
+			case TIMESTAMP: return new TimestampMover(column);
+			default: return new ObjectMover(column);
+			}
+		}
+
+		protected ColumnMover(int column, int nullType) {
+			this.column = column;
+			this.nullType = nullType;
+		}
+
+		abstract Kind getKind();
+
+		abstract void move(ResultSet rs, PreparedStatement stmt) throws SQLException;
+	}
+
+	private static class IntMover extends ColumnMover {
+		IntMover(int column, int nullType) { super(column, nullType); }
+		@Override Kind getKind() { return Kind.INT; }
+		@Override void move(ResultSet rs, PreparedStatement stmt) throws SQLException {
+			int value = rs.getInt(column);
+			if (rs.wasNull()) { stmt.setNull(column, nullType); } else { stmt.setInt(column, value); }
+		}
+	}
+
+	private static class LongMover extends ColumnMover {
+		LongMover(int column, int nullType) { super(column, nullType); }
+		@Override Kind getKind() { return Kind.LONG; }
+		@Override void move(ResultSet rs, PreparedStatement stmt) throws SQLException {
+			long value = rs.getLong(column);
+			if (rs.wasNull()) { stmt.setNull(column, nullType); } else { stmt.setLong(column, value); }
+		}
+	}
+
+	private static class DoubleMover extends ColumnMover {
+		DoubleMover(int column, int nullType) { super(column, nullType); }
+		@Override Kind getKind() { return Kind.DOUBLE; }
+		@Override void move(ResultSet rs, PreparedStatement stmt) throws SQLException {
+			double value = rs.getDouble(column);
+			if (rs.wasNull()) { stmt.setNull(column, nullType); } else { stmt.setDouble(column, value); }
+		}
+	}
+
+	private static class BooleanMover extends ColumnMover {
+		BooleanMover(int column, int nullType) { super(column, nullType); }
+		@Override Kind getKind() { return Kind.BOOLEAN; }
+		@Override void move(ResultSet rs, PreparedStatement stmt) throws SQLException {
+			boolean value = rs.getBoolean(column);
+			if (rs.wasNull()) { stmt.setNull(column, nullType); } else { stmt.setBoolean(column, value); }
+		}
+	}
+
+	// The remaining types are objects in any case.  Their setters accept null.
+
+	private static class DecimalMover extends ColumnMover {
+		DecimalMover(int column) { super(column, Types.DECIMAL); }
+		@Override Kind getKind() { return Kind.DECIMAL; }
+		@Override void move(ResultSet rs, PreparedStatement stmt) throws SQLException {
+			stmt.setBigDecimal(column, rs.getBigDecimal(column));
+		}
+	}
+
+	private static class StringMover extends ColumnMover {
+		StringMover(int column) { super(column, Types.VARCHAR); }
+		@Override Kind getKind() { return Kind.STRING; }
+		@Override void move(ResultSet rs, PreparedStatement stmt) throws SQLException {
+			stmt.setString(column, rs.getString(column));
+		}
+	}
+
+	private static class DateMover extends ColumnMover {
+		DateMover(int column) { super(column, Types.DATE); }
+		@Override Kind getKind() { return Kind.DATE; }
+		@Override void move(ResultSet rs, PreparedStatement stmt) throws SQLException {
+			stmt.setDate(column, rs.getDate(column));
+		}
+	}
+
+	private static class TimeMover extends ColumnMover {
+		TimeMover(int column) { super(column, Types.TIME); }
+		@Override Kind getKind() { return Kind.TIME; }
+		@Override void move(ResultSet rs, PreparedStatement stmt) throws SQLException {
+			stmt.setTime(column, rs.getTime(column));
+		}
+	}
+
+	private static class TimestampMover extends ColumnMover {
+		TimestampMover(int column) { super(column, Types.TIMESTAMP); }
+		@Override Kind getKind() { return Kind.TIMESTAMP; }
+		@Override void move(ResultSet rs, PreparedStatement stmt) throws SQLException {
+			stmt.setTimestamp(column, rs.getTimestamp(column));
+		}
+	}
+
+	private static class ObjectMover extends ColumnMover {
+		ObjectMover(int column) { super(column, Types.OTHER); }
+		@Override Kind getKind() { return Kind.OBJECT; }
+		@Override void move(ResultSet rs, PreparedStatement stmt) throws SQLException {
+			stmt.setObject(column, rs.getObject(column));
+		}
+	}
+}
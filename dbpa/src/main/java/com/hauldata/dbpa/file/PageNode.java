@@ -42,6 +42,15 @@ public interface PageNode {
 	 */
 	public void writeColumn(int columnIndex, Object object) throws IOException;
 
+	/**
+	 * Prepare to write rows whose columns have the indicated types, which a page
+	 * may use to choose how each column is written.  By default the types are ignored.
+	 *
+	 * @param columnTypes are the SQL types of the columns from java.sql.Types,
+	 * with Types.OTHER for any that are not known
+	 */
+	public default void setColumnTypes(int[] columnTypes) {}
+
 	public void flush() throws IOException;
 
 	/**
@@ -18,8 +18,10 @@ package com.hauldata.dbpa.file;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.List;
 
 import com.hauldata.dbpa.datasource.DataTarget;
+import com.hauldata.dbpa.process.TaskTrace;
 import com.hauldata.util.tokenizer.EndOfLine;
 
 public abstract class SourcePage {
@@ -80,16 +82,48 @@ public abstract class SourcePage {
 		node.close();
 	}
 
+	/**
+	 * @return the line number in its file of the first line of the page, which is 1 unless
+	 * the page reads a chunk of the file
+	 */
+	public int getFirstLine() {
+		return 1;
+	}
+
+	/**
+	 * Split the data rows of a page that has just been opened into chunks that can be read concurrently.
+	 *
+	 * @param count is the maximum number of chunks
+	 * @return the pages that read the chunks
+	 */
+	public List<SourcePage> split(int count) throws IOException {
+		throw new RuntimeException("Parallel read is not supported for " + node.getName());
+	}
+
 	/**
 	 * Read selected columns from page to target
+	 * @return the number of rows read
 	 * @throws InterruptedException
 	 */
-	public void read(Columns columns, DataTarget target) throws SQLException, InterruptedException {
+	public long read(Columns columns, DataTarget target) throws SQLException, InterruptedException {
+		return read(columns, target, 0L);
+	}
+
+	/**
+	 * Read selected columns from page to target after skipping rows
+	 *
+	 * @param skipRowCount is the number of data rows to skip, which were committed
+	 * to the target in an earlier run
+	 * @return the number of rows read after those skipped
+	 * @throws InterruptedException
+	 */
+	public long read(Columns columns, DataTarget target, long skipRowCount) throws SQLException, InterruptedException {
 
 		// See http://stackoverflow.com/questions/12012592/jdbc-insert-multiple-rows
 		// and http://www.java2s.com/Code/JavaAPI/java.sql/PreparedStatementaddBatch.htm
 
 		boolean hasWrongNumberOfColumns = false;
+		long rowCount = 0L;
 
 		int parameterCount = 0;
 		try {
@@ -104,7 +138,13 @@ public abstract class SourcePage {
 
 			if (!(hasWrongNumberOfColumns = (parameterCount > 0) && (columns.size() > 0) && (parameterCount != columns.size()))) {
 
+				for (long skipped = 0; (skipped < skipRowCount) && hasRow(); ++skipped) {
+					TaskTrace.countRowRead();
+					for (int sourceColumnIndex = 1; node.readColumn(sourceColumnIndex) != EndOfLine.value; ++sourceColumnIndex);
+				}
+
 				while (hasRow()) {
+					TaskTrace.countRowRead();
 					int sourceColumnIndex = 1;
 					for (Object value = null; (value = node.readColumn(sourceColumnIndex)) != EndOfLine.value; ++sourceColumnIndex) {
 						int[] targetColumnIndexes = columns.getTargetColumnIndexes(sourceColumnIndex);
@@ -113,6 +153,7 @@ public abstract class SourcePage {
 						}
 					}
 					target.addBatch();
+					++rowCount;
 				}
 				target.executeBatch();
 			}
@@ -125,5 +166,7 @@ public abstract class SourcePage {
 		if (hasWrongNumberOfColumns) {
 			throw new RuntimeException("The file has wrong number of columns for the requested operation: " + node.getName());
 		}
+
+		return rowCount;
 	}
 }
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.sql.SQLException;
 
 import com.hauldata.dbpa.datasource.Source;
+import com.hauldata.dbpa.process.TaskTrace;
 
 public abstract class TargetPage {
 
@@ -95,10 +96,17 @@ public abstract class TargetPage {
 					(hasAnyRows = source.next()) &&
 					(hasRightNumberOfColumns = (resultColumnCount == headers.getColumnCount()))) {
 
+				int[] columnTypes = new int[resultColumnCount];
+				for (int columnIndex = 1; columnIndex <= resultColumnCount; ++columnIndex) {
+					columnTypes[columnIndex - 1] = source.getColumnType(columnIndex);
+				}
+				node.setColumnTypes(columnTypes);
+
 				do {
 					for (int columnIndex = 1; columnIndex <= headers.getColumnCount(); ++columnIndex) {
 						node.writeColumn(columnIndex, source.getObject(columnIndex));
 					}
+					TaskTrace.countRowWritten();
 				} while (source.next());
 			}
 
@@ -18,6 +18,7 @@ package com.hauldata.dbpa.file.book;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
@@ -27,10 +28,12 @@ import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFColor;
 
+import com.hauldata.dbpa.process.TaskTrace;
+
 public class XlTargetBook extends XlBook {
 
 	private WorkbookFactory factory;
-	private FileOutputStream out;
+	private OutputStream out;
 	private WorkbookWrapper bookWrapper;
 
 	Map<StylesWithFormatting, CellStyle> stylesUsed;
@@ -93,7 +96,7 @@ public class XlTargetBook extends XlBook {
 	@Override
 	public void create() throws IOException {
 
-		out = new FileOutputStream(getName());
+		out = TaskTrace.countBytes(new FileOutputStream(getName()));
 		bookWrapper = factory.newTargetBook();
 
 		cellStyles = new CellStyle[XlsxCellStyle.values().length];
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.file.flat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.hauldata.dbpa.process.TaskTrace;
+
+/**
+ * Reader of the characters of a file or of a byte range of a file through a FileChannel,
+ * or of the characters of another channel such as one that decompresses a file.
+ * <p>
+ * Bytes are read into a large direct buffer and decoded straight into the character array
+ * passed to read(), so that a caller with its own buffer, such as DsvScanner, receives characters
+ * without an intermediate copy.  When reading a whole file, the character set is determined from
+ * the byte order mark, if any, found in the first buffer of bytes read, so the file is opened only
+ * once.  Malformed input is replaced as by InputStreamReader.
+ * <p>
+ * The file is read rather than memory mapped so that it is not held open by a mapping
+ * after it is closed and can then be moved or deleted.
+ */
+public class ChannelReader extends Reader {
+
+	public static final int bufferSize = 256 * 1024;
+
+	private static final int bomMaxLength = 3;
+
+	private ReadableByteChannel channel;
+	private boolean isFileChannel;
+	private long remaining;
+	private ByteBuffer bytes;
+	private boolean isEndOfInput;
+	private boolean isFlushed;
+
+	private Charset charset;
+	private int bomLength;
+	private CharsetDecoder decoder;
+
+	private CharBuffer leftover;
+
+	/**
+	 * Open a file for reading and determine its character set from its byte order mark,
+	 * if any, which is skipped
+	 *
+	 * @param path is the path of the file
+	 * @param defaultCharset is the character set of a file without a byte order mark
+	 */
+	public ChannelReader(Path path, Charset defaultCharset) throws IOException {
+		this(FileChannel.open(path, StandardOpenOption.READ), defaultCharset);
+	}
+
+	/**
+	 * Read the characters of a channel and determine their character set from the byte order mark,
+	 * if any, which is skipped.  The channel is closed when the reader is closed.
+	 *
+	 * @param channel is the channel, which is read from its current position
+	 * @param defaultCharset is the character set of a channel without a byte order mark
+	 */
+	public ChannelReader(ReadableByteChannel channel, Charset defaultCharset) throws IOException {
+
+		initialize(channel, Long.MAX_VALUE);
+
+		try {
+			while ((bytes.position() < bomMaxLength) && fill());
+			bytes.flip();
+
+			charset = detectCharset(defaultCharset);
+			bytes.position(bomLength);
+			decoder = newDecoder(charset);
+		}
+		catch (IOException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Open a byte range of a file for reading in a known character set
+	 *
+	 * @param path is the path of the file
+	 * @param start is the offset of the first byte to read
+	 * @param end is the offset after the last byte to read
+	 * @param charset is the character set of the file
+	 */
+	public ChannelReader(Path path, long start, long end, Charset charset) throws IOException {
+
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			channel.position(start);
+		}
+		catch (IOException ex) {
+			channel.close();
+			throw ex;
+		}
+
+		initialize(channel, end - start);
+
+		this.charset = charset;
+		this.bomLength = 0;
+		this.decoder = newDecoder(charset);
+
+		bytes.flip();
+	}
+
+	private void initialize(ReadableByteChannel channel, long length) {
+
+		this.channel = channel;
+		this.isFileChannel = (channel instanceof FileChannel);
+		this.remaining = length;
+		this.bytes = ByteBuffer.allocateDirect(bufferSize);
+		this.isEndOfInput = false;
+		this.isFlushed = false;
+		this.leftover = null;
+	}
+
+	/**
+	 * @return the character set in which the file is decoded
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * @return the number of bytes of the byte order mark that was skipped, or 0 if there was none
+	 */
+	public int getBomLength() {
+		return bomLength;
+	}
+
+	private Charset detectCharset(Charset defaultCharset) {
+
+		// See https://en.wikipedia.org/wiki/Byte_order_mark
+
+		int count = bytes.remaining();
+		int b0 = (0 < count) ? bytes.get(0) & 0xff : -1;
+		int b1 = (1 < count) ? bytes.get(1) & 0xff : -1;
+		int b2 = (2 < count) ? bytes.get(2) & 0xff : -1;
+
+		if ((b0 == 0xef) && (b1 == 0xbb) && (b2 == 0xbf)) {
+			bomLength = 3;
+			return StandardCharsets.UTF_8;
+		}
+		else if ((b0 == 0xfe) && (b1 == 0xff)) {
+			bomLength = 2;
+			return StandardCharsets.UTF_16BE;
+		}
+		else if ((b0 == 0xff) && (b1 == 0xfe)) {
+			bomLength = 2;
+			return StandardCharsets.UTF_16LE;
+		}
+		else {
+			bomLength = 0;
+			return defaultCharset;
+		}
+	}
+
+	private static CharsetDecoder newDecoder(Charset charset) {
+		return charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Read more bytes into the buffer, which must be in fill mode
+	 *
+	 * @return true if bytes were read or false at end of input
+	 */
+	private boolean fill() throws IOException {
+
+		if (remaining <= 0L) {
+			isEndOfInput = true;
+			return false;
+		}
+
+		int limit = bytes.limit();
+		if (bytes.remaining() > remaining) {
+			bytes.limit(bytes.position() + (int)remaining);
+		}
+
+		int count = channel.read(bytes);
+
+		bytes.limit(limit);
+
+		if (count < 0) {
+			isEndOfInput = true;
+			return false;
+		}
+
+		remaining -= count;
+		if (isFileChannel) {
+			TaskTrace.countBytesRead(count);
+		}
+		return true;
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+
+		if (len == 0) {
+			return 0;
+		}
+
+		CharBuffer chars = CharBuffer.wrap(cbuf, off, len);
+
+		if (leftover != null) {
+			chars.put(leftover.get());
+			if (!leftover.hasRemaining()) {
+				leftover = null;
+			}
+			return 1;
+		}
+
+		for (;;) {
+			if (isFlushed) {
+				return (chars.position() > off) ? chars.position() - off : -1;
+			}
+
+			CoderResult result = decoder.decode(bytes, chars, isEndOfInput);
+
+			if (result.isOverflow()) {
+				if (chars.position() == off) {
+					// A surrogate pair does not fit in the one character requested.
+
+					leftover = CharBuffer.allocate(2);
+					decoder.decode(bytes, leftover, isEndOfInput);
+					leftover.flip();
+					chars.put(leftover.get());
+				}
+				return chars.position() - off;
+			}
+			else if (result.isError()) {
+				result.throwException();
+			}
+			else if (chars.position() > off) {
+				return chars.position() - off;
+			}
+			else if (isEndOfInput) {
+				decoder.flush(chars);
+				isFlushed = true;
+			}
+			else {
+				bytes.compact();
+				fill();
+				bytes.flip();
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
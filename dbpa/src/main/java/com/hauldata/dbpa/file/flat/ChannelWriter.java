@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.file.flat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.hauldata.dbpa.process.TaskTrace;
+
+/**
+ * Writer of the characters of a file through a FileChannel, or of characters to another channel
+ * such as one that compresses a file.
+ * <p>
+ * Characters are collected in a large reusable character array, which is encoded in one call
+ * to a CharsetEncoder when full, and the bytes are written to the channel in a single write.
+ * Unlike BufferedWriter over OutputStreamWriter, characters are copied only once before they are
+ * encoded, and a String is copied directly from its own characters.  Characters that cannot be
+ * encoded are replaced as by OutputStreamWriter.
+ */
+public class ChannelWriter extends Writer {
+
+	public static final int bufferSize = 64 * 1024;
+
+	private WritableByteChannel channel;
+	private boolean isFileChannel;
+	private CharsetEncoder encoder;
+
+	private char[] chars;
+	private int length;
+	private ByteBuffer bytes;
+
+	/**
+	 * Open a file for writing
+	 *
+	 * @param path is the path of the file
+	 * @param charset is the character set in which to encode the file
+	 * @param append is true to write at the end of an existing file or false to replace it
+	 */
+	public ChannelWriter(Path path, Charset charset, boolean append) throws IOException {
+		this(append ?
+				FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.APPEND) :
+				FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING),
+				charset);
+	}
+
+	/**
+	 * Write characters to a channel, such as one that compresses a file.
+	 * The channel is closed when the writer is closed.
+	 *
+	 * @param channel is the channel
+	 * @param charset is the character set in which to encode the characters
+	 */
+	public ChannelWriter(WritableByteChannel channel, Charset charset) {
+
+		this.channel = channel;
+		this.isFileChannel = (channel instanceof FileChannel);
+
+		encoder = charset.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+		chars = new char[bufferSize];
+		length = 0;
+		bytes = ByteBuffer.allocate((int)Math.ceil(bufferSize * encoder.maxBytesPerChar()));
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		if (length == chars.length) {
+			drain(false);
+		}
+		chars[length++] = (char)c;
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		while (0 < len) {
+			if (length == chars.length) {
+				drain(false);
+			}
+			int count = Math.min(len, chars.length - length);
+			System.arraycopy(cbuf, off, chars, length, count);
+			length += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		while (0 < len) {
+			if (length == chars.length) {
+				drain(false);
+			}
+			int count = Math.min(len, chars.length - length);
+			str.getChars(off, off + count, chars, length);
+			length += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	@Override
+	public void write(String str) throws IOException {
+		write(str, 0, str.length());
+	}
+
+	/**
+	 * Encode the characters collected and write the bytes to the channel.  Unless at end of input,
+	 * the high surrogate of a pair split at the end of the characters is kept for the next call.
+	 */
+	private void drain(boolean endOfInput) throws IOException {
+
+		CharBuffer in = CharBuffer.wrap(chars, 0, length);
+
+		for (;;) {
+			CoderResult result = encoder.encode(in, bytes, endOfInput);
+			if (result.isOverflow()) {
+				writeBytes();
+			}
+			else if (result.isError()) {
+				result.throwException();
+			}
+			else {
+				break;
+			}
+		}
+
+		if (endOfInput) {
+			while (encoder.flush(bytes).isOverflow()) {
+				writeBytes();
+			}
+		}
+
+		writeBytes();
+
+		int kept = in.remaining();
+		if (0 < kept) {
+			System.arraycopy(chars, in.position(), chars, 0, kept);
+		}
+		length = kept;
+	}
+
+	private void writeBytes() throws IOException {
+
+		bytes.flip();
+		int count = bytes.remaining();
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+		bytes.clear();
+
+		if (isFileChannel) {
+			TaskTrace.countBytesWritten(count);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		drain(false);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (channel.isOpen()) {
+			try {
+				drain(true);
+			}
+			finally {
+				channel.close();
+			}
+		}
+	}
+}
@@ -18,6 +18,7 @@ package com.hauldata.dbpa.file.flat;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.sql.Types;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,11 +27,7 @@ import com.hauldata.dbpa.file.FileHandler;
 import com.hauldata.dbpa.file.Node;
 import com.hauldata.dbpa.file.PageOptions;
 import com.hauldata.dbpa.file.PageOptionsParser;
-import com.hauldata.util.tokenizer.Delimiter;
 import com.hauldata.util.tokenizer.EndOfLine;
-import com.hauldata.util.tokenizer.Quoted;
-import com.hauldata.util.tokenizer.Token;
-import com.hauldata.util.tokenizer.Unknown;
 
 /**
  * Common Separated Values file.
@@ -98,6 +95,7 @@ public class CsvFile extends DsvFile {
 			static {
 				modifiers = new HashMap<String, Modifier>();
 				modifiers.put("RAW", (parser, options) -> {((CsvSourceOptions)options).raw = true;});
+				modifiers.put("COMPRESS", (parser, options) -> {((CsvSourceOptions)options).compressed = true;});
 			}
 
 			Parser() {
@@ -118,29 +116,93 @@ public class CsvFile extends DsvFile {
 		return typeName;
 	}
 
+	// TextFile overrides
+
+	@Override
+	protected TextFile instantiateChunk() {
+		return new CsvFile(null, (Path)key, getOptions());
+	}
+
 	// PageNode overrides
 
-	private final String quote = "\"";
-	private final String quote_quote = quote + quote;
+	private static final char quote = '"';
 
-	public void writeColumn(int columnIndex, Object object) throws IOException {
+	private ColumnWriter[] columnWriters = null;
+	private char[] digits = new char[20];
 
+	/**
+	 * Writer of the non-null values of a column
+	 */
+	private interface ColumnWriter {
+		void write(Object object) throws IOException;
+	}
+
+	private final ColumnWriter stringWriter = (object) -> {
+		if (object instanceof String) {
+			writeString((String)object);
+		}
+		else {
+			writeObject(object);
+		}
+	};
+
+	private final ColumnWriter integerWriter = (object) -> {
+		if ((object instanceof Integer) || (object instanceof Long) || (object instanceof Short) || (object instanceof Byte)) {
+			writeLong(((Number)object).longValue());
+		}
+		else {
+			writeObject(object);
+		}
+	};
+
+	private final ColumnWriter objectWriter = (object) -> writeObject(object);
+
+	/**
+	 * Choose the writer of each column from its SQL type, so that the values of string and
+	 * integer columns are written without checking the class of each value against every
+	 * class that is written specially.  A column whose values turn out not to be of the
+	 * expected class is written as without a type.
+	 */
+	@Override
+	public void setColumnTypes(int[] columnTypes) {
+
+		columnWriters = new ColumnWriter[columnTypes.length];
+		for (int i = 0; i < columnTypes.length; ++i) {
+			switch (columnTypes[i]) {
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.LONGVARCHAR:
+			case Types.NCHAR:
+			case Types.NVARCHAR:
+			case Types.LONGNVARCHAR:
+				columnWriters[i] = stringWriter;
+				break;
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+			case Types.BIGINT:
+				columnWriters[i] = integerWriter;
+				break;
+			default:
+				columnWriters[i] = objectWriter;
+				break;
+			}
+		}
+	}
+
+	public void writeColumn(int columnIndex, Object object) throws IOException {
 
 		if (1 < columnIndex) {
 			writer.write(separator);
 		}
 
 		if (object != null) {
-			String value = object.toString();
-			if (object instanceof String || object instanceof Character) {
-				if (mustQuote(value)) {
-					if (value.contains(quote)) {
-						value = value.replace(quote, quote_quote);
-					}
-					value = quote + value + quote;
-				}
+			if ((columnWriters != null) && (columnIndex <= columnWriters.length)) {
+				columnWriters[columnIndex - 1].write(object);
+			}
+			else {
+				writeObject(object);
 			}
-			writer.write(value);
 		}
 
 		if (columnIndex == headers.getColumnCount()) {
@@ -148,18 +210,96 @@ public class CsvFile extends DsvFile {
 		}
 	}
 
-	private boolean mustQuote(String value) {
-		return value.contains(quote) || 0 <= value.indexOf(separator) || !getCsvTargetOptions().isNoQuotes();
+	private void writeObject(Object object) throws IOException {
+
+		if (object instanceof String) {
+			writeString((String)object);
+		}
+		else if (object instanceof Character) {
+			writeString(object.toString());
+		}
+		else if ((object instanceof Integer) || (object instanceof Long)) {
+			writeLong(((Number)object).longValue());
+		}
+		else {
+			writer.write(object.toString());
+		}
+	}
+
+	/**
+	 * Write a string value quoted unless NOQUOTES is in effect and the value contains neither
+	 * a quote nor the separator.  The value is scanned once: the characters between quotes are
+	 * written directly from the string, and each quote is written twice by starting the following
+	 * run of characters at the quote.
+	 */
+	private void writeString(String value) throws IOException {
+
+		int length = value.length();
+		int i = 0;
+
+		if (getCsvTargetOptions().isNoQuotes()) {
+			for (; i < length; ++i) {
+				char ch = value.charAt(i);
+				if ((ch == quote) || (ch == separator)) {
+					break;
+				}
+			}
+			if (i == length) {
+				writer.write(value, 0, length);
+				return;
+			}
+		}
+
+		writer.write(quote);
+
+		int start = 0;
+		for (; i < length; ++i) {
+			if (value.charAt(i) == quote) {
+				writer.write(value, start, i + 1 - start);
+				start = i;
+			}
+		}
+		writer.write(value, start, length - start);
+
+		writer.write(quote);
+	}
+
+	/**
+	 * Write an integer value from its digits without constructing a String
+	 */
+	private void writeLong(long value) throws IOException {
+
+		if (value == Long.MIN_VALUE) {
+			writer.write(Long.toString(value));
+			return;
+		}
+
+		boolean isNegative = (value < 0);
+		if (isNegative) {
+			value = -value;
+		}
+
+		int position = digits.length;
+		do {
+			digits[--position] = (char)('0' + (int)(value % 10));
+			value /= 10;
+		} while (value != 0);
+
+		if (isNegative) {
+			digits[--position] = '-';
+		}
+
+		writer.write(digits, position, digits.length - position);
 	}
 
 	public Object readColumn(int columnIndex) throws IOException {
 
 		try {
 			if (1 < columnIndex) {
-				// Discard the separator after the previous token.
+				// Discard the separator after the previous field.
 
-				Token terminator = tokenizer.nextTokenOnLine();
-				if (terminator == null) {
+				int terminator = scanner.nextOnLine();
+				if (terminator == -1) {
 					if (headers.getColumnCount() == 0) {
 						headers.setColumnCount(--columnIndex);
 					}
@@ -168,38 +308,21 @@ public class CsvFile extends DsvFile {
 					}
 					return EndOfLine.value;
 				}
-				else if (!(terminator instanceof Delimiter) || !(terminator.toString().equals(String.valueOf(separator)))) {
+				else if (terminator != separator) {
 					throw new RuntimeException("Column separator \"" + separator + "\" not found where expected");
 				}
 			}
 
-			if (tokenizer.hasNextOnLine()) {
+			if (scanner.hasNextOnLine()) {
 				if ((headers.getColumnCount() != 0) && (headers.getColumnCount() < columnIndex)) {
 					throw new RuntimeException("Too many columns on line");
 				}
 
-				if (tokenizer.hasNextDelimiter()) {
+				if (scanner.hasNextSeparator()) {
 					return null;
 				}
 
-				Token token = tokenizer.nextToken();
-
-				if (token instanceof Quoted) {
-					return ((Quoted)token).getBody();
-				}
-				else if (token instanceof Unknown) {
-					if (token.toString().equals("true")) {
-						return new Boolean(true);
-					}
-					else if (token.toString().equals("false")) {
-						return new Boolean(false);
-					}
-				}
-				else if (token instanceof Delimiter) {
-					throw new RuntimeException("Unexpected delimiter \"" + token.toString() + "\"on line");
-				}
-
-				return token.getValue();
+				return scanner.nextField();
 			}
 			else {
 				if (columnIndex < headers.getColumnCount()){
@@ -209,7 +332,7 @@ public class CsvFile extends DsvFile {
 			}
 		}
 		catch (Exception ex) {
-			throw new RuntimeException("At line " + Integer.toString(tokenizer.lineno()) + ": " + ex.getMessage(), ex);
+			throw new RuntimeException("At line " + Integer.toString(scanner.lineno()) + ": " + ex.getMessage(), ex);
 		}
 	}
 }
@@ -25,7 +25,6 @@ import java.util.ArrayList;
 import com.hauldata.dbpa.file.PageOptions;
 import com.hauldata.dbpa.file.SourceHeaders;
 import com.hauldata.dbpa.file.TargetHeaders;
-import com.hauldata.util.tokenizer.DsvTokenizer;
 import com.hauldata.util.tokenizer.EndOfLine;
 
 /**
@@ -36,7 +35,7 @@ public abstract class DsvFile extends TextFile {
 	protected char separator;
 
 	protected Writer writer;
-	protected DsvTokenizer tokenizer;
+	protected DsvScanner scanner;
 
 	public DsvFile(Owner owner, Path path, char separator, PageOptions options) {
 
@@ -44,18 +43,24 @@ public abstract class DsvFile extends TextFile {
 		this.separator = separator;
 
 		writer = null;
-		tokenizer = null;
+		scanner = null;
 	}
 
-	protected static class SourceOptions implements PageOptions {
+	protected static class SourceOptions implements CompressOptions {
 
 		public static final SourceOptions DEFAULT = new SourceOptions();
 
 		protected boolean raw = false;
+		protected boolean compressed = false;
 
 		public boolean isRaw() {
 			return raw;
 		}
+
+		@Override
+		public boolean isCompressed() {
+			return compressed;
+		}
 	}
 
 	protected SourceOptions getSourceOptions() {
@@ -97,7 +102,7 @@ public abstract class DsvFile extends TextFile {
 
 		Reader reader = getReader();
 
-		tokenizer = new DsvTokenizer(reader, separator, !getSourceOptions().isRaw());
+		scanner = new DsvScanner(reader, separator, !getSourceOptions().isRaw());
 
 		SourceHeaders headers = getSourceHeaders();
 		if (headers.exist()) {
@@ -145,20 +150,34 @@ public abstract class DsvFile extends TextFile {
 	public void close() throws IOException {
 		
 		if (writer != null) writer.close();
-		if (tokenizer != null) tokenizer.close();
+		if (scanner != null) scanner.close();
+	}
+
+	/**
+	 * Prepare to read a chunk of a DSV file that has no headers.
+	 */
+	@Override
+	protected void openChunk(Reader reader, int firstLine) throws IOException {
+
+		scanner = new DsvScanner(reader, separator, !getSourceOptions().isRaw(), firstLine);
+	}
+
+	@Override
+	protected int getSeparator() {
+		return separator;
 	}
 
 	// PageNode overrides
 
 	@Override
 	public boolean hasRow() throws IOException {
-		return tokenizer.hasNext();
+		return scanner.hasNext();
 	}
 
 	// TextFile overrides
 
 	@Override
 	public int lineno() {
-		return tokenizer.lineno();
+		return scanner.lineno();
 	}
 }
@@ -0,0 +1,444 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.file.flat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Scanner of the fields of a Delimiter Separated Values file.
+ * <p>
+ * Fields are scanned with the same rules as DsvTokenizer: a field may be quoted with double quotes,
+ * a quote within a quoted field is escaped by doubling it, and a quoted field may span lines.
+ * Unless numerics are not recognized, an unquoted field that is a number becomes an Integer, Long,
+ * BigInteger or BigDecimal, and an unquoted <code>true</code> or <code>false</code> becomes a Boolean.
+ * <p>
+ * Unlike the tokenizer, the scanner does not build a Token or image for each field.  An unquoted field
+ * is classified and decoded in place in a reusable character buffer, so that integers cost no object
+ * beyond their boxed value and decimals are constructed directly from the characters of the field.
+ */
+public class DsvScanner {
+
+	private static final int bufferSize = 65536;
+	private static final int fieldSize = 256;
+
+	private static final char quote = '"';
+	private static final char cr = '\r';
+	private static final char lf = '\n';
+	private static final char decimalPoint = '.';
+	private static final char minusSign = '-';
+	private static final char exponential = 'E';
+
+	private static final long longMaxDiv10 = Long.MAX_VALUE / 10;
+	private static final long longMaxMod10 = Long.MAX_VALUE - (longMaxDiv10 * 10);
+
+	private Reader reader;
+	private char separator;
+	private boolean isNumericRecognized;
+
+	private char[] buffer;
+	private int position;
+	private int limit;
+	private boolean isEndOfFile;
+
+	private char[] field;
+	private int fieldLength;
+
+	private int lineNumber;
+
+	public DsvScanner(Reader reader, char separator, boolean isNumericRecognized) {
+		this(reader, separator, isNumericRecognized, 1);
+	}
+
+	/**
+	 * Construct a scanner of text that does not begin at the start of its file
+	 *
+	 * @param lineNumber is the line number in the file of the first line of the text
+	 */
+	public DsvScanner(Reader reader, char separator, boolean isNumericRecognized, int lineNumber) {
+
+		this.reader = reader;
+		this.separator = separator;
+		this.isNumericRecognized = isNumericRecognized;
+
+		buffer = new char[bufferSize];
+		position = 0;
+		limit = 0;
+		isEndOfFile = false;
+
+		field = new char[fieldSize];
+		fieldLength = 0;
+
+		this.lineNumber = lineNumber;
+	}
+
+	/**
+	 * @return the current line number
+	 */
+	public int lineno() {
+		return lineNumber;
+	}
+
+	/**
+	 * @return true if anything remains to be scanned, even an empty line
+	 */
+	public boolean hasNext() throws IOException {
+		return peek() != -1;
+	}
+
+	/**
+	 * @return true if a field or separator remains on the current line
+	 */
+	public boolean hasNextOnLine() throws IOException {
+		int next = peek();
+		return (next != -1) && (next != cr) && (next != lf);
+	}
+
+	/**
+	 * @return true if the next field is empty because the separator immediately follows
+	 */
+	public boolean hasNextSeparator() throws IOException {
+		return peek() == separator;
+	}
+
+	/**
+	 * Consume the character that follows a field.
+	 *
+	 * @return the separator or other character consumed, or -1 if the end of the line was consumed
+	 * or the end of file was found
+	 */
+	public int nextOnLine() throws IOException {
+
+		int next = peek();
+		if (next == -1) {
+			return -1;
+		}
+
+		++position;
+		if (next == cr) {
+			if (peek() == lf) {
+				++position;
+			}
+			++lineNumber;
+			return -1;
+		}
+		else if (next == lf) {
+			++lineNumber;
+			return -1;
+		}
+		return next;
+	}
+
+	/**
+	 * Scan the next field, which must be on the current line and must not be empty.
+	 *
+	 * @return the value of the field
+	 */
+	public Object nextField() throws IOException {
+
+		if (peek() == quote) {
+			++position;
+			return nextQuoted();
+		}
+		else {
+			return nextUnquoted();
+		}
+	}
+
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	// Fields
+
+	private Object nextUnquoted() throws IOException {
+
+		int i = position;
+		for (;;) {
+			if (i == limit) {
+				int start = position;
+				boolean isFilled = fill(start);
+				i -= start;
+				if (!isFilled) {
+					break;
+				}
+				continue;
+			}
+
+			char ch = buffer[i];
+			if ((ch == separator) || (ch == cr) || (ch == lf)) {
+				break;
+			}
+			++i;
+		}
+
+		int start = position;
+		position = i;
+		return valueOf(buffer, start, i - start);
+	}
+
+	private Object nextQuoted() throws IOException {
+
+		fieldLength = 0;
+		append(quote);
+
+		boolean isQuoteClosed = false;
+		for (;;) {
+			if ((position == limit) && !fill(position)) {
+				break;
+			}
+
+			char ch = buffer[position++];
+			if (ch == quote) {
+				if (peek() == quote) {
+					++position;
+					append(quote);
+				}
+				else {
+					isQuoteClosed = true;
+					break;
+				}
+			}
+			else {
+				if ((ch == lf) || ((ch == cr) && (peek() != lf))) {
+					++lineNumber;
+				}
+				append(ch);
+			}
+		}
+
+		if (!isQuoteClosed) {
+			return new String(field, 0, fieldLength);
+		}
+
+		if (hasNextTerminator()) {
+			return new String(field, 1, fieldLength - 1);
+		}
+
+		// Text follows the closing quote; the field is the unterminated text including the quotes.
+
+		append(quote);
+		while (!hasNextTerminator()) {
+			append(buffer[position++]);
+		}
+		return new String(field, 0, fieldLength);
+	}
+
+	private boolean hasNextTerminator() throws IOException {
+		int next = peek();
+		return (next == -1) || (next == separator) || (next == cr) || (next == lf);
+	}
+
+	private void append(char ch) {
+		if (fieldLength == field.length) {
+			field = Arrays.copyOf(field, field.length * 2);
+		}
+		field[fieldLength++] = ch;
+	}
+
+	/**
+	 * @return the value of an unquoted field
+	 */
+	private Object valueOf(char[] chars, int offset, int length) {
+
+		if (isNumericRecognized) {
+			Object number = numberOf(chars, offset, length);
+			if (number != null) {
+				return number;
+			}
+		}
+
+		if (equals(chars, offset, length, "true")) {
+			return Boolean.TRUE;
+		}
+		else if (equals(chars, offset, length, "false")) {
+			return Boolean.FALSE;
+		}
+
+		return new String(chars, offset, length);
+	}
+
+	private static boolean equals(char[] chars, int offset, int length, String text) {
+
+		if (length != text.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; ++i) {
+			if (chars[offset + i] != text.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decode a field as a number following the rules of BaseTokenizer.  An integer that is less than
+	 * Integer.MAX_VALUE is an Integer, one that is less than Long.MAX_VALUE is a Long, and a greater one
+	 * is a BigInteger.  A number with a decimal point followed by at least one digit or with an exponent
+	 * introduced by upper case E is a BigDecimal.
+	 *
+	 * @return the number or null if the field is not a number
+	 */
+	private static Object numberOf(char[] chars, int offset, int length) {
+
+		int end = offset + length;
+		int i = offset;
+
+		boolean negate = false;
+		if (chars[i] == minusSign) {
+			++i;
+			if ((i == end) || !(isDigit(chars[i]) || (chars[i] == decimalPoint))) {
+				return null;
+			}
+			negate = true;
+		}
+
+		// Integer part
+
+		int integerStart = i;
+		long value = 0;
+		boolean isBig = false;
+		for (; (i < end) && isDigit(chars[i]); ++i) {
+			int digit = chars[i] - '0';
+			if (isBig || (value > longMaxDiv10) || ((value == longMaxDiv10) && (digit >= longMaxMod10))) {
+				isBig = true;
+			}
+			else {
+				value = value * 10 + digit;
+			}
+		}
+
+		if (i == end) {
+			if (isBig) {
+				return new BigDecimal(chars, offset, length).toBigInteger();
+			}
+			else if (value < Integer.MAX_VALUE) {
+				return Integer.valueOf(negate ? -(int)value : (int)value);
+			}
+			else {
+				return Long.valueOf(negate ? -value : value);
+			}
+		}
+
+		// Fraction
+
+		boolean hasIntegerDigits = (integerStart < i);
+		if (chars[i] == decimalPoint) {
+			int fractionStart = ++i;
+			while ((i < end) && isDigit(chars[i])) {
+				++i;
+			}
+			if ((i == fractionStart) || ((i < end) && (chars[i] == decimalPoint))) {
+				return null;
+			}
+		}
+		else if (!hasIntegerDigits) {
+			return null;
+		}
+
+		int mantissaEnd = i;
+		if (i == end) {
+			return new BigDecimal(chars, offset, length);
+		}
+		else if (chars[i] != exponential) {
+			return null;
+		}
+
+		// Exponent
+
+		++i;
+		boolean negateExponent = false;
+		if ((i < end) && (chars[i] == minusSign)) {
+			negateExponent = true;
+			++i;
+		}
+
+		if ((i == end) || !isDigit(chars[i])) {
+			return null;
+		}
+
+		int exponent = 0;
+		for (; (i < end) && isDigit(chars[i]); ++i) {
+			exponent = exponent * 10 + (chars[i] - '0');
+			if (exponent > Double.MAX_EXPONENT) {
+				return null;
+			}
+		}
+
+		if (i < end) {
+			return null;
+		}
+
+		return new BigDecimal(chars, offset, mantissaEnd - offset).movePointRight(negateExponent ? -exponent : exponent);
+	}
+
+	private static boolean isDigit(char ch) {
+		return ('0' <= ch) && (ch <= '9');
+	}
+
+	// Character buffer
+
+	/**
+	 * @return the next character without consuming it, or -1 at end of file
+	 */
+	private int peek() throws IOException {
+		if ((position == limit) && !fill(position)) {
+			return -1;
+		}
+		return buffer[position];
+	}
+
+	/**
+	 * Read more characters into the buffer, first moving the characters from an index onward
+	 * to the start of the buffer and discarding those before it.  The buffer grows if no characters
+	 * can be discarded and it is full.  The current position is adjusted to the moved characters.
+	 *
+	 * @param keep is the index of the first character to keep
+	 * @return true if characters were read or false at end of file
+	 */
+	private boolean fill(int keep) throws IOException {
+
+		int kept = limit - keep;
+		if (0 < keep) {
+			System.arraycopy(buffer, keep, buffer, 0, kept);
+		}
+		else if (kept == buffer.length) {
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		}
+		position -= keep;
+		limit = kept;
+
+		if (isEndOfFile) {
+			return false;
+		}
+
+		int count;
+		do {
+			count = reader.read(buffer, limit, buffer.length - limit);
+		} while (count == 0);
+
+		if (count < 0) {
+			isEndOfFile = true;
+			return false;
+		}
+
+		limit += count;
+		return true;
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.file.flat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+import com.hauldata.dbpa.process.TaskThreadPool;
+import com.hauldata.dbpa.process.TaskTrace;
+
+/**
+ * Channel that reads the bytes of a file in gzip format.
+ * <p>
+ * The file is read and decompressed into one of a small ring of buffers on a separate thread,
+ * so that the next buffer is decompressed while the caller parses the previous one.  A file of
+ * several gzip members, such as one that was appended to, is read as one continuous stream.
+ * An error reading or decompressing the file is thrown by the read that reaches it.
+ */
+public class GzipReadChannel implements ReadableByteChannel {
+
+	public static final int bufferSize = 256 * 1024;
+	private static final int bufferCount = 3;
+
+	private static final ByteBuffer endOfData = ByteBuffer.allocate(0);
+
+	private BlockingQueue<ByteBuffer> free;
+	private BlockingQueue<ByteBuffer> full;
+
+	private ByteBuffer current;
+	private boolean isEndOfData;
+
+	private boolean isOpen;
+	private volatile boolean isClosing;
+	private volatile IOException failure;
+	private TaskTrace.Counters counters;
+
+	/**
+	 * Open a file in gzip format for reading
+	 *
+	 * @param path is the path of the file
+	 */
+	public GzipReadChannel(Path path) throws IOException {
+
+		InputStream in = Files.newInputStream(path);
+
+		free = new ArrayBlockingQueue<ByteBuffer>(bufferCount);
+		full = new ArrayBlockingQueue<ByteBuffer>(bufferCount + 1);
+		for (int i = 0; i < bufferCount; ++i) {
+			free.add(ByteBuffer.allocate(bufferSize));
+		}
+
+		current = null;
+		isEndOfData = false;
+
+		isOpen = true;
+		isClosing = false;
+		failure = null;
+		counters = null;
+
+		TaskThreadPool.get().execute(new Decompressor(in));
+	}
+
+	@Override
+	public boolean isOpen() {
+		return isOpen;
+	}
+
+	@Override
+	public int read(ByteBuffer dst) throws IOException {
+
+		if (!isOpen) {
+			throw new ClosedChannelException();
+		}
+
+		try {
+			if ((current == null) && !isEndOfData) {
+				current = full.take();
+			}
+		}
+		catch (InterruptedException ex) {
+			throw new InterruptedIOException();
+		}
+
+		if ((current == endOfData) || isEndOfData) {
+			isEndOfData = true;
+			current = null;
+			if (failure != null) {
+				throw failure;
+			}
+			return -1;
+		}
+
+		int length = Math.min(current.remaining(), dst.remaining());
+		int limit = current.limit();
+		current.limit(current.position() + length);
+		dst.put(current);
+		current.limit(limit);
+
+		if (!current.hasRemaining()) {
+			current.clear();
+			free.add(current);
+			current = null;
+		}
+
+		return length;
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		if (!isOpen) {
+			return;
+		}
+		isOpen = false;
+
+		// Release the decompressor if it is waiting for a free buffer.
+
+		isClosing = true;
+		if (current != null) {
+			current.clear();
+			free.add(current);
+			current = null;
+		}
+		try {
+			while (!isEndOfData) {
+				ByteBuffer buffer = full.take();
+				if (buffer == endOfData) {
+					isEndOfData = true;
+				}
+				else {
+					buffer.clear();
+					free.add(buffer);
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		TaskTrace.addCounts(counters);
+	}
+
+	/**
+	 * Decompression of the file into buffers on a separate thread
+	 */
+	private class Decompressor implements Runnable {
+
+		private InputStream in;
+
+		Decompressor(InputStream in) {
+			this.in = in;
+		}
+
+		@Override
+		public void run() {
+
+			TaskTrace.Counters threadCounters = TaskTrace.startCounting();
+			try (InputStream gzip = new GZIPInputStream(TaskTrace.countBytes(in), bufferSize)) {
+
+				while (!isClosing) {
+					ByteBuffer buffer = free.take();
+
+					int count = 0;
+					while ((count = gzip.read(buffer.array(), buffer.position(), buffer.remaining())) > 0) {
+						buffer.position(buffer.position() + count);
+						if (!buffer.hasRemaining()) {
+							break;
+						}
+					}
+
+					buffer.flip();
+					if (buffer.hasRemaining()) {
+						full.put(buffer);
+					}
+					if (count < 0) {
+						break;
+					}
+				}
+			}
+			catch (IOException ex) {
+				failure = ex;
+			}
+			catch (InterruptedException ex) {
+				failure = new InterruptedIOException();
+			}
+			finally {
+				try { in.close(); } catch (IOException ex) {}
+
+				TaskTrace.stopCounting(threadCounters);
+				counters = threadCounters;
+
+				// Do not leave an interrupt pending on a pooled thread.
+				Thread.interrupted();
+
+				full.add(endOfData);
+			}
+		}
+	}
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.file.flat;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPOutputStream;
+
+import com.hauldata.dbpa.process.TaskThreadPool;
+import com.hauldata.dbpa.process.TaskTrace;
+
+/**
+ * Channel that writes bytes to a file in gzip format.
+ * <p>
+ * Bytes written to the channel are copied into one of a small ring of buffers and compressed
+ * and written to the file on a separate thread, so that the caller formats the next buffer
+ * while the previous one is compressed.  Appending to an existing file adds a gzip member
+ * after those already in the file, which is read back as a continuation of the same data.
+ * An error compressing or writing the file is thrown by the next write or by close().
+ */
+public class GzipWriteChannel implements WritableByteChannel {
+
+	public static final int bufferSize = 256 * 1024;
+	private static final int bufferCount = 3;
+
+	private static final ByteBuffer endOfData = ByteBuffer.allocate(0);
+
+	private BlockingQueue<ByteBuffer> free;
+	private BlockingQueue<ByteBuffer> full;
+
+	private boolean isOpen;
+	private volatile IOException failure;
+	private CountDownLatch done;
+	private TaskTrace.Counters counters;
+
+	/**
+	 * Open a file for writing in gzip format
+	 *
+	 * @param path is the path of the file
+	 * @param append is true to add a gzip member at the end of an existing file or false to replace it
+	 */
+	public GzipWriteChannel(Path path, boolean append) throws IOException {
+
+		OutputStream out = append ?
+				Files.newOutputStream(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.APPEND) :
+				Files.newOutputStream(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+		GZIPOutputStream gzip;
+		try {
+			gzip = new GZIPOutputStream(TaskTrace.countBytes(out), bufferSize);
+		}
+		catch (IOException ex) {
+			out.close();
+			throw ex;
+		}
+
+		free = new ArrayBlockingQueue<ByteBuffer>(bufferCount);
+		full = new ArrayBlockingQueue<ByteBuffer>(bufferCount + 1);
+		for (int i = 0; i < bufferCount; ++i) {
+			free.add(ByteBuffer.allocate(bufferSize));
+		}
+
+		isOpen = true;
+		failure = null;
+		done = new CountDownLatch(1);
+		counters = null;
+
+		TaskThreadPool.get().execute(new Compressor(gzip));
+	}
+
+	@Override
+	public boolean isOpen() {
+		return isOpen;
+	}
+
+	@Override
+	public int write(ByteBuffer src) throws IOException {
+
+		if (!isOpen) {
+			throw new ClosedChannelException();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+
+		int count = src.remaining();
+		try {
+			while (src.hasRemaining()) {
+				ByteBuffer buffer = free.take();
+
+				int length = Math.min(src.remaining(), buffer.remaining());
+				int limit = src.limit();
+				src.limit(src.position() + length);
+				buffer.put(src);
+				src.limit(limit);
+
+				buffer.flip();
+				full.put(buffer);
+			}
+		}
+		catch (InterruptedException ex) {
+			throw new InterruptedIOException();
+		}
+		return count;
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		if (!isOpen) {
+			return;
+		}
+		isOpen = false;
+
+		full.add(endOfData);
+
+		boolean isInterrupted = false;
+		while (true) {
+			try {
+				done.await();
+				break;
+			}
+			catch (InterruptedException ex) {
+				isInterrupted = true;
+			}
+		}
+		if (isInterrupted) {
+			Thread.currentThread().interrupt();
+		}
+
+		TaskTrace.addCounts(counters);
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Compression of the buffers written to the channel on a separate thread.  After a failure
+	 * the buffers are still returned to the ring so that the writer is not blocked.
+	 */
+	private class Compressor implements Runnable {
+
+		private GZIPOutputStream gzip;
+
+		Compressor(GZIPOutputStream gzip) {
+			this.gzip = gzip;
+		}
+
+		@Override
+		public void run() {
+
+			TaskTrace.Counters threadCounters = TaskTrace.startCounting();
+			try {
+				for (;;) {
+					ByteBuffer buffer = full.take();
+					if (buffer == endOfData) {
+						break;
+					}
+
+					if (failure == null) {
+						try {
+							gzip.write(buffer.array(), 0, buffer.limit());
+						}
+						catch (IOException ex) {
+							failure = ex;
+						}
+					}
+
+					buffer.clear();
+					free.put(buffer);
+				}
+			}
+			catch (InterruptedException ex) {
+				failure = new InterruptedIOException();
+			}
+			finally {
+				try {
+					gzip.close();
+				}
+				catch (IOException ex) {
+					if (failure == null) {
+						failure = ex;
+					}
+				}
+
+				TaskTrace.stopCounting(threadCounters);
+				counters = threadCounters;
+
+				// Do not leave an interrupt pending on a pooled thread.
+				Thread.interrupted();
+
+				done.countDown();
+			}
+		}
+	}
+}
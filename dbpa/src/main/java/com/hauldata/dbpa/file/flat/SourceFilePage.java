@@ -17,6 +17,7 @@
 package com.hauldata.dbpa.file.flat;
 
 import java.io.IOException;
+import java.util.List;
 
 import com.hauldata.dbpa.file.File;
 import com.hauldata.dbpa.file.PageIdentifier;
@@ -67,8 +68,28 @@ public class SourceFilePage extends SourcePage {
 	}
 
 	protected FlatFile file;
+	private int firstLine;
 
 	protected SourceFilePage(FlatFile file) {
+		this(file, 1);
+	}
+
+	protected SourceFilePage(FlatFile file, int firstLine) {
 		super(file);
+		this.file = file;
+		this.firstLine = firstLine;
+	}
+
+	@Override
+	public int getFirstLine() {
+		return firstLine;
+	}
+
+	@Override
+	public List<SourcePage> split(int count) throws IOException {
+		if (!(file instanceof TextFile)) {
+			return super.split(count);
+		}
+		return ((TextFile)file).split(count);
 	}
 }
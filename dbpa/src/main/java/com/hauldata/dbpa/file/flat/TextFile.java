@@ -16,20 +16,22 @@
 
 package com.hauldata.dbpa.file.flat;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.hauldata.dbpa.file.PageOptions;
 import com.hauldata.dbpa.file.PageOptionsParser;
+import com.hauldata.dbpa.file.SourceHeaders;
+import com.hauldata.dbpa.file.SourcePage;
+import com.hauldata.util.tokenizer.EndOfLine;
 
 public abstract class TextFile extends FlatFile {
 
@@ -71,80 +73,271 @@ public abstract class TextFile extends FlatFile {
 	 */
 	private Format getFormat() {
 
-		Charset charset = null;
-		boolean hasBom = false;
+		try (ChannelReader reader = openReader()) {
+			return new Format(reader.getCharset(), 0 < reader.getBomLength());
+		}
+		catch (IOException ex) {
+			// File doesn't exist or can't be read.
+			return Format.defaultFormat;
+		}
+	}
+
+	/**
+	 * Options that can specify that a file is compressed in gzip format regardless of its name
+	 */
+	protected interface CompressOptions extends PageOptions {
+		boolean isCompressed();
+	}
 
-		// Check if the file has a BOM; see https://en.wikipedia.org/wiki/Byte_order_mark
+	/**
+	 * @return true if the file is compressed in gzip format, either because its name ends
+	 * with the extension <code>.gz</code> or because the COMPRESS option was specified
+	 */
+	public boolean isCompressed() {
+		return
+				getName().toLowerCase().endsWith(gzipExtension) ||
+				((getOptions() instanceof CompressOptions) && ((CompressOptions)getOptions()).isCompressed());
+	}
 
-		FileInputStream in = null;
-		try {
-			in = new FileInputStream(getName());
-			byte bom[] = new byte[3];
-			int count = in.read(bom, 0, 3);
+	private static final String gzipExtension = ".gz";
 
-			if (
-					(3 <= count) &&
-					(bom[0] == (byte)0xef && bom[1] == (byte)0xbb && bom[2] == (byte)0xbf)) {
-				charset = Charset.forName("UTF-8");
-				hasBom = true;
-			}
-			else if (
-					(2 <= count)  &&
-					(bom[0] == (byte)0xfe && bom[1] == (byte)0xff)) {
-				charset = Charset.forName("UTF-16BE");
-				hasBom = true;
-			}
-			else if (
-					(2 <= count)  &&
-					(bom[0] == (byte)0xff && bom[1] == (byte)0xfe)) {
-				charset = Charset.forName("UTF-16LE");
-				hasBom = true;
-			}
-		}
-		catch (IOException /* catches FileNotFoundException */ ex) {
-			// File doesn't exist or can't be read.
+	/**
+	 * @return a reader of the characters of the file after its byte order mark, if any,
+	 * in the character set determined from the byte order mark
+	 */
+	protected Reader getReader() throws IOException {
+		return openReader();
+	}
+
+	private ChannelReader openReader() throws IOException {
+		if (isCompressed()) {
+			return new ChannelReader(new GzipReadChannel((Path)key), defaultCharset);
 		}
-		finally {
-			if (in != null) {
-				try { in.close(); } catch (IOException ex) {}
-			}
+		else {
+			return new ChannelReader((Path)key, defaultCharset);
 		}
+	}
+
+	/**
+	 * Byte range of a file that begins at the start of a record and ends after the end of a record
+	 */
+	protected static class Chunk {
+
+		public final long start;
+		public final long end;
+		public final int firstLine;
 
-		return (charset != null) ? new Format(charset, hasBom) : Format.defaultFormat;
+		Chunk(long start, long end, int firstLine) {
+			this.start = start;
+			this.end = end;
+			this.firstLine = firstLine;
+		}
 	}
 
-	protected BufferedReader getReader() throws IOException {
+	/**
+	 * Split the data rows of a file that has been opened for reading into chunks that can be read
+	 * concurrently, and open a page to read each chunk.  The file must have been opened from its start,
+	 * so that only its headers have been read.  The page of the file itself should be closed afterward.
+	 * <p>
+	 * The file is scanned once byte by byte to find the record boundaries nearest to equal divisions
+	 * of its data.  Line breaks within quoted fields are not record boundaries.  Since the scan looks
+	 * for single-byte line breaks and quotes, the file must not be encoded in UTF-16.  Errors reading
+	 * a chunk report line numbers in the whole file.
+	 *
+	 * @param count is the maximum number of chunks
+	 * @return the pages of the chunks, which is empty if the file has no data rows
+	 */
+	public List<SourcePage> split(int count) throws IOException {
+
+		if (isCompressed()) {
+			throw new RuntimeException("Cannot read a compressed file in parallel");
+		}
 
 		Format format = getFormat();
+		if (format.charset.name().startsWith("UTF-16")) {
+			throw new RuntimeException("Cannot read a UTF-16 file in parallel");
+		}
 
-		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(getName()), format.charset));
+		SourceHeaders headers = getSourceHeaders();
+		boolean hasHeaders = (headers != null) && headers.exist();
 
-		if (format.hasBom) {
-			reader.read();
+		// Establish the number of columns from the first row if there are no headers.
+
+		if ((headers != null) && (headers.getColumnCount() == 0) && hasRow()) {
+			for (int columnIndex = 1; readColumn(columnIndex) != EndOfLine.value; ++columnIndex);
 		}
+		int columnCount = (headers != null) ? headers.getColumnCount() : 0;
+
+		List<SourcePage> pages = new ArrayList<SourcePage>();
+		for (Chunk chunk : findChunks(count, format.hasBom ? 3 : 0, hasHeaders)) {
+
+			TextFile file = instantiateChunk();
+			file.setHeaders(new SourceHeaders());
+			if (0 < columnCount) {
+				file.getSourceHeaders().setColumnCount(columnCount);
+			}
 
-		return reader;
+			file.openChunk(getReader(format, chunk), chunk.firstLine);
+			file.setOpen(true);
+
+			pages.add(new SourceFilePage(file, chunk.firstLine));
+		}
+		return pages;
 	}
 
-	protected BufferedWriter getWriter(boolean append) throws IOException {
+	/**
+	 * @return a new unowned file of the same type and options as this file for reading a chunk of it
+	 */
+	protected abstract TextFile instantiateChunk();
 
-		Format format = append ? getFormat() : Format.defaultFormat;
+	/**
+	 * Prepare to read a chunk of the file
+	 *
+	 * @param reader reads the characters of the chunk
+	 * @param firstLine is the line number in the file of the first line of the chunk
+	 */
+	protected abstract void openChunk(Reader reader, int firstLine) throws IOException;
 
-		BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(getName(), append), format.charset));
+	/**
+	 * @return the character that separates fields, which are optionally quoted,
+	 * or -1 if records are not divided into fields
+	 */
+	protected int getSeparator() {
+		return -1;
+	}
 
-		return writer;
+	private List<Chunk> findChunks(int count, int bomLength, boolean hasHeaders) throws IOException {
+
+		final int fieldStart = 0, unquoted = 1, quoted = 2, quoteInQuoted = 3;
+		final int quote = '"';
+
+		int separator = getSeparator();
+
+		List<Chunk> chunks = new ArrayList<Chunk>();
+
+		long dataStart = -1L;
+		long size = 0L;
+		long chunkStart = 0L;
+		int chunkLine = 0;
+		long nextCut = 0L;
+
+		int state = fieldStart;
+		boolean isHeaderPending = hasHeaders;
+		boolean isRecordStart = true;
+		boolean isAfterCr = false;
+		int line = 1;
+		long offset = 0L;
+
+		try (FileInputStream in = new FileInputStream(getName())) {
+
+			size = in.getChannel().size();
+
+			byte[] buffer = new byte[chunkScanBufferSize];
+			for (int length; (length = in.read(buffer)) != -1; ) {
+				for (int i = 0; i < length; ++i, ++offset) {
+
+					if (offset < bomLength) {
+						continue;
+					}
+
+					int b = buffer[i];
+
+					if (isAfterCr) {
+						isAfterCr = false;
+						if (b == '\n') {
+							continue;
+						}
+					}
+
+					if (isRecordStart) {
+						isRecordStart = false;
+
+						if (isHeaderPending) {
+							isHeaderPending = false;
+						}
+						else if (dataStart < 0) {
+							dataStart = chunkStart = offset;
+							chunkLine = line;
+							nextCut = dataStart + (size - dataStart) / count;
+						}
+						else if ((nextCut <= offset) && (chunks.size() < count - 1)) {
+							chunks.add(new Chunk(chunkStart, offset, chunkLine));
+							chunkStart = offset;
+							chunkLine = line;
+							nextCut = dataStart + (size - dataStart) * (chunks.size() + 1) / count;
+						}
+					}
+
+					if ((b == '\r') || (b == '\n')) {
+						if (state != quoted) {
+							state = fieldStart;
+							isRecordStart = true;
+						}
+						isAfterCr = (b == '\r');
+						++line;
+					}
+					else if (separator < 0) {
+						// Records are not divided into fields.
+					}
+					else if (state == quoted) {
+						if (b == quote) {
+							state = quoteInQuoted;
+						}
+					}
+					else if (b == separator) {
+						state = fieldStart;
+					}
+					else if ((b == quote) && ((state == fieldStart) || (state == quoteInQuoted))) {
+						state = quoted;
+					}
+					else {
+						state = unquoted;
+					}
+				}
+			}
+		}
+
+		if (0 <= dataStart) {
+			chunks.add(new Chunk(chunkStart, offset, chunkLine));
+		}
+
+		return chunks;
+	}
+
+	private static final int chunkScanBufferSize = 65536;
+
+	private Reader getReader(Format format, Chunk chunk) throws IOException {
+		return new ChannelReader((Path)key, chunk.start, chunk.end, format.charset);
 	}
 
-	protected static class TargetOptions implements PageOptions {
+	protected Writer getWriter(boolean append) throws IOException {
+
+		Format format = append ? getFormat() : Format.defaultFormat;
+
+		if (isCompressed()) {
+			return new ChannelWriter(new GzipWriteChannel((Path)key, append), format.charset);
+		}
+		else {
+			return new ChannelWriter((Path)key, format.charset, append);
+		}
+	}
+
+	protected static class TargetOptions implements CompressOptions {
 
 		public static final TargetOptions DEFAULT = new TargetOptions();
 
 		private String endOfLine = String.format("%n");
+		private boolean compressed = false;
 
 		public String getEndOfLine() {
 			return endOfLine;
 		}
 
+		@Override
+		public boolean isCompressed() {
+			return compressed;
+		}
+
 		public static class Parser extends PageOptionsParser {
 
 			static Map<String, Modifier> modifiers;
@@ -153,6 +346,7 @@ public abstract class TextFile extends FlatFile {
 				modifiers = new HashMap<String, Modifier>();
 				modifiers.put("CRLF", (parser, options) -> {((TargetOptions)options).endOfLine = "\r\n";});
 				modifiers.put("LF", (parser, options) -> {((TargetOptions)options).endOfLine = "\n";});
+				modifiers.put("COMPRESS", (parser, options) -> {((TargetOptions)options).compressed = true;});
 			}
 
 			protected Parser() {
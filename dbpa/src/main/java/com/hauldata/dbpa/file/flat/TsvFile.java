@@ -51,6 +51,13 @@ public class TsvFile extends DsvFile {
 		return typeName;
 	}
 
+	// TextFile overrides
+
+	@Override
+	protected TextFile instantiateChunk() {
+		return new TsvFile(null, (Path)key, getOptions());
+	}
+
 	// PageNode overrides
 
 	@Override
@@ -17,15 +17,19 @@
 package com.hauldata.dbpa.file.flat;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.hauldata.dbpa.file.File;
 import com.hauldata.dbpa.file.FileHandler;
 import com.hauldata.dbpa.file.Node;
 import com.hauldata.dbpa.file.PageOptions;
+import com.hauldata.dbpa.file.PageOptionsParser;
 import com.hauldata.dbpa.file.SourceHeaders;
 import com.hauldata.dbpa.file.TargetHeaders;
 import com.hauldata.util.tokenizer.EndOfLine;
@@ -43,10 +47,39 @@ public class TxtFile extends TextFile {
 			public File instantiate(Node.Owner owner, Object path, PageOptions options) { return new TxtFile((File.Owner)owner, (Path)path, options); }
 			public String getTypeName() { return typeName; }
 		};
-		FileHandler.register(name, false, new TargetFilePage.Factory(fileFactory), new TargetOptions.Parser(), new SourceFilePage.Factory(fileFactory), null);
+		FileHandler.register(name, false, new TargetFilePage.Factory(fileFactory), new TargetOptions.Parser(), new SourceFilePage.Factory(fileFactory), new TxtSourceOptions.Parser());
 	}
 
-	private BufferedWriter writer;
+	private static class TxtSourceOptions implements CompressOptions {
+
+		private boolean compressed = false;
+
+		@Override
+		public boolean isCompressed() {
+			return compressed;
+		}
+
+		public static class Parser extends PageOptionsParser {
+
+			static Map<String, Modifier> modifiers;
+
+			static {
+				modifiers = new HashMap<String, Modifier>();
+				modifiers.put("COMPRESS", (parser, options) -> {((TxtSourceOptions)options).compressed = true;});
+			}
+
+			Parser() {
+				super(modifiers);
+			}
+
+			@Override
+			protected PageOptions makeDefaultOptions() {
+				return new TxtSourceOptions();
+			}
+		}
+	}
+
+	private Writer writer;
 	private BufferedReader reader;
 	private int lineNumber;
 	private String lookaheadRow;
@@ -94,7 +127,7 @@ public class TxtFile extends TextFile {
 	@Override
 	public void open() throws IOException {
 
-		reader = getReader();
+		reader = new BufferedReader(getReader());
 		lineNumber = 0;
 		lookaheadRow = reader.readLine();
 
@@ -181,6 +214,19 @@ public class TxtFile extends TextFile {
 
 	// TextFile overrides
 
+	@Override
+	protected TextFile instantiateChunk() {
+		return new TxtFile(null, (Path)key, getOptions());
+	}
+
+	@Override
+	protected void openChunk(Reader reader, int firstLine) throws IOException {
+
+		this.reader = new BufferedReader(reader);
+		lineNumber = firstLine - 1;
+		lookaheadRow = this.reader.readLine();
+	}
+
 	@Override
 	public int lineno() {
 		return lineNumber;
@@ -25,6 +25,14 @@ public class ChildContext extends Context {
 		logger = parent.logger.nestProcess(parentTaskId, childName);
 
 		rootExecutor = executor;
+
+		concurrencyLimit = new ConcurrencyLimit(parent.concurrencyLimit, 0);
+
+		history = (parent.history != null) ? parent.history.child(childName) : null;
+
+		journal = (parent.journal != null) ? parent.journal.child(parentTaskId) : null;
+
+		trace = (parent.trace != null) ? parent.trace.child(childName) : null;
 	}
 
 	@Override
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Limit on the number of tasks that may run concurrently.
+ * <p>
+ * Limits are arranged in a hierarchy.  There is a single limit for the JVM.  Each process has a limit
+ * whose parent is the limit of the process that launched it, or the JVM limit for a top-level process.
+ * A task may only start when a slot is available at every level from its own process up to the JVM.
+ * Tasks that cannot start are queued and admitted in order of priority, and among tasks of
+ * equal priority in the order they became ready.
+ * <p>
+ * A maximum of zero or less means no limit at that level.
+ */
+public class ConcurrencyLimit {
+
+	// All limits share one lock so that an admission can move through the hierarchy atomically.
+
+	private static final Object lock = new Object();
+
+	private static final ConcurrencyLimit jvmLimit = new ConcurrencyLimit(null, 0);
+
+	private static int queuedCount = 0;
+	private static long nextSequence = 0L;
+
+	private static final Comparator<Admission> admissionOrder =
+			Comparator.comparingLong((Admission admission) -> -admission.priority).thenComparingLong(admission -> admission.sequence);
+
+	private ConcurrencyLimit parent;
+	private int maxRunning;
+	private int running;
+	private Queue<Admission> queue;
+
+	/**
+	 * Request to run a task subject to a limit
+	 */
+	public static abstract class Admission {
+
+		private ConcurrencyLimit limit;
+		private ConcurrencyLimit waitingAt;
+		private boolean queued;
+		private long priority;
+		private long sequence;
+		private long requestNanos;
+		private long waitNanos;
+
+		protected Admission() {
+			limit = null;
+			waitingAt = null;
+			queued = false;
+			priority = 0L;
+			sequence = 0L;
+			requestNanos = 0L;
+			waitNanos = 0L;
+		}
+
+		/**
+		 * Start the admitted task.  Called without any lock held, possibly on a different thread
+		 * than the one that requested admission.
+		 */
+		protected abstract void start();
+
+		/**
+		 * @return the priority of the admission; among queued admissions, those
+		 * with higher priority are started first
+		 */
+		protected long getPriority() {
+			return 0L;
+		}
+
+		/**
+		 * @return the number of milliseconds the admission spent queued before it was started
+		 */
+		public long getWaitMillis() {
+			return waitNanos / 1000000L;
+		}
+
+		/**
+		 * @return true if the admission had to be queued before it was started
+		 */
+		public boolean wasQueued() {
+			return queued;
+		}
+
+		/**
+		 * Release the slots held by a started admission.  Must be called exactly once
+		 * when the admitted task has finished.
+		 */
+		public void release() {
+			limit.release(this);
+		}
+
+		/**
+		 * Withdraw a queued admission so that it will never be started.
+		 *
+		 * @return true if the admission was withdrawn, or false if it was not queued
+		 * because it has already been started
+		 */
+		public boolean withdraw() {
+			return limit.withdraw(this);
+		}
+	}
+
+	/**
+	 * @return the limit that applies to all processes running in this JVM
+	 */
+	public static ConcurrencyLimit getJvmLimit() {
+		return jvmLimit;
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param parent is the enclosing limit, or null for the JVM limit
+	 * @param maxRunning is the maximum number of tasks that may run concurrently, or zero for no limit
+	 */
+	public ConcurrencyLimit(ConcurrencyLimit parent, int maxRunning) {
+		this.parent = parent;
+		this.maxRunning = maxRunning;
+		this.running = 0;
+		this.queue = new PriorityQueue<Admission>(admissionOrder);
+	}
+
+	/**
+	 * @return the number of admissions currently queued at any limit
+	 */
+	public static int getQueuedCount() {
+		synchronized (lock) {
+			return queuedCount;
+		}
+	}
+
+	public int getMaxRunning() {
+		return maxRunning;
+	}
+
+	/**
+	 * Change the maximum number of tasks that may run concurrently.
+	 * If the limit is raised, queued admissions are started as slots become available.
+	 */
+	public void setMaxRunning(int maxRunning) {
+
+		List<Admission> startable = new ArrayList<Admission>();
+
+		synchronized (lock) {
+			this.maxRunning = maxRunning;
+			dispatch(this, startable);
+		}
+
+		startAll(startable);
+	}
+
+	/**
+	 * Request admission of a task.  The admission is started immediately if slots are
+	 * available at every level; otherwise it is queued behind earlier requests of
+	 * the same or higher priority.
+	 */
+	public void admit(Admission admission) {
+
+		List<Admission> startable = new ArrayList<Admission>();
+
+		synchronized (lock) {
+			admission.limit = this;
+			admission.priority = admission.getPriority();
+			admission.sequence = nextSequence++;
+			admission.requestNanos = System.nanoTime();
+			advance(admission, this, startable);
+		}
+
+		startAll(startable);
+	}
+
+	private boolean withdraw(Admission admission) {
+
+		List<Admission> startable = new ArrayList<Admission>();
+
+		synchronized (lock) {
+			ConcurrencyLimit waitingAt = admission.waitingAt;
+			if (waitingAt == null) {
+				return false;
+			}
+
+			waitingAt.queue.remove(admission);
+			admission.waitingAt = null;
+			--queuedCount;
+
+			// Give back the slots already acquired below the level where the admission was queued.
+
+			for (ConcurrencyLimit level = this; level != waitingAt; level = level.parent) {
+				level.running--;
+			}
+			dispatch(this, startable);
+		}
+
+		startAll(startable);
+
+		return true;
+	}
+
+	private void release(Admission admission) {
+
+		List<Admission> startable = new ArrayList<Admission>();
+
+		synchronized (lock) {
+			for (ConcurrencyLimit level = this; level != null; level = level.parent) {
+				level.running--;
+			}
+			dispatch(this, startable);
+		}
+
+		startAll(startable);
+	}
+
+	private boolean isFull() {
+		return (maxRunning > 0) && (running >= maxRunning);
+	}
+
+	/**
+	 * Acquire slots for an admission from the indicated level upward, queuing it
+	 * at the first level that is full or already has earlier requests waiting.
+	 */
+	private static void advance(Admission admission, ConcurrencyLimit from, List<Admission> startable) {
+
+		for (ConcurrencyLimit level = from; level != null; level = level.parent) {
+			if (level.isFull() || !level.queue.isEmpty()) {
+				level.queue.add(admission);
+				admission.waitingAt = level;
+				admission.queued = true;
+				++queuedCount;
+				return;
+			}
+			level.running++;
+		}
+
+		ready(admission, startable);
+	}
+
+	private static void ready(Admission admission, List<Admission> startable) {
+		admission.waitingAt = null;
+		admission.waitNanos = admission.queued ? System.nanoTime() - admission.requestNanos : 0L;
+		startable.add(admission);
+	}
+
+	/**
+	 * Admit queued requests into any slots that have become available from the
+	 * indicated level upward.  Higher levels are served first so that a slot freed
+	 * at the JVM level goes to the first request queued there.
+	 */
+	private static void dispatch(ConcurrencyLimit from, List<Admission> startable) {
+
+		Deque<ConcurrencyLimit> levels = new ArrayDeque<ConcurrencyLimit>();
+		for (ConcurrencyLimit level = from; level != null; level = level.parent) {
+			levels.push(level);
+		}
+
+		for (ConcurrencyLimit level : levels) {
+			while (!level.isFull() && !level.queue.isEmpty()) {
+				Admission next = level.queue.poll();
+				--queuedCount;
+				level.running++;
+				if (level.parent != null) {
+					advance(next, level.parent, startable);
+				}
+				else {
+					ready(next, startable);
+				}
+			}
+		}
+	}
+
+	private static void startAll(List<Admission> startable) {
+		for (Admission admission : startable) {
+			admission.start();
+		}
+	}
+}
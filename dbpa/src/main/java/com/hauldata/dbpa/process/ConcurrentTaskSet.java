@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.naming.NamingException;
+
+import com.hauldata.dbpa.task.Task;
+import com.hauldata.dbpa.variable.Variable;
+import com.hauldata.dbpa.variable.VariableBase;
+import com.hauldata.dbpa.variable.VariableType;
+
+/**
+ * Loop body whose iterations run concurrently.
+ * <p>
+ * The body is parsed once for each lane, i.e., for each iteration that may run at the same
+ * time as others, so that each lane has its own task objects and its own copy of every scalar
+ * variable in scope.  An iteration starts from a snapshot of the enclosing variables taken
+ * when the iteration is dispatched, and neither its loop variables nor the variables it assigns
+ * are seen by other iterations.  Table variables are not copied; all iterations share their contents.
+ * <p>
+ * Iterations are not admitted under the concurrency limit of the process.  As in any nested
+ * task set, the tasks of an iteration are admitted individually, so the limit caps the number
+ * of those tasks running at once across all iterations, including the tasks of processes
+ * and the workers of tasks that an iteration runs.
+ * <p>
+ * A BREAK or a failure in any iteration stops further iterations from being dispatched.
+ * Iterations already running are allowed to finish before the loop completes,
+ * and a failure is then reported as the failure of the loop.
+ * <p>
+ * In ordered mode iterations complete in the order they were dispatched: the variables
+ * assigned by each iteration are copied back to the enclosing variables in iteration order,
+ * so that after the loop they hold the values a sequential loop would leave, and a BREAK or
+ * failure discards the effect on variables of iterations dispatched after it.
+ * A lane is not reused until its iteration completes in order.  Otherwise
+ * variables assigned within iterations are discarded when each iteration completes.
+ */
+public class ConcurrentTaskSet {
+
+	/**
+	 * Reader of loop rows into variables
+	 */
+	public interface RowReader {
+
+		/**
+		 * Read the next row into variables
+		 *
+		 * @param variables are the loop variables of the lane that will run the iteration
+		 * @return true if a row was read, false if no rows remain
+		 */
+		boolean next(List<VariableBase> variables) throws Exception;
+	}
+
+	private Task parentTask;
+	private List<Lane> lanes;
+	private boolean ordered;
+
+	/**
+	 * Instantiate a ConcurrentTaskSet object by parsing at the parent parser hand-off
+	 *
+	 * @param loopVariables are the loop variables of the enclosing scope
+	 * @param laneCount is the maximum number of iterations that run at the same time
+	 * @param ordered is true if iterations complete in order
+	 */
+	public static ConcurrentTaskSet parse(
+			TaskSetParser parser,
+			Task parentTask,
+			String structureName,
+			List<VariableBase> loopVariables,
+			int laneCount,
+			boolean ordered) throws IOException, NamingException {
+
+		List<Lane> lanes = new ArrayList<Lane>();
+		List<Map<String, VariableBase>> scopes = new ArrayList<Map<String, VariableBase>>();
+
+		for (int i = 0; i < laneCount; ++i) {
+			Lane lane = new Lane(parser.getVariables(), loopVariables);
+			lanes.add(lane);
+			scopes.add(lane.scope);
+		}
+
+		List<Map<String, Task>> taskSets = parser.parseTasks(parentTask, structureName, scopes);
+
+		for (int i = 0; i < laneCount; ++i) {
+			lanes.get(i).taskSet = new NestedTaskSet(taskSets.get(i));
+		}
+
+		return new ConcurrentTaskSet(parentTask, lanes, ordered);
+	}
+
+	private ConcurrentTaskSet(Task parentTask, List<Lane> lanes, boolean ordered) {
+		this.parentTask = parentTask;
+		this.lanes = lanes;
+		this.ordered = ordered;
+	}
+
+	/**
+	 * @return the copy of the task set parsed for the first lane
+	 */
+	public NestedTaskSet getTaskSet() {
+		return lanes.get(0).taskSet;
+	}
+
+	/**
+	 * @return the copies of the task set parsed for all lanes
+	 */
+	public List<NestedTaskSet> getTaskSets() {
+		List<NestedTaskSet> taskSets = new ArrayList<NestedTaskSet>();
+		for (Lane lane : lanes) {
+			taskSets.add(lane.taskSet);
+		}
+		return taskSets;
+	}
+
+	/**
+	 * Run an iteration of the tasks in the task set for each row read.
+	 *
+	 * @param context is the context in which the parent task runs
+	 * @param nestedName is the name of the parent task
+	 * @param reader reads the rows that drive the iterations
+	 * @throws Task.BreakingException if an iteration executed BREAK
+	 * @throws Exception if reading a row or running an iteration failed
+	 */
+	public void run(Context context, String nestedName, RowReader reader) throws Exception {
+
+		for (Lane lane : lanes) {
+			lane.context = context.makeNestedContext(nestedName);
+			lane.context.setScope(lane.scope);
+		}
+
+		try {
+			new Run(context, reader).execute();
+		}
+		finally {
+			for (Lane lane : lanes) {
+				lane.context.close();
+				lane.context = null;
+			}
+		}
+	}
+
+	/**
+	 * State of a single run of the loop
+	 */
+	private class Run {
+
+		private RowReader reader;
+		private TaskWorkers workers;
+
+		private Deque<Lane> idle = new ArrayDeque<Lane>(lanes);
+
+		private int nextIndex = 0;
+		private boolean exhausted = false;
+
+		// Outcome of the loop.  In ordered mode this is the outcome of the earliest
+		// iteration that broke or failed; otherwise failure takes precedence over BREAK.
+
+		private Exception outcome = null;
+		private int outcomeIndex = Integer.MAX_VALUE;
+
+		// Iterations that have finished but not yet completed in order.
+
+		private TreeMap<Integer, Iteration> finished = new TreeMap<Integer, Iteration>();
+		private int nextCompletionIndex = 0;
+
+		Run(Context context, RowReader reader) {
+			this.reader = reader;
+			this.workers = new TaskWorkers(context, parentTask);
+		}
+
+		void execute() throws Exception {
+
+			try {
+				while (true) {
+					dispatch();
+
+					Iteration iteration = (Iteration)workers.take();
+					if (iteration == null) {
+						break;
+					}
+
+					complete(iteration);
+				}
+			}
+			catch (InterruptedException ex) {
+				// This thread was interrupted.  Interrupt all running iterations and wait for them to finish.
+
+				workers.cancelAll();
+
+				throw ex;
+			}
+
+			if (outcome != null) {
+				throw outcome;
+			}
+		}
+
+		private void dispatch() {
+
+			while (!exhausted && (outcome == null) && !idle.isEmpty()) {
+
+				Lane lane = idle.peek();
+				lane.load();
+
+				boolean hasRow;
+				try {
+					hasRow = reader.next(lane.loopVariables);
+				}
+				catch (Exception ex) {
+					setOutcome(nextIndex, ex);
+					hasRow = false;
+				}
+
+				if (!hasRow) {
+					exhausted = true;
+					break;
+				}
+
+				idle.pop();
+
+				lane.context.setIteration(nextIndex + 1);
+
+				workers.start(new Iteration(nextIndex++, lane));
+			}
+		}
+
+		private void complete(Iteration iteration) {
+
+			Exception exception = iteration.getException();
+
+			if (!ordered) {
+				if (exception != null) {
+					setOutcome(iteration.index, exception);
+				}
+				idle.push(iteration.lane);
+				return;
+			}
+
+			if ((exception != null) && (iteration.index < outcomeIndex)) {
+				setOutcome(iteration.index, exception);
+			}
+
+			finished.put(iteration.index, iteration);
+
+			while ((iteration = finished.remove(nextCompletionIndex)) != null) {
+				if (iteration.index <= outcomeIndex) {
+					iteration.lane.store();
+				}
+				idle.push(iteration.lane);
+				++nextCompletionIndex;
+			}
+		}
+
+		private void setOutcome(int index, Exception exception) {
+
+			if (ordered) {
+				if (index < outcomeIndex) {
+					outcome = exception;
+					outcomeIndex = index;
+				}
+			}
+			else if ((outcome == null) || ((outcome instanceof Task.BreakingException) && !(exception instanceof Task.BreakingException))) {
+				outcome = exception;
+				outcomeIndex = index;
+			}
+		}
+	}
+
+	/**
+	 * A copy of the loop body with its own tasks and variables
+	 */
+	private static class Lane {
+
+		Map<String, VariableBase> scope;
+		List<IterationVariable> copies;
+		List<VariableBase> loopVariables;
+		NestedTaskSet taskSet;
+		Context context;
+
+		Lane(Map<String, VariableBase> outerScope, List<VariableBase> outerLoopVariables) {
+
+			scope = new HashMap<String, VariableBase>();
+			copies = new ArrayList<IterationVariable>();
+
+			Map<VariableBase, VariableBase> substitutes = new HashMap<VariableBase, VariableBase>();
+
+			for (Map.Entry<String, VariableBase> entry : outerScope.entrySet()) {
+				VariableBase outer = entry.getValue();
+				VariableBase variable;
+				if (outer.getType() == VariableType.TABLE) {
+					variable = outer;
+				}
+				else {
+					IterationVariable copy = new IterationVariable(outer);
+					copies.add(copy);
+					variable = copy;
+				}
+				scope.put(entry.getKey(), variable);
+				substitutes.put(outer, variable);
+			}
+
+			loopVariables = new ArrayList<VariableBase>();
+			for (VariableBase outer : outerLoopVariables) {
+				loopVariables.add(substitutes.get(outer));
+			}
+		}
+
+		/**
+		 * Load the lane variables from the enclosing variables
+		 */
+		void load() {
+			for (IterationVariable copy : copies) {
+				copy.load();
+			}
+		}
+
+		/**
+		 * Store the lane variables assigned since the last load into the enclosing variables
+		 */
+		void store() {
+			for (IterationVariable copy : copies) {
+				copy.store();
+			}
+		}
+	}
+
+	/**
+	 * Lane copy of a variable that tracks whether the variable has been assigned
+	 */
+	private static class IterationVariable extends Variable<Object> {
+
+		private VariableBase outer;
+		private boolean assigned;
+
+		IterationVariable(VariableBase outer) {
+			super(outer.getName(), outer.getType());
+			this.outer = outer;
+			this.assigned = false;
+		}
+
+		@Override
+		public void setValueObject(Object valueObject) {
+			super.setValueObject(valueObject);
+			assigned = true;
+		}
+
+		void load() {
+			super.setValueObject(outer.getValueObject());
+			assigned = false;
+		}
+
+		void store() {
+			if (assigned) {
+				outer.setValueObject(getValueObject());
+			}
+		}
+	}
+
+	/**
+	 * A single iteration of the loop running in a lane
+	 */
+	private static class Iteration extends TaskWorkers.Worker {
+
+		final int index;
+		final Lane lane;
+
+		Iteration(int index, Lane lane) {
+			this.index = index;
+			this.lane = lane;
+		}
+
+		@Override
+		protected void work() throws Exception {
+			lane.taskSet.run(lane.context);
+		}
+	}
+}
@@ -32,12 +32,15 @@ import com.hauldata.dbpa.connection.FtpConnection;
 import com.hauldata.dbpa.loader.Loader;
 import com.hauldata.dbpa.log.Logger;
 import com.hauldata.dbpa.log.NullLogger;
+import com.hauldata.dbpa.variable.VariableBase;
 
 /**
  * Context in which a task will run.
  */
 public class Context {
 
+	public static final String closeFailedMessageStem = "Failed after closing files: ";
+
 	public Properties connectionProps;
 	public Properties sessionProps;
 	public Properties ftpProps;
@@ -46,6 +49,11 @@ public class Context {
 	public Logger logger;
 	public TaskExecutor executor;
 	public TaskExecutor rootExecutor;
+	public ConcurrencyLimit concurrencyLimit;
+	public TaskHistory history;
+	public RunJournal journal;
+	public TaskTrace trace;
+	public Watermarks watermarks;
 
 	public Files files;
 
@@ -80,11 +88,20 @@ public class Context {
 	 * If not set by the caller, it remains as set by the constructor to a null log that discards all logging.
 	 * The log is set separately from the context constructor because the log's constructor may take the context as an argument.  
 	 * - logger is the log where task status messages can be written
+	 * - history is the record of task durations used to prioritize tasks; if not set by the caller,
+	 * it remains null and durations are not recorded
+	 * - journal is the record of tasks that succeeded, used to resume a failed run; if not set by the caller,
+	 * it remains null and the run cannot be resumed
+	 * - trace is the timeline of task execution; if not set by the caller, it remains null and the run is not traced
+	 * - watermarks are the high-water marks of incremental sources; if not set by the caller, they remain null
+	 * and a task with an incremental source fails
 	 * 
 	 * The above are all exposed as public data members.  In addition, the following public data members
 	 * are instantiated by the constructor:
 	 * - files is the set of files written and/or read by the process
 	 * - executor is task executor to which addition concurrent tasks can be submitted
+	 * - concurrencyLimit is the limit on the number of tasks of the process that may run concurrently;
+	 * it is initially unlimited but is itself subject to the limit for the JVM
 	 */
 	public Context(Properties connectionProps, Properties sessionProps, Properties ftpProps, Properties pathProps, Loader loader) {
 
@@ -101,6 +118,13 @@ public class Context {
 		executor = new TaskExecutor();
 		rootExecutor = executor;
 
+		concurrencyLimit = new ConcurrencyLimit(ConcurrencyLimit.getJvmLimit(), 0);
+
+		history = null;
+		journal = null;
+		trace = null;
+		watermarks = null;
+
 		readParent = getParent(pathProps, "read");
 		writeParent = getParent(pathProps, "write");
 		propertiesParent = getParent(pathProps, "properties");
@@ -124,13 +148,19 @@ public class Context {
 	}
 
 	/**
-	 * Close the context.
+	 * Close the context.  If an action that waits for a file to close fails, such as saving
+	 * the watermark of a WRITE task, the error is logged, as the process has already finished.
 	 */
 	public void close() {
 		try { executor.close(); } catch (Exception ex) {}
-		try { files.assureAllClosed(); } catch (Exception ex) {}
+		try { files.assureAllClosed(); }
+		catch (Exception ex) {
+			String message = (ex.getMessage() != null) ? ex.getMessage() : ex.getClass().getName();
+			logger.error(DbProcess.processTaskId, closeFailedMessageStem + message);
+		}
 		try { logger.close(); } catch (Exception ex) {}
 		try { resources.dbconn.assureClosed(); } catch (Exception ex) {}
+		try { if (history != null) history.save(); } catch (Exception ex) {}
 	}
 
 	/**
@@ -148,6 +178,12 @@ public class Context {
 
 		executor = new TaskExecutor();
 
+		concurrencyLimit = context.concurrencyLimit;
+		history = context.history;
+		journal = context.journal;
+		trace = context.trace;
+		watermarks = context.watermarks;
+
 		readParent = context.readParent;
 		writeParent = context.writeParent;
 		propertiesParent = context.propertiesParent;
@@ -156,6 +192,24 @@ public class Context {
 		resources = context.resources;
 	}
 
+	/**
+	 * Identify the iteration of a loop that the tasks of this context are running,
+	 * so that the run journal can distinguish the tasks of each iteration.
+	 * This has no effect except on a nested context.
+	 *
+	 * @param iteration is the iteration number, starting at 1
+	 */
+	public void setIteration(int iteration) {}
+
+	/**
+	 * Identify the variables that the tasks of this context assign, when they are
+	 * not the variables of the process, so that the run journal records and restores
+	 * the values of those variables.  This has no effect except on a nested context.
+	 *
+	 * @param variables are the variables in scope of the tasks, by name
+	 */
+	public void setScope(Map<String, VariableBase> variables) {}
+
 	/**
 	 * Construct a context to use by a child process of this process.
 	 * @return the child process context.
@@ -18,7 +18,10 @@ package com.hauldata.dbpa.process;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -43,6 +46,11 @@ public class ContextProperties {
 	private Properties ftpProps;
 	private Properties pathProps;
 	private Properties logProps;
+	private Properties concurrencyProps;
+	private Properties historyProps;
+	private Properties journalProps;
+	private Properties traceProps;
+	private Properties watermarkProps;
 
 	private Map<String, Properties> properties;
 
@@ -55,6 +63,11 @@ public class ContextProperties {
 		ftpProps = null;
 		pathProps = getDefaultPathsProperties();
 		logProps = null;
+		concurrencyProps = null;
+		historyProps = null;
+		journalProps = null;
+		traceProps = null;
+		watermarkProps = null;
 	}
 
 	private Properties getDefaultPathsProperties() {
@@ -89,6 +102,11 @@ public class ContextProperties {
 		ftpProps = putProperties(properties, "ftp", defaults.ftpProps);
 		pathProps = putProperties(properties, "path", defaults.pathProps);
 		logProps = putProperties(properties, "log", respectLogDefaults ? defaults.logProps : null);
+		concurrencyProps = putProperties(properties, "concurrency", defaults.concurrencyProps);
+		historyProps = putProperties(properties, "history", defaults.historyProps);
+		journalProps = putProperties(properties, "journal", defaults.journalProps);
+		traceProps = putProperties(properties, "trace", defaults.traceProps);
+		watermarkProps = putProperties(properties, "watermark", defaults.watermarkProps);
 
 		putProperties(properties, "statsd", null);
 	}
@@ -115,6 +133,17 @@ public class ContextProperties {
 			context = new Context(connectionProps, sessionProps, ftpProps, pathProps, loader);
 
 			context.logger = (parentContext == null) ? setupLog(processId, context) : parentContext.logger.nestProcess(parentTaskId, processId);
+
+			setupConcurrencyLimit(context, parentContext);
+
+			setupHistory(context, processId, parentContext);
+
+			setupWatermarks(context, processId, parentContext);
+
+			if (parentContext != null) {
+				context.journal = (parentContext.journal != null) ? parentContext.journal.child(parentTaskId) : null;
+				context.trace = (parentContext.trace != null) ? parentContext.trace.child(processId) : null;
+			}
 		}
 		catch (Exception ex) {
 			try { if (context != null) context.close(); }
@@ -169,6 +198,114 @@ public class ContextProperties {
 		return (pathProps != null) ? pathProps.getProperty(usage, ".") : DBPA.home;
 	}
 
+	/**
+	 * Set the concurrency limits from the "process" and "jvm" concurrency properties.
+	 * Each is the maximum number of tasks that may run at the same time, or zero for no limit.
+	 * A process may lower or raise its own limit with the MAXDOP clause of its script.
+	 */
+	private void setupConcurrencyLimit(Context context, Context parentContext) {
+
+		int processMax = getConcurrencyMax("process");
+		if (parentContext != null) {
+			context.concurrencyLimit = new ConcurrencyLimit(parentContext.concurrencyLimit, processMax);
+		}
+		else {
+			context.concurrencyLimit.setMaxRunning(processMax);
+		}
+
+		if ((concurrencyProps != null) && (concurrencyProps.getProperty("jvm") != null)) {
+			ConcurrencyLimit.getJvmLimit().setMaxRunning(getConcurrencyMax("jvm"));
+		}
+	}
+
+	private int getConcurrencyMax(String propertyName) {
+
+		String maxName = (concurrencyProps != null) ? concurrencyProps.getProperty(propertyName) : null;
+		try {
+			return (maxName != null) ? Integer.parseInt(maxName.trim()) : 0;
+		}
+		catch (NumberFormatException ex) {
+			throw new RuntimeException("Invalid " + propertyName + " concurrency limit \"" + maxName + "\"");
+		}
+	}
+
+	/**
+	 * Set up recording of task durations if the "directory" history property is set.
+	 * The durations of each process are kept in a file in that directory named for the process.
+	 */
+	private void setupHistory(Context context, String processId, Context parentContext) {
+
+		if (parentContext != null) {
+			context.history = (parentContext.history != null) ? parentContext.history.child(processId) : null;
+			return;
+		}
+
+		String directory = (historyProps != null) ? historyProps.getProperty("directory") : null;
+		if ((directory != null) && (processId != null)) {
+			context.history = TaskHistory.load(Files.getPath(directory, processId + TaskHistory.fileExtension));
+		}
+	}
+
+	/**
+	 * Set up the high-water marks of incremental sources if the "directory" watermark property is set.
+	 * The marks of each process are kept in a file in that directory named for the process.
+	 */
+	private void setupWatermarks(Context context, String processId, Context parentContext) {
+
+		if (parentContext != null) {
+			context.watermarks = (parentContext.watermarks != null) ? parentContext.watermarks.child(processId) : null;
+			return;
+		}
+
+		String directory = (watermarkProps != null) ? watermarkProps.getProperty("directory") : null;
+		if ((directory != null) && (processId != null)) {
+			context.watermarks = Watermarks.load(Files.getPath(directory, processId + Watermarks.fileExtension));
+		}
+	}
+
+	/**
+	 * Open the run journal of a process if the "directory" journal property is set.
+	 * The journal of each process is kept in a file in that directory named for the process.
+	 *
+	 * @param processId is the process ID
+	 * @param resume is true to resume the failed run recorded in the journal
+	 * @return the journal, or null if journaling is not configured
+	 * @throws RuntimeException if resume is requested but journaling is not configured
+	 */
+	public RunJournal openJournal(String processId, boolean resume) throws IOException {
+
+		String directory = (journalProps != null) ? journalProps.getProperty("directory") : null;
+		if ((directory == null) || (processId == null)) {
+			if (resume) {
+				throw new RuntimeException("Cannot resume a run; the journal directory is not configured");
+			}
+			return null;
+		}
+
+		return RunJournal.open(Files.getPath(directory, processId + RunJournal.fileExtension), resume);
+	}
+
+	/**
+	 * Open a trace of a process run.  The trace is written to a file named for the process
+	 * and the start time of the run in the directory given by the "directory" trace property,
+	 * or in the log directory if that property is not set.
+	 *
+	 * @param processId is the process ID
+	 * @return the trace
+	 */
+	public TaskTrace openTrace(String processId) throws IOException {
+
+		String directory = (traceProps != null) ? traceProps.getProperty("directory") : null;
+		if (directory == null) {
+			directory = getPathname("log");
+		}
+
+		String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+		String name = ((processId != null) ? processId : "process") + "." + timestamp + TaskTrace.fileExtension;
+
+		return TaskTrace.open(Files.getPath(directory, name), processId);
+	}
+
 	private Logger setupLog(String processID, Context context) {
 
 		String logTypeList = (logProps != null) ? logProps.getProperty("type") : null;
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import com.hauldata.dbpa.task.Task;
+
+/**
+ * Longest path through the tasks of a task set, where the length of a path
+ * is the sum of the durations of the tasks on it
+ */
+class CriticalPath {
+
+	private Map<Task, Long> remaining;
+	private List<Task> path;
+
+	/**
+	 * Find the critical path
+	 *
+	 * @param tasks are the tasks of the task set
+	 * @param duration gives the duration of each task
+	 */
+	CriticalPath(Collection<Task> tasks, ToLongFunction<Task> duration) {
+
+		// Order the tasks so that each follows all of its predecessors, then accumulate
+		// remaining path lengths from the last task back.  This is done without recursion
+		// so that long chains of tasks cannot overflow the stack.
+
+		Map<Task, Integer> predecessorCounts = new HashMap<Task, Integer>();
+		for (Task task : tasks) {
+			predecessorCounts.put(task, 0);
+		}
+		for (Task task : tasks) {
+			for (Task successor : task.getSuccessors()) {
+				predecessorCounts.computeIfPresent(successor, (key, count) -> count + 1);
+			}
+		}
+
+		Deque<Task> ready = new ArrayDeque<Task>();
+		for (Map.Entry<Task, Integer> entry : predecessorCounts.entrySet()) {
+			if (entry.getValue() == 0) {
+				ready.add(entry.getKey());
+			}
+		}
+
+		List<Task> order = new ArrayList<Task>(tasks.size());
+		while (!ready.isEmpty()) {
+			Task task = ready.poll();
+			order.add(task);
+			for (Task successor : task.getSuccessors()) {
+				Integer count = predecessorCounts.computeIfPresent(successor, (key, value) -> value - 1);
+				if ((count != null) && (count == 0)) {
+					ready.add(successor);
+				}
+			}
+		}
+
+		remaining = new HashMap<Task, Long>();
+		for (int i = order.size() - 1; i >= 0; --i) {
+			Task task = order.get(i);
+
+			long longestSuccessor = 0L;
+			for (Task successor : task.getSuccessors()) {
+				Long length = remaining.get(successor);
+				if ((length != null) && (longestSuccessor < length)) {
+					longestSuccessor = length;
+				}
+			}
+			remaining.put(task, duration.applyAsLong(task) + longestSuccessor);
+		}
+
+		// Tasks in a dependency cycle never become ready; count only their own durations.
+
+		for (Task task : tasks) {
+			if (!remaining.containsKey(task)) {
+				remaining.put(task, duration.applyAsLong(task));
+			}
+		}
+
+		path = new ArrayList<Task>();
+		Task next = null;
+		for (Task task : order) {
+			if (task.getPredecessors().isEmpty() && ((next == null) || (remaining.get(next) < remaining.get(task)))) {
+				next = task;
+			}
+		}
+		while (next != null) {
+			path.add(next);
+
+			Task longest = null;
+			for (Task successor : next.getSuccessors()) {
+				if (remaining.containsKey(successor) && ((longest == null) || (remaining.get(longest) < remaining.get(successor)))) {
+					longest = successor;
+				}
+			}
+			next = longest;
+		}
+	}
+
+	/**
+	 * @return the length of the longest path starting at the task
+	 */
+	long getRemaining(Task task) {
+		Long length = remaining.get(task);
+		return (length != null) ? length : 0L;
+	}
+
+	/**
+	 * @return the length of the critical path
+	 */
+	long getLength() {
+		return path.isEmpty() ? 0L : remaining.get(path.get(0));
+	}
+
+	/**
+	 * @return the tasks on the critical path in order
+	 */
+	List<Task> getPath() {
+		return path;
+	}
+}
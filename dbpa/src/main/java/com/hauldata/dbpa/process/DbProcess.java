@@ -32,6 +32,7 @@ import javax.naming.NameNotFoundException;
 import javax.naming.NamingException;
 
 import com.hauldata.dbpa.connection.Connection;
+import com.hauldata.dbpa.expression.Expression;
 import com.hauldata.dbpa.task.Task;
 import com.hauldata.dbpa.variable.*;
 
@@ -50,6 +51,8 @@ public class DbProcess extends TaskSet {
 	public static final String stopMessage = "Process stopped";
 	public static final String failMessageStem = "Process failed: ";
 	public static final String elapsedMessageStem = "Elapsed time: ";
+	public static final String predictedPathMessageStem = "Predicted critical path: ";
+	public static final String actualPathMessageStem = "Actual critical path: ";
 
 	// Note that Task objects created outside the scope of this compilation unit but owned by this DbProcess
 	// hold direct references to elements of the variables and siblings maps.  Therefore the maps are retained
@@ -57,9 +60,9 @@ public class DbProcess extends TaskSet {
 	// again after they are set.
 
 	private List<VariableBase> parameters;
-	@SuppressWarnings("unused")
 	private Map<String, VariableBase> variables;
 	private Map<String, Connection> connections;
+	private Expression<Integer> maxdop;
 	@SuppressWarnings("unused")
 	private Map<String, DbProcess> siblings;
 
@@ -87,6 +90,7 @@ public class DbProcess extends TaskSet {
 				List<VariableBase> parameters,
 				Map<String, VariableBase> variables,
 				Map<String, Connection> connections,
+				Expression<Integer> maxdop,
 				Map<String, DbProcess> siblings,
 				Map<String, Task> tasks) {
 
@@ -95,6 +99,7 @@ public class DbProcess extends TaskSet {
 		this.parameters = parameters;
 		this.variables = variables;
 		this.connections = connections;
+		this.maxdop = maxdop;
 		this.siblings = siblings;
 	}
 
@@ -141,14 +146,24 @@ public class DbProcess extends TaskSet {
 	public Object run(ParameterSetter parameterSetter, Context context) throws Exception {
 
 		LocalDateTime startTime = LocalDateTime.now();
+		long startNanos = System.nanoTime();
+		boolean completed = false;
 
 		try {
 			context.logger.info(processTaskId, startMessage);
 
 			parameterSetter.set();
+			setConcurrencyLimit(context);
+
+			if (context.journal != null) {
+				context.journal.setVariables(variables);
+			}
+
 			runTasks(context);
+			reportCriticalPath(context);
 
 			context.logger.info(processTaskId, completeMessage);
+			completed = true;
 		}
 		catch (InterruptedException ex) {
 			context.logger.error(processTaskId, terminateMessage);
@@ -157,6 +172,7 @@ public class DbProcess extends TaskSet {
 		}
 		catch (Task.StoppedException ex) {
 			context.logger.info(processTaskId, stopMessage);
+			completed = true;
 		}
 		catch (Exception ex) {
 			String message = (ex.getMessage() != null) ? ex.getMessage() : ex.getClass().getName();
@@ -168,6 +184,14 @@ public class DbProcess extends TaskSet {
 		finally {
 			context.close(connections);
 
+			if ((context.journal != null) && context.journal.isRoot()) {
+				closeJournal(context, completed);
+			}
+
+			if (context.trace != null) {
+				writeTrace(context, startNanos);
+			}
+
 			long millis = ChronoUnit.MILLIS.between(startTime,  LocalDateTime.now());
 
 			context.logger.message(processTaskId, elapsedMessageStem + formatElapsed(millis));
@@ -176,6 +200,89 @@ public class DbProcess extends TaskSet {
 		return getReturnValue();
 	}
 
+	/**
+	 * Apply the MAXDOP clause if any to the concurrency limit of the process.
+	 * The clause is evaluated after parameters are set so that it may depend on them.
+	 */
+	private void setConcurrencyLimit(Context context) {
+
+		if (maxdop != null) {
+			Integer maxRunning = maxdop.evaluate();
+			if (maxRunning == null) {
+				throw new RuntimeException(TaskSetParser.KW.MAXDOP.name() + " expression evaluates to NULL");
+			}
+			context.concurrencyLimit.setMaxRunning(maxRunning);
+		}
+	}
+
+	/**
+	 * Close the run journal of a top-level process.  The journal is kept if the process
+	 * did not complete so that the run can be resumed.
+	 */
+	private void closeJournal(Context context, boolean completed) {
+
+		try {
+			context.journal.close(completed);
+		}
+		catch (Exception ex) {
+			String message = (ex.getMessage() != null) ? ex.getMessage() : ex.getClass().getName();
+			context.logger.warn(processTaskId, TaskExecutor.journalFailedMessageStem + message);
+		}
+		context.journal = null;
+	}
+
+	/**
+	 * Write the trace event for this run of the process, and close the trace of a top-level process.
+	 */
+	private void writeTrace(Context context, long startNanos) {
+
+		try {
+			context.trace.writeProcess(startNanos, System.nanoTime());
+
+			if (context.trace.isRoot()) {
+				context.trace.close();
+				context.trace = null;
+			}
+		}
+		catch (Exception ex) {
+			String message = (ex.getMessage() != null) ? ex.getMessage() : ex.getClass().getName();
+			context.logger.warn(processTaskId, TaskExecutor.traceFailedMessageStem + message);
+		}
+	}
+
+	/**
+	 * If task durations are being recorded, log the critical path through the tasks
+	 * of the process as predicted from earlier runs and as it turned out in this run.
+	 */
+	private void reportCriticalPath(Context context) {
+
+		TaskHistory history = context.history;
+		if (history == null) {
+			return;
+		}
+
+		if (history.hasEstimates()) {
+			CriticalPath predicted = new CriticalPath(tasks.values(), task -> history.getEstimateMillis(task));
+			context.logger.info(processTaskId, predictedPathMessageStem + formatPath(predicted));
+		}
+
+		CriticalPath actual = new CriticalPath(tasks.values(), task -> history.getObservedMillis(task));
+		context.logger.info(processTaskId, actualPathMessageStem + formatPath(actual));
+	}
+
+	private static String formatPath(CriticalPath criticalPath) {
+
+		StringBuilder message = new StringBuilder();
+		message.append(String.valueOf(criticalPath.getLength())).append(" ms");
+
+		String separator = ": ";
+		for (Task task : criticalPath.getPath()) {
+			message.append(separator).append(task.getName());
+			separator = " > ";
+		}
+		return message.toString();
+	}
+
 	@FunctionalInterface
 	interface ParameterSetter {
 		void set();
@@ -274,12 +381,13 @@ class DbProcessParser extends TaskSetParser {
 		parseParameters(parameters);
 		parseVariables();
 		parseConnections();
+		Expression<Integer> maxdop = parseMaxdop();
 
 		Map<String, Task> tasks = parseTasks(null, processStructureName());
 
 		endProcess(isMain);
 
-		return new DbProcess(parameters, variables, connections, siblingProcesses, tasks);
+		return new DbProcess(parameters, variables, connections, maxdop, siblingProcesses, tasks);
 	}
 
 	private void parseParameters(List<VariableBase> parameters)
@@ -331,4 +439,17 @@ class DbProcessParser extends TaskSetParser {
 			endSection(section);
 		}
 	}
+
+	private Expression<Integer> parseMaxdop() throws IOException {
+
+		Expression<Integer> maxdop = null;
+
+		String section = KW.MAXDOP.name();
+		if (tokenizer.skipWordIgnoreCase(section)) {
+			maxdop = parseIntegerExpression();
+			endSection(section);
+		}
+
+		return maxdop;
+	}
 }
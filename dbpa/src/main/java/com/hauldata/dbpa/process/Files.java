@@ -19,6 +19,8 @@ package com.hauldata.dbpa.process;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -27,11 +29,13 @@ import com.hauldata.dbpa.file.File;
 public class Files extends File.Owner {
 
 	private Map<Path, File> files;
+	private Map<Path, List<Runnable>> closeActions;
 
 	private static String separator = FileSystems.getDefault().getSeparator();
 
 	public Files() {
 		files = new ConcurrentHashMap<Path, File>();
+		closeActions = new ConcurrentHashMap<Path, List<Runnable>>();
 	}
 
 	// File.Owner overrides
@@ -113,29 +117,87 @@ public class Files extends File.Owner {
 	public boolean assureNotOpen(Path path) {
 
 		boolean isOpen = false;
+		boolean isClosed = true;
 		File file = files.get(path);
 		if (file != null) {
 			if (file.isOpen()) {
 				isOpen = true;
-				try {
-					file.close();
-				} catch (Exception e) {}
+				isClosed = close(file);
 			}
 			files.remove(path);
 		}
+		runCloseActions(path, isClosed);
 		return isOpen;
 	}
 
 	/**
 	 * Close all files that are currently open in the context.
+	 * All files are closed even if an action run after closing one of them fails.
+	 * @throws RuntimeException from the first action that failed, with those from
+	 * any others that failed added as suppressed exceptions.
 	 */
 	public void assureAllClosed() {
 
-		for (File file : files.values()) {
+		RuntimeException failure = null;
+		for (Map.Entry<Path, File> entry : files.entrySet()) {
+			boolean isClosed = true;
+			File file = entry.getValue();
 			if (file.isOpen()) {
-				try {
-					file.close();
-				} catch (Exception e) {}
+				isClosed = close(file);
+			}
+			try {
+				runCloseActions(entry.getKey(), isClosed);
+			}
+			catch (RuntimeException ex) {
+				if (failure == null) {
+					failure = ex;
+				}
+				else {
+					failure.addSuppressed(ex);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Run an action once the indicated file has been closed without error, such as to record
+	 * that the rows written to it are complete.  If the file is not open, the action is run at once.
+	 * The action is discarded if closing the file fails.
+	 * @param path is the path name of the file.
+	 * @param action is the action to run.
+	 */
+	public void afterClose(Path path, Runnable action) {
+
+		File file = (path != null) ? files.get(path) : null;
+		if (file == null || !file.isOpen()) {
+			action.run();
+			return;
+		}
+		closeActions.compute(path, (key, actions) -> {
+			List<Runnable> result = (actions != null) ? actions : new ArrayList<Runnable>();
+			result.add(action);
+			return result;
+		});
+	}
+
+	private static boolean close(File file) {
+		try {
+			file.close();
+			return true;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	private void runCloseActions(Path path, boolean isClosed) {
+
+		List<Runnable> actions = closeActions.remove(path);
+		if (actions != null && isClosed) {
+			for (Runnable action : actions) {
+				action.run();
 			}
 		}
 	}
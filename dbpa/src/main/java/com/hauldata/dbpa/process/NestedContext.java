@@ -16,8 +16,16 @@
 
 package com.hauldata.dbpa.process;
 
+import java.util.Map;
+
+import com.hauldata.dbpa.variable.VariableBase;
+
 public class NestedContext extends Context {
 
+	private RunJournal ownerJournal;
+	private String nestedName;
+	private Map<String, VariableBase> journalVariables;
+
 	public NestedContext(Context owner, String nestedName) {
 
 		super(owner);
@@ -25,6 +33,31 @@ public class NestedContext extends Context {
 		logger = owner.logger.nestTask(nestedName);
 
 		rootExecutor = owner.rootExecutor;
+
+		ownerJournal = owner.journal;
+		this.nestedName = nestedName;
+
+		journal = (ownerJournal != null) ? ownerJournal.nest(nestedName) : null;
+
+		journalVariables = null;
+	}
+
+	@Override
+	public void setScope(Map<String, VariableBase> variables) {
+		journalVariables = variables;
+		if (journal != null) {
+			journal.setVariables(variables);
+		}
+	}
+
+	@Override
+	public void setIteration(int iteration) {
+		if (ownerJournal != null) {
+			journal = ownerJournal.nest(nestedName, iteration);
+			if (journalVariables != null) {
+				journal.setVariables(journalVariables);
+			}
+		}
 	}
 
 	@Override
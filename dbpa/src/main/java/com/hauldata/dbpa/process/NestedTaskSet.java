@@ -38,7 +38,7 @@ public class NestedTaskSet extends TaskSet {
 		return new NestedTaskSet(tasks);
 	}
 
-	private NestedTaskSet(Map<String, Task> tasks) {
+	NestedTaskSet(Map<String, Task> tasks) {
 		super(tasks);
 	}
 
@@ -49,6 +49,20 @@ public class NestedTaskSet extends TaskSet {
 	 */
 	public void run(Context context) throws Exception {
 
-		runTasks(context);
+		if (context.trace == null) {
+			runTasks(context);
+			return;
+		}
+
+		long startNanos = System.nanoTime();
+		try {
+			runTasks(context);
+		}
+		finally {
+			Task parent = tasks.isEmpty() ? null : tasks.values().iterator().next().getParent();
+			if (parent != null) {
+				context.trace.writeTaskSet(parent, startNanos, System.nanoTime());
+			}
+		}
 	}
 }
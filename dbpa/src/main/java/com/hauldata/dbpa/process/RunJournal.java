@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.hauldata.dbpa.task.Task;
+import com.hauldata.dbpa.variable.VariableBase;
+import com.hauldata.dbpa.variable.VariableType;
+
+/**
+ * Journal of the tasks that succeeded in a run of a process, so that a failed run can be resumed.
+ * <p>
+ * As each task succeeds, a line is appended to the journal identifying the task and giving
+ * the values of the variables that changed while it ran.  When a run is resumed, a task
+ * found in the journal of the failed run is not run again; instead the variable values it
+ * produced are restored and it is considered to have succeeded.  The resumed run appends
+ * to the same journal, so that it too can be resumed.  The journal is deleted when the
+ * process completes successfully.
+ * <p>
+ * Tasks are identified by their names qualified by the names of their enclosing tasks.
+ * Within a loop, the iteration number is included, e.g., <code>LOOP[3].ECHO</code>,
+ * so that a resumed loop skips the iterations that completed and resumes at the one that failed.
+ * This requires the loop to produce the same rows in the same order when resumed.
+ * Tasks of a child process are prefixed by the name of the task that ran it, e.g., <code>RUNNER/ECHO</code>.
+ * The tasks of an iteration of a loop that runs concurrently journal the values of the copies
+ * of the variables that the iteration assigns, so that a resumed iteration sees the values
+ * its completed tasks produced.  Values of table variables are not journaled.
+ * <p>
+ * The variables that changed while a task ran are found by comparing their values before and
+ * after it ran, so a task journals the changes made by any task that ran at the same time in
+ * the same scope as well as its own.  If such a task then fails, a resumed run restores the
+ * changes that task made before it failed when it skips the task that succeeded, and the
+ * failed task runs again from those values.  A task that runs concurrently with others and
+ * assigns a variable from its own value, e.g., <code>SET n = n + 1</code>, may therefore
+ * not give the same result when resumed.
+ * <p>
+ * A task that reads a file into a data target that commits every so many rows also records,
+ * each time it commits, the number of source rows committed so far in a line of the form
+ * <code>@TASK rows</code>.  When the run is resumed, the task skips that many rows of the file.
+ * A FLOW does not record committed rows, because a database query does not return its rows
+ * in the same order each time it runs unless it says so.  A resumed run flows all the rows
+ * again, and the rows committed by the failed run remain in the target, so a FLOW that
+ * commits every so many rows should write to a MERGE target if its run is to be resumed.
+ */
+public class RunJournal {
+
+	public static final String fileExtension = ".journal";
+
+	private static final String encoding = StandardCharsets.UTF_8.name();
+
+	private Store store;
+	private String prefix;
+	private Map<String, VariableBase> variables;
+
+	/**
+	 * Journal file shared by the views of all processes and nested task sets in a run
+	 */
+	private static class Store {
+
+		Path path;
+		Map<String, String[]> succeeded;
+		Map<String, Long> committed;
+		Writer writer;
+
+		Store(Path path, Map<String, String[]> succeeded, Map<String, Long> committed, Writer writer) {
+			this.path = path;
+			this.succeeded = succeeded;
+			this.committed = committed;
+			this.writer = writer;
+		}
+	}
+
+	/**
+	 * Open the journal of a process run
+	 *
+	 * @param path is the path of the journal file
+	 * @param resume is true to resume the run recorded in an existing journal,
+	 * or false to start a new journal
+	 * @return the journal
+	 * @throws IOException
+	 */
+	public static RunJournal open(Path path, boolean resume) throws IOException {
+
+		Map<String, String[]> succeeded = new HashMap<String, String[]>();
+		Map<String, Long> committed = new HashMap<String, Long>();
+
+		if (resume) {
+			BufferedReader reader = null;
+			try {
+				reader = new BufferedReader(new InputStreamReader(new FileInputStream(path.toString()), StandardCharsets.UTF_8));
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.startsWith("@")) {
+						String[] fields = line.substring(1).split(" ");
+						committed.put(URLDecoder.decode(fields[0], encoding), Long.valueOf(fields[1]));
+					}
+					else if (!line.isEmpty()) {
+						String[] fields = line.split(" ");
+						succeeded.put(URLDecoder.decode(fields[0], encoding), fields);
+					}
+				}
+			}
+			catch (FileNotFoundException ex) {
+				// Nothing to resume; run from the beginning.
+			}
+			finally {
+				try { if (reader != null) reader.close(); }
+				catch (Exception ex) {}
+			}
+		}
+
+		Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path.toString(), resume), StandardCharsets.UTF_8));
+
+		return new RunJournal(new Store(path, succeeded, committed, writer), "", null);
+	}
+
+	private RunJournal(Store store, String prefix, Map<String, VariableBase> variables) {
+		this.store = store;
+		this.prefix = prefix;
+		this.variables = variables;
+	}
+
+	/**
+	 * @return true if this journal is for the top-level process of the run
+	 */
+	public boolean isRoot() {
+		return prefix.isEmpty();
+	}
+
+	/**
+	 * Set the variables of the process whose values are journaled
+	 */
+	public void setVariables(Map<String, VariableBase> variables) {
+		this.variables = variables;
+	}
+
+	/**
+	 * @return a view of this journal for a child process run by a task
+	 */
+	public RunJournal child(String parentTaskName) {
+		return new RunJournal(store, prefix + parentTaskName + "/", null);
+	}
+
+	/**
+	 * @return a view of this journal for a task set nested within a task
+	 */
+	public RunJournal nest(String parentTaskName) {
+		return new RunJournal(store, prefix + parentTaskName + ".", variables);
+	}
+
+	/**
+	 * @return a view of this journal for an iteration of a task set nested within a looping task
+	 */
+	public RunJournal nest(String parentTaskName, int iteration) {
+		return new RunJournal(store, prefix + parentTaskName + "[" + String.valueOf(iteration) + "].", variables);
+	}
+
+	private String getKey(Task task) {
+		return prefix + task.getName();
+	}
+
+	/**
+	 * If the task succeeded in the run being resumed, restore the variable values it produced.
+	 *
+	 * @return true if the task succeeded in the run being resumed and need not run again
+	 */
+	public boolean resume(Task task) {
+
+		String[] fields = store.succeeded.get(getKey(task));
+		if (fields == null) {
+			return false;
+		}
+
+		for (int i = 1; i < fields.length; ++i) {
+			int separator = fields[i].indexOf('=');
+			VariableBase variable = (variables != null) ? variables.get(fields[i].substring(0, separator)) : null;
+			if (variable != null) {
+				variable.setValueObject(decode(fields[i].substring(separator + 1)));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the current values of the journaled variables, to be compared after a task
+	 * runs to find the variables it changed
+	 */
+	public Map<VariableBase, Object> snapshot() {
+
+		Map<VariableBase, Object> values = new HashMap<VariableBase, Object>();
+		if (variables != null) {
+			for (VariableBase variable : variables.values()) {
+				if (variable.getType() != VariableType.TABLE) {
+					values.put(variable, variable.getValueObject());
+				}
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Record that a task succeeded
+	 *
+	 * @param task is the task
+	 * @param before is the snapshot of variable values taken before the task ran;
+	 * all changes since then are recorded, including those of tasks that ran at the same time
+	 * @throws IOException if the journal could not be written or a changed variable has
+	 * a value that cannot be journaled, in which case the task is not recorded and runs
+	 * again if the run is resumed
+	 */
+	public void recordSuccess(Task task, Map<VariableBase, Object> before) throws IOException {
+
+		StringBuilder line = new StringBuilder(URLEncoder.encode(getKey(task), encoding));
+
+		for (Map.Entry<VariableBase, Object> entry : before.entrySet()) {
+			Object value = entry.getKey().getValueObject();
+			if (!Objects.equals(value, entry.getValue())) {
+				String encoded = encode(value);
+				if (encoded == null) {
+					throw new IOException("Cannot journal value of variable " + entry.getKey().getName() + " of type " + value.getClass().getName());
+				}
+				line.append(' ').append(entry.getKey().getName()).append('=').append(encoded);
+			}
+		}
+
+		synchronized (store) {
+			store.writer.write(line.toString());
+			store.writer.write('\n');
+			store.writer.flush();
+		}
+	}
+
+	/**
+	 * @return the number of source rows the task committed in the run being resumed
+	 * before it failed, or zero if none
+	 */
+	public long getCommitted(Task task) {
+		Long rowCount = store.committed.get(getKey(task));
+		return (rowCount != null) ? rowCount : 0L;
+	}
+
+	/**
+	 * Record the number of source rows a task has committed so far
+	 */
+	public void recordCommitted(Task task, long rowCount) throws IOException {
+
+		String line = "@" + URLEncoder.encode(getKey(task), encoding) + " " + String.valueOf(rowCount);
+
+		synchronized (store) {
+			store.writer.write(line);
+			store.writer.write('\n');
+			store.writer.flush();
+		}
+	}
+
+	private static String encode(Object value) throws UnsupportedEncodingException {
+
+		if (value == null) {
+			return "-";
+		}
+		else if (value instanceof Integer) {
+			return "i" + value.toString();
+		}
+		else if (value instanceof String) {
+			return "s" + URLEncoder.encode((String)value, encoding);
+		}
+		else if (value instanceof LocalDateTime) {
+			return "d" + value.toString();
+		}
+		else if (value instanceof Boolean) {
+			return "b" + value.toString();
+		}
+		else {
+			return null;
+		}
+	}
+
+	private static Object decode(String encoded) {
+
+		try {
+			switch (encoded.charAt(0)) {
+			case 'i': return Integer.valueOf(encoded.substring(1));
+			case 's': return URLDecoder.decode(encoded.substring(1), encoding);
+			case 'd': return LocalDateTime.parse(encoded.substring(1));
+			case 'b': return Boolean.valueOf(encoded.substring(1));
+			case '-': return null;
+			default: throw new RuntimeException("Invalid journaled value: " + encoded);
+			}
+		}
+		catch (UnsupportedEncodingException ex) {
+			// Not expected; UTF-8 is always supported.
+			throw new RuntimeException(ex);
+		}
+	}
+
+	/**
+	 * Close the journal, deleting it if the process completed successfully so that
+	 * a later run cannot mistakenly resume it.
+	 *
+	 * @param completed is true if the process completed successfully
+	 */
+	public void close(boolean completed) throws IOException {
+
+		synchronized (store) {
+			store.writer.close();
+		}
+
+		if (completed) {
+			java.nio.file.Files.deleteIfExists(store.path);
+		}
+	}
+}
@@ -16,20 +16,22 @@
 
 package com.hauldata.dbpa.process;
 
+import java.io.IOException;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.hauldata.dbpa.task.Task;
 import com.hauldata.dbpa.task.Task.Result;
+import com.hauldata.dbpa.variable.VariableBase;
 
 /**
  * Concurrent task executor
@@ -38,52 +40,171 @@ public class TaskExecutor {
 
 	// See http://stackoverflow.com/questions/3096842/wait-for-one-of-several-threads
 
-	private ExecutorService es;
-	private ExecutorCompletionService<Task> ecs;
-	private Map<Task, Future<Task>> submissions;
+	public static final String queuedMessageStem = "Task waited in queue for ";
+	public static final String journalFailedMessageStem = "Failed writing run journal: ";
+	public static final String traceFailedMessageStem = "Failed writing trace: ";
+
+	private final ExecutorCompletionService<Task> ecs;
+	private Map<Future<Task>, CallableTask> submissions;
+	private Set<TaskAdmission> queued;
 
 	private class CallableTask implements Callable<Task> {
 
 		@Override
 		public Task call() throws Exception {
-			task.run(context);
+
+			if ((admission != null) && !admission.claim()) {
+				// Terminated before it could start.
+				return task;
+			}
+
+			TaskTrace trace = context.trace;
+			TaskTrace.Counters counters = (trace != null) ? TaskTrace.startCounting() : null;
+			long startNanos = System.nanoTime();
+
+			try {
+				if ((admission != null) && admission.wasQueued()) {
+					context.logger.info(task.getName(), queuedMessageStem + String.valueOf(admission.getWaitMillis()) + " ms");
+				}
+
+				RunJournal journal = context.journal;
+				if ((journal != null) && journal.resume(task)) {
+					task.resume(context);
+				}
+				else {
+					Map<VariableBase, Object> before = (journal != null) ? journal.snapshot() : null;
+
+					task.run(context);
+
+					if (context.history != null) {
+						context.history.record(task, System.nanoTime() - startNanos);
+					}
+
+					if ((journal != null) && (task.getResult() == Result.success)) {
+						try {
+							journal.recordSuccess(task, before);
+						}
+						catch (IOException ex) {
+							context.logger.warn(task.getName(), journalFailedMessageStem + ex.getMessage());
+						}
+					}
+				}
+			}
+			finally {
+				if (admission != null) {
+					admission.release();
+				}
+
+				if (trace != null) {
+					TaskTrace.stopCounting(counters);
+					try {
+						trace.writeTask(task, submitNanos, startNanos, System.nanoTime(), counters);
+					}
+					catch (IOException ex) {
+						context.logger.warn(task.getName(), traceFailedMessageStem + ex.getMessage());
+					}
+				}
+			}
 			return task;
 		}
 
-		public CallableTask(Task task, Context context) {
+		public CallableTask(Task task, Context context, TaskAdmission admission) {
 			this.task = task;
 			this.context = context;
+			this.admission = admission;
+			this.submitNanos = (admission != null) ? admission.submitNanos : System.nanoTime();
 		}
 
 		private Task task;
 		private Context context;
+		private TaskAdmission admission;
+		private long submitNanos;
 	}
 
-	public TaskExecutor() {
-		es = null;
-		ecs = null;
-		submissions = null;
-	}
+	/**
+	 * Admission of a task to run subject to the concurrency limit of its context.
+	 * Either the task claims the admission when it starts to run or the executor
+	 * claims it when terminating tasks, but not both, so that the slots held
+	 * by the admission are released exactly once.
+	 */
+	private class TaskAdmission extends ConcurrencyLimit.Admission {
+
+		private Task task;
+		private Context context;
+		private AtomicBoolean claimed;
+		private long submitNanos;
+
+		public TaskAdmission(Task task, Context context) {
+			this.task = task;
+			this.context = context;
+			this.claimed = new AtomicBoolean(false);
+			this.submitNanos = System.nanoTime();
+		}
+
+		@Override
+		protected void start() {
+			submitAdmitted(task, context, this);
+		}
+
+		@Override
+		protected long getPriority() {
+			return task.getPriority();
+		}
 
-	private ExecutorCompletionService<Task> getEcs() {
-		if (ecs == null) {
-			es = Executors.newCachedThreadPool();
-			ecs = new ExecutorCompletionService<Task>(es);
-			// Tasks may be submitted by separate threads at process runtime.
-			// Therefore a concurrent map must be used.
-			submissions = new ConcurrentHashMap<Task, Future<Task>>();
+		public boolean claim() {
+			return claimed.compareAndSet(false, true);
 		}
-		return ecs;
+	}
+
+	public TaskExecutor() {
+		// Threads come from the pool shared by all executors; this executor only tracks completion of its own tasks.
+		// The completion service is created here rather than on first use because a queued task is
+		// submitted by the thread that releases its admission while the TaskSet thread may be waiting in getCompleted().
+		ecs = new ExecutorCompletionService<Task>(TaskThreadPool.get());
+		// Tasks may be submitted by separate threads at process runtime.
+		// Therefore concurrent collections must be used.
+		// Submissions are keyed by future so that the task for a completed future
+		// can be found directly even if the task did not return normally.
+		submissions = new ConcurrentHashMap<Future<Task>, CallableTask>();
+		queued = ConcurrentHashMap.newKeySet();
 	}
 
 	/**
 	 * Submit a task for execution
+	 * <p>
+	 * Unless the task only coordinates other tasks, it is admitted subject to the
+	 * concurrency limit of the context.  If the limit has been reached, the task
+	 * is queued and started when earlier tasks finish.
 	 */
 	public void submit(Task task, Context context) {
 
-		Future<Task> futureTask = getEcs().submit(new CallableTask(task, context));
+		if ((context.concurrencyLimit == null) || !task.countsTowardConcurrencyLimit()) {
+			submitAdmitted(task, context, null);
+		}
+		else {
+			TaskAdmission admission = new TaskAdmission(task, context);
+			queued.add(admission);
+			context.concurrencyLimit.admit(admission);
+		}
+	}
+
+	private void submitAdmitted(Task task, Context context, TaskAdmission admission) {
+
+		// Hold the lock until the submission is recorded so that a task which completes
+		// immediately cannot be retrieved by getCompleted() before it is found in the map.
+		// The submission is recorded before the admission is removed from the queued set
+		// so that allCompleted() never sees a moment when the task is in neither.
+
+		synchronized (this) {
+			CallableTask callableTask = new CallableTask(task, context, admission);
+			Future<Task> futureTask = ecs.submit(callableTask);
+
+			submissions.put(futureTask, callableTask);
 
-		submissions.put(task, futureTask);
+			if (admission != null) {
+				queued.remove(admission);
+			}
+		}
 	}
 
 	/**
@@ -99,40 +220,23 @@ public class TaskExecutor {
 
 		Future<Task> completedTask = ecs.take();
 
-		Task task = null;
-		Exception exception = null;
-		Result result = null;
+		Task task;
+		synchronized (this) {
+			task = submissions.remove(completedTask).task;
+		}
 
 		try {
-			task = completedTask.get();
+			completedTask.get();
 		}
 		catch (CancellationException cex) {
-			exception = cex;
-			result = Result.terminated;
+			// Task was cancelled before completion, possibly before it was started.
+			task.setAbnormalResult(cex, Result.terminated);
 		}
 		catch (ExecutionException eex) {
-			exception = eex;
-			result = Result.failure;
-		}
-
-		if (task == null) {
-
-			// Task was cancelled before completion, possibly before it was started,
-			// or failed by throwing an exception, therefore result could not be retrieved
-			// from the completion queue.  Find the map entry for this result and update its status.
-
-			for (Entry<Task, Future<Task>> entry : submissions.entrySet()) {
-				if (entry.getValue() == completedTask) {
-
-					task = entry.getKey();
-					task.setAbnormalResult(exception, result);
-					break;
-				}
-			}
+			// Task failed by throwing an exception.
+			task.setAbnormalResult(eex, Result.failure);
 		}
 
-		submissions.remove(task);
-
 		return task;
 	}
 
@@ -140,7 +244,7 @@ public class TaskExecutor {
 	 * @return true if no incomplete tasks remain submitted
 	 */
 	public boolean allCompleted() {
-		return (submissions == null) || submissions.isEmpty();
+		return submissions.isEmpty() && queued.isEmpty();
 	}
 
 	/**
@@ -148,9 +252,21 @@ public class TaskExecutor {
 	 */
 	public void terminateAll() {
 
-		if (!allCompleted()) {
-			for (Future<Task> futureTask : submissions.values()) {
-				futureTask.cancel(true);
+		// Tasks still queued for admission are withdrawn and submitted already cancelled
+		// so that they are retrieved by getCompleted() like any other terminated task.
+
+		for (TaskAdmission admission : queued) {
+			if (admission.withdraw()) {
+				admission.claim();
+				submitAdmitted(admission.task, admission.context, admission);
+			}
+		}
+
+		for (Map.Entry<Future<Task>, CallableTask> entry : submissions.entrySet()) {
+			TaskAdmission admission = entry.getValue().admission;
+			if (entry.getKey().cancel(true) && (admission != null) && admission.claim()) {
+				// The task was cancelled before it started, so it will never release its admission.
+				admission.release();
 			}
 		}
 	}
@@ -163,17 +279,29 @@ public class TaskExecutor {
 	 * closing the executor.
 	 *
 	 * If any tasks have not completed, this function will wait a very
-	 * short time for them to complete.
+	 * short time for them to complete.  The thread pool is shared
+	 * with other executors and is not shut down.
 	 * 
-	 * @return true if all tasks and the executor terminate in a timely fashion. 
+	 * @return true if all tasks terminate in a timely fashion. 
 	 * @throws InterruptedException
 	 */
 	public boolean close() throws InterruptedException {
-		if (es == null) {
-			return true;
+
+		long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+
+		for (Future<Task> futureTask : submissions.keySet()) {
+			long remaining = deadline - System.nanoTime();
+			try {
+				futureTask.get(remaining, TimeUnit.NANOSECONDS);
+			}
+			catch (TimeoutException ex) {
+				return false;
+			}
+			catch (CancellationException | ExecutionException ex) {
+				// The task has finished, which is all that matters here.
+			}
 		}
 
-		es.shutdown();
-		return es.awaitTermination(1, TimeUnit.MINUTES);
+		return true;
 	}
 }
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.hauldata.dbpa.task.Task;
+
+/**
+ * Durations of the tasks of a process, as estimated from earlier runs and as observed in the current run.
+ * <p>
+ * Estimates are loaded from a properties file when the process starts and are used to start
+ * the ready tasks on the longest remaining path first when concurrency is limited.
+ * Durations observed during the run are folded into the estimates and saved when the
+ * root context closes.  A task that runs more than once in a run, e.g., in a loop,
+ * is represented by the mean of its durations.
+ * <p>
+ * Tasks are identified by the unadorned names of the task and its enclosing tasks,
+ * e.g., <code>LOOP.ECHO</code>, prefixed for a child process by the child process name,
+ * e.g., <code>child/LOOP.ECHO</code>.
+ */
+public class TaskHistory {
+
+	public static final String fileExtension = ".durations";
+
+	private Store store;
+	private String prefix;
+
+	/**
+	 * Estimates and observations shared by the views of all processes in a run
+	 */
+	private static class Store {
+
+		Path path;
+		Map<String, Long> estimates;
+		Map<String, long[]> observations;
+
+		Store(Path path, Map<String, Long> estimates) {
+			this.path = path;
+			this.estimates = estimates;
+			this.observations = new ConcurrentHashMap<String, long[]>();
+		}
+	}
+
+	/**
+	 * Load the history of a process from a file.  If the file does not exist,
+	 * the history is initially empty and the file is created when the history is saved.
+	 *
+	 * @param path is the path of the file, or null if the history is not persisted
+	 * @return the history
+	 */
+	public static TaskHistory load(Path path) {
+
+		Map<String, Long> estimates = new HashMap<String, Long>();
+
+		if (path != null) {
+			Properties props = new Properties();
+
+			FileInputStream in = null;
+			try {
+				in = new FileInputStream(path.toString());
+				props.load(in);
+			}
+			catch (FileNotFoundException ex) {
+				// No earlier runs.
+			}
+			catch (Exception ex) {
+				String message = (ex.getMessage() != null) ? ex.getMessage() : ex.getClass().getName();
+				throw new RuntimeException("Error reading task history from file \"" + path.toString() + "\": " + message, ex);
+			}
+			finally {
+				try { if (in != null) in.close(); }
+				catch (Exception ex) {}
+			}
+
+			for (String key : props.stringPropertyNames()) {
+				try {
+					estimates.put(key, Long.parseLong(props.getProperty(key).trim()));
+				}
+				catch (NumberFormatException ex) {
+					// Ignore a corrupt entry; it will be replaced when the history is saved.
+				}
+			}
+		}
+
+		return new TaskHistory(new Store(path, estimates), "");
+	}
+
+	private TaskHistory(Store store, String prefix) {
+		this.store = store;
+		this.prefix = prefix;
+	}
+
+	/**
+	 * @return a view of this history for a child process
+	 */
+	public TaskHistory child(String childName) {
+		return new TaskHistory(store, prefix + childName + "/");
+	}
+
+	/**
+	 * @return the key that identifies a task in the history
+	 */
+	public String getKey(Task task) {
+
+		StringBuilder key = new StringBuilder(task.getTaskName());
+		for (Task parent = task.getParent(); parent != null; parent = parent.getParent()) {
+			key.insert(0, '.').insert(0, parent.getTaskName());
+		}
+		return key.insert(0, prefix).toString();
+	}
+
+	/**
+	 * @return the estimated duration of the task in milliseconds from earlier runs, or 0 if not known
+	 */
+	public long getEstimateMillis(Task task) {
+		Long estimate = store.estimates.get(getKey(task));
+		return (estimate != null) ? estimate : 0L;
+	}
+
+	/**
+	 * @return true if there are any estimates from earlier runs
+	 */
+	public boolean hasEstimates() {
+		return !store.estimates.isEmpty();
+	}
+
+	/**
+	 * @return the mean duration of the task in milliseconds observed in this run, or 0 if it has not run
+	 */
+	public long getObservedMillis(Task task) {
+		long[] observation = store.observations.get(getKey(task));
+		if (observation == null) {
+			return 0L;
+		}
+		synchronized (observation) {
+			return observation[0] / observation[1] / 1000000L;
+		}
+	}
+
+	/**
+	 * Record a duration of a task observed in this run
+	 *
+	 * @param task is the task that ran
+	 * @param nanos is the number of nanoseconds it took
+	 */
+	public void record(Task task, long nanos) {
+
+		long[] observation = store.observations.computeIfAbsent(getKey(task), key -> new long[2]);
+		synchronized (observation) {
+			observation[0] += nanos;
+			observation[1]++;
+		}
+	}
+
+	/**
+	 * Fold the durations observed in this run into the estimates and save them.
+	 * Each new estimate is the average of the earlier estimate and the observed duration,
+	 * so that estimates follow changes in task durations but are not thrown off by a single run.
+	 */
+	public void save() throws IOException {
+
+		if (store.path == null) {
+			return;
+		}
+
+		Properties props = new Properties();
+
+		for (Map.Entry<String, Long> entry : store.estimates.entrySet()) {
+			props.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+		}
+
+		for (Map.Entry<String, long[]> entry : store.observations.entrySet()) {
+			long observed;
+			synchronized (entry.getValue()) {
+				observed = entry.getValue()[0] / entry.getValue()[1] / 1000000L;
+			}
+			Long earlier = store.estimates.get(entry.getKey());
+			long estimate = (earlier != null) ? (earlier + observed) / 2L : observed;
+
+			props.setProperty(entry.getKey(), String.valueOf(estimate));
+		}
+
+		// Write a new file and move it into place so that a failure while writing never loses the estimates.
+
+		Path temporary = store.path.resolveSibling(store.path.getFileName().toString() + ".tmp");
+
+		FileOutputStream out = null;
+		try {
+			out = new FileOutputStream(temporary.toString());
+			props.store(out, "Task durations in milliseconds");
+		}
+		finally {
+			try { if (out != null) out.close(); }
+			catch (Exception ex) {}
+		}
+
+		Files.move(temporary, store.path, StandardCopyOption.REPLACE_EXISTING);
+	}
+}
@@ -16,11 +16,13 @@
 
 package com.hauldata.dbpa.process;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import com.hauldata.dbpa.task.Task;
 import com.hauldata.dbpa.task.Task.Result;
@@ -37,9 +39,11 @@ public abstract class TaskSet {
 	protected Map<String, Task> tasks;
 	private Task failedTask;
 	private Object returnValue;
+	private TaskHistory prioritizedHistory;
 
 	protected TaskSet(Map<String, Task> tasks) {
 		this.tasks = tasks;
+		this.prioritizedHistory = null;
 	}
 
 	public Map<String, Task> getTasks() {
@@ -59,10 +63,16 @@ public abstract class TaskSet {
 		failedTask = null;
 		returnValue = null;
 
+		if ((context.history != null) && (context.history != prioritizedHistory)) {
+			prioritize(context.history);
+		}
+
 		// Queue up the tasks that have no predecessors for execution.
+		// Waiting tasks are held in a hash set so that membership tests and removals
+		// do not degrade as the number of tasks in the set grows.
 
 		TaskExecutor executor = context.executor;
-		List<Task> waiting = new LinkedList<Task>();
+		Set<Task> waiting = new LinkedHashSet<Task>();
 
 		for (Task task : tasks.values()) {
 			task.initialize();
@@ -105,13 +115,7 @@ public abstract class TaskSet {
 							// and this successor has become orphaned, as may have some or all of its successors.
 							// Remove all orphaned tasks from the waiting queue.
 
-							for (ListIterator<Task> waitingIterator = waiting.listIterator(); waitingIterator.hasNext(); ) {
-								Task waiter = waitingIterator.next();
-								if (waiter.getResult() == Task.Result.orphaned) {
-									context.logger.warn(waiter.getName(), orphanedMessage);
-									waitingIterator.remove();
-								}
-							}
+							removeOrphans(successor, waiting, context);
 						}
 						else {
 							isTerminalTask = false;
@@ -165,6 +169,47 @@ public abstract class TaskSet {
 		}
 	}
 
+	/**
+	 * Set the priority of each task to the estimated duration of the longest path of tasks
+	 * starting with it, so that when concurrency is limited the ready tasks on the critical path
+	 * start first.  Tasks with no history have zero estimated duration.
+	 */
+	private void prioritize(TaskHistory history) {
+
+		CriticalPath criticalPath = new CriticalPath(tasks.values(), task -> history.getEstimateMillis(task));
+
+		for (Task task : tasks.values()) {
+			task.setPriority(criticalPath.getRemaining(task));
+		}
+
+		prioritizedHistory = history;
+	}
+
+	/**
+	 * Remove an orphaned task and all of its orphaned descendants from the waiting set.
+	 * <p>
+	 * Orphaned status only propagates from a task to its successors, so the orphans
+	 * are found by walking the successor graph rather than by scanning the waiting set.
+	 */
+	private void removeOrphans(Task orphan, Set<Task> waiting, Context context) {
+
+		Deque<Task> orphans = new ArrayDeque<Task>();
+		orphans.push(orphan);
+
+		while (!orphans.isEmpty()) {
+			Task task = orphans.pop();
+
+			if ((task.getResult() == Task.Result.orphaned) && waiting.remove(task)) {
+
+				context.logger.warn(task.getName(), orphanedMessage);
+
+				for (Task successor : task.getSuccessors()) {
+					orphans.push(successor);
+				}
+			}
+		}
+	}
+
 	private class AbnormalTermination {
 		public boolean failed = false;
 		public boolean stopped = false;
@@ -92,6 +92,7 @@ public abstract class TaskSetParser {
 		PARAMETERS,
 		VARIABLES,
 		CONNECTIONS,
+		MAXDOP,
 
 		// Data types
 
@@ -173,6 +174,7 @@ public abstract class TaskSetParser {
 		CONNECT,
 		REQUEST,
 		PROMPT,
+		SYNC,
 		// Future:
 		REMOVE,
 		SEND,
@@ -230,6 +232,24 @@ public abstract class TaskSetParser {
 		PREFIX,
 		BATCH,
 		SIZE,
+		BULK,
+		MULTIROW,
+		AUTO,
+		LATENCY,
+		COMMIT,
+		EVERY,
+		MERGE,
+		FETCH,
+		INCREMENTAL,
+		CHUNK,
+		DRY,
+		PIPELINED,
+		BUFFER,
+		PARTITION,
+		BY,
+		MODULO,
+		RANGE,
+		PARALLEL,
 		DELIMITER,
 		BINARY,
 		ASCII,
@@ -258,10 +278,10 @@ public abstract class TaskSetParser {
 		ALL,
 		DIRECTORY,
 		COMMAND,
-		SYNC,
 		SYNCHRONOUSLY,
 		ASYNC,
 		ASYNCHRONOUSLY,
+		ORDERED,
 		WHILE,
 		SCHEDULE,
 		DELAY,
@@ -501,6 +521,7 @@ public abstract class TaskSetParser {
 		taskParsers.put(KW.LOAD.name(), new LoadTaskParser());
 		taskParsers.put(KW.READ.name(), new ReadTaskParser());
 		taskParsers.put(KW.FLOW.name(), new FlowTaskParser());
+		taskParsers.put(KW.SYNC.name(), new SyncTaskParser());
 		taskParsers.put(KW.ZIP.name(), new ZipTaskParser());
 		taskParsers.put(KW.UNZIP.name(), new UnzipTaskParser());
 		taskParsers.put(KW.PUT.name(), new PutTaskParser());
@@ -666,12 +687,50 @@ public abstract class TaskSetParser {
 		return tasks;
 	}
 
+	/**
+	 * Parse the same task set once for each of a list of variable scopes,
+	 * so that each copy of the task set has its own task objects and refers
+	 * to the variables of its own scope.  Variables declared within the task set
+	 * are local to the copy.
+	 *
+	 * @param scopes are the variables in scope for each copy of the task set
+	 * @return the copies of the task set in the same order as the scopes
+	 */
+	List<Map<String, Task>> parseTasks(Task parentTask, String structureName, List<Map<String, VariableBase>> scopes)
+			throws IOException, InputMismatchException, NoSuchElementException, NameNotFoundException, NameAlreadyBoundException, NamingException {
+
+		List<Map<String, Task>> copies = new ArrayList<Map<String, Task>>();
+
+		Map<String, VariableBase> outerVariables = variables;
+		BacktrackingTokenizerMark mark = tokenizer.mark();
+		try {
+			for (Map<String, VariableBase> scope : scopes) {
+				tokenizer.reset(mark);
+				variables = scope;
+
+				copies.add(parseTasks(parentTask, structureName));
+			}
+		}
+		finally {
+			variables = outerVariables;
+		}
+
+		return copies;
+	}
+
+	/**
+	 * @return the variables currently in scope
+	 */
+	Map<String, VariableBase> getVariables() {
+		return variables;
+	}
+
 	static private void determineSuccessors(Map<String, Task> tasks) {
-		for (Task task : tasks.values()) {
-			for (Task potentialSuccessor : tasks.values()) {
-				if (potentialSuccessor.getPredecessors().containsKey(task)) {
-					task.addSuccessor(potentialSuccessor);
-				}
+		// Every predecessor is a member of the same task set, so walking the predecessor
+		// lists finds each successor without comparing every pair of tasks.
+		for (Task successor : tasks.values()) {
+			for (Task predecessor : successor.getPredecessors().keySet()) {
+				predecessor.addSuccessor(successor);
 			}
 		}
 	}
@@ -1448,7 +1507,16 @@ public abstract class TaskSetParser {
 
 			DataTarget target = parseDataTarget(KW.READ.name(), KW.INTO.name(), true, headers.exist());
 
-			return new ReadTask(prologue, page, options, headers, columns, target);
+			Expression<Integer> parallel = null;
+			if (tokenizer.skipWordIgnoreCase(KW.PARALLEL.name())) {
+				if (target.commitsEvery()) {
+					// Chunks commit on their own, so a failed run could not be resumed without duplicating rows.
+					throw new InputMismatchException(KW.PARALLEL.name() + " is not allowed with " + KW.COMMIT.name() + " " + KW.EVERY.name());
+				}
+				parallel = parseIntegerExpression();
+			}
+
+			return new ReadTask(prologue, page, options, headers, columns, target, parallel);
 		}
 
 		private Task parseReadFixed(Task.Prologue prologue) throws IOException {
@@ -1588,6 +1656,44 @@ public abstract class TaskSetParser {
 		}
 	}
 
+	class SyncTaskParser implements TaskParser {
+
+		public Task parse(Prologue prologue) throws IOException {
+
+			DatabaseConnection sourceConnection = parseDatabaseConnection(KW.FROM.name());
+			if (!tokenizer.skipWordIgnoreCase(KW.TABLE.name())) {
+				throw new InputMismatchException("Expecting " + KW.TABLE.name() + " source in " + KW.SYNC.name() + " " + KW.TASK.name());
+			}
+			Expression<String> sourceTable = parseStringExpression();
+
+			DatabaseConnection targetConnection = parseDatabaseConnection(KW.INTO.name());
+			if (!tokenizer.skipWordIgnoreCase(KW.TABLE.name())) {
+				throw new InputMismatchException("Expecting " + KW.TABLE.name() + " target in " + KW.SYNC.name() + " " + KW.TASK.name());
+			}
+			Expression<String> targetTable = parseStringExpression();
+
+			if (!tokenizer.skipWordIgnoreCase(KW.ON.name())) {
+				throw new InputMismatchException("Expecting " + KW.ON.name() + " and key column after " + KW.SYNC.name() + " target table name");
+			}
+			Expression<String> key = parseStringExpression();
+
+			Expression<Integer> chunkSize = null;
+			if (tokenizer.skipWordIgnoreCase(KW.CHUNK.name())) {
+				chunkSize = parseIntegerExpression();
+			}
+
+			boolean dryRun = false;
+			if (tokenizer.skipWordIgnoreCase(KW.DRY.name())) {
+				if (!tokenizer.skipWordIgnoreCase(KW.RUN.name())) {
+					throw new InputMismatchException("Expecting " + KW.DRY.name() + " to be followed by " + KW.RUN.name());
+				}
+				dryRun = true;
+			}
+
+			return new SyncTask(prologue, sourceConnection, sourceTable, targetConnection, targetTable, key, chunkSize, dryRun);
+		}
+	}
+
 	class FlowTaskParser implements TaskParser {
 
 		public Task parse(Prologue prologue) throws IOException, NamingException {
@@ -1595,7 +1701,71 @@ public abstract class TaskSetParser {
 			Source source = parseSource(KW.FLOW.name(), KW.FROM.name(), false, true, null);
 			Target target = parseDataTarget(KW.FLOW.name(), KW.INTO.name(), true, true);
 
-			return new FlowTask(prologue, source, target);
+			boolean pipelined = false;
+			Expression<Integer> buffer = null;
+			if (tokenizer.skipWordIgnoreCase(KW.PIPELINED.name())) {
+				pipelined = true;
+				if (tokenizer.skipWordIgnoreCase(KW.BUFFER.name())) {
+					buffer = parseIntegerExpression();
+				}
+			}
+
+			Partitioning partitioning = null;
+			if (tokenizer.skipWordIgnoreCase(KW.PARTITION.name())) {
+				if (!(source instanceof PartitionableSource)) {
+					throw new InputMismatchException(KW.PARTITION.name() + " " + KW.BY.name() + " requires a database " + KW.SQL.name() + ", " + KW.STATEMENT.name() + " or " + KW.TABLE.name() + " source");
+				}
+				if (!tokenizer.skipWordIgnoreCase(KW.BY.name())) {
+					throw new InputMismatchException("Expecting " + KW.PARTITION.name() + " to be followed by " + KW.BY.name());
+				}
+				partitioning = parsePartitioning();
+			}
+
+			return new FlowTask(prologue, source, target, pipelined, buffer, partitioning);
+		}
+
+		private Partitioning parsePartitioning() throws IOException {
+
+			if (tokenizer.skipWordIgnoreCase(KW.MODULO.name())) {
+
+				Expression<String> column = parseStringExpression();
+
+				if (!tokenizer.skipWordIgnoreCase(KW.INTO.name())) {
+					throw new InputMismatchException("Expecting " + KW.INTO.name() + " after " + KW.MODULO.name() + " column");
+				}
+				Expression<Integer> count = parseIntegerExpression();
+
+				return new Partitioning.Modulo(column, count);
+			}
+			else if (tokenizer.skipWordIgnoreCase(KW.RANGE.name())) {
+
+				Expression<String> column = parseStringExpression();
+
+				if (!tokenizer.skipWordIgnoreCase(KW.FROM.name())) {
+					throw new InputMismatchException("Expecting " + KW.FROM.name() + " after " + KW.RANGE.name() + " column");
+				}
+				Expression<Integer> low = parseIntegerExpression();
+
+				if (!tokenizer.skipWordIgnoreCase(KW.TO.name())) {
+					throw new InputMismatchException("Expecting " + KW.TO.name() + " after " + KW.RANGE.name() + " low value");
+				}
+				Expression<Integer> high = parseIntegerExpression();
+
+				if (!tokenizer.skipWordIgnoreCase(KW.INTO.name())) {
+					throw new InputMismatchException("Expecting " + KW.INTO.name() + " after " + KW.RANGE.name() + " high value");
+				}
+				Expression<Integer> count = parseIntegerExpression();
+
+				return new Partitioning.Range(column, low, high, count);
+			}
+			else {
+				List<Expression<String>> predicates = new ArrayList<Expression<String>>();
+				do {
+					predicates.add(parseStringExpression());
+				} while (tokenizer.skipDelimiter(","));
+
+				return new Partitioning.Predicates(predicates);
+			}
 		}
 	}
 
@@ -2016,7 +2186,7 @@ public abstract class TaskSetParser {
 
 			tokenizer.skipWordIgnoreCase(KW.FROM.name());
 
-			TaskSetParent thisTask;
+			ConcurrentTaskSetParent thisTask;
 			if (hasFileType(false)) {
 				thisTask = parseForReadFile(prologue, variables);
 			}
@@ -2024,7 +2194,35 @@ public abstract class TaskSetParser {
 				thisTask  = parseForData(prologue, variables);
 			}
 
-			return thisTask.setTaskSet(NestedTaskSet.parse(thisTaskSetParser, (Task)thisTask, KW.FOR.name()));
+			int laneCount = parseForConcurrently();
+			if (laneCount == 0) {
+				return thisTask.setTaskSet(NestedTaskSet.parse(thisTaskSetParser, (Task)thisTask, KW.FOR.name()));
+			}
+
+			boolean ordered = tokenizer.skipWordIgnoreCase(KW.ORDERED.name());
+
+			return thisTask.setConcurrentTaskSet(ConcurrentTaskSet.parse(thisTaskSetParser, (Task)thisTask, KW.FOR.name(), variables, laneCount, ordered));
+		}
+
+		/**
+		 * Parse the optional CONCURRENTLY clause.  Because a nested task may itself
+		 * start with CONCURRENTLY, the clause is recognized only if followed by an integer.
+		 *
+		 * @return the number of iterations that may run concurrently, or 0 if not specified
+		 */
+		private int parseForConcurrently() throws IOException {
+
+			BacktrackingTokenizerMark mark = tokenizer.mark();
+			if (!tokenizer.skipWordIgnoreCase(KW.CONCURRENTLY.name()) || !tokenizer.hasNextInt()) {
+				tokenizer.reset(mark);
+				return 0;
+			}
+
+			int laneCount = tokenizer.nextInt();
+			if (laneCount < 1) {
+				throw new InputMismatchException(KW.FOR.name() + " " + KW.CONCURRENTLY.name() + " must specify a positive number of iterations");
+			}
+			return laneCount;
 		}
 
 		private ForReadTask parseForReadFile(
@@ -2193,15 +2391,17 @@ public abstract class TaskSetParser {
 
 		private boolean updateNestedAsyncPredecessors(Task waitTask, TaskSetParent parent, boolean updated) {
 
-			for (Task task : parent.getTaskSet().getTasks().values()) {
+			for (NestedTaskSet taskSet : parent.getTaskSets()) {
+				for (Task task : taskSet.getTasks().values()) {
 
-				if (task instanceof AsyncProcessTask) {
-					((AsyncProcessTask)task).addAsyncSuccessor(waitTask);
-					updated = true;
-				}
+					if (task instanceof AsyncProcessTask) {
+						((AsyncProcessTask)task).addAsyncSuccessor(waitTask);
+						updated = true;
+					}
 
-				if (task instanceof TaskSetParent) {
-					updated = updateNestedAsyncPredecessors(waitTask, (TaskSetParent)task, updated) || updated;
+					if (task instanceof TaskSetParent) {
+						updated = updateNestedAsyncPredecessors(waitTask, (TaskSetParent)task, updated) || updated;
+					}
 				}
 			}
 
@@ -2955,21 +3155,47 @@ public abstract class TaskSetParser {
 
 	private DataSource parseDataSource(String taskTypeName, DatabaseConnection connection, boolean singleRow, boolean allowTable) throws IOException {
 
+		Expression<Integer> fetchSize = null;
+		if (tokenizer.skipWordIgnoreCase(KW.FETCH.name())) {
+			if (!tokenizer.skipWordIgnoreCase(KW.SIZE.name())) {
+				throw new InputMismatchException("Expecting " + KW.FETCH.name() + " to be followed by " + KW.SIZE.name());
+			}
+			fetchSize = parseIntegerExpression();
+		}
+
+		DataSource source;
 		if (tokenizer.skipWordIgnoreCase(KW.STATEMENT.name())) {
-			return parseStatementDataSource(connection, singleRow);
+			source = parseStatementDataSource(connection, singleRow);
 		}
 		else if (tokenizer.skipWordIgnoreCase(KW.SQL.name())) {
-			return parseParameterizedStatementDataSource(connection, singleRow);
+			source = parseParameterizedStatementDataSource(connection, singleRow);
 		}
 		else if (tokenizer.skipWordIgnoreCase(KW.PROCEDURE.name())) {
-			return parseProcedureDataSource(connection, singleRow);
+			source = parseProcedureDataSource(connection, singleRow);
 		}
 		else if (allowTable && tokenizer.skipWordIgnoreCase(KW.TABLE.name())) {
-			return parseTableDataSource(connection, singleRow);
+			source = parseTableDataSource(connection, singleRow);
 		}
 		else {
 			throw new InputMismatchException("Invalid data source in " + taskTypeName + " " + KW.TASK.name());
 		}
+
+		source.setFetchSize(fetchSize);
+
+		if (
+				(taskTypeName.equals(KW.FLOW.name()) || taskTypeName.equals(KW.WRITE.name())) &&
+				tokenizer.skipWordIgnoreCase(KW.INCREMENTAL.name())) {
+
+			if (!(source instanceof PartitionableSource)) {
+				throw new InputMismatchException(KW.INCREMENTAL.name() + " requires a database " + KW.SQL.name() + ", " + KW.STATEMENT.name() + " or " + KW.TABLE.name() + " source");
+			}
+			if (!tokenizer.skipWordIgnoreCase(KW.ON.name())) {
+				throw new InputMismatchException("Expecting " + KW.INCREMENTAL.name() + " to be followed by " + KW.ON.name());
+			}
+			source.setIncremental(parseStringExpression());
+		}
+
+		return source;
 	}
 
 	private StatementDataSource parseStatementDataSource(DatabaseConnection connection, boolean singleRow) throws IOException {
@@ -3063,25 +3289,56 @@ public abstract class TaskSetParser {
 		DatabaseConnection connection = parseDatabaseConnection(introWord);
 
 		Expression<Integer> batchSize = null;
+		boolean autoBatchSize = false;
+		Expression<Integer> batchLatency = null;
 		if (tokenizer.skipWordIgnoreCase(KW.BATCH.name())) {
 			if (!tokenizer.skipWordIgnoreCase(KW.SIZE.name())) {
 				throw new InputMismatchException("Expecting " + KW.BATCH.name() + " to be followed by " + KW.SIZE.name());
 			}
-			batchSize = parseIntegerExpression();
+			if (tokenizer.skipWordIgnoreCase(KW.AUTO.name())) {
+				autoBatchSize = true;
+				if (tokenizer.skipWordIgnoreCase(KW.LATENCY.name())) {
+					batchLatency = parseIntegerExpression();
+				}
+			}
+			else {
+				batchSize = parseIntegerExpression();
+			}
+		}
+
+		Expression<Integer> commitEvery = null;
+		if (tokenizer.skipWordIgnoreCase(KW.COMMIT.name())) {
+			if (!tokenizer.skipWordIgnoreCase(KW.EVERY.name())) {
+				throw new InputMismatchException("Expecting " + KW.COMMIT.name() + " to be followed by " + KW.EVERY.name());
+			}
+			commitEvery = parseIntegerExpression();
 		}
 
+		DataTarget target;
 		if (tokenizer.skipWordIgnoreCase(KW.STATEMENT.name())) {
-			return parseStatementDataTarget(connection, batchSize);
+			target = parseStatementDataTarget(connection, batchSize);
 		}
 		else if (tokenizer.skipWordIgnoreCase(KW.SQL.name())) {
-			return parseTokenizedStatementDataTarget(connection, batchSize);
+			target = parseTokenizedStatementDataTarget(connection, batchSize);
 		}
 		else if (allowTable && tokenizer.skipWordIgnoreCase(KW.TABLE.name())) {
-			return parseTableDataTarget(connection, batchSize, willHaveColumnCount);
+			target = parseTableDataTarget(connection, batchSize, willHaveColumnCount);
+		}
+		else if (allowTable && tokenizer.skipWordIgnoreCase(KW.MERGE.name())) {
+			target = parseMergeDataTarget(connection, batchSize, willHaveColumnCount);
 		}
 		else {
 			throw new InputMismatchException("Invalid data target in " + taskTypeName + " " + KW.TASK.name());
 		}
+
+		if (autoBatchSize) {
+			target.setAutoBatchSize(batchLatency);
+		}
+		if (commitEvery != null) {
+			target.setCommitEvery(commitEvery);
+		}
+
+		return target;
 	}
 
 	private StatementDataTarget parseStatementDataTarget(DatabaseConnection connection, Expression<Integer> batchSize) throws IOException {
@@ -3118,7 +3375,48 @@ public abstract class TaskSetParser {
 			prefix = parseStringExpression();
 		}
 
-		return new TableDataTarget(connection, batchSize, table, delimiter, prefix);
+		Expression<Integer> multiRow = null;
+		if (tokenizer.skipWordIgnoreCase(KW.MULTIROW.name())) {
+			multiRow = parseIntegerExpression();
+		}
+
+		boolean bulk = false;
+		if (tokenizer.skipWordIgnoreCase(KW.BULK.name())) {
+			if (prefix != null) {
+				throw new InputMismatchException("Cannot use " + KW.PREFIX.name() + " with " + KW.BULK.name() + " " + KW.TABLE.name() + " data target");
+			}
+			if (multiRow != null) {
+				throw new InputMismatchException("Cannot use " + KW.MULTIROW.name() + " with " + KW.BULK.name() + " " + KW.TABLE.name() + " data target");
+			}
+			bulk = true;
+		}
+
+		return new TableDataTarget(connection, batchSize, table, delimiter, prefix, multiRow, bulk);
+	}
+
+	private MergeDataTarget parseMergeDataTarget(DatabaseConnection connection, Expression<Integer> batchSize, boolean willHaveColumnCount) throws IOException {
+
+		if (!willHaveColumnCount) {
+			throw new RuntimeException("Cannot use " + KW.NO.name() + " " + KW.HEADERS.name() + " or similar with " + KW.MERGE.name() + " data target");
+		}
+
+		Expression<String> table = parseStringExpression();
+
+		if (!tokenizer.skipWordIgnoreCase(KW.ON.name())) {
+			throw new InputMismatchException("Expecting " + KW.ON.name() + " and key columns after " + KW.MERGE.name() + " table name");
+		}
+
+		List<Expression<String>> keys = new LinkedList<Expression<String>>();
+		do {
+			keys.add(parseStringExpression());
+		} while (tokenizer.skipDelimiter(","));
+
+		Expression<String> delimiter = null;
+		if (tokenizer.skipWordIgnoreCase(KW.DELIMITER.name())) {
+			delimiter = parseStringExpression();
+		}
+
+		return new MergeDataTarget(connection, batchSize, table, keys, delimiter);
 	}
 
 	private VariableBase parseVariableReference() throws InputMismatchException, NoSuchElementException, IOException {
@@ -3605,7 +3903,7 @@ public abstract class TaskSetParser {
 		return result;
 	}
 
-	private Expression<Integer> parseIntegerExpression() throws IOException {
+	protected Expression<Integer> parseIntegerExpression() throws IOException {
 
 		Expression<Integer> left = parseIntegerAddend();
 		IntegerBinary.Operator operator = null;
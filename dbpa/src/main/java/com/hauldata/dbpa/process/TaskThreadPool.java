@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread pool shared by the task executors of all processes running in this JVM.
+ * <p>
+ * Root, child, and nested contexts each have their own task executor to track
+ * completion of their own tasks, but all of them run their tasks on this pool,
+ * so that threads are reused across nested task sets and child processes
+ * rather than created and torn down with each one.
+ * <p>
+ * Tasks commonly block on JDBC calls, file transfers, or nested task sets, so the
+ * pool grows on demand and reclaims idle threads after a short time.  The number of tasks
+ * running at once, and of the workers they start, is bounded by {@link ConcurrencyLimit}
+ * rather than by the pool; see {@link TaskWorkers}.
+ * In virtual thread mode each task runs on its own virtual thread; see {@link TaskThreads}.
+ */
+public class TaskThreadPool {
+
+	private static final ExecutorService pool = TaskThreads.newExecutor(new TaskThreadFactory());
+
+	private static final AtomicInteger activeCount = new AtomicInteger(0);
+	private static final AtomicInteger largestActiveCount = new AtomicInteger(0);
+	private static final AtomicLong completedCount = new AtomicLong(0L);
+
+	private static final Executor executor = new Executor() {
+
+		@Override
+		public void execute(Runnable command) {
+			pool.execute(new Runnable() {
+
+				@Override
+				public void run() {
+
+					int active = activeCount.incrementAndGet();
+					largestActiveCount.accumulateAndGet(active, Math::max);
+
+					try {
+						command.run();
+					}
+					finally {
+						activeCount.decrementAndGet();
+						completedCount.incrementAndGet();
+					}
+				}
+			});
+		}
+	};
+
+	private static class TaskThreadFactory implements ThreadFactory {
+
+		private AtomicInteger threadNumber = new AtomicInteger(1);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			// Daemon threads so that idle pool threads do not hold up JVM exit.
+			Thread thread = new Thread(r, "dbpa-task-" + String.valueOf(threadNumber.getAndIncrement()));
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	/**
+	 * @return the shared pool
+	 */
+	public static Executor get() {
+		return executor;
+	}
+
+	/**
+	 * Snapshot of pool statistics
+	 */
+	public static class Metrics {
+
+		/** Number of threads currently in the pool, whether running a task or idle */
+		public int threadCount;
+
+		/** Number of threads currently running a task */
+		public int activeThreadCount;
+
+		/** Largest number of threads that have ever been in the pool at the same time */
+		public int largestThreadCount;
+
+		/** Number of tasks that have completed */
+		public long completedTaskCount;
+
+		/** Number of ready tasks waiting for admission under a concurrency limit */
+		public int queueDepth;
+
+		@Override
+		public String toString() {
+			return
+					"threads=" + String.valueOf(threadCount) +
+					", active=" + String.valueOf(activeThreadCount) +
+					", largest=" + String.valueOf(largestThreadCount) +
+					", completed=" + String.valueOf(completedTaskCount) +
+					", queued=" + String.valueOf(queueDepth);
+		}
+	}
+
+	/**
+	 * @return current statistics for the pool.  In virtual thread mode
+	 * threads are not pooled, so thread counts are the counts of running tasks.
+	 */
+	public static Metrics getMetrics() {
+
+		Metrics metrics = new Metrics();
+
+		metrics.activeThreadCount = activeCount.get();
+		metrics.completedTaskCount = completedCount.get();
+		metrics.queueDepth = ConcurrencyLimit.getQueuedCount();
+
+		if (pool instanceof ThreadPoolExecutor) {
+			metrics.threadCount = ((ThreadPoolExecutor)pool).getPoolSize();
+			metrics.largestThreadCount = ((ThreadPoolExecutor)pool).getLargestPoolSize();
+		}
+		else {
+			metrics.threadCount = metrics.activeThreadCount;
+			metrics.largestThreadCount = largestActiveCount.get();
+		}
+
+		return metrics;
+	}
+}
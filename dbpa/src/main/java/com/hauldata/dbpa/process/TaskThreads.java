@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Factory for the threads that run tasks, jobs, and blocking database and network calls.
+ * <p>
+ * By default these are platform threads.  When the JVM is started with system property
+ * <code>dbpa.threads=virtual</code> and the runtime is Java 21 or later, they are virtual
+ * threads instead, so that work which mostly blocks on JDBC, FTP, SMTP, or HTTP calls
+ * does not tie up a platform thread for each call.  On an earlier runtime the property
+ * is ignored and platform threads are used.
+ * <p>
+ * Virtual threads are obtained by reflection so that this code still compiles and runs
+ * on Java 8.  Interrupts behave the same in either mode, so a task that is interrupted
+ * while waiting on a statement still cancels the statement.
+ */
+public abstract class TaskThreads {
+
+	public static final String modeProperty = "dbpa.threads";
+	public static final String virtualMode = "virtual";
+
+	private static final ThreadFactory virtualFactory = createVirtualFactory();
+
+	private static ThreadFactory createVirtualFactory() {
+
+		if (!virtualMode.equalsIgnoreCase(System.getProperty(modeProperty, ""))) {
+			return null;
+		}
+
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			return (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+		}
+		catch (Exception ex) {
+			// Runtime does not support virtual threads.
+			return null;
+		}
+	}
+
+	/**
+	 * @return true if tasks run on virtual threads
+	 */
+	public static boolean isVirtual() {
+		return virtualFactory != null;
+	}
+
+	/**
+	 * Create an unstarted thread
+	 *
+	 * @param runnable is the work the thread will run
+	 * @param name is the name of the thread
+	 * @return the thread, which is a virtual thread if virtual mode is in effect
+	 */
+	public static Thread newThread(Runnable runnable, String name) {
+
+		Thread thread;
+		if (virtualFactory != null) {
+			thread = virtualFactory.newThread(runnable);
+			thread.setName(name);
+		}
+		else {
+			thread = new Thread(runnable, name);
+		}
+		return thread;
+	}
+
+	/**
+	 * Create an executor service that runs each submission on its own thread.
+	 * In virtual mode each submission gets a new virtual thread; otherwise
+	 * platform threads are cached and reused.
+	 *
+	 * @param threadFactory is the factory for platform threads, used only when not in virtual mode
+	 * @return the executor service
+	 */
+	public static ExecutorService newExecutor(ThreadFactory threadFactory) {
+
+		if (virtualFactory != null) {
+			try {
+				return (ExecutorService)Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, virtualFactory);
+			}
+			catch (Exception ex) {
+				throw new RuntimeException("Failed creating virtual thread executor: " + ex.toString(), ex);
+			}
+		}
+		else {
+			return Executors.newCachedThreadPool(threadFactory);
+		}
+	}
+
+	/**
+	 * @return an executor service that runs each submission on its own thread,
+	 * using default platform threads when not in virtual mode
+	 */
+	public static ExecutorService newExecutor() {
+		return newExecutor(Executors.defaultThreadFactory());
+	}
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.hauldata.dbpa.task.Task;
+
+/**
+ * Trace of the execution of the tasks of a process run, written as events in the Chrome trace format
+ * so that the run can be viewed as a timeline, e.g., in chrome://tracing or Perfetto.
+ * <p>
+ * Each task run is written as a complete event on the thread that ran it, giving the time the task
+ * waited to start after it was submitted and the rows, bytes and database round trips it accounted for.
+ * Runs of nested task sets and child processes are written as enclosing events.
+ * <p>
+ * Activity is counted for the task running on the current thread.  When no trace is open,
+ * the counting methods return after reading a single volatile field, so instrumented code
+ * costs next to nothing when tracing is off.
+ * <p>
+ * Tasks are identified by their names qualified by the names of their enclosing tasks, e.g.,
+ * <code>LOOP.ECHO</code>, prefixed for a child process by the child process name, e.g., <code>child/LOOP.ECHO</code>.
+ */
+public class TaskTrace {
+
+	public static final String fileExtension = ".trace.json";
+
+	private static volatile int openCount = 0;
+	private static final ThreadLocal<Counters> currentCounters = new ThreadLocal<Counters>();
+
+	private Store store;
+	private String prefix;
+
+	/**
+	 * Activity of a task counted while it runs
+	 */
+	public static class Counters {
+
+		long rowsRead;
+		long rowsWritten;
+		long bytesRead;
+		long bytesWritten;
+		long roundTrips;
+
+		private Counters previous;
+	}
+
+	/**
+	 * Trace file shared by the views of all processes in a run
+	 */
+	private static class Store {
+
+		String processName;
+		Writer writer;
+		long originNanos;
+		boolean first;
+		Set<Long> namedThreads;
+
+		Store(String processName, Writer writer) {
+			this.processName = processName;
+			this.writer = writer;
+			this.originNanos = System.nanoTime();
+			this.first = true;
+			this.namedThreads = new HashSet<Long>();
+		}
+	}
+
+	/**
+	 * Open a trace of a process run.
+	 *
+	 * @param path is the path of the trace file, which is replaced if it exists
+	 * @param processName is the name of the top-level process of the run
+	 * @return the trace
+	 * @throws IOException
+	 */
+	public static TaskTrace open(Path path, String processName) throws IOException {
+
+		Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path.toString()), StandardCharsets.UTF_8));
+		writer.write("[");
+
+		synchronized (TaskTrace.class) {
+			++openCount;
+		}
+
+		return new TaskTrace(new Store(processName, writer), "");
+	}
+
+	private TaskTrace(Store store, String prefix) {
+		this.store = store;
+		this.prefix = prefix;
+	}
+
+	/**
+	 * @return true if this trace is for the top-level process of the run
+	 */
+	public boolean isRoot() {
+		return prefix.isEmpty();
+	}
+
+	/**
+	 * @return a view of this trace for a child process
+	 */
+	public TaskTrace child(String childName) {
+		return new TaskTrace(store, prefix + childName + "/");
+	}
+
+	/**
+	 * @return the name that identifies a task in the trace
+	 */
+	public String getKey(Task task) {
+
+		StringBuilder key = new StringBuilder(task.getName());
+		for (Task parent = task.getParent(); parent != null; parent = parent.getParent()) {
+			key.insert(0, '.').insert(0, parent.getName());
+		}
+		return key.insert(0, prefix).toString();
+	}
+
+	// Counting activity of the task running on the current thread.
+
+	/**
+	 * Start counting the activity of a task on the current thread
+	 *
+	 * @return the counters, which must be passed to {@link #stopCounting(Counters)} when the task finishes
+	 */
+	public static Counters startCounting() {
+
+		Counters counters = new Counters();
+		counters.previous = currentCounters.get();
+		currentCounters.set(counters);
+		return counters;
+	}
+
+	/**
+	 * Stop counting the activity of a task on the current thread
+	 */
+	public static void stopCounting(Counters counters) {
+		currentCounters.set(counters.previous);
+		counters.previous = null;
+	}
+
+	/**
+	 * Add activity counted on another thread on behalf of the task running on the current thread,
+	 * e.g., by a helper thread that the task started and has waited for
+	 */
+	public static void addCounts(Counters other) {
+		Counters counters = getCounters();
+		if (counters != null) {
+			counters.rowsRead += other.rowsRead;
+			counters.rowsWritten += other.rowsWritten;
+			counters.bytesRead += other.bytesRead;
+			counters.bytesWritten += other.bytesWritten;
+			counters.roundTrips += other.roundTrips;
+		}
+	}
+
+	private static Counters getCounters() {
+		return (openCount == 0) ? null : currentCounters.get();
+	}
+
+	public static void countRowRead() {
+		Counters counters = getCounters();
+		if (counters != null) {
+			++counters.rowsRead;
+		}
+	}
+
+	public static void countRowWritten() {
+		Counters counters = getCounters();
+		if (counters != null) {
+			++counters.rowsWritten;
+		}
+	}
+
+	public static void countRoundTrip() {
+		Counters counters = getCounters();
+		if (counters != null) {
+			++counters.roundTrips;
+		}
+	}
+
+	/**
+	 * Count bytes read by the task on the current thread other than through a stream from countBytes()
+	 */
+	public static void countBytesRead(long count) {
+		Counters counters = getCounters();
+		if ((counters != null) && (count > 0)) {
+			counters.bytesRead += count;
+		}
+	}
+
+	/**
+	 * Count bytes written by the task on the current thread other than through a stream from countBytes()
+	 */
+	public static void countBytesWritten(long count) {
+		Counters counters = getCounters();
+		if ((counters != null) && (count > 0)) {
+			counters.bytesWritten += count;
+		}
+	}
+
+	/**
+	 * @return a stream that counts the bytes read through it toward the task reading them,
+	 * or the stream itself if no trace is open
+	 */
+	public static InputStream countBytes(InputStream in) {
+		return (openCount == 0) ? in : new CountingInputStream(in);
+	}
+
+	/**
+	 * @return a stream that counts the bytes written through it toward the task writing them,
+	 * or the stream itself if no trace is open
+	 */
+	public static OutputStream countBytes(OutputStream out) {
+		return (openCount == 0) ? out : new CountingOutputStream(out);
+	}
+
+	private static class CountingInputStream extends FilterInputStream {
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				countBytesRead(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int count = super.read(b, off, len);
+			countBytesRead(count);
+			return count;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long count = super.skip(n);
+			countBytesRead(count);
+			return count;
+		}
+	}
+
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			countBytesWritten(1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			countBytesWritten(len);
+		}
+	}
+
+	// Writing events.
+
+	/**
+	 * Write the event for a task that ran on the current thread
+	 *
+	 * @param task is the task
+	 * @param submitNanos is the time the task was submitted to run
+	 * @param startNanos is the time the task started
+	 * @param endNanos is the time the task finished
+	 * @param counters is the activity counted while the task ran
+	 */
+	public void writeTask(Task task, long submitNanos, long startNanos, long endNanos, Counters counters) throws IOException {
+
+		StringBuilder args = new StringBuilder();
+		args.append("\"queue_us\":").append(micros(startNanos - submitNanos));
+		args.append(",\"rows_read\":").append(counters.rowsRead);
+		args.append(",\"rows_written\":").append(counters.rowsWritten);
+		args.append(",\"bytes_read\":").append(counters.bytesRead);
+		args.append(",\"bytes_written\":").append(counters.bytesWritten);
+		args.append(",\"round_trips\":").append(counters.roundTrips);
+		if (task.getResult() != null) {
+			args.append(",\"result\":\"").append(task.getResult().name()).append('"');
+		}
+
+		writeEvent(getKey(task), "task", startNanos, endNanos, args.toString());
+	}
+
+	/**
+	 * Write the event for a run of the task set nested within a task
+	 *
+	 * @param parentTask is the task that ran the nested task set on the current thread
+	 * @param startNanos is the time the run started
+	 * @param endNanos is the time the run finished
+	 */
+	public void writeTaskSet(Task parentTask, long startNanos, long endNanos) throws IOException {
+		writeEvent(getKey(parentTask) + " tasks", "nested", startNanos, endNanos, null);
+	}
+
+	/**
+	 * Write the event for a run of the process traced by this view that ran on the current thread
+	 *
+	 * @param startNanos is the time the run started
+	 * @param endNanos is the time the run finished
+	 */
+	public void writeProcess(long startNanos, long endNanos) throws IOException {
+		String name = isRoot() ? store.processName : prefix.substring(0, prefix.length() - 1);
+		writeEvent(name, "process", startNanos, endNanos, null);
+	}
+
+	private void writeEvent(String name, String category, long startNanos, long endNanos, String args) throws IOException {
+
+		Thread thread = Thread.currentThread();
+		long threadId = thread.getId();
+
+		StringBuilder event = new StringBuilder();
+		event.append("{\"name\":"); appendString(event, name);
+		event.append(",\"cat\":\"").append(category).append('"');
+		event.append(",\"ph\":\"X\"");
+		event.append(",\"ts\":").append(micros(startNanos - store.originNanos));
+		event.append(",\"dur\":").append(micros(endNanos - startNanos));
+		event.append(",\"pid\":1,\"tid\":").append(threadId);
+		if (args != null) {
+			event.append(",\"args\":{").append(args).append('}');
+		}
+		event.append('}');
+
+		synchronized (store) {
+			if (store.namedThreads.add(threadId)) {
+				StringBuilder metadata = new StringBuilder();
+				metadata.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":").append(threadId);
+				metadata.append(",\"args\":{\"name\":"); appendString(metadata, thread.getName()); metadata.append("}}");
+				writeLine(metadata);
+			}
+			writeLine(event);
+		}
+	}
+
+	private void writeLine(CharSequence line) throws IOException {
+
+		if (store.writer == null) {
+			return;
+		}
+		if (!store.first) {
+			store.writer.write(',');
+		}
+		store.writer.write('\n');
+		store.writer.append(line);
+		store.first = false;
+	}
+
+	private static long micros(long nanos) {
+		return nanos / 1000L;
+	}
+
+	private static void appendString(StringBuilder builder, String value) {
+
+		builder.append('"');
+		for (int i = 0; i < value.length(); ++i) {
+			char c = value.charAt(i);
+			if ((c == '"') || (c == '\\')) {
+				builder.append('\\').append(c);
+			}
+			else if (c < ' ') {
+				builder.append(String.format("\\u%04x", (int)c));
+			}
+			else {
+				builder.append(c);
+			}
+		}
+		builder.append('"');
+	}
+
+	/**
+	 * Close the trace
+	 */
+	public void close() throws IOException {
+
+		synchronized (store) {
+			if (store.writer == null) {
+				return;
+			}
+			try {
+				store.writer.write("\n]\n");
+				store.writer.close();
+			}
+			finally {
+				store.writer = null;
+
+				synchronized (TaskTrace.class) {
+					--openCount;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.hauldata.dbpa.task.Task;
+
+/**
+ * Workers that do parts of a task concurrently on the shared task thread pool,
+ * such as the partitions of a FLOW or the iterations of a concurrent loop.
+ * <p>
+ * A worker commonly holds its own connection or file while it runs, so like a task it is
+ * admitted subject to the concurrency limit of the context.  A task that does its own work
+ * already holds a slot under the limit, and while it waits for its workers it lends that slot
+ * to them by running workers not yet admitted on its own thread.  So workers always make
+ * progress however full the limit is.  Workers of a task that only coordinates other tasks,
+ * such as the iterations of a loop, are not admitted under the limit and do not count rows,
+ * since the tasks they run are admitted individually and count their own rows.
+ * <p>
+ * Workers are started, awaited and cancelled from the thread of the owning task.
+ */
+public class TaskWorkers {
+
+	private ConcurrencyLimit limit;
+	private long priority;
+	private boolean lendsSlot;
+	private boolean counting;
+
+	private Set<Worker> outstanding;
+	private Deque<Worker> pending;
+	private BlockingQueue<Worker> completions;
+
+	/**
+	 * Part of a task that runs on its own thread
+	 */
+	public static abstract class Worker {
+
+		private TaskWorkers workers;
+		private WorkerAdmission admission;
+		private AtomicBoolean claimed;
+		private String taskName;
+
+		private Thread thread;
+		private boolean cancelled;
+
+		private Exception exception;
+		private TaskTrace.Counters counters;
+
+		protected Worker() {
+			workers = null;
+			admission = null;
+			claimed = new AtomicBoolean(false);
+			taskName = Task.getRunningName();
+			thread = null;
+			cancelled = false;
+			exception = null;
+			counters = null;
+		}
+
+		/**
+		 * Do the work
+		 */
+		protected abstract void work() throws Exception;
+
+		/**
+		 * Release any resources held by the worker when it is cancelled before it starts
+		 */
+		protected void skip() {}
+
+		/**
+		 * @return the exception thrown by the work, or InterruptedException if the worker
+		 * was cancelled before it started, or null if the work succeeded
+		 */
+		public Exception getException() {
+			return exception;
+		}
+
+		/**
+		 * Interrupt the worker if it is running or prevent it from running if it has not started
+		 */
+		public synchronized void cancel() {
+			cancelled = true;
+			if (thread != null) {
+				thread.interrupt();
+			}
+		}
+
+		private boolean claim() {
+			return claimed.compareAndSet(false, true);
+		}
+
+		/**
+		 * Run the worker on a pool thread, or on the owner thread if not pooled
+		 */
+		private void run(boolean pooled) {
+
+			synchronized (this) {
+				if (cancelled) {
+					exception = new InterruptedException();
+					skip();
+					workers.complete(this, pooled);
+					return;
+				}
+				thread = Thread.currentThread();
+			}
+
+			TaskTrace.Counters threadCounters = (pooled && workers.counting) ? TaskTrace.startCounting() : null;
+			String previousRunningName = pooled ? Task.setRunningName(taskName) : null;
+			try {
+				work();
+			}
+			catch (Exception ex) {
+				exception = ex;
+			}
+			finally {
+				if (pooled) {
+					Task.setRunningName(previousRunningName);
+				}
+
+				if (threadCounters != null) {
+					TaskTrace.stopCounting(threadCounters);
+					counters = threadCounters;
+				}
+
+				synchronized (this) {
+					thread = null;
+				}
+
+				workers.complete(this, pooled);
+			}
+		}
+	}
+
+	private static class WorkerAdmission extends ConcurrencyLimit.Admission {
+
+		private Worker worker;
+		private long priority;
+
+		WorkerAdmission(Worker worker, long priority) {
+			this.worker = worker;
+			this.priority = priority;
+		}
+
+		@Override
+		protected void start() {
+			if (worker.claim()) {
+				TaskThreadPool.get().execute(() -> worker.run(true));
+			}
+			else {
+				// The owner ran the worker on its own thread or cancelled it.
+				release();
+			}
+		}
+
+		@Override
+		protected long getPriority() {
+			return priority;
+		}
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param context is the context in which the owning task runs
+	 * @param owner is the owning task
+	 */
+	public TaskWorkers(Context context, Task owner) {
+
+		this.lendsSlot = owner.countsTowardConcurrencyLimit();
+		this.limit = lendsSlot ? context.concurrencyLimit : null;
+		this.priority = owner.getPriority();
+		this.counting = lendsSlot && (context.trace != null);
+
+		this.outstanding = new HashSet<Worker>();
+		this.pending = new ArrayDeque<Worker>();
+		this.completions = new LinkedBlockingQueue<Worker>();
+	}
+
+	/**
+	 * Start a worker as soon as it is admitted under the concurrency limit
+	 */
+	public void start(Worker worker) {
+
+		worker.workers = this;
+		outstanding.add(worker);
+
+		if (limit == null) {
+			worker.claim();
+			TaskThreadPool.get().execute(() -> worker.run(true));
+		}
+		else {
+			pending.add(worker);
+			worker.admission = new WorkerAdmission(worker, priority);
+			limit.admit(worker.admission);
+		}
+	}
+
+	/**
+	 * Start a worker only if it can be admitted under the concurrency limit right away.
+	 * Used when the owning task is busy with its own part of the work and so cannot
+	 * lend its slot.
+	 *
+	 * @return true if the worker was started, or false if the limit is full
+	 */
+	public boolean tryStart(Worker worker) {
+
+		start(worker);
+
+		// An admission that is not queued starts before admit() returns, so if the
+		// worker can still be claimed here, it is queued and is taken back.
+
+		if (worker.claim()) {
+			withdraw(worker);
+			outstanding.remove(worker);
+			pending.remove(worker);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Get a worker that has finished, running a worker on this thread if it lends its slot
+	 * and no worker has finished yet.  Blocks until a worker finishes.
+	 *
+	 * @return the finished worker or null if no workers remain outstanding
+	 * @throws InterruptedException if this thread was interrupted while waiting
+	 */
+	public Worker take() throws InterruptedException {
+
+		while (!outstanding.isEmpty()) {
+
+			Worker worker = completions.poll();
+			if (worker == null) {
+				Worker next = lendsSlot ? claimPending() : null;
+				if (next != null) {
+					next.run(false);
+					if (Thread.interrupted() || (next.exception instanceof InterruptedException)) {
+						throw new InterruptedException();
+					}
+					continue;
+				}
+
+				worker = completions.take();
+			}
+
+			finish(worker);
+			return worker;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Wait for all outstanding workers to finish.  If this thread is interrupted while waiting,
+	 * all workers are cancelled and allowed to finish before the interrupt is thrown.
+	 *
+	 * @throws InterruptedException if this thread was interrupted while waiting
+	 */
+	public void awaitAll() throws InterruptedException {
+
+		try {
+			while (take() != null);
+		}
+		catch (InterruptedException ex) {
+			cancelAll();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Cancel all outstanding workers and wait for them to finish, even if this thread is interrupted.
+	 * An interrupt while waiting is restored once the workers have finished.
+	 */
+	public void cancelAll() {
+
+		for (Worker worker : outstanding) {
+			worker.cancel();
+			if (worker.claim()) {
+				// Not yet started; complete it as cancelled.
+				withdraw(worker);
+				worker.run(false);
+			}
+		}
+		pending.clear();
+
+		boolean interrupted = false;
+		while (!outstanding.isEmpty()) {
+			try {
+				finish(completions.take());
+			}
+			catch (InterruptedException ex) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private Worker claimPending() {
+
+		Worker worker;
+		while ((worker = pending.poll()) != null) {
+			if (worker.claim()) {
+				withdraw(worker);
+				return worker;
+			}
+		}
+		return null;
+	}
+
+	private void withdraw(Worker worker) {
+		// If the admission has already been started, it releases its slots on finding the worker claimed.
+		if (worker.admission != null) {
+			worker.admission.withdraw();
+		}
+	}
+
+	private void complete(Worker worker, boolean pooled) {
+
+		if (pooled) {
+			if (worker.admission != null) {
+				worker.admission.release();
+			}
+
+			// Do not leave an interrupt from cancel() pending on a pooled thread.
+			Thread.interrupted();
+		}
+
+		completions.add(worker);
+	}
+
+	private void finish(Worker worker) {
+
+		outstanding.remove(worker);
+
+		if (worker.counters != null) {
+			TaskTrace.addCounts(worker.counters);
+		}
+	}
+}
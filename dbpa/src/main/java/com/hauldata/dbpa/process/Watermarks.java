@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import com.hauldata.dbpa.task.Task;
+
+/**
+ * High-water marks of the incremental sources of the tasks of a process.
+ * <p>
+ * A task with an <code>INCREMENTAL ON</code> source reads only the rows whose incremental column
+ * is greater than the mark left by its last successful run, and advances the mark to the greatest
+ * value it read only after its target has committed.  Marks are loaded from a properties file
+ * when the process starts and the file is rewritten each time a mark advances, so that a mark
+ * survives a later failure of the run.
+ * <p>
+ * Tasks are identified as in TaskHistory, except that a task name includes its evaluated qualifier,
+ * e.g., <code>LOOP.LOAD:orders</code>, so that a task that loads several tables in a loop keeps a mark
+ * for each table.  A mark is a Long, BigDecimal, LocalDate, LocalDateTime or String.
+ */
+public class Watermarks {
+
+	public static final String fileExtension = ".watermarks";
+
+	private Store store;
+	private String prefix;
+
+	/**
+	 * Marks shared by the views of all processes in a run
+	 */
+	private static class Store {
+
+		Path path;
+		Map<String, Object> marks;
+
+		Store(Path path, Map<String, Object> marks) {
+			this.path = path;
+			this.marks = marks;
+		}
+	}
+
+	/**
+	 * Load the watermarks of a process from a file.  If the file does not exist,
+	 * there are initially no marks and the file is created when a mark first advances.
+	 *
+	 * @param path is the path of the file, or null if the marks are not persisted
+	 * @return the watermarks
+	 */
+	public static Watermarks load(Path path) {
+
+		Map<String, Object> marks = new HashMap<String, Object>();
+
+		if (path != null) {
+			Properties props = new Properties();
+
+			FileInputStream in = null;
+			try {
+				in = new FileInputStream(path.toString());
+				props.load(in);
+			}
+			catch (FileNotFoundException ex) {
+				// No earlier runs.
+			}
+			catch (Exception ex) {
+				String message = (ex.getMessage() != null) ? ex.getMessage() : ex.getClass().getName();
+				throw new RuntimeException("Error reading watermarks from file \"" + path.toString() + "\": " + message, ex);
+			}
+			finally {
+				try { if (in != null) in.close(); }
+				catch (Exception ex) {}
+			}
+
+			for (String key : props.stringPropertyNames()) {
+				marks.put(key, decode(key, props.getProperty(key)));
+			}
+		}
+
+		return new Watermarks(new Store(path, marks), "");
+	}
+
+	private Watermarks(Store store, String prefix) {
+		this.store = store;
+		this.prefix = prefix;
+	}
+
+	/**
+	 * @return a view of these watermarks for a child process
+	 */
+	public Watermarks child(String childName) {
+		return new Watermarks(store, prefix + childName + "/");
+	}
+
+	/**
+	 * @return the key that identifies the mark of a task
+	 */
+	public String getKey(Task task) {
+
+		StringBuilder key = new StringBuilder(task.getName());
+		for (Task parent = task.getParent(); parent != null; parent = parent.getParent()) {
+			key.insert(0, '.').insert(0, parent.getName());
+		}
+		return key.insert(0, prefix).toString();
+	}
+
+	/**
+	 * @return the mark of a task, or null if the task has not yet completed an incremental run
+	 */
+	public Object get(String key) {
+		synchronized (store) {
+			return store.marks.get(key);
+		}
+	}
+
+	/**
+	 * Advance the mark of a task and save all marks.  The mark is left unchanged
+	 * unless the new value is greater, so partitions of a source can each advance it.
+	 *
+	 * @param key is the key of the task
+	 * @param value is the greatest value of the incremental column that the task read
+	 * @return true if the mark advanced
+	 * @throws RuntimeException if the value is of a type that cannot be compared with the mark
+	 */
+	public boolean advance(String key, Object value) throws IOException {
+
+		synchronized (store) {
+			Object mark = store.marks.get(key);
+			if ((value == null) || ((mark != null) && !isGreater(key, value, mark))) {
+				return false;
+			}
+
+			store.marks.put(key, value);
+			save();
+			return true;
+		}
+	}
+
+	/**
+	 * Compare a value with a mark.  A Long and a BigDecimal are compared as numbers, and a LocalDate
+	 * and a LocalDateTime as times, so that a mark survives a change to the type of its column.
+	 *
+	 * @throws RuntimeException if the value cannot be compared with the mark
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static boolean isGreater(String key, Object value, Object mark) {
+
+		if (value.getClass() == mark.getClass()) {
+			return ((Comparable)value).compareTo(mark) > 0;
+		}
+		else if (isNumber(value) && isNumber(mark)) {
+			return toBigDecimal(value).compareTo(toBigDecimal(mark)) > 0;
+		}
+		else if (isTime(value) && isTime(mark)) {
+			return toLocalDateTime(value).compareTo(toLocalDateTime(mark)) > 0;
+		}
+		else {
+			throw new RuntimeException("Cannot advance watermark for " + key + " from a " +
+					mark.getClass().getSimpleName() + " to a " + value.getClass().getSimpleName());
+		}
+	}
+
+	private static boolean isNumber(Object value) {
+		return (value instanceof Long) || (value instanceof BigDecimal);
+	}
+
+	private static BigDecimal toBigDecimal(Object value) {
+		return (value instanceof Long) ? BigDecimal.valueOf((Long)value) : (BigDecimal)value;
+	}
+
+	private static boolean isTime(Object value) {
+		return (value instanceof LocalDate) || (value instanceof LocalDateTime);
+	}
+
+	private static LocalDateTime toLocalDateTime(Object value) {
+		return (value instanceof LocalDate) ? ((LocalDate)value).atStartOfDay() : (LocalDateTime)value;
+	}
+
+	private void save() throws IOException {
+
+		if (store.path == null) {
+			return;
+		}
+
+		Properties props = new Properties();
+		for (Map.Entry<String, Object> entry : store.marks.entrySet()) {
+			props.setProperty(entry.getKey(), encode(entry.getValue()));
+		}
+
+		// Write a new file and move it into place so that a failure while writing never loses the marks.
+
+		Path temporary = store.path.resolveSibling(store.path.getFileName().toString() + ".tmp");
+
+		FileOutputStream out = null;
+		try {
+			out = new FileOutputStream(temporary.toString());
+			props.store(out, "High-water marks of incremental sources");
+		}
+		finally {
+			try { if (out != null) out.close(); }
+			catch (Exception ex) {}
+		}
+
+		Files.move(temporary, store.path, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static String encode(Object value) {
+
+		if (value instanceof Long) {
+			return "l:" + value.toString();
+		}
+		else if (value instanceof BigDecimal) {
+			return "n:" + ((BigDecimal)value).toPlainString();
+		}
+		else if (value instanceof LocalDate) {
+			return "d:" + value.toString();
+		}
+		else if (value instanceof LocalDateTime) {
+			return "t:" + value.toString();
+		}
+		else {
+			return "s:" + value.toString();
+		}
+	}
+
+	private static Object decode(String key, String text) {
+
+		try {
+			String value = text.substring(2);
+			switch (text.substring(0, 2)) {
+			case "l:": return Long.valueOf(value);
+			case "n:": return new BigDecimal(value);
+			case "d:": return LocalDate.parse(value);
+			case "t:": return LocalDateTime.parse(value);
+			case "s:": return value;
+			}
+		}
+		catch (RuntimeException ex) {
+			// Fall through to report the corrupt entry.
+		}
+		throw new RuntimeException("Invalid watermark for " + key + ": \"" + text + "\"");
+	}
+}
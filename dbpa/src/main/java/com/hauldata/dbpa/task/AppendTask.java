@@ -46,7 +46,7 @@ public class AppendTask extends FileTask {
 
 		try {
 			TargetPage writePage = page.append(context.files);
-			write(context, dataSource, writePage);
+			write(context, dataSource, page, writePage);
 		}
 		catch (IOException ex) {
 			String message = (ex.getMessage() != null) ? ex.getMessage() : ex.getClass().getName();
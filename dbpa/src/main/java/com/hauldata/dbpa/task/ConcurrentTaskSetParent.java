@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.task;
+
+import com.hauldata.dbpa.process.ConcurrentTaskSet;
+
+public interface ConcurrentTaskSetParent extends TaskSetParent {
+
+	/**
+	 * Set task set owned by this parent task whose iterations run concurrently
+	 *
+	 * @param taskSet is the task set owned.
+	 * @return this parent task
+	 */
+	Task setConcurrentTaskSet(ConcurrentTaskSet taskSet);
+}
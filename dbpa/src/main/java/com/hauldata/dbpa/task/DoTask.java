@@ -55,7 +55,9 @@ public class DoTask extends Task implements TaskSetParent {
 				taskSet.run(nestedContext);
 			}
 			else {
+				int iteration = 0;
 				while (whileCondition.evaluate()) {
+					nestedContext.setIteration(++iteration);
 					taskSet.run(nestedContext);
 				}
 			}
@@ -16,29 +16,47 @@
 
 package com.hauldata.dbpa.task;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.hauldata.dbpa.datasource.DataSource;
 import com.hauldata.dbpa.datasource.DataTarget;
 import com.hauldata.dbpa.datasource.Source;
 import com.hauldata.dbpa.file.Columns;
+import com.hauldata.dbpa.file.PageIdentifier;
+import com.hauldata.dbpa.file.PhysicalPageIdentifier;
 import com.hauldata.dbpa.file.SourceHeaders;
 import com.hauldata.dbpa.file.SourcePage;
 import com.hauldata.dbpa.file.TargetPage;
 import com.hauldata.dbpa.process.Context;
+import com.hauldata.dbpa.process.TaskWorkers;
 
 public abstract class FileTask extends Task {
 
+	public static final String chunkSucceededMessage = "Chunk succeeded";
+	public static final String chunkFailedMessage = "Chunk failed";
+
 	public FileTask(Prologue prologue) {
 		super(prologue);
 	}
 
+	/**
+	 * Write the rows of a source to a page.  If the source is incremental, its watermark
+	 * advances only once the file of the page has been closed without error, since rows
+	 * written to a file are not complete until then.
+	 */
 	protected void write(
 			Context context,
 			Source source,
+			PageIdentifier id,
 			TargetPage page) {
 
 		try {
+			startIncrement(context, source);
+
 			source.executeQuery(context);
 
 			page.write(source);
@@ -54,6 +72,9 @@ public abstract class FileTask extends Task {
 		finally {
 			source.close(context);
 		}
+
+		Path path = (id instanceof PhysicalPageIdentifier) ? ((PhysicalPageIdentifier)id).getPath() : null;
+		context.files.afterClose(path, () -> advanceIncrement(context, source));
 	}
 
 	protected void read(
@@ -64,9 +85,11 @@ public abstract class FileTask extends Task {
 			DataTarget target) {
 
 		try {
+			long skipRowCount = resumeCommitted(context, target);
+
 			target.prepareStatement(context, columns);
 
-			page.read(columns, target);
+			page.read(columns, target, skipRowCount);
 		}
 		catch (SQLException ex) {
 			DataTarget.throwDatabaseExecutionFailed(ex);
@@ -80,4 +103,102 @@ public abstract class FileTask extends Task {
 			target.close(context);
 		}
 	}
+
+	/**
+	 * Read the data rows of a page in chunks concurrently, each chunk on a separate thread
+	 * into its own target connection.  Each chunk is admitted under the concurrency limit
+	 * of the process like a task; see {@link TaskWorkers}.  Rows are not written to the target
+	 * in the order of the file.  All chunks are allowed to finish even if some fail, and each failure is logged with the line
+	 * where its chunk starts.  Line numbers in errors are those of the whole file.  Since each chunk
+	 * commits on its own, the target must not commit every so many rows, as a failed run could not be resumed.
+	 *
+	 * @param page is the page just opened, which is closed once it has been split into chunks
+	 * @param count is the maximum number of chunks to read concurrently
+	 */
+	protected void readParallel(
+			Context context,
+			SourcePage page,
+			Columns columns,
+			DataTarget target,
+			int count) throws IOException, InterruptedException {
+
+		List<SourcePage> chunks;
+		try {
+			chunks = page.split(count);
+		}
+		finally {
+			try { page.close(); } catch (Exception ex) {}
+		}
+
+		TaskWorkers workers = new TaskWorkers(context, this);
+		List<ChunkRead> reads = new ArrayList<ChunkRead>();
+		for (SourcePage chunk : chunks) {
+			ChunkRead read = new ChunkRead(context, chunk, columns, target.copy());
+			reads.add(read);
+			workers.start(read);
+		}
+
+		workers.awaitAll();
+
+		int failedCount = 0;
+		for (ChunkRead read : reads) {
+
+			Exception exception = read.getException();
+			if (exception == null) {
+				context.logger.info(getName(), chunkSucceededMessage + " with " + String.valueOf(read.rowCount) + " rows from line " + String.valueOf(read.firstLine));
+			}
+			else {
+				++failedCount;
+				String message = (exception.getMessage() != null) ? exception.getMessage() : exception.getClass().getName();
+				context.logger.error(getName(), chunkFailedMessage + " from line " + String.valueOf(read.firstLine) + ": " + message);
+			}
+		}
+
+		if (0 < failedCount) {
+			throw new RuntimeException(String.valueOf(failedCount) + " of " + String.valueOf(reads.size()) + " chunks failed");
+		}
+	}
+
+	/**
+	 * Read of one chunk of a page on a separate thread
+	 */
+	private class ChunkRead extends TaskWorkers.Worker {
+
+		final int firstLine;
+
+		private Context context;
+		private SourcePage page;
+		private Columns columns;
+		private DataTarget target;
+
+		long rowCount;
+
+		ChunkRead(Context context, SourcePage page, Columns columns, DataTarget target) {
+			this.firstLine = page.getFirstLine();
+			this.context = context;
+			this.page = page;
+			this.columns = columns;
+			this.target = target;
+			this.rowCount = 0;
+		}
+
+		@Override
+		protected void work() throws Exception {
+			try {
+				target.prepareStatement(context, columns);
+
+				rowCount = page.read(columns, target);
+			}
+			finally {
+				try { page.close(); } catch (Exception ex) {}
+
+				target.close(context);
+			}
+		}
+
+		@Override
+		protected void skip() {
+			try { page.close(); } catch (Exception ex) {}
+		}
+	}
 }
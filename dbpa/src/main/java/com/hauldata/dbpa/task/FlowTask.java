@@ -17,45 +17,103 @@
 package com.hauldata.dbpa.task;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
+import com.hauldata.dbpa.datasource.DataTarget;
+import com.hauldata.dbpa.datasource.PartitionableSource;
+import com.hauldata.dbpa.datasource.Partitioning;
+import com.hauldata.dbpa.datasource.RowBatchRing;
 import com.hauldata.dbpa.datasource.Source;
 import com.hauldata.dbpa.datasource.Target;
+import com.hauldata.dbpa.datasource.TransferPlan;
+import com.hauldata.dbpa.expression.Expression;
 import com.hauldata.dbpa.file.Columns;
 import com.hauldata.dbpa.process.Context;
+import com.hauldata.dbpa.process.TaskWorkers;
 
 public class FlowTask extends Task {
 
+	public static final int bufferBatchCountDefault = 4;
+	private static final int bufferBatchRowCount = 1000;
+
+	public static final String partitionSucceededMessage = "Partition succeeded";
+	public static final String partitionFailedMessage = "Partition failed";
+	public static final String partitionsReconciledMessage = "Partition row counts reconcile with source row count";
+	public static final String partitionsUnreconciledMessage = "Partition row counts do not reconcile with source row count";
+
 	private Source source;
 	private Target target;
+	private boolean pipelined;
+	private Expression<Integer> bufferExpression;
+	private Partitioning partitioning;
 
 	public FlowTask(Prologue prologue, Source source, Target target) {
+		this(prologue, source, target, false, null, null);
+	}
+
+	/**
+	 * Construct a FLOW task
+	 *
+	 * @param pipelined is true to read rows from the source on a separate thread while writing to the target
+	 * @param bufferExpression is the number of row batches buffered between the threads when pipelined,
+	 * or null for the default
+	 * @param partitioning divides the source rows into partitions that flow concurrently, each on
+	 * its own source and target connection, or is null to flow all rows together.  If not null,
+	 * the source must be a PartitionableSource and the target must be a DataTarget.
+	 */
+	public FlowTask(
+			Prologue prologue,
+			Source source,
+			Target target,
+			boolean pipelined,
+			Expression<Integer> bufferExpression,
+			Partitioning partitioning) {
+
 		super(prologue);
 		this.source = source;
 		this.target = target;
+		this.pipelined = pipelined;
+		this.bufferExpression = bufferExpression;
+		this.partitioning = partitioning;
 	}
 
 	@Override
 	protected void execute(Context context) throws Exception {
 
+		if (partitioning != null) {
+			flowPartitioned(context);
+		}
+		else {
+			// Committed rows are not skipped when a run is resumed; see RunJournal.
+			startIncrement(context, source);
+			flow(context, source, target);
+			advanceIncrement(context, source);
+		}
+	}
+
+	/**
+	 * Flow all rows from a source to a target and close them both
+	 *
+	 * @return the number of rows
+	 */
+	private long flow(Context context, Source source, Target target) throws Exception {
+
 		try {
 			source.executeQuery(context);
-			target.prepareStatement(context, getColumns());
+			target.prepareStatement(context, getColumns(source));
 
 			if ((0 <= target.getParameterCount()) && (target.getParameterCount() != source.getColumnCount())) {
 				throw new RuntimeException("Number of source columns does not match the number of target parameters");
 			}
 
-			while (source.next()) {
-				for (int i = 1; i <= source.getColumnCount(); ++i) {
-					target.setObject(i, source.getObject(i));
-				}
-				target.addBatch();
-			}
+			long rowCount = pipelined ? flowPipelined(context, source, target) : flowRows(source, target);
 
 			target.executeBatch();
 			source.done(context);
+
+			return rowCount;
 		}
 		finally {
 			target.close(context);
@@ -63,7 +121,239 @@ public class FlowTask extends Task {
 		}
 	}
 
-	private Columns getColumns() throws SQLException {
+	/**
+	 * Flow rows from source to target on the task thread
+	 *
+	 * @return the number of rows
+	 */
+	private long flowRows(Source source, Target target) throws Exception {
+
+		TransferPlan plan = TransferPlan.build(source, target);
+		int columnCount = source.getColumnCount();
+
+		long rowCount = 0;
+		while (source.next()) {
+			if (plan != null) {
+				plan.transfer();
+			}
+			else {
+				for (int i = 1; i <= columnCount; ++i) {
+					target.setObject(i, source.getObject(i));
+				}
+			}
+			target.addBatch();
+			++rowCount;
+		}
+		return rowCount;
+	}
+
+	/**
+	 * Flow the partitions of the source rows concurrently, each from its own source connection
+	 * to its own target connection on a separate thread.  Each partition is admitted under the
+	 * concurrency limit of the process like a task; see {@link TaskWorkers}.  All partitions are allowed to finish
+	 * even if some fail, and each failure is logged with the predicate of its partition.
+	 * Once all partitions succeed, the total number of rows they moved is reconciled with
+	 * the number of rows returned by the unpartitioned source query.  Since the source may
+	 * change while the partitions flow, a difference is logged as a warning rather than failing.
+	 * The watermark of an incremental source advances only when all partitions succeed.
+	 */
+	private void flowPartitioned(Context context) throws Exception {
+
+		PartitionableSource source = (PartitionableSource)this.source;
+		DataTarget target = (DataTarget)this.target;
+
+		List<String> predicates = partitioning.evaluate();
+
+		startIncrement(context, this.source);
+
+		TaskWorkers workers = new TaskWorkers(context, this);
+		List<PartitionFlow> flows = new ArrayList<PartitionFlow>();
+		for (String predicate : predicates) {
+			PartitionFlow flow = new PartitionFlow(context, predicate, source.partition(predicate), target.copy());
+			flows.add(flow);
+			workers.start(flow);
+		}
+
+		workers.awaitAll();
+
+		long rowCount = 0;
+		int failedCount = 0;
+		for (PartitionFlow flow : flows) {
+
+			Exception exception = flow.getException();
+			if (exception == null) {
+				rowCount += flow.rowCount;
+				context.logger.info(getName(), partitionSucceededMessage + " with " + String.valueOf(flow.rowCount) + " rows: " + flow.predicate);
+			}
+			else {
+				++failedCount;
+				String message = (exception.getMessage() != null) ? exception.getMessage() : exception.getClass().getName();
+				context.logger.error(getName(), partitionFailedMessage + ": " + flow.predicate + ": " + message);
+			}
+		}
+
+		if (0 < failedCount) {
+			throw new RuntimeException(String.valueOf(failedCount) + " of " + String.valueOf(flows.size()) + " partitions failed");
+		}
+
+		long sourceRowCount = source.countRows(context);
+		String counts = ": partitions " + String.valueOf(rowCount) + " rows, source " + String.valueOf(sourceRowCount) + " rows";
+		if (rowCount == sourceRowCount) {
+			context.logger.info(getName(), partitionsReconciledMessage + counts);
+		}
+		else {
+			context.logger.warn(getName(), partitionsUnreconciledMessage + counts);
+		}
+
+		for (PartitionFlow flow : flows) {
+			advanceIncrement(context, flow.source);
+		}
+	}
+
+	/**
+	 * Flow of one partition of the source rows on a separate thread
+	 */
+	private class PartitionFlow extends TaskWorkers.Worker {
+
+		final String predicate;
+
+		private Context context;
+		private Source source;
+		private Target target;
+
+		long rowCount;
+
+		PartitionFlow(Context context, String predicate, Source source, Target target) {
+			this.context = context;
+			this.predicate = predicate;
+			this.source = source;
+			this.target = target;
+			this.rowCount = 0;
+		}
+
+		@Override
+		protected void work() throws Exception {
+			rowCount = flow(context, source, target);
+		}
+	}
+
+	/**
+	 * Flow rows from source to target with the source read on a separate thread,
+	 * so that fetching rows from the source overlaps writing batches to the target.
+	 * Rows pass between the threads in a bounded ring of row batches, so the reader
+	 * waits when the writer falls behind.  Statements on the target still run on
+	 * the task thread and so are cancelled if the task is interrupted.
+	 * <p>
+	 * The reader holds the source connection, so it is admitted under the concurrency
+	 * limit of the process.  The task thread is busy writing and cannot lend it its slot,
+	 * so if the limit is full the rows are read on the task thread instead.
+	 */
+	private long flowPipelined(Context context, Source source, Target target) throws Exception {
+
+		Integer batchCount = (bufferExpression != null) ? bufferExpression.evaluate() : bufferBatchCountDefault;
+		if ((batchCount == null) || (batchCount < 2)) {
+			throw new RuntimeException("Pipeline buffer size must be at least 2 batches");
+		}
+
+		int columnCount = source.getColumnCount();
+
+		RowBatchRing ring = new RowBatchRing(batchCount, bufferBatchRowCount, columnCount);
+		PipelineReader reader = new PipelineReader(source, ring, columnCount);
+
+		TaskWorkers workers = new TaskWorkers(context, this);
+		if (!workers.tryStart(reader)) {
+			return flowRows(source, target);
+		}
+
+		long rowCount = 0;
+		boolean drained = false;
+		try {
+			RowBatchRing.Batch batch;
+			while ((batch = ring.take()) != null) {
+				for (int row = 0; row < batch.size; ++row) {
+					Object[] values = batch.rows[row];
+					for (int i = 0; i < columnCount; ++i) {
+						target.setObject(i + 1, values[i]);
+						values[i] = null;
+					}
+					target.addBatch();
+				}
+				rowCount += batch.size;
+				ring.release();
+			}
+			drained = true;
+		}
+		finally {
+			if (!drained) {
+				ring.abort();
+				reader.cancel();
+			}
+
+			// The source must not be closed while the reader is still using it.
+			// An interrupt while waiting cancels the reader and is restored once it has finished.
+
+			try {
+				workers.awaitAll();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		return rowCount;
+	}
+
+	/**
+	 * Reader of source rows into the pipeline buffer
+	 */
+	private static class PipelineReader extends TaskWorkers.Worker {
+
+		private Source source;
+		private RowBatchRing ring;
+		private int columnCount;
+
+		PipelineReader(Source source, RowBatchRing ring, int columnCount) {
+			this.source = source;
+			this.ring = ring;
+			this.columnCount = columnCount;
+		}
+
+		@Override
+		protected void work() {
+
+			try {
+				boolean hasRow = source.next();
+				while (hasRow) {
+					RowBatchRing.Batch batch = ring.claim();
+					if (batch == null) {
+						// The writer abandoned the flow.
+						break;
+					}
+
+					while (hasRow && !batch.isFull()) {
+						Object[] values = batch.rows[batch.size++];
+						for (int i = 0; i < columnCount; ++i) {
+							values[i] = source.getObject(i + 1);
+						}
+						hasRow = source.next();
+					}
+
+					ring.publish();
+				}
+				ring.finish();
+			}
+			catch (Exception ex) {
+				ring.fail(ex);
+			}
+		}
+
+		@Override
+		protected void skip() {
+			ring.fail(new InterruptedException());
+		}
+	}
+
+	private static Columns getColumns(Source source) throws SQLException {
 		if (source.hasMetadata()) {
 			List<String> columnNames = new LinkedList<String>();
 			for (int i = 1; i <= source.getColumnCount(); ++i) {
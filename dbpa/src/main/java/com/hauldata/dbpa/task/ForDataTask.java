@@ -21,15 +21,17 @@ import java.util.List;
 
 import com.hauldata.dbpa.datasource.DataSource;
 import com.hauldata.dbpa.datasource.Source;
+import com.hauldata.dbpa.process.ConcurrentTaskSet;
 import com.hauldata.dbpa.process.Context;
 import com.hauldata.dbpa.process.NestedTaskSet;
 import com.hauldata.dbpa.variable.VariableBase;
 
-public class ForDataTask extends UpdateVariablesTask implements TaskSetParent {
+public class ForDataTask extends UpdateVariablesTask implements ConcurrentTaskSetParent {
 
 	private List<VariableBase> variables;
 	private Source source;
 	private NestedTaskSet taskSet;
+	private ConcurrentTaskSet concurrentTaskSet;
 
 	public ForDataTask(
 			Prologue prologue,
@@ -48,22 +50,41 @@ public class ForDataTask extends UpdateVariablesTask implements TaskSetParent {
 		return this;
 	}
 
+	@Override
+	public Task setConcurrentTaskSet(ConcurrentTaskSet concurrentTaskSet) {
+		this.concurrentTaskSet = concurrentTaskSet;
+		this.taskSet = concurrentTaskSet.getTaskSet();
+		return this;
+	}
+
 	@Override
 	public NestedTaskSet getTaskSet() {
 		return taskSet;
 	}
 
+	@Override
+	public List<NestedTaskSet> getTaskSets() {
+		return (concurrentTaskSet != null) ? concurrentTaskSet.getTaskSets() : ConcurrentTaskSetParent.super.getTaskSets();
+	}
+
 	@Override
 	protected void execute(Context context) throws Exception {
 
 		Context nestedContext = null;
 		try {
-			nestedContext = context.makeNestedContext(getName());
-
 			source.executeQuery(context);
-			
-			while (updateVariables(source, variables)) {
-				taskSet.run(nestedContext);
+
+			if (concurrentTaskSet != null) {
+				concurrentTaskSet.run(context, getName(), laneVariables -> updateVariables(source, laneVariables));
+			}
+			else {
+				nestedContext = context.makeNestedContext(getName());
+
+				int iteration = 0;
+				while (updateVariables(source, variables)) {
+					nestedContext.setIteration(++iteration);
+					taskSet.run(nestedContext);
+				}
 			}
 
 			source.done(context);
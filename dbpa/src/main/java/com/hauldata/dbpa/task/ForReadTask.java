@@ -18,6 +18,7 @@ package com.hauldata.dbpa.task;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 import com.hauldata.dbpa.file.Columns;
 import com.hauldata.dbpa.file.PageIdentifier;
@@ -25,6 +26,7 @@ import com.hauldata.dbpa.file.PageOptions;
 import com.hauldata.dbpa.file.PhysicalPageIdentifier;
 import com.hauldata.dbpa.file.SourceHeaders;
 import com.hauldata.dbpa.file.SourcePage;
+import com.hauldata.dbpa.process.ConcurrentTaskSet;
 import com.hauldata.dbpa.process.Context;
 import com.hauldata.dbpa.process.NestedTaskSet;
 import com.hauldata.dbpa.task.expression.ColumnExpressions;
@@ -33,7 +35,7 @@ import com.hauldata.dbpa.task.expression.SourceHeaderExpressions;
 import com.hauldata.dbpa.variable.VariableBase;
 import com.hauldata.util.tokenizer.EndOfLine;
 
-public class ForReadTask extends FileTask implements TaskSetParent {
+public class ForReadTask extends FileTask implements ConcurrentTaskSetParent {
 
 	private ArrayList<VariableBase> variables;
 	private PageIdentifierExpression page;
@@ -41,6 +43,7 @@ public class ForReadTask extends FileTask implements TaskSetParent {
 	private SourceHeaderExpressions headers;
 	private ColumnExpressions columns;
 	private NestedTaskSet taskSet;
+	private ConcurrentTaskSet concurrentTaskSet;
 
 	public ForReadTask(
 			Task.Prologue prologue,
@@ -64,11 +67,23 @@ public class ForReadTask extends FileTask implements TaskSetParent {
 		return this;
 	}
 
+	@Override
+	public Task setConcurrentTaskSet(ConcurrentTaskSet concurrentTaskSet) {
+		this.concurrentTaskSet = concurrentTaskSet;
+		this.taskSet = concurrentTaskSet.getTaskSet();
+		return this;
+	}
+
 	@Override
 	public NestedTaskSet getTaskSet() {
 		return taskSet;
 	}
 
+	@Override
+	public List<NestedTaskSet> getTaskSets() {
+		return (concurrentTaskSet != null) ? concurrentTaskSet.getTaskSets() : ConcurrentTaskSetParent.super.getTaskSets();
+	}
+
 	@Override
 	protected void execute(Context context) throws Exception {
 
@@ -81,10 +96,17 @@ public class ForReadTask extends FileTask implements TaskSetParent {
 			SourcePage sourcePage = page.read(context.files, options, headers);
 			Columns columns = this.columns.evaluate(sourcePage.getReadHeaders());
 
-			nestedContext = context.makeNestedContext(getName());
+			if (concurrentTaskSet != null) {
+				concurrentTaskSet.run(context, getName(), laneVariables -> readRowIntoVariables(sourcePage, columns, laneVariables));
+			}
+			else {
+				nestedContext = context.makeNestedContext(getName());
 
-			while (readRowIntoVariables(sourcePage, columns, variables)) {
-				taskSet.run(nestedContext);
+				int iteration = 0;
+				while (readRowIntoVariables(sourcePage, columns, variables)) {
+					nestedContext.setIteration(++iteration);
+					taskSet.run(nestedContext);
+				}
 			}
 		}
 		catch (IOException ex) {
@@ -101,7 +123,7 @@ public class ForReadTask extends FileTask implements TaskSetParent {
 		}
 	}
 
-	private boolean readRowIntoVariables(SourcePage page, Columns columns, ArrayList<VariableBase> variables) throws IOException, InterruptedException {
+	private boolean readRowIntoVariables(SourcePage page, Columns columns, List<VariableBase> variables) throws IOException, InterruptedException {
 
 		if (!page.hasRow()) {
 			return false;
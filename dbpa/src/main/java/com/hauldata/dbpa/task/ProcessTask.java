@@ -44,4 +44,9 @@ public abstract class ProcessTask extends Task {
 		this.returnVariable = returnVariable;
 		this.siblingProcesses = siblingProcesses;
 	}
+
+	@Override
+	public boolean countsTowardConcurrencyLimit() {
+		return false;
+	}
 }
@@ -133,6 +133,11 @@ public class ReadFixedTask extends Task {
 			Context context)  throws IOException {
 
 		try {
+			// Committed rows can only be skipped on resume when there is a single data record target,
+			// as otherwise the targets commit independently of each other.
+
+			long skipRecordCount = (dataRecordTargets.size() == 1) ? resumeCommitted(context, dataRecordTargets.get(0).getTarget()) : 0L;
+
 			for (DataFixedFieldsTarget dataRecordTarget : dataRecordTargets) {
 				dataRecordTarget.getTarget().prepareStatement(context, null);
 			}
@@ -160,6 +165,11 @@ public class ReadFixedTask extends Task {
 					DataFixedFieldsTarget dataRecordTarget = dataRecordTargets.get(level);
 					dataRecordTarget.actNonMatchersOn(sourcePage.lineno(), record);
 
+					if (0 < skipRecordCount) {
+						--skipRecordCount;
+						continue;
+					}
+
 					DataTarget target = dataRecordTarget.getTarget();
 					int targetColumnIndex = 1;
 					for (int lowerLevel = 0; lowerLevel < level; ++lowerLevel) {
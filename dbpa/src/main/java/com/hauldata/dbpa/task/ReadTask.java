@@ -19,6 +19,7 @@ package com.hauldata.dbpa.task;
 import java.io.IOException;
 
 import com.hauldata.dbpa.datasource.DataTarget;
+import com.hauldata.dbpa.expression.Expression;
 import com.hauldata.dbpa.file.Columns;
 import com.hauldata.dbpa.file.PageOptions;
 import com.hauldata.dbpa.file.PageIdentifier;
@@ -37,6 +38,7 @@ public class ReadTask extends FileTask {
 	private SourceHeaderExpressions headers;
 	private ColumnExpressions columns;
 	private DataTarget target;
+	private Expression<Integer> parallel;
 
 	public ReadTask(
 			Prologue prologue,
@@ -45,6 +47,24 @@ public class ReadTask extends FileTask {
 			SourceHeaderExpressions headers,
 			ColumnExpressions columns,
 			DataTarget target) {
+		this(prologue, page, options, headers, columns, target, null);
+	}
+
+	/**
+	 * Construct a READ task
+	 *
+	 * @param parallel is the number of chunks of the file to read concurrently, each into its own
+	 * target connection, or null to read the file in order into one connection.
+	 * Not allowed if the target commits every so many rows.
+	 */
+	public ReadTask(
+			Prologue prologue,
+			PageIdentifierExpression page,
+			PageOptions options,
+			SourceHeaderExpressions headers,
+			ColumnExpressions columns,
+			DataTarget target,
+			Expression<Integer> parallel) {
 
 		super(prologue);
 		this.page = page;
@@ -52,6 +72,7 @@ public class ReadTask extends FileTask {
 		this.headers = headers;
 		this.columns = columns;
 		this.target = target;
+		this.parallel = parallel;
 	}
 
 	@Override
@@ -60,11 +81,21 @@ public class ReadTask extends FileTask {
 		PageIdentifier page = this.page.evaluate(context, false);
 		SourceHeaders headers = this.headers.evaluate();
 
+		Integer parallel = (this.parallel != null) ? this.parallel.evaluate() : null;
+		if ((this.parallel != null) && ((parallel == null) || (parallel < 1))) {
+			throw new RuntimeException("Parallel read count must be at least 1");
+		}
+
 		context.files.assureNotOpen(((PhysicalPageIdentifier)page).getPath());
 		try {
 			SourcePage sourcePage = page.read(context.files, options, headers);
 			Columns columns = this.columns.evaluate(sourcePage.getReadHeaders());
-			read(context, sourcePage, headers, columns, target);
+			if (parallel == null) {
+				read(context, sourcePage, headers, columns, target);
+			}
+			else {
+				readParallel(context, sourcePage, columns, target, parallel);
+			}
 		}
 		catch (IOException ex) {
 			String message = (ex.getMessage() != null) ? ex.getMessage() : ex.getClass().getName();
@@ -61,6 +61,7 @@ import com.hauldata.dbpa.expression.Expression;
 import com.hauldata.dbpa.file.Columns;
 import com.hauldata.dbpa.file.SourceHeaders;
 import com.hauldata.dbpa.process.Context;
+import com.hauldata.dbpa.process.TaskThreads;
 import com.hauldata.util.tokenizer.JsonTokenizer;
 import com.hauldata.util.tokenizer.Quoted;
 import com.hauldata.util.tokenizer.Token;
@@ -465,7 +466,7 @@ public abstract class RequestTask extends Task {
 	private CloseableHttpResponse execute(CloseableHttpClient client, HttpRequestBase request) throws ClientProtocolException, IOException, InterruptedException {
 
 		HttpRequestExecutor executor = new HttpRequestExecutor(client, request);
-		Thread executorThread = new Thread(executor);
+		Thread executorThread = TaskThreads.newThread(executor, "dbpa-http");
 
 		executorThread.start();
 
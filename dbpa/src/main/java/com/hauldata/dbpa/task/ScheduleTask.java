@@ -52,7 +52,10 @@ public abstract class ScheduleTask extends Task implements TaskSetParent {
 		Context nestedContext = context.makeNestedContext(getName());
 
 		try {
+			int iteration = 0;
+
 			if (schedules.isImmediate()) {
+				nestedContext.setIteration(++iteration);
 				taskSet.run(nestedContext);
 			}
 
@@ -65,6 +68,7 @@ public abstract class ScheduleTask extends Task implements TaskSetParent {
 
 				context.wakeFromSleep(longSleep, connections);
 
+				nestedContext.setIteration(++iteration);
 				taskSet.run(nestedContext);
 			}
 		}
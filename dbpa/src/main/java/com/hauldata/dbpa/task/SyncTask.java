@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.task;
+
+import java.util.List;
+
+import com.hauldata.dbpa.connection.DatabaseConnection;
+import com.hauldata.dbpa.datasource.TableSync;
+import com.hauldata.dbpa.expression.Expression;
+import com.hauldata.dbpa.process.Context;
+
+public class SyncTask extends Task {
+
+	public static final int chunkSizeDefault = 10000;
+
+	public static final String comparedMessageStem = "Compared chunks: ";
+	public static final String chunkDiffersMessageStem = "Chunk differs: ";
+	public static final String dryRunMessageStem = "Dry run found rows to change: ";
+	public static final String syncedMessageStem = "Rows changed: ";
+
+	private DatabaseConnection sourceConnection;
+	private Expression<String> sourceTable;
+	private DatabaseConnection targetConnection;
+	private Expression<String> targetTable;
+	private Expression<String> key;
+	private Expression<Integer> chunkSize;
+	private boolean dryRun;
+
+	/**
+	 * Construct a SYNC task
+	 *
+	 * @param key is the name of an integer column that uniquely identifies the rows of both tables
+	 * @param chunkSize is the range of key values compared at a time, or null for the default
+	 * @param dryRun is true to report the differences without changing the target table
+	 */
+	public SyncTask(
+			Prologue prologue,
+			DatabaseConnection sourceConnection,
+			Expression<String> sourceTable,
+			DatabaseConnection targetConnection,
+			Expression<String> targetTable,
+			Expression<String> key,
+			Expression<Integer> chunkSize,
+			boolean dryRun) {
+
+		super(prologue);
+		this.sourceConnection = sourceConnection;
+		this.sourceTable = sourceTable;
+		this.targetConnection = targetConnection;
+		this.targetTable = targetTable;
+		this.key = key;
+		this.chunkSize = chunkSize;
+		this.dryRun = dryRun;
+	}
+
+	@Override
+	protected void execute(Context context) throws Exception {
+
+		Integer chunkSize = (this.chunkSize != null) ? this.chunkSize.evaluate() : (Integer)chunkSizeDefault;
+		if (chunkSize == null) {
+			throw new RuntimeException("Chunk size evaluates to NULL");
+		}
+
+		TableSync sync = new TableSync(sourceConnection, sourceTable.evaluate(), targetConnection, targetTable.evaluate(), key.evaluate(), chunkSize);
+
+		TableSync.Report report = sync.run(context, dryRun);
+
+		context.logger.info(getName(), comparedMessageStem + String.valueOf(report.chunkCount) + " of " + String.valueOf(chunkSize) + " keys, " +
+				String.valueOf(report.diffCount) + " differ; digests computed " + (report.databaseDigests ? "by the databases" : "from all rows"));
+
+		// Only a dry run reports the differences of individual chunks, and then only of the first few.
+
+		for (TableSync.ChunkReport diff : report.diffs) {
+			context.logger.info(getName(), chunkDiffersMessageStem + "keys " + String.valueOf(diff.low) + " to " + String.valueOf(diff.high - 1) +
+					keys(", insert ", diff.insertCount, diff.insertKeys) + keys(", update ", diff.updateCount, diff.updateKeys) + keys(", delete ", diff.deleteCount, diff.deleteKeys));
+		}
+		if (dryRun && (report.diffs.size() < report.diffCount)) {
+			context.logger.info(getName(), chunkDiffersMessageStem + "and " + String.valueOf(report.diffCount - report.diffs.size()) + " more chunks");
+		}
+
+		String counts =
+				"insert " + String.valueOf(report.getInsertCount()) +
+				", update " + String.valueOf(report.getUpdateCount()) +
+				", delete " + String.valueOf(report.getDeleteCount());
+		context.logger.info(getName(), (dryRun ? dryRunMessageStem : syncedMessageStem) + counts);
+	}
+
+	/**
+	 * @return the count of keys followed by the first few keys, or an empty string if there are none
+	 */
+	private static String keys(String label, long count, List<Long> firstKeys) {
+
+		if (count == 0) {
+			return "";
+		}
+
+		StringBuilder result = new StringBuilder(label).append(String.valueOf(count)).append(" (");
+		for (int i = 0; i < firstKeys.size(); ++i) {
+			result.append((i > 0) ? ", " : "").append(String.valueOf(firstKeys.get(i)));
+		}
+		return result.append((count > firstKeys.size()) ? ", ...)" : ")").toString();
+	}
+}
@@ -16,13 +16,23 @@
 
 package com.hauldata.dbpa.task;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
 
+import com.hauldata.dbpa.datasource.DataSource;
+import com.hauldata.dbpa.datasource.DataTarget;
+import com.hauldata.dbpa.datasource.Source;
+import com.hauldata.dbpa.datasource.Target;
 import com.hauldata.dbpa.expression.Expression;
 import com.hauldata.dbpa.process.Context;
+import com.hauldata.dbpa.process.RunJournal;
+import com.hauldata.dbpa.process.TaskExecutor;
+import com.hauldata.dbpa.process.Watermarks;
 
 public abstract class Task {
 
@@ -33,6 +43,10 @@ public abstract class Task {
 	public static final String failMessage = "Task failed";
 	public static final String stopMessage = "Task thread stopped";
 	public static final String breakingMessage = "Task breaking out of loop";
+	public static final String resumeMessage = "Task succeeded in run being resumed";
+	public static final String resumeCommittedMessageStem = "Skipping source rows committed in run being resumed: ";
+	public static final String incrementStartMessageStem = "Reading source rows with INCREMENTAL column greater than ";
+	public static final String incrementAdvancedMessageStem = "INCREMENTAL watermark advanced to ";
 
 	public enum Result { waiting, running, success, failure, completed, terminated, orphaned, stopped, breaking };
 
@@ -43,12 +57,15 @@ public abstract class Task {
 	private Expression<Boolean> condition;
 	private Task parent;
 	private List<Task> successors;
+	private long priority;
 
 	private Map<Task, Result> remainingPredecessors;
 	private Exception exception;
 	private Result result;
 	private Object returnValue;
 
+	private static final ThreadLocal<String> runningName = new ThreadLocal<String>();
+
 	/**
 	 * Prologue to each task constructor
 	 * @param name is the task name
@@ -118,6 +135,7 @@ public abstract class Task {
 		this.parent = prologue.parent;
 
 		this.successors = new LinkedList<Task>();
+		this.priority = 0L;
 		this.remainingPredecessors = new HashMap<Task, Task.Result>();
 		this.result = null;
 		this.returnValue = null;
@@ -186,6 +204,53 @@ public abstract class Task {
 		return successors;
 	}
 
+	/**
+	 * @return true if the task does work of its own and so counts toward the concurrency limit
+	 * of its context, or false if it mostly waits on other tasks, e.g., a task that runs a nested
+	 * task set or a child process.  Counting a task that waits on other tasks could deadlock
+	 * a process whose limit is reached by tasks waiting on their own nested tasks.
+	 */
+	public boolean countsTowardConcurrencyLimit() {
+		return !(this instanceof TaskSetParent);
+	}
+
+	/**
+	 * @return the priority of the task for admission under a concurrency limit.
+	 * When several tasks are waiting for admission, those with higher priority start first.
+	 */
+	public long getPriority() {
+		return priority;
+	}
+
+	public void setPriority(long priority) {
+		this.priority = priority;
+	}
+
+	/**
+	 * @return the adorned name of the task running on the current thread, or null if none.
+	 * Objects used by a task, such as data targets, can use this to write to the log.
+	 */
+	public static String getRunningName() {
+		return runningName.get();
+	}
+
+	/**
+	 * Set the adorned name of the task running on the current thread.  Used by tasks that
+	 * do part of their work on other threads.
+	 *
+	 * @return the name previously set so that it can be restored
+	 */
+	public static String setRunningName(String name) {
+		String previous = runningName.get();
+		if (name != null) {
+			runningName.set(name);
+		}
+		else {
+			runningName.remove();
+		}
+		return previous;
+	}
+
 	/**
 	 * Run the task.
 	 *
@@ -198,8 +263,10 @@ public abstract class Task {
 	public void run(Context context) {
 
 		String name = this.name;
+		String previousRunningName = runningName.get();
 		try {
 			name = getName();
+			setRunningName(name);
 
 			if (condition == null || condition.evaluate()) {
 
@@ -243,6 +310,99 @@ public abstract class Task {
 
 			setAbnormalResult(ex, Result.failure);
 		}
+		finally {
+			setRunningName(previousRunningName);
+		}
+	}
+
+	/**
+	 * Complete the task without running it because it succeeded in an earlier run
+	 * of the process that is being resumed.
+	 *
+	 * @param context is the context is which the task would have run.
+	 */
+	public void resume(Context context) {
+		context.logger.info(getName(), resumeMessage);
+		result = Result.success;
+	}
+
+	/**
+	 * If a data target commits every so many rows and the run is journaled, arrange for the
+	 * total source rows committed to be recorded in the journal as they are committed, and
+	 * find how many source rows the task committed in the run being resumed.
+	 * The source must produce the same rows in the same order each time it is read,
+	 * as a file does, since the rows skipped must be the rows committed.
+	 *
+	 * @return the number of source rows to skip because they were already committed
+	 */
+	protected long resumeCommitted(Context context, Target target) {
+
+		RunJournal journal = context.journal;
+		if (!(target instanceof DataTarget) || !((DataTarget)target).commitsEvery() || (journal == null)) {
+			return 0L;
+		}
+
+		long committedRowCount = journal.getCommitted(this);
+		if (committedRowCount > 0) {
+			context.logger.info(getName(), resumeCommittedMessageStem + String.valueOf(committedRowCount));
+		}
+
+		((DataTarget)target).resumeAfter(committedRowCount, rowCount -> {
+			try {
+				journal.recordCommitted(this, rowCount);
+			}
+			catch (IOException ex) {
+				context.logger.warn(getName(), TaskExecutor.journalFailedMessageStem + ex.getMessage());
+			}
+		});
+
+		return committedRowCount;
+	}
+
+	/**
+	 * If a source reads only the rows added since the last run, restrict it to the rows
+	 * after the watermark left by the last successful run of the task.
+	 */
+	protected void startIncrement(Context context, Source source) {
+
+		if (!(source instanceof DataSource) || !((DataSource)source).isIncremental()) {
+			return;
+		}
+
+		Watermarks watermarks = context.watermarks;
+		if (watermarks == null) {
+			throw new RuntimeException("Cannot read an INCREMENTAL source; the watermark directory is not configured");
+		}
+
+		Object mark = watermarks.get(watermarks.getKey(this));
+		if (mark != null) {
+			context.logger.info(getName(), incrementStartMessageStem + mark.toString());
+		}
+
+		((DataSource)source).startIncrement(mark);
+	}
+
+	/**
+	 * Advance the watermark of the task to the greatest value of the incremental column
+	 * read from a source.  This must only be called once the rows read have been committed
+	 * to the target so that a failed run reads the same rows again.
+	 */
+	protected void advanceIncrement(Context context, Source source) {
+
+		if (!(source instanceof DataSource) || !((DataSource)source).isIncremental()) {
+			return;
+		}
+
+		Object max = ((DataSource)source).getIncrementalMax();
+		try {
+			if (context.watermarks.advance(context.watermarks.getKey(this), max)) {
+				context.logger.info(getName(), incrementAdvancedMessageStem + max.toString());
+			}
+		}
+		catch (IOException ex) {
+			String message = (ex.getMessage() != null) ? ex.getMessage() : ex.getClass().getName();
+			throw new RuntimeException("Error saving INCREMENTAL watermark: " + message);
+		}
 	}
 
 	/**
@@ -328,6 +488,42 @@ public abstract class Task {
 	 */
 	public boolean canRunAfterRemovePredecessor(Task task) {
 
+		boolean canRun = removePredecessor(task);
+
+		if (result == Result.orphaned) {
+			// The successors of an orphaned task may be orphaned too, and so on down the graph.
+			// Walk the graph with an explicit stack so that very long chains of tasks cannot overflow the call stack.
+
+			Deque<Task> orphans = new ArrayDeque<Task>();
+			orphans.push(this);
+
+			while (!orphans.isEmpty()) {
+				Task orphan = orphans.pop();
+
+				for (Task successor : orphan.successors) {
+					if (successor.getResult() == Result.waiting) {
+						successor.removePredecessor(orphan);
+
+						if (successor.getResult() == Result.orphaned) {
+							orphans.push(successor);
+						}
+					}
+				}
+			}
+		}
+
+		return canRun;
+	}
+
+	/**
+	 * Remove a completed predecessor, updating the result of this task to orphaned
+	 * if it can never run, but without considering its successors.
+	 *
+	 * @param task is the predecessor to remove
+	 * @return true if this task can run after removing the predecessor
+	 */
+	private boolean removePredecessor(Task task) {
+
 		Result requiredResult = remainingPredecessors.get(task);
 		remainingPredecessors.remove(task);
 
@@ -343,14 +539,9 @@ public abstract class Task {
 			// This predecessor did not complete in the status required by this successor.
 
 			if (remainingPredecessors.isEmpty() || (combination == Expression.Combination.and) || task.completedTerminally()) {
-				// The successor can never run; it is orphaned.  Its successors may be too.
+				// The successor can never run; it is orphaned.
 
 				result = Result.orphaned;
-				for (Task successor : successors) {
-					if (successor.getResult() == Result.waiting) {
-						successor.canRunAfterRemovePredecessor(this);
-					}
-				}
 			}
 		}
 
@@ -16,6 +16,9 @@
 
 package com.hauldata.dbpa.task;
 
+import java.util.Collections;
+import java.util.List;
+
 import com.hauldata.dbpa.process.NestedTaskSet;
 
 public interface TaskSetParent {
@@ -29,4 +32,12 @@ public interface TaskSetParent {
 	Task setTaskSet(NestedTaskSet taskSet);
 
 	NestedTaskSet getTaskSet();
+
+	/**
+	 * @return all copies of the task set owned by this parent task.
+	 * Only a parent that runs copies of its task set concurrently owns more than one.
+	 */
+	default List<NestedTaskSet> getTaskSets() {
+		return Collections.singletonList(getTaskSet());
+	}
 }
@@ -55,5 +55,11 @@ public abstract class WaitforTask extends Task {
 		}
 	}
 
+	@Override
+	public boolean countsTowardConcurrencyLimit() {
+		// A sleeping task does no work, so it should not hold a slot another task could use.
+		return false;
+	}
+
 	protected abstract long sleepMillis(String delayOrTime);
 }
@@ -56,7 +56,7 @@ public class WriteTask extends FileTask {
 
 		try {
 			TargetPage targetPage = page.write(context.files, options, headers);
-			write(context, source, targetPage);
+			write(context, source, page, targetPage);
 		}
 		catch (IOException ex) {
 			String message = (ex.getMessage() != null) ? ex.getMessage() : ex.getClass().getName();
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import junit.framework.TestCase;
+
+public class AdaptiveBatchSizeTest extends TestCase {
+
+	private static final long millis = 1000000L;
+
+	public AdaptiveBatchSizeTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Simulate executing batches on a database that takes a fixed time per batch plus a time per row
+	 */
+	private void execute(AdaptiveBatchSize adaptive, int batchCount, long fixedNanos, long rowNanos, String value) {
+		for (int i = 0; i < batchCount; ++i) {
+			int size = adaptive.getSize();
+			for (int row = 0; row < size; ++row) {
+				adaptive.addValue(value);
+			}
+			adaptive.record(size, fixedNanos + size * rowNanos);
+		}
+	}
+
+	public void testGrowsToLatency() {
+
+		AdaptiveBatchSize adaptive = new AdaptiveBatchSize(500, AdaptiveBatchSize.defaultMaxBytes);
+		assertEquals(AdaptiveBatchSize.initialSize, adaptive.getSize());
+
+		// 50 microseconds per row reaches 500 ms at 10,000 rows.
+
+		execute(adaptive, 20, 0, 50000L, "x");
+
+		int size = adaptive.getSize();
+		assertTrue(8000 <= size && size <= 12500);
+
+		// Once settled, the size stays put.
+
+		execute(adaptive, 10, 0, 50000L, "x");
+		assertEquals(size, adaptive.getSize());
+	}
+
+	public void testShrinksToLatency() {
+
+		AdaptiveBatchSize adaptive = new AdaptiveBatchSize(100, AdaptiveBatchSize.defaultMaxBytes);
+
+		// 5 ms per row reaches 100 ms at 20 rows.
+
+		execute(adaptive, 20, 0, 5 * millis, "x");
+
+		int size = adaptive.getSize();
+		assertTrue(16 <= size && size <= 25);
+	}
+
+	public void testStepLimitAndBounds() {
+
+		AdaptiveBatchSize adaptive = new AdaptiveBatchSize(500, AdaptiveBatchSize.defaultMaxBytes);
+
+		assertTrue(adaptive.record(adaptive.getSize(), 1L));
+		assertEquals(2 * AdaptiveBatchSize.initialSize, adaptive.getSize());
+
+		execute(adaptive, 100, 0, 1L, "x");
+		assertEquals(AdaptiveBatchSize.maxSize, adaptive.getSize());
+
+		execute(adaptive, 100, 10000 * millis, 0, "x");
+		assertEquals(AdaptiveBatchSize.minSize, adaptive.getSize());
+	}
+
+	public void testByteCap() {
+
+		// Rows of about 1,000 bytes in at most 100,000 bytes per batch.
+
+		AdaptiveBatchSize adaptive = new AdaptiveBatchSize(500, 100000L);
+
+		StringBuilder wide = new StringBuilder();
+		for (int i = 0; i < 998; ++i) {
+			wide.append('w');
+		}
+
+		execute(adaptive, 20, 0, 1000L, wide.toString());
+
+		assertEquals(1000L, adaptive.getRowWidth());
+		assertEquals(100, adaptive.getSize());
+	}
+
+	public void testPartialBatch() {
+
+		AdaptiveBatchSize adaptive = new AdaptiveBatchSize(500, AdaptiveBatchSize.defaultMaxBytes);
+
+		// A slow partial batch does not shrink the size.
+
+		assertFalse(adaptive.record(10, 10000 * millis));
+		assertEquals(AdaptiveBatchSize.initialSize, adaptive.getSize());
+		assertFalse(adaptive.record(0, 0L));
+		assertEquals(1, adaptive.getBatchCount());
+	}
+
+	public void testBadLatency() {
+
+		String message = null;
+		try {
+			new AdaptiveBatchSize(0, AdaptiveBatchSize.defaultMaxBytes);
+		}
+		catch (RuntimeException ex) {
+			message = ex.getMessage();
+		}
+		assertEquals("Batch latency must be at least 1 millisecond", message);
+	}
+}
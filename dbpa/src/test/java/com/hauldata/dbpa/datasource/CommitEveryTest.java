@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.hauldata.dbpa.log.Analyzer;
+import com.hauldata.dbpa.process.RunJournal;
+import com.hauldata.dbpa.task.H2TaskTest;
+import com.hauldata.dbpa.task.Task;
+
+public class CommitEveryTest extends H2TaskTest {
+
+	private static final String processId = "CommitEveryTest";
+
+	private Path journalPath;
+
+	public CommitEveryTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		createTable("things", "id INT PRIMARY KEY, CONSTRAINT not_2345 CHECK (id <> 2345)");
+		journalPath = directory.resolve(processId + RunJournal.fileExtension);
+
+		StringBuilder ids = new StringBuilder("id\n");
+		for (int id = 1; id <= 2500; ++id) {
+			ids.append(id).append('\n');
+		}
+		writeFile("ids.csv", ids.toString());
+	}
+
+	private ContextAction journal(boolean resume) {
+		return context -> {
+			try {
+				context.journal = RunJournal.open(journalPath, resume);
+			}
+			catch (Exception ex) {
+				throw new RuntimeException(ex);
+			}
+		};
+	}
+
+	private int count() throws Exception {
+		return queryInt("SELECT COUNT(*) FROM things");
+	}
+
+	public void testResumeAfterCommitted() throws Exception {
+
+		String script = "TASK Load1 READ CSV 'ids.csv' INTO BATCH SIZE 100 COMMIT EVERY 1000 TABLE 'things' END TASK\n";
+
+		// The first run fails on row 2345.  The rows of the first two chunks stay committed
+		// and the journal records that they were.
+
+		runFailingScript(processId, script, journal(false));
+
+		assertEquals(2000, count());
+
+		List<String> lines = Files.readAllLines(journalPath, StandardCharsets.UTF_8);
+		assertEquals(2, lines.size());
+		assertEquals("@LOAD1 1000", lines.get(0));
+		assertEquals("@LOAD1 2000", lines.get(1));
+
+		// Once the problem is fixed, the resumed run skips the committed rows and loads the rest.
+
+		execute("ALTER TABLE things DROP CONSTRAINT not_2345");
+
+		Analyzer analyzer = runScript(processId, script, journal(true));
+
+		Analyzer.RecordIterator recordIterator = analyzer.recordIterator(processId, "LOAD1");
+		assertEquals(Task.startMessage, recordIterator.next().message);
+		assertEquals(Task.resumeCommittedMessageStem + "2000", recordIterator.next().message);
+
+		assertEquals(2500, count());
+		assertFalse(Files.exists(journalPath));
+	}
+
+	public void testFlowRerunsCommitted() throws Exception {
+
+		String script =
+				"TASK Load1 FLOW FROM STATEMENT 'SELECT X AS id FROM SYSTEM_RANGE(1, 2500)' " +
+				"INTO BATCH SIZE 100 COMMIT EVERY 1000 MERGE 'things' ON 'id' END TASK\n";
+
+		// A query need not return its rows in the same order when it runs again,
+		// so the committed rows are not recorded.
+
+		runFailingScript(processId, script, journal(false));
+
+		assertEquals(2000, count());
+		assertTrue(Files.readAllLines(journalPath, StandardCharsets.UTF_8).isEmpty());
+
+		// The resumed run flows all the rows again, which the MERGE target absorbs.
+
+		execute("ALTER TABLE things DROP CONSTRAINT not_2345");
+
+		Analyzer analyzer = runScript(processId, script, journal(true));
+
+		Analyzer.RecordIterator recordIterator = analyzer.recordIterator(processId, "LOAD1");
+		assertEquals(Task.startMessage, recordIterator.next().message);
+		assertFalse(recordIterator.next().message.startsWith(Task.resumeCommittedMessageStem));
+
+		assertEquals(2500, count());
+		assertFalse(Files.exists(journalPath));
+	}
+}
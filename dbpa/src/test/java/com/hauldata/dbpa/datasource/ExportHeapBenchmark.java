@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import com.hauldata.dbpa.task.TestScriptRunner;
+
+/**
+ * Benchmark of heap use while exporting a large query result to a CSV file with WRITE,
+ * first with the driver default fetch size and then with a given FETCH SIZE.
+ * <p>
+ * Usage: <code>ExportHeapBenchmark [rows [fetchSize [connection.properties [query]]]]</code>
+ * <p>
+ * Rows default to 50,000,000 and the fetch size to 10,000.  Without a connection properties file
+ * the benchmark runs against an in-memory H2 database.  Against other databases, supply a query
+ * that returns the desired number of rows; the rows argument is then only reported.
+ * For MySQL the default fetch size reads the entire result set into the heap, so run the
+ * benchmark with a heap limit, e.g., <code>-Xmx1g</code>, to see the difference.
+ */
+public class ExportHeapBenchmark {
+
+	public static void main(String[] args) throws Exception {
+
+		long rows = (args.length > 0) ? Long.parseLong(args[0]) : 50000000L;
+		int fetchSize = (args.length > 1) ? Integer.parseInt(args[1]) : 10000;
+
+		TestScriptRunner runner;
+		if (args.length > 2) {
+			Properties connProps = new Properties();
+			try (InputStream in = new FileInputStream(args[2])) {
+				connProps.load(in);
+			}
+			runner = new TestScriptRunner(connProps);
+		}
+		else {
+			runner = new TestScriptRunner("jdbc:h2:mem:benchmark;LAZY_QUERY_EXECUTION=1");
+		}
+
+		String query = (args.length > 3) ? args[3] :
+			"SELECT X AS id, CONCAT('Row number ', X) AS name, DATEADD('SECOND', X, TIMESTAMP '2016-01-01 00:00:00') AS stamp FROM SYSTEM_RANGE(1, " + String.valueOf(rows) + ")";
+
+		Path directory = Files.createTempDirectory("dbpa-benchmark-");
+		runner.writeTo(directory);
+
+		System.out.println("Exporting " + String.valueOf(rows) + " rows with " + runner.getUrl());
+		System.out.println("Max heap " + megabytes(Runtime.getRuntime().maxMemory()));
+
+		run(runner, directory, query, 0);
+		run(runner, directory, query, fetchSize);
+
+		Files.deleteIfExists(directory);
+	}
+
+	private static void run(TestScriptRunner runner, Path directory, String query, int fetchSize) throws Exception {
+
+		String script =
+				"PARAMETERS fetchSize INTEGER, query VARCHAR END PARAMETERS\n" +
+				"TASK Export WRITE CSV 'export.csv' FROM FETCH SIZE fetchSize STATEMENT query END TASK\n";
+
+		System.gc();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			pool.resetPeakUsage();
+		}
+
+		long startNanos = System.nanoTime();
+		String outcome = "completed";
+		try {
+			runner.run(script, String.valueOf(fetchSize), query);
+		}
+		catch (Throwable ex) {
+			outcome = "failed: " + ex.toString();
+		}
+		long elapsedMillis = (System.nanoTime() - startNanos) / 1000000L;
+
+		long peakHeap = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peakHeap += pool.getPeakUsage().getUsed();
+			}
+		}
+
+		Path file = directory.resolve("export.csv");
+		long fileSize = Files.exists(file) ? Files.size(file) : 0L;
+		Files.deleteIfExists(file);
+
+		System.out.println(
+				((fetchSize == 0) ? "Default fetch size" : "Fetch size " + String.valueOf(fetchSize)) +
+				": " + outcome +
+				", " + String.valueOf(elapsedMillis) + " ms" +
+				", peak heap " + megabytes(peakHeap) +
+				", file " + megabytes(fileSize));
+	}
+
+	private static String megabytes(long bytes) {
+		return String.valueOf(bytes / (1024L * 1024L)) + " MB";
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class H2BulkDialectTest extends TestCase {
+
+	private Connection conn;
+
+	public H2BulkDialectTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		conn = DriverManager.getConnection("jdbc:h2:mem:bulktest");
+		try (Statement stmt = conn.createStatement()) {
+			stmt.executeUpdate("CREATE TABLE things (id INT, name VARCHAR(50), at TIMESTAMP, flag BOOLEAN)");
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		try (Statement stmt = conn.createStatement()) {
+			stmt.executeUpdate("DROP TABLE things");
+		}
+		conn.close();
+	}
+
+	private int executeUpdate(String sql) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			return stmt.executeUpdate(sql);
+		}
+	}
+
+	private int count() throws Exception {
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM things")) {
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+
+	public void testLoad() throws Exception {
+
+		BulkDialect dialect = BulkDialect.get(conn);
+		assertTrue(dialect instanceof H2BulkDialect);
+
+		BulkDialect.Load load = dialect.begin(conn, "things", Arrays.asList("id", "name", "at", "flag"), 4);
+		try {
+			load.addRow(new Object[] { 1, "plain", Timestamp.valueOf("2016-01-02 03:04:05"), true });
+			load.addRow(new Object[] { 2, "has \"quotes\", a comma\nand a newline", LocalDateTime.of(2017, 6, 7, 8, 9, 10), false });
+			load.addRow(new Object[] { 3, "", null, null });
+			load.addRow(new Object[] { null, null, null, null });
+
+			load.flush(this::executeUpdate);
+		}
+		finally {
+			load.close();
+		}
+
+		assertEquals(4, count());
+
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT * FROM things ORDER BY id NULLS LAST")) {
+
+			assertTrue(rs.next());
+			assertEquals(1, rs.getInt(1));
+			assertEquals("plain", rs.getString(2));
+			assertEquals(Timestamp.valueOf("2016-01-02 03:04:05"), rs.getTimestamp(3));
+			assertTrue(rs.getBoolean(4));
+
+			assertTrue(rs.next());
+			assertEquals("has \"quotes\", a comma\nand a newline", rs.getString(2));
+			assertEquals(Timestamp.valueOf("2017-06-07 08:09:10"), rs.getTimestamp(3));
+			assertFalse(rs.getBoolean(4));
+
+			assertTrue(rs.next());
+			assertEquals("", rs.getString(2));
+			assertNull(rs.getTimestamp(3));
+
+			assertTrue(rs.next());
+			assertNull(rs.getObject(1));
+			assertNull(rs.getObject(2));
+
+			assertFalse(rs.next());
+		}
+	}
+
+	public void testFlushes() throws Exception {
+
+		BulkDialect.Load load = BulkDialect.get(conn).begin(conn, "things", null, 4);
+		try {
+			load.flush(this::executeUpdate);
+			assertEquals(0, count());
+
+			load.addRow(new Object[] { 1, "one", null, null });
+			load.flush(this::executeUpdate);
+			assertEquals(1, count());
+
+			load.addRow(new Object[] { 2, "two", null, null });
+			load.addRow(new Object[] { 3, "three", null, null });
+			load.flush(this::executeUpdate);
+			assertEquals(3, count());
+
+			// Rows not flushed are discarded on close.
+
+			load.addRow(new Object[] { 4, "four", null, null });
+		}
+		finally {
+			load.close();
+		}
+
+		assertEquals(3, count());
+	}
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.hauldata.dbpa.log.Analyzer;
+import com.hauldata.dbpa.process.Context;
+import com.hauldata.dbpa.process.DbProcess;
+import com.hauldata.dbpa.process.Watermarks;
+import com.hauldata.dbpa.task.H2TaskTest;
+
+public class IncrementalSourceTest extends H2TaskTest {
+
+	private static final String processId = "IncrementalSourceTest";
+
+	private Path watermarkPath;
+
+	public IncrementalSourceTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		createTable("source", "id INT, at TIMESTAMP");
+		createTable("target", "id INT PRIMARY KEY, at TIMESTAMP, CONSTRAINT not_5 CHECK (id <> 5)");
+		watermarkPath = directory.resolve("test" + Watermarks.fileExtension);
+	}
+
+	private void insertSource(int fromId, int toId) throws Exception {
+		for (int id = fromId; id <= toId; ++id) {
+			execute("INSERT INTO source VALUES (" + id + ", TIMESTAMP '2016-01-01 00:00:00' + " + id + " * INTERVAL '1' HOUR)");
+		}
+	}
+
+	private ContextAction watermarks() {
+		return context -> { context.watermarks = Watermarks.load(watermarkPath); };
+	}
+
+	private void run(String script) throws Exception {
+		runScript(processId, script, watermarks());
+	}
+
+	private int count() throws Exception {
+		return queryInt("SELECT COUNT(*) FROM target");
+	}
+
+	private String[] lines(String fileName) throws Exception {
+		return readFile(fileName).split("\r?\n");
+	}
+
+	private Object mark(String key) {
+		return Watermarks.load(watermarkPath).get(key);
+	}
+
+	public void testFlowAdvancesAfterCommit() throws Exception {
+
+		String script = "TASK Load1 FLOW FROM TABLE 'source' INCREMENTAL ON 'id' INTO COMMIT EVERY 1000 TABLE 'target' END TASK\n";
+
+		insertSource(1, 3);
+		run(script);
+		assertEquals(3, count());
+		assertEquals(3L, mark("LOAD1"));
+
+		// Only the rows added since the last run are read.
+
+		insertSource(4, 4);
+		run(script);
+		assertEquals(4, count());
+		assertEquals(4L, mark("LOAD1"));
+
+		// The mark does not advance when the target fails and rolls back.
+
+		insertSource(5, 6);
+		runFailingScript(processId, script, watermarks());
+		assertEquals(4L, mark("LOAD1"));
+
+		execute("ALTER TABLE target DROP CONSTRAINT not_5");
+
+		run(script);
+		assertEquals(6, count());
+		assertEquals(6L, mark("LOAD1"));
+
+		// Nothing new leaves the mark alone.
+
+		run(script);
+		assertEquals(6, count());
+		assertEquals(6L, mark("LOAD1"));
+	}
+
+	public void testPartitionedFlow() throws Exception {
+
+		String script =
+				"TASK Load2 FLOW FROM STATEMENT 'SELECT id, at FROM source' INCREMENTAL ON 'at' " +
+				"INTO TABLE 'target' PARTITION BY MODULO 'id' INTO 3 END TASK\n";
+
+		execute("ALTER TABLE target DROP CONSTRAINT not_5");
+
+		insertSource(1, 10);
+		run(script);
+		assertEquals(10, count());
+		assertEquals(LocalDateTime.of(2016, 1, 1, 10, 0), mark("LOAD2"));
+
+		insertSource(11, 17);
+		run(script);
+		assertEquals(17, count());
+		assertEquals(LocalDateTime.of(2016, 1, 1, 17, 0), mark("LOAD2"));
+	}
+
+	public void testDateFlow() throws Exception {
+
+		String script =
+				"TASK Load3 FLOW FROM STATEMENT 'SELECT id, CAST(DATEADD(''DAY'', id, DATE ''2016-01-01'') AS DATE) AS at FROM source' INCREMENTAL ON 'at' " +
+				"INTO TABLE 'target' END TASK\n";
+
+		insertSource(1, 3);
+		run(script);
+		assertEquals(3, count());
+		assertEquals(LocalDate.of(2016, 1, 4), mark("LOAD3"));
+
+		insertSource(4, 4);
+		run(script);
+		assertEquals(4, count());
+		assertEquals(LocalDate.of(2016, 1, 5), mark("LOAD3"));
+	}
+
+	public void testWrite() throws Exception {
+
+		String script =
+				"TASK Export WRITE CSV 'out.csv' FROM SQL SELECT id FROM source END SQL INCREMENTAL ON 'ID' END TASK\n";
+
+		insertSource(1, 2);
+		run(script);
+		assertEquals(3, lines("out.csv").length);
+
+		insertSource(3, 5);
+		run(script);
+		String[] lines = lines("out.csv");
+		assertEquals(4, lines.length);
+		assertEquals("3", lines[1]);
+		assertEquals(5L, mark("EXPORT"));
+	}
+
+	public void testWriteFailsOnClose() throws Exception {
+
+		// A workbook is written to the device only when it is closed, after all the rows
+		// have been written to its sheet, so writing to a full device fails on close.
+
+		Path full = Paths.get("/dev/full");
+		if (!Files.isWritable(full)) {
+			return;
+		}
+
+		insertSource(1, 2);
+		run("TASK Export WRITE CSV 'out.csv' FROM SQL SELECT id FROM source END SQL INCREMENTAL ON 'ID' END TASK\n");
+		assertEquals(2L, mark("EXPORT"));
+
+		insertSource(3, 5);
+		run("TASK Export WRITE XLSX '" + full.toString() + "' 'Out' SHEET FROM SQL SELECT id FROM source END SQL INCREMENTAL ON 'ID' END TASK\n");
+		assertEquals(2L, mark("EXPORT"));
+
+		run("TASK Export WRITE CSV 'out.csv' FROM SQL SELECT id FROM source END SQL INCREMENTAL ON 'ID' END TASK\n" +
+				"TASK AFTER Export CLOSE 'out.csv' END TASK\n");
+		assertEquals(4, lines("out.csv").length);
+		assertEquals(5L, mark("EXPORT"));
+	}
+
+	public void testSaveFailsOnClose() throws Exception {
+
+		// The file is closed when the process ends, and the watermark cannot be saved then
+		// because a directory is in the way of the file it would be written to first.
+
+		Files.createDirectory(watermarkPath.resolveSibling(watermarkPath.getFileName().toString() + ".tmp"));
+
+		insertSource(1, 2);
+		Analyzer analyzer = runScript(processId, "TASK Export WRITE CSV 'out.csv' FROM SQL SELECT id FROM source END SQL INCREMENTAL ON 'ID' END TASK\n", watermarks());
+		assertNull(mark("EXPORT"));
+
+		boolean logged = false;
+		Analyzer.RecordIterator recordIterator = analyzer.recordIterator(processId, DbProcess.processTaskId);
+		while (recordIterator.hasNext()) {
+			logged = logged || recordIterator.next().message.startsWith(Context.closeFailedMessageStem);
+		}
+		assertTrue(logged);
+	}
+
+	public void testMarkTypes() throws Exception {
+
+		Watermarks watermarks = Watermarks.load(watermarkPath);
+
+		// Numbers are compared as numbers and times as times whatever their types.
+
+		assertTrue(watermarks.advance("K", 3L));
+		assertFalse(watermarks.advance("K", new BigDecimal("2.5")));
+		assertTrue(watermarks.advance("K", new BigDecimal("3.5")));
+		assertFalse(watermarks.advance("K", 3L));
+		assertTrue(watermarks.advance("K", 4L));
+		assertEquals(4L, mark("K"));
+
+		assertTrue(watermarks.advance("T", LocalDate.of(2016, 1, 2)));
+		assertFalse(watermarks.advance("T", LocalDateTime.of(2016, 1, 1, 23, 0)));
+		assertTrue(watermarks.advance("T", LocalDateTime.of(2016, 1, 2, 1, 0)));
+
+		// A value that cannot be compared with the mark does not advance it.
+
+		String message = null;
+		try {
+			watermarks.advance("K", "5");
+		}
+		catch (RuntimeException ex) {
+			message = ex.getMessage();
+		}
+		assertEquals("Cannot advance watermark for K from a Long to a String", message);
+		assertEquals(4L, mark("K"));
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import com.hauldata.dbpa.task.H2TaskTest;
+
+public class MergeDataTargetTest extends H2TaskTest {
+
+	private static final String processId = "MergeDataTargetTest";
+
+	public MergeDataTargetTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		createTable("things", "region VARCHAR(10), id INT, name VARCHAR(50), amount INT, PRIMARY KEY (region, id)");
+		createTable("changes", "region VARCHAR(10), id INT, name VARCHAR(50), amount INT");
+		execute(
+				"INSERT INTO things VALUES ('east', 1, 'old one', 10), ('east', 2, 'old two', 20), ('west', 1, 'old west', 30)",
+				"INSERT INTO changes VALUES ('east', 2, 'new two', 22), ('west', 1, 'new west', 33), ('west', 2, 'added', 40)");
+	}
+
+	private void assertMerged() throws Exception {
+
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT region, id, name, amount FROM things ORDER BY region, id")) {
+			assertRow(rs, "east", 1, "old one", 10);
+			assertRow(rs, "east", 2, "new two", 22);
+			assertRow(rs, "west", 1, "new west", 33);
+			assertRow(rs, "west", 2, "added", 40);
+			assertFalse(rs.next());
+		}
+
+		// The staging table is gone.
+
+		assertEquals(0, queryInt("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE LOWER(TABLE_NAME) LIKE 'dbpa_stage_%'"));
+	}
+
+	private static void assertRow(ResultSet rs, String region, int id, String name, int amount) throws Exception {
+		assertTrue(rs.next());
+		assertEquals(region, rs.getString(1));
+		assertEquals(id, rs.getInt(2));
+		assertEquals(name, rs.getString(3));
+		assertEquals(amount, rs.getInt(4));
+	}
+
+	public void testMerge() throws Exception {
+
+		runScript(processId, "TASK FLOW FROM TABLE 'changes' INTO BATCH SIZE 2 MERGE 'things' ON 'REGION', 'ID' END TASK\n");
+
+		assertMerged();
+	}
+
+	public void testMergeCommitted() throws Exception {
+
+		runScript(processId, "TASK FLOW FROM TABLE 'changes' INTO COMMIT EVERY 2 MERGE 'things' ON 'region', 'id' DELIMITER '\"' END TASK\n");
+
+		assertMerged();
+	}
+
+	public void testUpdateInsert() throws Exception {
+
+		// Run the statements used on databases without MERGE.
+
+		List<String> columns = Arrays.asList("region", "id", "name", "amount");
+		List<String> keys = Arrays.asList("region", "id");
+
+		try (Statement stmt = conn.createStatement()) {
+			for (String sql : MergeDataTarget.getUpdateInsertStatements("things", "changes", columns, keys, "")) {
+				stmt.executeUpdate(sql);
+			}
+		}
+
+		assertMerged();
+	}
+
+	public void testKeysOnly() throws Exception {
+
+		List<String> columns = Arrays.asList("region", "id");
+
+		List<String> merge = MergeDataTarget.getMergeStatements("t1", "s1", columns, columns, "", true);
+		assertEquals(1, merge.size());
+		assertEquals("MERGE INTO t1 t USING s1 s ON (t.region = s.region AND t.id = s.id) WHEN NOT MATCHED THEN INSERT (region, id) VALUES (s.region, s.id);", merge.get(0));
+
+		List<String> updateInsert = MergeDataTarget.getUpdateInsertStatements("t1", "s1", columns, columns, "");
+		assertEquals(1, updateInsert.size());
+		assertTrue(updateInsert.get(0).startsWith("INSERT INTO t1 "));
+	}
+
+	public void testStageStatements() {
+
+		assertEquals("CREATE LOCAL TEMPORARY TABLE s1 AS SELECT a, b FROM t1 WHERE 1 = 0", MergeDataTarget.createStageStatement("h2", "s1", "t1", "a, b"));
+		assertEquals("SELECT a, b INTO #s1 FROM t1 WHERE 1 = 0", MergeDataTarget.createStageStatement("microsoft sql server", "#s1", "t1", "a, b"));
+		assertEquals("CREATE GLOBAL TEMPORARY TABLE s1 ON COMMIT PRESERVE ROWS AS SELECT a, b FROM t1 WHERE 1 = 0", MergeDataTarget.createStageStatement("oracle", "s1", "t1", "a, b"));
+		assertEquals("CREATE TABLE s1 AS SELECT a, b FROM t1 WHERE 1 = 0", MergeDataTarget.createStageStatement("mysql", "s1", "t1", "a, b"));
+
+		assertEquals(Arrays.asList("TRUNCATE TABLE s1", "DROP TABLE s1"), MergeDataTarget.getDropStageStatements("oracle", "s1"));
+		assertEquals(Arrays.asList("DROP TABLE s1"), MergeDataTarget.getDropStageStatements("h2", "s1"));
+	}
+
+	public void testBadKey() throws Exception {
+
+		String message = runFailingScript(processId, "TASK FLOW FROM TABLE 'changes' INTO MERGE 'things' ON 'nope' END TASK\n");
+		assertTrue(message.contains("MERGE key is not one of the columns: nope"));
+	}
+}
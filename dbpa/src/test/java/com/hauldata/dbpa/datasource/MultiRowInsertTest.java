@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import com.hauldata.dbpa.task.H2TaskTest;
+
+public class MultiRowInsertTest extends H2TaskTest {
+
+	public MultiRowInsertTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		createTable("things", "id INT, name VARCHAR(50)");
+	}
+
+	private void flow(int rowCount, String target) throws Exception {
+
+		String script =
+				"TASK FLOW FROM STATEMENT 'SELECT X AS id, CONCAT(''Row '', X) AS name FROM SYSTEM_RANGE(1, " + String.valueOf(rowCount) + ")' " +
+				"INTO " + target + " END TASK\n";
+
+		runScript("MultiRowInsertTest", script);
+	}
+
+	private void assertRows(int rowCount) throws Exception {
+
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*), COUNT(DISTINCT id), MIN(id), MAX(id) FROM things")) {
+			rs.next();
+			assertEquals(rowCount, rs.getInt(1));
+			assertEquals(rowCount, rs.getInt(2));
+			assertEquals(1, rs.getInt(3));
+			assertEquals(rowCount, rs.getInt(4));
+		}
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT name FROM things WHERE id = " + String.valueOf(rowCount))) {
+			rs.next();
+			assertEquals("Row " + String.valueOf(rowCount), rs.getString(1));
+		}
+	}
+
+	public void testWholeStatements() throws Exception {
+
+		flow(2100, "BATCH SIZE 700 TABLE 'things' MULTIROW 70");
+		assertRows(2100);
+	}
+
+	public void testPartialStatements() throws Exception {
+
+		// Batch size 100 is rounded up to 105 rows.  Each batch ends with a partial statement
+		// until the last, which is entirely partial.
+
+		flow(1003, "BATCH SIZE 100 TABLE 'things' MULTIROW 7");
+		assertRows(1003);
+	}
+
+	public void testFewerRowsThanStatement() throws Exception {
+
+		flow(5, "TABLE 'things' MULTIROW 100");
+		assertRows(5);
+	}
+}
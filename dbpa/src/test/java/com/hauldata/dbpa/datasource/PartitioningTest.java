@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.hauldata.dbpa.expression.Expression;
+import com.hauldata.dbpa.expression.IntegerConstant;
+import com.hauldata.dbpa.expression.StringConstant;
+
+import junit.framework.TestCase;
+
+public class PartitioningTest extends TestCase {
+
+	public PartitioningTest(String name) {
+		super(name);
+	}
+
+	public void testModulo() {
+
+		List<String> predicates = new Partitioning.Modulo(new StringConstant("id"), new IntegerConstant(3)).evaluate();
+
+		assertEquals(3, predicates.size());
+		assertEquals("ABS(id % 3) = 0 OR id IS NULL", predicates.get(0));
+		assertEquals("ABS(id % 3) = 1", predicates.get(1));
+		assertEquals("ABS(id % 3) = 2", predicates.get(2));
+	}
+
+	public void testRange() {
+
+		List<String> predicates = new Partitioning.Range(new StringConstant("id"), new IntegerConstant(1), new IntegerConstant(100), new IntegerConstant(4)).evaluate();
+
+		assertEquals(4, predicates.size());
+		assertEquals("id < 26 OR id IS NULL", predicates.get(0));
+		assertEquals("id >= 26 AND id < 51", predicates.get(1));
+		assertEquals("id >= 51 AND id < 76", predicates.get(2));
+		assertEquals("id >= 76", predicates.get(3));
+
+		predicates = new Partitioning.Range(new StringConstant("id"), new IntegerConstant(1), new IntegerConstant(100), new IntegerConstant(1)).evaluate();
+
+		assertEquals(1, predicates.size());
+		assertEquals("1 = 1", predicates.get(0));
+	}
+
+	public void testRangeCoversAllValues() {
+
+		// Each value in and around the range satisfies exactly one predicate.
+
+		int low = -7, high = 12, count = 5;
+		List<String> predicates = new Partitioning.Range(new StringConstant("id"), new IntegerConstant(low), new IntegerConstant(high), new IntegerConstant(count)).evaluate();
+
+		for (int value = low - 3; value <= high + 3; ++value) {
+			int matches = 0;
+			for (String predicate : predicates) {
+				if (satisfies(predicate, value)) {
+					++matches;
+				}
+			}
+			assertEquals("value " + String.valueOf(value), 1, matches);
+		}
+	}
+
+	private static boolean satisfies(String predicate, int value) {
+
+		boolean result = true;
+		for (String term : predicate.replace(" OR id IS NULL", "").split(" AND ")) {
+			String[] parts = term.split(" ");
+			int bound = Integer.parseInt(parts[2]);
+			if (parts[1].equals(">=")) {
+				result = result && (value >= bound);
+			}
+			else {
+				result = result && (value < bound);
+			}
+		}
+		return result;
+	}
+
+	public void testPredicates() {
+
+		List<Expression<String>> expressions = Arrays.asList(new StringConstant("a < 5"), new StringConstant("a >= 5"));
+		List<String> predicates = new Partitioning.Predicates(expressions).evaluate();
+
+		assertEquals(Arrays.asList("a < 5", "a >= 5"), predicates);
+	}
+
+	public void testBadCount() {
+
+		String message = null;
+		try {
+			new Partitioning.Modulo(new StringConstant("id"), new IntegerConstant(0)).evaluate();
+		}
+		catch (RuntimeException ex) {
+			message = ex.getMessage();
+		}
+		assertEquals("Partition count must be at least 1", message);
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import junit.framework.TestCase;
+
+public class RowBatchRingTest extends TestCase {
+
+	public RowBatchRingTest(String name) {
+		super(name);
+	}
+
+	private static class Producer extends Thread {
+
+		private RowBatchRing ring;
+		private int rowCount;
+		private Exception failure;
+
+		volatile int produced = 0;
+		volatile boolean stopped = false;
+
+		Producer(RowBatchRing ring, int rowCount, Exception failure) {
+			this.ring = ring;
+			this.rowCount = rowCount;
+			this.failure = failure;
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (produced < rowCount) {
+					RowBatchRing.Batch batch = ring.claim();
+					if (batch == null) {
+						stopped = true;
+						return;
+					}
+					while ((produced < rowCount) && !batch.isFull()) {
+						batch.rows[batch.size++][0] = produced++;
+					}
+					ring.publish();
+				}
+				if (failure != null) {
+					ring.fail(failure);
+				}
+				else {
+					ring.finish();
+				}
+			}
+			catch (InterruptedException ex) {
+				ring.fail(ex);
+			}
+		}
+	}
+
+	public void testAllRowsInOrder() throws Exception {
+
+		RowBatchRing ring = new RowBatchRing(3, 7, 1);
+		Producer producer = new Producer(ring, 1000, null);
+		producer.start();
+
+		int expected = 0;
+		RowBatchRing.Batch batch;
+		while ((batch = ring.take()) != null) {
+			for (int row = 0; row < batch.size; ++row) {
+				assertEquals(expected++, batch.rows[row][0]);
+			}
+			ring.release();
+		}
+
+		producer.join(5000L);
+		assertEquals(1000, expected);
+	}
+
+	public void testProducerWaitsForConsumer() throws Exception {
+
+		RowBatchRing ring = new RowBatchRing(2, 10, 1);
+		Producer producer = new Producer(ring, 100, null);
+		producer.start();
+
+		// Only the two batches of the ring can be filled until the consumer releases one.
+
+		Thread.sleep(200L);
+		assertEquals(20, producer.produced);
+
+		ring.take();
+		ring.release();
+
+		Thread.sleep(200L);
+		assertEquals(30, producer.produced);
+
+		while (ring.take() != null) {
+			ring.release();
+		}
+		producer.join(5000L);
+	}
+
+	public void testProducerFailure() throws Exception {
+
+		RowBatchRing ring = new RowBatchRing(2, 10, 1);
+		Producer producer = new Producer(ring, 25, new RuntimeException("Source failed"));
+		producer.start();
+
+		int rows = 0;
+		String message = null;
+		try {
+			RowBatchRing.Batch batch;
+			while ((batch = ring.take()) != null) {
+				rows += batch.size;
+				ring.release();
+			}
+		}
+		catch (RuntimeException ex) {
+			message = ex.getMessage();
+		}
+
+		producer.join(5000L);
+
+		// Batches published before the failure are drained first.
+
+		assertEquals(25, rows);
+		assertEquals("Source failed", message);
+	}
+
+	public void testConsumerAbort() throws Exception {
+
+		RowBatchRing ring = new RowBatchRing(2, 10, 1);
+		Producer producer = new Producer(ring, 1000, null);
+		producer.start();
+
+		ring.take();
+		ring.abort();
+
+		producer.join(5000L);
+
+		assertFalse(producer.isAlive());
+		assertTrue(producer.stopped);
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import junit.framework.TestCase;
+
+public class StatementRunnerTest extends TestCase {
+
+	public StatementRunnerTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Stands in for a statement that blocks without responding to interrupts until cancelled.
+	 */
+	private static class BlockingStatement implements StatementRunner.Call {
+
+		private long timeoutMillis;
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		AtomicInteger cancelCount = new AtomicInteger(0);
+		CountDownLatch closed = new CountDownLatch(1);
+
+		volatile boolean completedByCancel = false;
+		volatile boolean interrupted = false;
+		volatile boolean abandoned = false;
+		volatile Thread runThread = null;
+		volatile Thread closeThread = null;
+
+		BlockingStatement(long timeoutMillis) {
+			this.timeoutMillis = timeoutMillis;
+		}
+
+		@Override
+		public void cancel() {
+			cancelCount.incrementAndGet();
+			cancelled.countDown();
+		}
+
+		@Override
+		public void abandon() {
+			abandoned = true;
+		}
+
+		@Override
+		public void close() {
+			closeThread = Thread.currentThread();
+			closed.countDown();
+		}
+
+		@Override
+		public void run() {
+			runThread = Thread.currentThread();
+			started.countDown();
+
+			// Like a JDBC call, neither respond to nor clear an interrupt.
+			long deadline = System.currentTimeMillis() + timeoutMillis;
+			while ((cancelled.getCount() > 0) && (System.currentTimeMillis() < deadline)) {
+				LockSupport.parkNanos(1000000L);
+			}
+			completedByCancel = (cancelled.getCount() == 0);
+			interrupted = Thread.currentThread().isInterrupted();
+		}
+	}
+
+	/**
+	 * Stands in for a statement on a driver that ignores cancellation.
+	 */
+	private static class UncancellableStatement extends BlockingStatement {
+
+		UncancellableStatement(long timeoutMillis) {
+			super(timeoutMillis);
+		}
+
+		@Override
+		public void cancel() {
+			cancelCount.incrementAndGet();
+		}
+	}
+
+	public void testInterruptCancels() throws Exception {
+
+		BlockingStatement statement = new BlockingStatement(10000L);
+		boolean[] threwInterrupted = new boolean[1];
+
+		Thread caller = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					StatementRunner.run(statement);
+				}
+				catch (InterruptedException ex) {
+					threwInterrupted[0] = true;
+				}
+			}
+		});
+
+		caller.start();
+		statement.started.await();
+		caller.interrupt();
+		caller.join(5000L);
+
+		assertFalse(caller.isAlive());
+		assertTrue(threwInterrupted[0]);
+		assertTrue(statement.completedByCancel);
+
+		// The thread running the statement is never interrupted.
+
+		assertFalse(statement.interrupted);
+		assertEquals(1, statement.cancelCount.get());
+		assertFalse(statement.abandoned);
+		assertEquals(1, statement.closed.getCount());
+	}
+
+	public void testUncancellableAbandoned() throws Exception {
+
+		UncancellableStatement statement = new UncancellableStatement(2000L);
+		boolean[] threwInterrupted = new boolean[1];
+
+		Thread caller = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					StatementRunner.run(statement, 200L);
+				}
+				catch (InterruptedException ex) {
+					threwInterrupted[0] = true;
+				}
+			}
+		});
+
+		caller.start();
+		statement.started.await();
+		caller.interrupt();
+		caller.join(1000L);
+
+		// The caller gives up waiting while the statement is still running.
+
+		assertFalse(caller.isAlive());
+		assertTrue(threwInterrupted[0]);
+		assertEquals(1, statement.cancelCount.get());
+		assertTrue(statement.abandoned);
+		assertEquals(1, statement.closed.getCount());
+
+		// The statement is closed on the thread that ran it once it returns.
+
+		assertTrue(statement.closed.await(5L, TimeUnit.SECONDS));
+		assertFalse(statement.completedByCancel);
+		assertSame(statement.runThread, statement.closeThread);
+	}
+
+	public void testNoInterruptNoCancel() throws Exception {
+
+		BlockingStatement statement = new BlockingStatement(200L);
+
+		StatementRunner.run(statement);
+
+		assertFalse(statement.completedByCancel);
+		assertEquals(0, statement.cancelCount.get());
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.util.Properties;
+
+import com.hauldata.dbpa.connection.DatabaseConnection;
+
+import junit.framework.TestCase;
+
+public class StreamOnlyTest extends TestCase {
+
+	public StreamOnlyTest(String name) {
+		super(name);
+	}
+
+	public void testStreamOnly() {
+
+		assertTrue(DataSource.isStreamOnly("MySQL", "jdbc:mysql://localhost/test", false));
+		assertFalse(DataSource.isStreamOnly("MySQL", "jdbc:mysql://localhost/test?useCursorFetch=true", false));
+		assertFalse(DataSource.isStreamOnly("H2", "jdbc:h2:mem:test", false));
+	}
+
+	public void testCursorFetchProperty() throws Exception {
+
+		Properties props = new Properties();
+		props.put("driver", "org.h2.Driver");
+		props.put("url", "jdbc:h2:mem:streamonlytest");
+
+		DatabaseConnection connection = new DatabaseConnection();
+		connection.setProperties(props);
+		connection.release(connection.get());
+		assertFalse(connection.isCursorFetch());
+
+		// Cursor fetch enabled by the connection properties rather than the URL.
+
+		props.put("useCursorFetch", "true");
+		connection.setProperties(props);
+		connection.release(connection.get());
+		assertTrue(connection.isCursorFetch());
+		connection.assureClosed();
+
+		assertFalse(DataSource.isStreamOnly("MySQL", "jdbc:mysql://localhost/test", connection.isCursorFetch()));
+	}
+}
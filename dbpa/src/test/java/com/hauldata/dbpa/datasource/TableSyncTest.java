@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import com.hauldata.dbpa.process.Context;
+import com.hauldata.dbpa.task.H2TaskTest;
+
+public class TableSyncTest extends H2TaskTest {
+
+	private Context context;
+
+	public TableSyncTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		createTable("source", "id INT PRIMARY KEY, name VARCHAR(50), amount DECIMAL(10, 2), at TIMESTAMP");
+		createTable("target", "id INT PRIMARY KEY, name VARCHAR(50), amount DECIMAL(10, 2), at TIMESTAMP, extra VARCHAR(10)");
+		execute(
+				"INSERT INTO source SELECT X, CONCAT('Name ', X), X * 1.5, DATEADD('HOUR', X, TIMESTAMP '2016-01-01 00:00:00') FROM SYSTEM_RANGE(1, 250)",
+				"INSERT INTO target (id, name, amount, at) SELECT * FROM source");
+
+		// Rows missing from, added to and changed in the target.
+
+		execute(
+				"DELETE FROM target WHERE id IN (3, 120)",
+				"INSERT INTO target (id, name) VALUES (300, 'Extra')",
+				"UPDATE target SET name = 'Changed' WHERE id = 7",
+				"UPDATE target SET amount = NULL WHERE id = 201",
+				"UPDATE source SET name = NULL WHERE id = 202");
+
+		context = newContext(null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		context.close();
+		super.tearDown();
+	}
+
+	private String contents(String table) throws Exception {
+		StringBuilder contents = new StringBuilder();
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT id, name, amount, at FROM " + table + " ORDER BY id")) {
+			while (rs.next()) {
+				contents.append(rs.getInt(1)).append(',').append(rs.getString(2)).append(',').append(rs.getBigDecimal(3)).append(',').append(rs.getTimestamp(4)).append('\n');
+			}
+		}
+		return contents.toString();
+	}
+
+	public void testDryRunThenSync() throws Exception {
+
+		String before = contents("target");
+
+		TableSync sync = new TableSync(null, "source", null, "target", "id", 100);
+
+		TableSync.Report report = sync.run(context, true);
+		assertTrue(report.databaseDigests);
+		assertEquals(3, report.chunkCount);
+		assertEquals(3, report.diffCount);
+		assertEquals(3, report.diffs.size());
+		assertEquals(1, report.diffs.get(0).insertCount);
+		assertEquals(Arrays.asList(3L), report.diffs.get(0).insertKeys);
+		assertEquals(Arrays.asList(7L), report.diffs.get(0).updateKeys);
+		assertEquals(Arrays.asList(120L), report.diffs.get(1).insertKeys);
+		assertEquals(Arrays.asList(201L, 202L), report.diffs.get(2).updateKeys);
+		assertEquals(Arrays.asList(300L), report.diffs.get(2).deleteKeys);
+		assertEquals(before, contents("target"));
+
+		report = sync.run(context, false);
+		assertEquals(3, report.diffCount);
+		assertEquals(0, report.diffs.size());
+		assertEquals(2, report.getInsertCount());
+		assertEquals(3, report.getUpdateCount());
+		assertEquals(1, report.getDeleteCount());
+		assertEquals(contents("source"), contents("target"));
+
+		report = sync.run(context, false);
+		assertEquals(0, report.diffCount);
+	}
+
+	public void testDryRunReportIsCapped() throws Exception {
+
+		execute("DELETE FROM target WHERE id BETWEEN 20 AND 49");
+
+		// Only the first few keys of a chunk are kept, but all are counted.
+
+		TableSync.Report report = new TableSync(null, "source", null, "target", "id", 100).run(context, true);
+		assertEquals(3, report.diffs.size());
+		assertEquals(31, report.diffs.get(0).insertCount);
+		assertEquals(TableSync.reportedKeyCount, report.diffs.get(0).insertKeys.size());
+		assertEquals(Arrays.asList(3L, 20L, 21L), report.diffs.get(0).insertKeys.subList(0, 3));
+		assertEquals(32, report.getInsertCount());
+
+		// Only the first few chunks that differ are kept, but all are counted.
+
+		report = new TableSync(null, "source", null, "target", "id", 1).run(context, true);
+		assertEquals(36, report.diffCount);
+		assertEquals(TableSync.reportedChunkCount, report.diffs.size());
+		assertEquals(32, report.getInsertCount());
+		assertEquals(3, report.getUpdateCount());
+		assertEquals(1, report.getDeleteCount());
+	}
+
+	public void testSyncTask() throws Exception {
+
+		runScript("TableSyncTest", "TASK Mirror SYNC TABLE 'source' INTO TABLE 'target' ON 'id' CHUNK 50 END TASK\n");
+
+		assertEquals(contents("source"), contents("target"));
+	}
+
+	public void testNormalize() {
+
+		assertEquals(TableSync.normalize(1), TableSync.normalize(1L));
+		assertEquals(TableSync.normalize(1), TableSync.normalize(new BigDecimal("1.00")));
+		assertEquals(TableSync.normalize(0), TableSync.normalize(new BigDecimal("0.000")));
+		assertEquals(TableSync.normalize(true), TableSync.normalize((short)1));
+		assertEquals(TableSync.normalize(1.5d), TableSync.normalize(new BigDecimal("1.50")));
+		assertEquals(TableSync.normalize(Timestamp.valueOf("2016-01-02 03:04:05")), LocalDateTime.of(2016, 1, 2, 3, 4, 5));
+		assertEquals(TableSync.normalize(new byte[] { 1, 2 }), TableSync.normalize(new byte[] { 1, 2 }));
+
+		assertEquals(TableSync.hash(new Object[] { 1, "a", null }), TableSync.hash(new Object[] { 1L, "a", null }));
+		assertFalse(TableSync.hash(new Object[] { 1, null }) == TableSync.hash(new Object[] { null, 1 }));
+	}
+}
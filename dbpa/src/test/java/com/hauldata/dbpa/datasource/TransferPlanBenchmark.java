@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Benchmark of moving rows of a wide numeric table from a result set to the parameters
+ * of a prepared statement, boxed with getObject() and setObject() versus with a TransferPlan.
+ * <p>
+ * Usage: <code>TransferPlanBenchmark [rows [columns [iterations]]]</code>
+ * <p>
+ * Rows default to 200,000, columns to 60 and iterations to 5.  Columns cycle through INT,
+ * BIGINT and DOUBLE.  Statement parameters are set for each row but not executed, so that
+ * the time and allocation measured are those of moving the values.  The first iteration
+ * is warm-up and is not included in the averages.
+ */
+public class TransferPlanBenchmark {
+
+	public static void main(String[] args) throws Exception {
+
+		int rows = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+		int columns = (args.length > 1) ? Integer.parseInt(args[1]) : 60;
+		int iterations = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+
+		try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:transferbenchmark")) {
+
+			StringBuilder definition = new StringBuilder();
+			StringBuilder values = new StringBuilder();
+			StringBuilder parameters = new StringBuilder();
+			for (int i = 0; i < columns; ++i) {
+				String type = (i % 3 == 0) ? "INT" : (i % 3 == 1) ? "BIGINT" : "DOUBLE";
+				String value = (i % 3 == 0) ? "CAST(X AS INT)" : (i % 3 == 1) ? "X * 1000000" : "X / 7.0";
+				String separator = (i > 0) ? ", " : "";
+				definition.append(separator).append("c").append(i).append(" ").append(type);
+				values.append(separator).append(value);
+				parameters.append(separator).append("?");
+			}
+
+			try (Statement stmt = conn.createStatement()) {
+				stmt.executeUpdate("CREATE TABLE source (" + definition + ")");
+				stmt.executeUpdate("CREATE TABLE target (" + definition + ")");
+				stmt.executeUpdate("INSERT INTO source SELECT " + values + " FROM SYSTEM_RANGE(1, " + String.valueOf(rows) + ")");
+			}
+
+			System.out.println("Moving " + String.valueOf(rows) + " rows of " + String.valueOf(columns) + " numeric columns");
+
+			String insert = "INSERT INTO target VALUES (" + parameters + ")";
+
+			long[] boxed = new long[2];
+			long[] planned = new long[2];
+			for (int iteration = 0; iteration < iterations; ++iteration) {
+				long[] boxedRun = run(conn, insert, false);
+				long[] plannedRun = run(conn, insert, true);
+				if (iteration > 0) {
+					for (int i = 0; i < 2; ++i) {
+						boxed[i] += boxedRun[i];
+						planned[i] += plannedRun[i];
+					}
+				}
+			}
+
+			int measured = Math.max(iterations - 1, 1);
+			report("getObject/setObject", boxed, measured, rows, columns);
+			report("TransferPlan", planned, measured, rows, columns);
+		}
+	}
+
+	/**
+	 * @return elapsed nanoseconds and bytes allocated by this thread
+	 */
+	private static long[] run(Connection conn, String insert, boolean usePlan) throws Exception {
+
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		try (Statement query = conn.createStatement(); PreparedStatement stmt = conn.prepareStatement(insert)) {
+
+			ResultSet rs = query.executeQuery("SELECT * FROM source");
+			int columnCount = rs.getMetaData().getColumnCount();
+
+			TransferPlan plan = usePlan ? TransferPlan.build(rs, stmt) : null;
+
+			long startBytes = threads.getThreadAllocatedBytes(threadId);
+			long startNanos = System.nanoTime();
+
+			while (rs.next()) {
+				if (plan != null) {
+					plan.transfer();
+				}
+				else {
+					for (int i = 1; i <= columnCount; ++i) {
+						stmt.setObject(i, rs.getObject(i));
+					}
+				}
+			}
+
+			long elapsedNanos = System.nanoTime() - startNanos;
+			long allocatedBytes = threads.getThreadAllocatedBytes(threadId) - startBytes;
+
+			return new long[] { elapsedNanos, allocatedBytes };
+		}
+	}
+
+	private static void report(String name, long[] totals, int iterations, int rows, int columns) {
+
+		double cells = (double)rows * columns * iterations;
+		System.out.println(String.format("%-20s %8.1f ms per run, %6.2f ns per cell, %6.1f bytes allocated per cell",
+				name, totals[0] / 1e6 / iterations, totals[0] / cells, totals[1] / cells));
+	}
+}
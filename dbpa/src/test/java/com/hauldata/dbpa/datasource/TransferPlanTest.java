@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.datasource;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import com.hauldata.dbpa.datasource.TransferPlan.Kind;
+import com.hauldata.dbpa.task.H2TaskTest;
+
+public class TransferPlanTest extends H2TaskTest {
+
+	public TransferPlanTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		createTable("source", "i INT, b BIGINT, d DOUBLE, f BOOLEAN, n DECIMAL(12,3), s VARCHAR(20), t TIMESTAMP, u UUID");
+		createTable("target", "i INT, b BIGINT, d DOUBLE, f BOOLEAN, n DECIMAL(12,3), s VARCHAR(20), t TIMESTAMP, u UUID");
+		execute(
+				"INSERT INTO source VALUES (1, 10000000000, 1.5, TRUE, 123.456, 'one', TIMESTAMP '2016-01-02 03:04:05', RANDOM_UUID())",
+				"INSERT INTO source VALUES (0, 0, 0.0, FALSE, 0, '', TIMESTAMP '2017-06-07 08:09:10', NULL)",
+				"INSERT INTO source VALUES (NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL)");
+	}
+
+	public void testKinds() {
+
+		assertEquals(Kind.INT, TransferPlan.kindOf(Types.INTEGER, true, Types.OTHER));
+		assertEquals(Kind.LONG, TransferPlan.kindOf(Types.INTEGER, false, Types.OTHER));
+		assertEquals(Kind.LONG, TransferPlan.kindOf(Types.BIGINT, true, Types.INTEGER));
+		assertEquals(Kind.LONG, TransferPlan.kindOf(Types.SMALLINT, true, Types.BIGINT));
+		assertEquals(Kind.INT, TransferPlan.kindOf(Types.SMALLINT, true, Types.TINYINT));
+		assertEquals(Kind.DOUBLE, TransferPlan.kindOf(Types.REAL, true, Types.DOUBLE));
+		assertEquals(Kind.BOOLEAN, TransferPlan.kindOf(Types.BIT, true, Types.BOOLEAN));
+		assertEquals(Kind.STRING, TransferPlan.kindOf(Types.NVARCHAR, true, Types.CHAR));
+		assertEquals(Kind.TIMESTAMP, TransferPlan.kindOf(Types.TIMESTAMP, true, Types.OTHER));
+
+		// Different kinds are left to the driver to convert.
+
+		assertEquals(Kind.OBJECT, TransferPlan.kindOf(Types.INTEGER, true, Types.VARCHAR));
+		assertEquals(Kind.OBJECT, TransferPlan.kindOf(Types.DATE, true, Types.TIMESTAMP));
+		assertEquals(Kind.OBJECT, TransferPlan.kindOf(Types.BLOB, true, Types.BLOB));
+	}
+
+	private void flow(String target) throws Exception {
+
+		String script = "TASK FLOW FROM TABLE 'source' INTO " + target + " END TASK\n";
+
+		runScript("TransferPlanTest", script);
+	}
+
+	public void testFlow() throws Exception {
+
+		flow("TABLE 'target'");
+
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(
+				"SELECT COUNT(*) FROM target t INNER JOIN source s ON " +
+				"t.i IS NOT DISTINCT FROM s.i AND t.b IS NOT DISTINCT FROM s.b AND t.d IS NOT DISTINCT FROM s.d AND " +
+				"t.f IS NOT DISTINCT FROM s.f AND t.n IS NOT DISTINCT FROM s.n AND t.s IS NOT DISTINCT FROM s.s AND " +
+				"t.t IS NOT DISTINCT FROM s.t AND t.u IS NOT DISTINCT FROM s.u")) {
+			rs.next();
+			assertEquals(3, rs.getInt(1));
+		}
+
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT * FROM target WHERE i = 1")) {
+			assertTrue(rs.next());
+			assertEquals(10000000000L, rs.getLong(2));
+			assertEquals(new BigDecimal("123.456"), rs.getBigDecimal(5));
+			assertEquals(Timestamp.valueOf("2016-01-02 03:04:05"), rs.getTimestamp(7));
+			assertNotNull(rs.getObject(8));
+		}
+
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT * FROM target WHERE i IS NULL")) {
+			assertTrue(rs.next());
+			for (int column = 1; column <= 8; ++column) {
+				assertNull(rs.getObject(column));
+			}
+		}
+	}
+}
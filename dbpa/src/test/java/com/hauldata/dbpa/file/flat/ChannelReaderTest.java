@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.file.flat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import junit.framework.TestCase;
+
+public class ChannelReaderTest extends TestCase {
+
+	private Path path;
+
+	public ChannelReaderTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		path = Files.createTempFile("ChannelReaderTest", ".txt");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Files.delete(path);
+	}
+
+	/**
+	 * @return text that crosses several buffers of bytes and has characters outside the Basic Multilingual Plane
+	 */
+	private static String text() {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; text.length() < ChannelReader.bufferSize * 3; ++i) {
+			text.append("line ").append(i).append(", caf\u00e9 \ud83d\ude00\n");
+		}
+		return text.toString();
+	}
+
+	private void write(byte[] bom, String text, Charset charset) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		bytes.write(bom);
+		bytes.write(text.getBytes(charset));
+		Files.write(path, bytes.toByteArray());
+	}
+
+	private static String readAll(Reader reader, int length) throws IOException {
+		StringBuilder result = new StringBuilder();
+		char[] buffer = new char[length];
+		for (int count; (count = reader.read(buffer, 0, length)) != -1; ) {
+			result.append(buffer, 0, count);
+		}
+		reader.close();
+		return result.toString();
+	}
+
+	public void testByteOrderMark() throws IOException {
+
+		String text = text();
+
+		Object[][] cases = {
+				{ new byte[] { (byte)0xef, (byte)0xbb, (byte)0xbf }, StandardCharsets.UTF_8 },
+				{ new byte[] { (byte)0xfe, (byte)0xff }, StandardCharsets.UTF_16BE },
+				{ new byte[] { (byte)0xff, (byte)0xfe }, StandardCharsets.UTF_16LE },
+		};
+
+		for (Object[] testCase : cases) {
+			byte[] bom = (byte[])testCase[0];
+			Charset charset = (Charset)testCase[1];
+
+			write(bom, text, charset);
+
+			for (int length : new int[] { 1, 7, 8192 }) {
+				ChannelReader reader = new ChannelReader(path, TextFile.getDefaultCharset());
+				assertEquals(charset, reader.getCharset());
+				assertEquals(bom.length, reader.getBomLength());
+				assertEquals(charset.name() + " " + String.valueOf(length), text, readAll(reader, length));
+			}
+		}
+	}
+
+	public void testDefaultCharset() throws IOException {
+
+		String text = "caf\u00e9,\u00fcber\r\n";
+		write(new byte[0], text, TextFile.getDefaultCharset());
+
+		ChannelReader reader = new ChannelReader(path, TextFile.getDefaultCharset());
+		assertEquals(TextFile.getDefaultCharset(), reader.getCharset());
+		assertEquals(0, reader.getBomLength());
+		assertEquals(text, readAll(reader, 100));
+
+		// Files shorter than any byte order mark
+
+		for (String shortText : new String[] { "", "a", "ab" }) {
+			write(new byte[0], shortText, StandardCharsets.US_ASCII);
+			assertEquals(shortText, readAll(new ChannelReader(path, TextFile.getDefaultCharset()), 100));
+		}
+	}
+
+	public void testRange() throws IOException {
+
+		String text = text();
+		write(new byte[0], text, StandardCharsets.UTF_8);
+
+		int start = text.indexOf("line 1000,");
+		int end = text.indexOf("line 20000,");
+		long byteStart = text.substring(0, start).getBytes(StandardCharsets.UTF_8).length;
+		long byteEnd = text.substring(0, end).getBytes(StandardCharsets.UTF_8).length;
+
+		ChannelReader reader = new ChannelReader(path, byteStart, byteEnd, StandardCharsets.UTF_8);
+		assertEquals(text.substring(start, end), readAll(reader, 4096));
+	}
+
+	public void testMalformedInputIsReplaced() throws IOException {
+
+		Files.write(path, new byte[] { 'a', (byte)0xc3, 'b' });
+
+		ChannelReader reader = new ChannelReader(path, 0L, 3L, StandardCharsets.UTF_8);
+		assertEquals("a\ufffdb", readAll(reader, 10));
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.file.flat;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import junit.framework.TestCase;
+
+public class ChannelWriterTest extends TestCase {
+
+	private Path path;
+
+	public ChannelWriterTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		path = Files.createTempFile("ChannelWriterTest", ".txt");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Files.delete(path);
+	}
+
+	/**
+	 * Write text in pieces of varying length and kind so that surrogate pairs are split
+	 * across the end of the character buffer.
+	 */
+	private void write(String text, Charset charset, boolean append) throws IOException {
+
+		ChannelWriter writer = new ChannelWriter(path, charset, append);
+		char[] chars = text.toCharArray();
+		int position = 0;
+		for (int piece = 0; position < chars.length; ++piece) {
+			int length = Math.min(1 + (piece % 13), chars.length - position);
+			switch (piece % 3) {
+			case 0: writer.write(chars, position, length); break;
+			case 1: writer.write(text, position, length); break;
+			case 2: for (int i = 0; i < length; ++i) { writer.write(chars[position + i]); } break;
+			}
+			position += length;
+		}
+		writer.close();
+	}
+
+	public void testCharsets() throws IOException {
+
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; text.length() < ChannelWriter.bufferSize * 3; ++i) {
+			text.append("line ").append(i).append(", caf\u00e9 \ud83d\ude00\n");
+		}
+
+		for (Charset charset : new Charset[] { StandardCharsets.UTF_8, StandardCharsets.UTF_16LE }) {
+			write(text.toString(), charset, false);
+			assertEquals(charset.name(), text.toString(), new String(Files.readAllBytes(path), charset));
+		}
+	}
+
+	public void testAppendAndReplacement() throws IOException {
+
+		write("a,b\n", TextFile.getDefaultCharset(), false);
+		write("c\u00e9\ud83d\ude00\n", TextFile.getDefaultCharset(), true);
+		assertEquals("a,b\nc\u00e9?\n", new String(Files.readAllBytes(path), TextFile.getDefaultCharset()));
+
+		write("x\n", TextFile.getDefaultCharset(), false);
+		assertEquals("x\n", new String(Files.readAllBytes(path), TextFile.getDefaultCharset()));
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.file.flat;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+
+import com.hauldata.util.tokenizer.DsvTokenizer;
+import com.hauldata.util.tokenizer.Quoted;
+import com.hauldata.util.tokenizer.Token;
+
+/**
+ * Benchmark of reading the fields of CSV text with DsvTokenizer versus with DsvScanner.
+ * <p>
+ * Usage: <code>DsvScannerBenchmark [rows [iterations]]</code>
+ * <p>
+ * Rows default to 200,000 and iterations to 5.  Each row has an integer, a long, a decimal,
+ * an unquoted string, a quoted string with an escaped quote and an empty field.  The text is held
+ * in memory so that the time and allocation measured are those of scanning.  The first iteration
+ * is warm-up and is not included in the averages.
+ */
+public class DsvScannerBenchmark {
+
+	private static final int columns = 6;
+
+	public static void main(String[] args) throws Exception {
+
+		int rows = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+		int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < rows; ++i) {
+			text.append(i).append(',').append(i * 1000000000L).append(',').append(i / 8).append('.').append(i % 100).append(',')
+			.append("name").append(i).append(",\"say \"\"").append(i).append("\"\"\",\n");
+		}
+		String csv = text.toString();
+
+		System.out.println("Reading " + String.valueOf(rows) + " rows of " + String.valueOf(columns) + " fields, " + String.valueOf(csv.length()) + " characters");
+
+		long[] tokenized = new long[2];
+		long[] scanned = new long[2];
+		for (int iteration = 0; iteration < iterations; ++iteration) {
+			long[] tokenizedRun = run(csv, false);
+			long[] scannedRun = run(csv, true);
+			if (iteration > 0) {
+				for (int i = 0; i < 2; ++i) {
+					tokenized[i] += tokenizedRun[i];
+					scanned[i] += scannedRun[i];
+				}
+			}
+		}
+
+		int measured = Math.max(iterations - 1, 1);
+		report("DsvTokenizer", tokenized, measured, rows);
+		report("DsvScanner", scanned, measured, rows);
+	}
+
+	/**
+	 * @return elapsed nanoseconds and bytes allocated by this thread
+	 */
+	private static long[] run(String csv, boolean useScanner) throws Exception {
+
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		long startBytes = threads.getThreadAllocatedBytes(threadId);
+		long startNanos = System.nanoTime();
+
+		int fields = 0;
+		if (useScanner) {
+			DsvScanner scanner = new DsvScanner(new StringReader(csv), ',', true);
+			while (scanner.hasNext()) {
+				for (int columnIndex = 1; ; ++columnIndex) {
+					if ((1 < columnIndex) && (scanner.nextOnLine() == -1)) {
+						break;
+					}
+					Object value = (!scanner.hasNextOnLine() || scanner.hasNextSeparator()) ? null : scanner.nextField();
+					fields += (value != null) ? 1 : 0;
+				}
+			}
+		}
+		else {
+			DsvTokenizer tokenizer = new DsvTokenizer(new StringReader(csv), ',', true);
+			while (tokenizer.hasNext()) {
+				for (int columnIndex = 1; ; ++columnIndex) {
+					if ((1 < columnIndex) && (tokenizer.nextTokenOnLine() == null)) {
+						break;
+					}
+					Object value = null;
+					if (tokenizer.hasNextOnLine() && !tokenizer.hasNextDelimiter()) {
+						Token token = tokenizer.nextToken();
+						value = (token instanceof Quoted) ? ((Quoted)token).getBody() : token.getValue();
+					}
+					fields += (value != null) ? 1 : 0;
+				}
+			}
+		}
+
+		long elapsedNanos = System.nanoTime() - startNanos;
+		long allocatedBytes = threads.getThreadAllocatedBytes(threadId) - startBytes;
+
+		if (fields == 0) {
+			throw new RuntimeException("No fields were read");
+		}
+
+		return new long[] { elapsedNanos, allocatedBytes };
+	}
+
+	private static void report(String name, long[] totals, int iterations, int rows) {
+
+		double fields = (double)rows * columns * iterations;
+		System.out.println(String.format("%-20s %8.1f ms per run, %6.2f ns per field, %6.1f bytes allocated per field",
+				name, totals[0] / 1e6 / iterations, totals[0] / fields, totals[1] / fields));
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.file.flat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.hauldata.util.tokenizer.DsvTokenizer;
+import com.hauldata.util.tokenizer.Quoted;
+import com.hauldata.util.tokenizer.Token;
+import com.hauldata.util.tokenizer.Unknown;
+
+import junit.framework.TestCase;
+
+public class DsvScannerTest extends TestCase {
+
+	public DsvScannerTest(String name) {
+		super(name);
+	}
+
+	static final String[] inputs = {
+			"a,b,c\n1,2,3\n",
+			"a,,c\r\n,,\r\n,\r\n\r\nlast",
+			"\"quoted\",\"with \"\"quotes\"\"\",\"comma, inside\",\"\"\n",
+			"\"split\nline\",\"split\r\nagain\",x\n",
+			"\"closed\"trailing,\"unclosed",
+			"\"a\"\"b\"c,next\n",
+			"true,false,TRUE,\"true\",truex\n",
+			"0,007,-0,-5,2147483646,2147483647,-2147483648,9223372036854775806,9223372036854775807,123456789012345678901234567890\n",
+			"1.5,-1.50,-.5,0.0,-0.0,007.25,1.,.,-.,-,--5,1.2.3,1..2\n",
+			"1E3,1.5E3,1.5E-3,-2E2,1E,1e3,1E+3,1E1024,1E1023,-.5E2,1E3x,1.5x\n",
+			" 1,1 , 1 ,-x,x-1,1-2,abc def\n",
+			"12345678901234567890.5,-12345678901234567890E2\n",
+	};
+
+	public void testParity() throws IOException {
+
+		for (String input : inputs) {
+			for (boolean isNumericRecognized : new boolean[] { true, false }) {
+				assertEquals(input, tokenize(input, isNumericRecognized), scan(new StringReader(input), isNumericRecognized));
+				assertEquals(input, tokenize(input, isNumericRecognized), scan(new TrickleReader(input), isNumericRecognized));
+			}
+		}
+	}
+
+	public void testValues() throws IOException {
+
+		List<List<Object>> rows = scan(new StringReader("1,2147483647,1.50,1.5E3,\"x\"\"y\",true,,z\n"), true);
+		assertEquals(Arrays.asList(Arrays.asList(
+				(Object)1, 2147483647L, new BigDecimal("1.50"), new BigDecimal("1500"), "x\"y", true, null, "z")), rows);
+
+		rows = scan(new StringReader("99999999999999999999,-007"), true);
+		assertEquals(Arrays.asList(Arrays.asList((Object)new BigInteger("99999999999999999999"), -7)), rows);
+
+		// The tokenizer fails on a leading decimal point and drops the minus sign of an incomplete exponent.
+
+		rows = scan(new StringReader(".5,.5E2,1E-,1E-x"), true);
+		assertEquals(Arrays.asList(Arrays.asList((Object)new BigDecimal("0.5"), new BigDecimal("50"), "1E-", "1E-x")), rows);
+
+		rows = scan(new StringReader("1,-2.5,true\n"), false);
+		assertEquals(Arrays.asList(Arrays.asList((Object)"1", "-2.5", true)), rows);
+	}
+
+	public void testLongField() throws IOException {
+
+		char[] chars = new char[20000];
+		Arrays.fill(chars, 'x');
+		String longField = new String(chars);
+
+		List<List<Object>> rows = scan(new StringReader(longField + ",\"" + longField + "\"\n" + longField), true);
+		assertEquals(Arrays.asList(Arrays.asList((Object)longField, longField), Arrays.asList((Object)longField)), rows);
+	}
+
+	public void testLineNumber() throws IOException {
+
+		DsvScanner scanner = new DsvScanner(new StringReader("a\n\"b\nc\"\r\nd\re"), ',', true);
+		assertEquals(1, scanner.lineno());
+		scanner.nextField();
+		scanner.nextOnLine();
+		assertEquals(2, scanner.lineno());
+		scanner.nextField();
+		assertEquals(3, scanner.lineno());
+		scanner.nextOnLine();
+		assertEquals(4, scanner.lineno());
+		scanner.nextField();
+		scanner.nextOnLine();
+		assertEquals(5, scanner.lineno());
+		assertEquals("e", scanner.nextField());
+		assertFalse(scanner.hasNext());
+	}
+
+	/**
+	 * Read all rows as CsvFile read them with DsvTokenizer.
+	 */
+	private static List<List<Object>> tokenize(String input, boolean isNumericRecognized) throws IOException {
+
+		DsvTokenizer tokenizer = new DsvTokenizer(new StringReader(input), ',', isNumericRecognized);
+
+		List<List<Object>> rows = new ArrayList<List<Object>>();
+		while (tokenizer.hasNext()) {
+			List<Object> row = new ArrayList<Object>();
+			for (int columnIndex = 1; ; ++columnIndex) {
+				if ((1 < columnIndex) && (tokenizer.nextTokenOnLine() == null)) {
+					break;
+				}
+				if (!tokenizer.hasNextOnLine()) {
+					row.add(null);
+				}
+				else if (tokenizer.hasNextDelimiter()) {
+					row.add(null);
+				}
+				else {
+					Token token = tokenizer.nextToken();
+					if (token instanceof Quoted) {
+						row.add(((Quoted)token).getBody());
+					}
+					else if ((token instanceof Unknown) && (token.toString().equals("true") || token.toString().equals("false"))) {
+						row.add(Boolean.valueOf(token.toString()));
+					}
+					else {
+						row.add(token.getValue());
+					}
+				}
+			}
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	private static List<List<Object>> scan(Reader reader, boolean isNumericRecognized) throws IOException {
+
+		DsvScanner scanner = new DsvScanner(reader, ',', isNumericRecognized);
+
+		List<List<Object>> rows = new ArrayList<List<Object>>();
+		while (scanner.hasNext()) {
+			List<Object> row = new ArrayList<Object>();
+			for (int columnIndex = 1; ; ++columnIndex) {
+				if ((1 < columnIndex) && (scanner.nextOnLine() == -1)) {
+					break;
+				}
+				if (!scanner.hasNextOnLine() || scanner.hasNextSeparator()) {
+					row.add(null);
+				}
+				else {
+					row.add(scanner.nextField());
+				}
+			}
+			rows.add(row);
+		}
+		scanner.close();
+		return rows;
+	}
+
+	/**
+	 * Reader that returns one character at a time so that every field crosses a buffer boundary
+	 */
+	private static class TrickleReader extends StringReader {
+
+		TrickleReader(String input) {
+			super(input);
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			return super.read(cbuf, off, Math.min(len, 1));
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.file.flat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class GzipChannelTest extends TestCase {
+
+	private Path path;
+
+	public GzipChannelTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		path = Files.createTempFile("GzipChannelTest", ".gz");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Files.delete(path);
+	}
+
+	private static String text(int lines) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < lines; ++i) {
+			text.append("line ").append(i).append(", caf\u00e9 \ud83d\ude00\n");
+		}
+		return text.toString();
+	}
+
+	private void write(String text, boolean append) throws IOException {
+		try (ChannelWriter writer = new ChannelWriter(new GzipWriteChannel(path, append), StandardCharsets.UTF_8)) {
+			writer.write(text);
+		}
+	}
+
+	private String read() throws IOException {
+		StringBuilder result = new StringBuilder();
+		try (Reader reader = new ChannelReader(new GzipReadChannel(path), StandardCharsets.UTF_8)) {
+			char[] buffer = new char[1000];
+			for (int count; (count = reader.read(buffer)) != -1; ) {
+				result.append(buffer, 0, count);
+			}
+		}
+		return result.toString();
+	}
+
+	public void testRoundTripAndAppend() throws IOException {
+
+		String text = text(100000);
+		write(text, false);
+		assertEquals(text, read());
+
+		write("appended\n", true);
+		assertEquals(text + "appended\n", read());
+
+		write("", false);
+		assertEquals("", read());
+	}
+
+	public void testCloseBeforeEnd() throws IOException {
+
+		write(text(100000), false);
+
+		Reader reader = new ChannelReader(new GzipReadChannel(path), StandardCharsets.UTF_8);
+		reader.read(new char[10]);
+		reader.close();
+	}
+
+	public void testCorruptFile() throws IOException {
+
+		write(text(1000), false);
+		byte[] bytes = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+
+		try {
+			read();
+			fail("Read of truncated file should have failed");
+		}
+		catch (IOException ex) {
+			// Expected
+		}
+
+		Files.write(path, "not compressed".getBytes(StandardCharsets.US_ASCII));
+
+		try {
+			read();
+			fail("Read of uncompressed file should have failed");
+		}
+		catch (IOException ex) {
+			// Expected
+		}
+	}
+}
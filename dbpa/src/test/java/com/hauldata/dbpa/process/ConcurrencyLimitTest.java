@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class ConcurrencyLimitTest extends TestCase {
+
+	public ConcurrencyLimitTest(String name) {
+		super(name);
+	}
+
+	private static class TestAdmission extends ConcurrencyLimit.Admission {
+
+		private String name;
+		private List<String> started;
+		private long priority;
+
+		public TestAdmission(String name, List<String> started) {
+			this(name, started, 0L);
+		}
+
+		public TestAdmission(String name, List<String> started, long priority) {
+			this.name = name;
+			this.started = started;
+			this.priority = priority;
+		}
+
+		@Override
+		protected void start() {
+			started.add(name);
+		}
+
+		@Override
+		protected long getPriority() {
+			return priority;
+		}
+	}
+
+	public void testFifoAdmission() {
+
+		List<String> started = new ArrayList<String>();
+		ConcurrencyLimit limit = new ConcurrencyLimit(null, 2);
+
+		TestAdmission a = new TestAdmission("a", started);
+		TestAdmission b = new TestAdmission("b", started);
+		TestAdmission c = new TestAdmission("c", started);
+		TestAdmission d = new TestAdmission("d", started);
+
+		limit.admit(a);
+		limit.admit(b);
+		limit.admit(c);
+		limit.admit(d);
+
+		assertEquals("[a, b]", started.toString());
+		assertFalse(a.wasQueued());
+		assertEquals(2, ConcurrencyLimit.getQueuedCount());
+
+		b.release();
+		assertEquals("[a, b, c]", started.toString());
+		assertTrue(c.wasQueued());
+
+		a.release();
+		assertEquals("[a, b, c, d]", started.toString());
+		assertEquals(0, ConcurrencyLimit.getQueuedCount());
+
+		c.release();
+		d.release();
+	}
+
+	public void testHierarchy() {
+
+		List<String> started = new ArrayList<String>();
+		ConcurrencyLimit jvm = new ConcurrencyLimit(null, 2);
+		ConcurrencyLimit process1 = new ConcurrencyLimit(jvm, 1);
+		ConcurrencyLimit process2 = new ConcurrencyLimit(jvm, 0);
+
+		TestAdmission a1 = new TestAdmission("a1", started);
+		TestAdmission b1 = new TestAdmission("b1", started);
+		TestAdmission a2 = new TestAdmission("a2", started);
+		TestAdmission b2 = new TestAdmission("b2", started);
+
+		process1.admit(a1);
+		process1.admit(b1);
+		process2.admit(a2);
+		process2.admit(b2);
+
+		// Process 1 is at its own limit; process 2 fills the JVM limit.
+		assertEquals("[a1, a2]", started.toString());
+
+		// The freed JVM slot goes to the request that has waited there, not the one waiting on its process.
+		a1.release();
+		assertEquals("[a1, a2, b2]", started.toString());
+
+		a2.release();
+		assertEquals("[a1, a2, b2, b1]", started.toString());
+
+		b1.release();
+		b2.release();
+	}
+
+	public void testWithdraw() {
+
+		List<String> started = new ArrayList<String>();
+		ConcurrencyLimit limit = new ConcurrencyLimit(null, 1);
+
+		TestAdmission a = new TestAdmission("a", started);
+		TestAdmission b = new TestAdmission("b", started);
+		TestAdmission c = new TestAdmission("c", started);
+
+		limit.admit(a);
+		limit.admit(b);
+		limit.admit(c);
+
+		assertFalse(a.withdraw());
+		assertTrue(b.withdraw());
+
+		a.release();
+		assertEquals("[a, c]", started.toString());
+
+		limit.setMaxRunning(0);
+		TestAdmission d = new TestAdmission("d", started);
+		limit.admit(d);
+		assertEquals("[a, c, d]", started.toString());
+
+		c.release();
+		d.release();
+	}
+
+	public void testPriorityAdmission() {
+
+		List<String> started = new ArrayList<String>();
+		ConcurrencyLimit limit = new ConcurrencyLimit(null, 1);
+
+		TestAdmission a = new TestAdmission("a", started, 0L);
+		TestAdmission b = new TestAdmission("b", started, 10L);
+		TestAdmission c = new TestAdmission("c", started, 500L);
+		TestAdmission d = new TestAdmission("d", started, 10L);
+
+		limit.admit(a);
+		limit.admit(b);
+		limit.admit(c);
+		limit.admit(d);
+
+		assertEquals("[a]", started.toString());
+
+		// Highest priority first, then in the order requested.
+		a.release();
+		assertEquals("[a, c]", started.toString());
+
+		c.release();
+		assertEquals("[a, c, b]", started.toString());
+
+		b.release();
+		assertEquals("[a, c, b, d]", started.toString());
+
+		d.release();
+	}
+}
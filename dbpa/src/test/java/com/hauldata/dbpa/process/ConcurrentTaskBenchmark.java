@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import com.hauldata.dbpa.task.TestScriptRunner;
+
+/**
+ * Benchmark of many concurrent blocking tasks: WAITFOR tasks that each sleep for one second,
+ * and FLOW tasks that each copy rows within an in-memory H2 database.
+ * <p>
+ * Usage: <code>ConcurrentTaskBenchmark [taskCount [rowsPerFlow]]</code>
+ * <p>
+ * Tasks default to 10,000 and rows to 100.  Run with <code>-Ddbpa.threads=virtual</code> on Java 21
+ * or later to compare virtual threads with platform threads.  If the tasks truly run concurrently,
+ * the WAITFOR tasks finish in a few seconds.
+ */
+public class ConcurrentTaskBenchmark {
+
+	public static void main(String[] args) throws Exception {
+
+		int taskCount = (args.length > 0) ? Integer.parseInt(args[0]) : 10000;
+		int rowsPerFlow = (args.length > 1) ? Integer.parseInt(args[1]) : 100;
+
+		String url = "jdbc:h2:mem:concurrentbenchmark;DB_CLOSE_DELAY=-1";
+		TestScriptRunner runner = new TestScriptRunner(url);
+
+		System.out.println("Running " + String.valueOf(taskCount) + " concurrent tasks on " + (TaskThreads.isVirtual() ? "virtual" : "platform") + " threads");
+
+		run(runner, "WAITFOR", concurrentScript(taskCount, "WAITFOR DELAY '0:0:1'"));
+
+		try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+			stmt.executeUpdate("CREATE TABLE target (id BIGINT)");
+
+			run(runner, "FLOW", concurrentScript(taskCount, flowTask(rowsPerFlow)));
+
+			stmt.executeUpdate("DROP TABLE target");
+		}
+	}
+
+	/**
+	 * @return a script that runs the same task the given number of times concurrently
+	 */
+	static String concurrentScript(int taskCount, String task) {
+
+		StringBuilder script = new StringBuilder();
+		script.append("PROCESS\n");
+		for (int i = 0; i < taskCount; ++i) {
+			script.append("CONCURRENTLY ").append(task).append(";\n");
+		}
+		script.append("END PROCESS\n");
+
+		return script.toString();
+	}
+
+	/**
+	 * @return a FLOW task that inserts the given number of rows into table target
+	 */
+	static String flowTask(int rowCount) {
+		return "FLOW FROM STATEMENT 'SELECT X AS id FROM SYSTEM_RANGE(1, " + String.valueOf(rowCount) + ")' INTO TABLE 'target'";
+	}
+
+	private static void run(TestScriptRunner runner, String caption, String script) throws Exception {
+
+		long startNanos = System.nanoTime();
+		String outcome = "completed";
+		try {
+			runner.run(script);
+		}
+		catch (Throwable ex) {
+			outcome = "failed: " + ex.toString();
+		}
+		long elapsedMillis = (System.nanoTime() - startNanos) / 1000000L;
+
+		System.out.println(caption + ": " + outcome + ", " + String.valueOf(elapsedMillis) + " ms, pool " + TaskThreadPool.getMetrics().toString());
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.process;
+
+import com.hauldata.dbpa.task.TestScriptRunner;
+
+/**
+ * Benchmark of the time the task set takes to schedule each task of a chain of tasks that do nothing,
+ * and of a chain that is broken after its first task so that the rest of the tasks are orphaned.
+ * <p>
+ * Usage: <code>TaskSchedulingBenchmark [taskCount ...]</code>
+ * <p>
+ * Task counts default to 100, 1,000, 10,000 and 50,000.  The time per task should not grow with
+ * the number of tasks.  A run of 1,000 tasks is warm-up and is not reported.
+ */
+public class TaskSchedulingBenchmark {
+
+	public static void main(String[] args) throws Exception {
+
+		int[] taskCounts = { 100, 1000, 10000, 50000 };
+		if (args.length > 0) {
+			taskCounts = new int[args.length];
+			for (int i = 0; i < args.length; ++i) {
+				taskCounts[i] = Integer.parseInt(args[i]);
+			}
+		}
+
+		TestScriptRunner runner = new TestScriptRunner("jdbc:h2:mem:schedulingbenchmark");
+
+		nanosPerTask(runner, 1000, false);
+
+		for (int taskCount : taskCounts) {
+
+			double chainNanos = nanosPerTask(runner, taskCount, false);
+			double orphanNanos = nanosPerTask(runner, taskCount, true);
+
+			System.out.println(String.format("%6d tasks: %8.0f ns/task chained, %8.0f ns/task orphaned", taskCount, chainNanos, orphanNanos));
+		}
+	}
+
+	/**
+	 * @return a script of a chain of tasks in which each task runs after the one before it
+	 * succeeds, except that if orphaned, the second task runs only if the first one fails
+	 */
+	static String chainScript(int taskCount, boolean orphaned) {
+
+		StringBuilder script = new StringBuilder();
+		script.append("PROCESS\n");
+		script.append("Start: GO;\n");
+		if (orphaned) {
+			script.append("AFTER Start FAILS GO;\n");
+		}
+		for (int i = orphaned ? 2 : 1; i < taskCount; ++i) {
+			script.append("GO;\n");
+		}
+		script.append("END PROCESS\n");
+
+		return script.toString();
+	}
+
+	private static double nanosPerTask(TestScriptRunner runner, int taskCount, boolean orphaned) throws Exception {
+
+		String script = chainScript(taskCount, orphaned);
+
+		long startNanos = System.nanoTime();
+
+		runner.run(script);
+
+		long elapsedNanos = System.nanoTime() - startNanos;
+
+		return (double)elapsedNanos / (double)taskCount;
+	}
+}
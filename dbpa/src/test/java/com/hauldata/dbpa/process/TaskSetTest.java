@@ -16,16 +16,26 @@
 
 package com.hauldata.dbpa.process;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 import java.util.regex.Pattern;
 
+import com.hauldata.dbpa.DbProcessTestTables;
 import com.hauldata.dbpa.log.Analyzer;
 import com.hauldata.dbpa.log.Logger.Level;
+import com.hauldata.dbpa.task.GoTask;
 import com.hauldata.dbpa.task.Task;
 import com.hauldata.dbpa.task.TaskTest;
+import com.hauldata.dbpa.variable.Variable;
+import com.hauldata.dbpa.variable.VariableBase;
+import com.hauldata.dbpa.variable.VariableType;
 
 public class TaskSetTest extends TaskTest {
 
@@ -658,4 +668,486 @@ public class TaskSetTest extends TaskTest {
 
 		assertScriptFails(processId, script, "DOLOOP", "Message evaluates to NULL");
 	}
+
+	public void testMaxdop() throws Exception {
+
+		Level logLevel = Level.info;
+		boolean logToConsole = false;
+
+		String processId = "MaxdopTest";
+		String script =
+				"PROCESS\n" +
+				"PARAMETERS limit INT;\n" +
+				"VARIABLES n INT;\n" +
+				"MAXDOP limit - 1;\n" +
+				"One: CONCURRENTLY SET n = 1;\n" +
+				"Two: CONCURRENTLY SET n = 1;\n" +
+				"Three: CONCURRENTLY SET n = 1;\n" +
+				"Nest: CONCURRENTLY DO\n" +
+					"NestOne: CONCURRENTLY SET n = 1;\n" +
+					"NestTwo: CONCURRENTLY SET n = 1;\n" +
+				"END DO\n" +
+				"Four: CONCURRENTLY SET n = 1;\n" +
+				"Five: CONCURRENTLY SET n = 1;\n" +
+				"END PROCESS\n" +
+				"";
+
+		// With a limit of one, no task may start before the previously started task succeeds.
+		// The nested task set only coordinates its own tasks, so it does not count toward the limit.
+
+		Analyzer analyzer = runScript(processId, logLevel, logToConsole, script, new String[] { "2" }, null, null);
+
+		Analyzer.RecordIterator recordIterator = analyzer.recordIterator(processId, Pattern.compile("(NEST\\.)?(ONE|TWO|THREE|FOUR|FIVE|NESTONE|NESTTWO)"));
+
+		String runningTaskId = null;
+		int succeeded = 0;
+		while (recordIterator.hasNext()) {
+			Analyzer.Record record = recordIterator.next();
+
+			if (record.message.equals(Task.startMessage)) {
+				assertNull(runningTaskId);
+				runningTaskId = record.taskId;
+			}
+			else if (record.message.equals(Task.succeedMessage)) {
+				assertEquals(runningTaskId, record.taskId);
+				runningTaskId = null;
+				++succeeded;
+			}
+		}
+		assertEquals(7, succeeded);
+
+		assertBadSyntax("PROCESS MAXDOP 'one'; LOG 'one';", "At line 1: Invalid INTEGER expression term: 'one'");
+	}
+
+	public void testMaxdopNestedQueued() throws Exception {
+
+		String processId = "MaxdopNestedQueuedTest";
+		String script =
+				"PROCESS\n" +
+				"VARIABLES i INT, n INT, m INT;\n" +
+				"MAXDOP 1;\n" +
+				"Loop: FOR i FROM VALUES (1), (2), (3), (4), (5), (6), (7), (8), (9), (10)\n" +
+				"	Busy: CONCURRENTLY UPDATE n FROM SQL SELECT COUNT(*) FROM SYSTEM_RANGE(1, 200000) END SQL;\n" +
+				"	Nest: CONCURRENTLY DO\n" +
+				"		Inner: SET m = i;\n" +
+				"	END DO;\n" +
+				"END FOR;\n" +
+				"END PROCESS\n" +
+				"";
+
+		// The first task of each nested task set is queued behind BUSY, so it is submitted by the thread
+		// that releases the slot while the nested task set waits for it to complete.  The process
+		// must not hang.
+
+		Analyzer[] analyzer = new Analyzer[1];
+		Thread runner = new Thread(() -> {
+			try {
+				analyzer[0] = runScript(processId, Level.info, false, script, null, null, null);
+			}
+			catch (Exception ex) {}
+		});
+		runner.start();
+		runner.join(60000L);
+
+		assertFalse("Process hung", runner.isAlive());
+		assertNotNull(analyzer[0]);
+
+		int succeeded = 0;
+		int queued = 0;
+		Analyzer.RecordIterator recordIterator = analyzer[0].recordIterator(processId, Pattern.compile(".*INNER"));
+		while (recordIterator.hasNext()) {
+			Analyzer.Record record = recordIterator.next();
+			if (record.message.equals(Task.succeedMessage)) {
+				++succeeded;
+			}
+			else if (record.message.startsWith(TaskExecutor.queuedMessageStem)) {
+				++queued;
+			}
+		}
+		assertEquals(10, succeeded);
+		assertTrue(0 < queued);
+	}
+
+	public void testCriticalPath() throws Exception {
+
+		Path historyPath = Files.createTempFile("CriticalPathTest", TaskHistory.fileExtension);
+		try {
+			Files.write(historyPath, "SHORT=10\nLONG=100\nLONGNEXT=100\n".getBytes());
+
+			String processId = "CriticalPathTest";
+			String script =
+					"PROCESS\n" +
+					"VARIABLES n INT;\n" +
+					"Short: CONCURRENTLY SET n = 1;\n" +
+					"Long: CONCURRENTLY SET n = 1;\n" +
+					"LongNext: SET n = 1;\n" +
+					"END PROCESS\n" +
+					"";
+
+			Analyzer analyzer = runScript(processId, Level.info, false, script, null, null,
+					context -> { context.history = TaskHistory.load(historyPath); });
+
+			Analyzer.RecordIterator recordIterator = analyzer.recordIterator(processId, DbProcess.processTaskId);
+			String predicted = null;
+			String actual = null;
+			while (recordIterator.hasNext()) {
+				String message = recordIterator.next().message;
+				if (message.startsWith(DbProcess.predictedPathMessageStem)) {
+					predicted = message;
+				}
+				else if (message.startsWith(DbProcess.actualPathMessageStem)) {
+					actual = message;
+				}
+			}
+
+			assertEquals(DbProcess.predictedPathMessageStem + "200 ms: LONG > LONGNEXT", predicted);
+			assertNotNull(actual);
+
+			// Observed durations are folded into the saved estimates.
+
+			Properties saved = new Properties();
+			try (InputStream in = Files.newInputStream(historyPath)) {
+				saved.load(in);
+			}
+			assertEquals(3, saved.size());
+			assertTrue(Long.parseLong(saved.getProperty("LONG")) <= 100L);
+		}
+		finally {
+			Files.deleteIfExists(historyPath);
+		}
+	}
+
+	public void testHistoryKeptWhenSaveFails() throws Exception {
+
+		Path historyPath = Files.createTempFile("HistorySaveTest", TaskHistory.fileExtension);
+		Path temporary = historyPath.resolveSibling(historyPath.getFileName().toString() + ".tmp");
+		try {
+			String history = "ONE=10\n";
+			Files.write(historyPath, history.getBytes());
+
+			// A directory in the way of the new file makes the save fail.  The earlier estimates remain.
+
+			Files.createDirectory(temporary);
+
+			runScript("HistorySaveTest", Level.info, false, "PROCESS VARIABLES n INT; One: SET n = 1; END PROCESS\n", null, null,
+					context -> { context.history = TaskHistory.load(historyPath); });
+
+			assertEquals(history, new String(Files.readAllBytes(historyPath)));
+		}
+		finally {
+			Files.deleteIfExists(temporary);
+			Files.deleteIfExists(historyPath);
+		}
+	}
+
+	public void testResume() throws Exception {
+
+		Path journalPath = Files.createTempFile("ResumeTest", RunJournal.fileExtension);
+		try {
+			String processId = "ResumeTest";
+			String script =
+					"PROCESS PARAMETERS fail_at INT;\n" +
+					"VARIABLES total INT, i INT;\n" +
+					"Init: SET total = 100;\n" +
+					"Loop: FOR i FROM VALUES (1), (2), (3)\n" +
+					"	Count: SET total = total + i;\n" +
+					"	Check: IF i = fail_at FAIL 'Failed at ' + FORMAT(i, 'd');\n" +
+					"END FOR;\n" +
+					"Report: LOG FORMAT(total, 'd');\n" +
+					"END PROCESS\n" +
+					"";
+
+			// The first run fails in the second iteration of the loop and leaves the journal.
+
+			runScript(processId, Level.info, false, script, new String[] { "2" }, null,
+					context -> { context.journal = openJournal(journalPath, false); }, false);
+
+			assertTrue(Files.exists(journalPath));
+
+			// The resumed run skips the tasks that succeeded, restoring the variable values they produced,
+			// and resumes the loop at the failed iteration.
+
+			Analyzer analyzer = runScript(processId, Level.info, false, script, new String[] { "0" }, null,
+					context -> { context.journal = openJournal(journalPath, true); });
+
+			Map<String, Integer> resumed = new HashMap<String, Integer>();
+			String report = null;
+
+			Analyzer.RecordIterator recordIterator = analyzer.recordIterator(processId, Pattern.compile(".*"));
+			while (recordIterator.hasNext()) {
+				Analyzer.Record record = recordIterator.next();
+				if (record.message.equals(Task.resumeMessage)) {
+					resumed.merge(record.taskId, 1, Integer::sum);
+				}
+				else if (record.taskId.equals("REPORT") && !record.message.equals(Task.startMessage) && !record.message.equals(Task.succeedMessage)) {
+					report = record.message;
+				}
+			}
+
+			assertEquals(3, resumed.size());
+			assertEquals(1, (int)resumed.get("INIT"));
+			assertEquals(2, (int)resumed.get("LOOP.COUNT"));
+			assertEquals(1, (int)resumed.get("LOOP.CHECK"));
+			assertEquals("106", report);
+
+			// The journal is deleted when the process completes.
+
+			assertFalse(Files.exists(journalPath));
+
+			// A BOOLEAN value set by a task is restored when the run resumes past the task.
+			// Scripts cannot declare BOOLEAN variables, so this drives the journal directly.
+
+			Variable<Boolean> flag = new Variable<Boolean>("FLAG", VariableType.BOOLEAN);
+			Map<String, VariableBase> variables = new HashMap<String, VariableBase>();
+			variables.put(flag.getName(), flag);
+
+			Task setter = new GoTask(new Task.Prologue("SETTER", null, new HashMap<Task, Task.Result>(), null, null, null), null);
+
+			RunJournal journal = RunJournal.open(journalPath, false);
+			journal.setVariables(variables);
+			Map<VariableBase, Object> before = journal.snapshot();
+			flag.setValue(true);
+			journal.recordSuccess(setter, before);
+			journal.close(false);
+
+			flag.setValue(null);
+
+			journal = RunJournal.open(journalPath, true);
+			journal.setVariables(variables);
+			assertTrue(journal.resume(setter));
+			assertEquals(Boolean.TRUE, flag.getValue());
+			journal.close(true);
+		}
+		finally {
+			Files.deleteIfExists(journalPath);
+		}
+	}
+
+	public void testResumeConcurrent() throws Exception {
+
+		Path journalPath = Files.createTempFile("ResumeConcurrentTest", RunJournal.fileExtension);
+		try {
+			String processId = "ResumeConcurrentTest";
+			String script =
+					"PROCESS PARAMETERS fail_at INT;\n" +
+					"VARIABLES i INT, doubled INT;\n" +
+					"Init: SET doubled = 0;\n" +
+					"Loop: FOR i FROM VALUES (1), (2), (3) CONCURRENTLY 2 ORDERED\n" +
+					"	Double: SET doubled = i * 2;\n" +
+					"	Check: IF i = fail_at FAIL 'Failed at ' + FORMAT(i, 'd');\n" +
+					"	Report: LOG FORMAT(i, 'd') + ' ' + FORMAT(doubled, 'd');\n" +
+					"END FOR;\n" +
+					"END PROCESS\n" +
+					"";
+
+			// The first run fails in the second iteration after it assigned its copy of the variable.
+
+			runScript(processId, Level.info, false, script, new String[] { "2" }, null,
+					context -> { context.journal = openJournal(journalPath, false); }, false);
+
+			assertTrue(Files.exists(journalPath));
+
+			// The resumed iteration skips the assignment, restoring the value it produced for the task that follows.
+
+			Analyzer analyzer = runScript(processId, Level.info, false, script, new String[] { "0" }, null,
+					context -> { context.journal = openJournal(journalPath, true); });
+
+			int resumedDoubles = 0;
+			Map<String, String> reports = new HashMap<String, String>();
+
+			Analyzer.RecordIterator recordIterator = analyzer.recordIterator(processId, Pattern.compile(".*"));
+			while (recordIterator.hasNext()) {
+				Analyzer.Record record = recordIterator.next();
+				if (record.message.equals(Task.resumeMessage)) {
+					if (record.taskId.equals("LOOP.DOUBLE")) {
+						++resumedDoubles;
+					}
+				}
+				else if (record.taskId.equals("LOOP.REPORT") && !record.message.equals(Task.startMessage) && !record.message.equals(Task.succeedMessage)) {
+					String[] fields = record.message.split(" ");
+					reports.put(fields[0], fields[1]);
+				}
+			}
+
+			assertTrue(resumedDoubles >= 2);
+			assertEquals("4", reports.get("2"));
+			for (Map.Entry<String, String> report : reports.entrySet()) {
+				assertEquals(Integer.parseInt(report.getKey()) * 2, Integer.parseInt(report.getValue()));
+			}
+
+			assertFalse(Files.exists(journalPath));
+		}
+		finally {
+			Files.deleteIfExists(journalPath);
+		}
+	}
+
+	public void testResumeOverlapping() throws Exception {
+
+		Path journalPath = Files.createTempFile("ResumeOverlappingTest", RunJournal.fileExtension);
+		try {
+			String processId = "ResumeOverlappingTest";
+			String script =
+					"PROCESS PARAMETERS divisor INT;\n" +
+					"VARIABLES bumps INT, quotient INT;\n" +
+					"Fast: CONCURRENTLY WAITFOR DELAY '0:0:2';\n" +
+					"Slow: CONCURRENTLY DO\n" +
+					"	WAITFOR DELAY '0:0:1';\n" +
+					"	Bump: SET bumps = ISNULL(bumps, 0) + 1, quotient = 1 / divisor;\n" +
+					"END DO;\n" +
+					"Report: AFTER Fast AND Slow LOG FORMAT(bumps, 'd');\n" +
+					"END PROCESS\n" +
+					"";
+
+			// The first run fails in BUMP after it assigned the first variable,
+			// while FAST is running.
+
+			runScript(processId, Level.info, false, script, new String[] { "0" }, null,
+					context -> { context.journal = openJournal(journalPath, false); }, false);
+
+			// FAST is journaled with the value BUMP assigned before it failed.  This is a documented
+			// limitation: a resumed run restores that value when it skips FAST, and BUMP then
+			// runs again from it.
+
+			String fast = null;
+			for (String line : Files.readAllLines(journalPath)) {
+				if (line.startsWith("FAST")) {
+					fast = line;
+				}
+			}
+
+			assertNotNull(fast);
+			assertTrue(fast, fast.contains(" BUMPS=i1"));
+		}
+		finally {
+			Files.deleteIfExists(journalPath);
+		}
+	}
+
+	public void testTrace() throws Exception {
+
+		Path tracePath = Files.createTempFile("TraceTest", TaskTrace.fileExtension);
+		try {
+			String processId = "TraceTest";
+			String script =
+					"PROCESS\n" +
+					"VARIABLES i INT;\n" +
+					"Loop: FOR i FROM VALUES (1), (2)\n" +
+					"	Echo: LOG 'Iteration ' + FORMAT(i, 'd');\n" +
+					"END FOR;\n" +
+					"END PROCESS\n" +
+					"";
+
+			runScript(processId, Level.error, false, script, null, null,
+					context -> { context.trace = openTrace(tracePath, processId); });
+
+			String trace = new String(Files.readAllBytes(tracePath), "UTF-8");
+
+			assertTrue(trace.startsWith("["));
+			assertTrue(trace.trim().endsWith("]"));
+			assertEquals(1, count(trace, "\"name\":\"LOOP\",\"cat\":\"task\""));
+			assertEquals(2, count(trace, "\"name\":\"LOOP.ECHO\",\"cat\":\"task\""));
+			assertEquals(2, count(trace, "\"name\":\"LOOP tasks\",\"cat\":\"nested\""));
+			assertEquals(1, count(trace, "\"name\":\"TraceTest\",\"cat\":\"process\""));
+			assertTrue(trace.contains("\"ph\":\"M\""));
+			assertTrue(trace.contains("\"queue_us\":"));
+		}
+		finally {
+			Files.deleteIfExists(tracePath);
+		}
+	}
+
+	private static int count(String text, String substring) {
+		int count = 0;
+		for (int i = text.indexOf(substring); i >= 0; i = text.indexOf(substring, i + 1)) {
+			++count;
+		}
+		return count;
+	}
+
+	private static TaskTrace openTrace(Path path, String processId) {
+		try {
+			return TaskTrace.open(path, processId);
+		}
+		catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	private static RunJournal openJournal(Path path, boolean resume) {
+		try {
+			return RunJournal.open(path, resume);
+		}
+		catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	public void testConcurrentWaitfor() throws Exception {
+
+		// See ConcurrentTaskBenchmark for the time these take at full scale.
+
+		final int taskCount = 1000;
+
+		String processId = "ConcurrentWaitforTest";
+		Analyzer analyzer = runScript(processId, Level.info, false, ConcurrentTaskBenchmark.concurrentScript(taskCount, "WAITFOR DELAY '0:0:1'"), null, null, null);
+
+		assertEquals(taskCount, countMessages(analyzer, processId, Task.succeedMessage));
+	}
+
+	public void testConcurrentFlow() throws Exception {
+
+		final int taskCount = 100;
+
+		String processId = "ConcurrentFlowTest";
+
+		runScript(processId, Level.error, false, "PROCESS\nRUN SQL TRUNCATE TABLE test.importtarget END SQL;\nEND PROCESS\n", null, null, DbProcessTestTables.assureExist);
+
+		String flow = "FLOW FROM SQL SELECT data_id, description FROM test.lotsofdata END SQL INTO SQL INSERT INTO test.importtarget (number, word) VALUES (?, ?) END SQL";
+		Analyzer analyzer = runScript(processId, Level.info, false, ConcurrentTaskBenchmark.concurrentScript(taskCount, flow), null, null, null);
+
+		assertEquals(taskCount, countMessages(analyzer, processId, Task.succeedMessage));
+
+		String check =
+				"PROCESS\n" +
+				"DECLARE n INT, distinct_n INT, expected INT;\n" +
+				"UPDATE expected FROM SQL SELECT COUNT(*) FROM test.lotsofdata END SQL;\n" +
+				"UPDATE n, distinct_n FROM SQL SELECT COUNT(*), COUNT(DISTINCT number) FROM test.importtarget END SQL;\n" +
+				"IF n <> " + String.valueOf(taskCount) + " * expected OR distinct_n <> expected FAIL 'Wrong rows: ' + FORMAT(n, 'd');\n" +
+				"END PROCESS\n";
+
+		runScript(processId, Level.error, false, check, null, null, null);
+	}
+
+	public void testLongChains() throws Exception {
+
+		// Each task of a long chain is scheduled once, and when the chain is broken, each task
+		// after the break is orphaned once.  See TaskSchedulingBenchmark for the time per task.
+
+		final int taskCount = 10000;
+
+		String processId = "LongChainTest";
+		Analyzer analyzer = runScript(processId, Level.info, false, TaskSchedulingBenchmark.chainScript(taskCount, false), null, null, null);
+
+		assertEquals(taskCount, countMessages(analyzer, processId, GoTask.continuingMessage));
+		assertEquals(0, countMessages(analyzer, processId, TaskSet.orphanedMessage));
+
+		processId = "LongOrphanTest";
+		analyzer = runScript(processId, Level.info, false, TaskSchedulingBenchmark.chainScript(taskCount, true), null, null, null);
+
+		assertEquals(1, countMessages(analyzer, processId, GoTask.continuingMessage));
+		assertEquals(taskCount - 1, countMessages(analyzer, processId, TaskSet.orphanedMessage));
+	}
+
+	private static int countMessages(Analyzer analyzer, String processId, String message) {
+
+		int count = 0;
+		Analyzer.RecordIterator recordIterator = analyzer.recordIterator(processId, Pattern.compile(".*"));
+		while (recordIterator.hasNext()) {
+			if (recordIterator.next().message.equals(message)) {
+				++count;
+			}
+		}
+		return count;
+	}
 }
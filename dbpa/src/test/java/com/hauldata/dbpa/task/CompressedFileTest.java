@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import com.hauldata.dbpa.file.flat.TextFile;
+
+public class CompressedFileTest extends H2TaskTest {
+
+	private static final String processId = "CompressedFileTest";
+
+	public CompressedFileTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		createTable("source", "id INT PRIMARY KEY, name VARCHAR(50)");
+		createTable("target", "id INT PRIMARY KEY, name VARCHAR(50)");
+		execute("INSERT INTO source SELECT X, CONCAT('name \"', X, '\", here') FROM SYSTEM_RANGE(1, 50000)");
+	}
+
+	private void run(String script) throws Exception {
+		runScript(processId, script);
+	}
+
+	private String decompress(String fileName) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(directory.resolve(fileName)))) {
+			byte[] buffer = new byte[8192];
+			for (int count; (count = in.read(buffer)) != -1; ) {
+				out.write(buffer, 0, count);
+			}
+		}
+		return new String(out.toByteArray(), TextFile.getDefaultCharset());
+	}
+
+	public void testCsv() throws Exception {
+
+		run(
+				"TASK Plain WRITE CSV 'plain.csv' FROM SQL SELECT id, name FROM source ORDER BY id END SQL END TASK\n" +
+				"TASK Compressed WRITE CSV 'compressed.csv.gz' FROM SQL SELECT id, name FROM source ORDER BY id END SQL END TASK\n" +
+				"TASK Option WRITE CSV 'option.csv' COMPRESS FROM SQL SELECT id, name FROM source ORDER BY id END SQL END TASK\n");
+
+		String plain = readFile("plain.csv");
+		assertEquals(plain, decompress("compressed.csv.gz"));
+		assertEquals(plain, decompress("option.csv"));
+		assertTrue(Files.size(directory.resolve("compressed.csv.gz")) < Files.size(directory.resolve("plain.csv")) / 4);
+
+		// APPEND adds a gzip member that reads as a continuation of the file.
+
+		run("TASK AppendRows APPEND CSV 'compressed.csv.gz' FROM SQL SELECT id + 50000, name FROM source WHERE id <= 10 ORDER BY id END SQL END TASK\n");
+		assertTrue(decompress("compressed.csv.gz").startsWith(plain));
+
+		run("TASK ReadRows READ CSV 'compressed.csv.gz' WITH HEADERS 'ID', 'NAME' INTO TABLE 'target' END TASK\n");
+		assertEquals(50010, queryInt("SELECT COUNT(*) FROM target"));
+		assertEquals(50000, queryInt("SELECT COUNT(*) FROM target t JOIN source s ON t.id = s.id AND t.name = s.name"));
+
+		// A compressed file whose name does not say so is read with the COMPRESS option.
+
+		execute("DELETE FROM target");
+		run("TASK ReadOption READ CSV 'option.csv' COMPRESS WITH HEADERS 'ID', 'NAME' INTO TABLE 'target' END TASK\n");
+		assertEquals(50000, queryInt("SELECT COUNT(*) FROM target"));
+
+		// FOR READ and LOAD
+
+		run(
+				"VARIABLES id INTEGER, name VARCHAR, total INTEGER END VARIABLES\n" +
+				"TASK ZeroTotal SET total = 0 END TASK\n" +
+				"TASK ReadLoop AFTER ZeroTotal FOR id, name FROM CSV 'compressed.csv.gz' WITH HEADERS 'ID', 'NAME'\n" +
+				"	TASK AddOne SET total = total + 1 END TASK\n" +
+				"END TASK\n" +
+				"TASK CheckTotal AFTER ReadLoop IF total <> 50010 FAIL 'Loop read ' + FORMAT(total, 'd') + ' rows' END TASK\n");
+
+		execute("DELETE FROM target");
+		run(
+				"VARIABLES compressed VARCHAR END VARIABLES\n" +
+				"TASK NameFile SET compressed = 'compressed.csv.gz' END TASK\n" +
+				"TASK OpenFile AFTER NameFile OPEN CSV compressed WITH 'ID', 'NAME' END TASK\n" +
+				"TASK LoadRows AFTER OpenFile LOAD CSV compressed INTO SQL INSERT INTO target VALUES (?, ?) END SQL END TASK\n");
+		assertEquals(50010, queryInt("SELECT COUNT(*) FROM target"));
+	}
+
+	public void testTxtAndTsv() throws Exception {
+
+		run(
+				"TASK Txt WRITE TXT 'lines.txt.gz' NO HEADERS FROM SQL SELECT name FROM source ORDER BY id END SQL END TASK\n" +
+				"TASK Tsv WRITE TSV 'plain.tsv' FROM SQL SELECT id, name FROM source ORDER BY id END SQL END TASK\n" +
+				"TASK TsvGz WRITE TSV 'compressed.tsv.gz' FROM SQL SELECT id, name FROM source ORDER BY id END SQL END TASK\n");
+
+		assertEquals(readFile("plain.tsv"), decompress("compressed.tsv.gz"));
+
+		createTable("lines", "name VARCHAR(50) PRIMARY KEY");
+
+		run("TASK ReadTxt READ TXT 'lines.txt.gz' NO HEADERS INTO SQL INSERT INTO lines VALUES (?) END SQL END TASK\n");
+		assertEquals(50000, queryInt("SELECT COUNT(*) FROM lines l JOIN source s ON l.name = s.name"));
+	}
+
+	public void testParallelReadFails() throws Exception {
+
+		run("TASK Compressed WRITE CSV 'compressed.csv.gz' FROM SQL SELECT id, name FROM source ORDER BY id END SQL END TASK\n");
+
+		String message = runFailingScript(processId, "TASK Parallel READ CSV 'compressed.csv.gz' WITH HEADERS 'ID', 'NAME' INTO TABLE 'target' PARALLEL 4 END TASK\n");
+		assertTrue(message, message.contains("Cannot read a compressed file in parallel"));
+	}
+}
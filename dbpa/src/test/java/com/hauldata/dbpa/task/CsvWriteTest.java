@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.task;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+public class CsvWriteTest extends H2TaskTest {
+
+	private static final String processId = "CsvWriteTest";
+
+	private static final String select = "SELECT id, big, name, amount, flag, stamp FROM source ORDER BY id";
+
+	public CsvWriteTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		createTable("source", "id INT PRIMARY KEY, big BIGINT, name VARCHAR(50), amount DECIMAL(10,2), flag BOOLEAN, stamp TIMESTAMP");
+		execute("INSERT INTO source VALUES " +
+				"(1, 9223372036854775807, 'plain', 1.50, TRUE, TIMESTAMP '2016-01-02 03:04:05'), " +
+				"(-2147483648, -9223372036854775808, 'with, comma', -0.01, FALSE, NULL), " +
+				"(3, 0, 'say \"hi\"', NULL, NULL, NULL), " +
+				"(4, NULL, '', 0, TRUE, NULL), " +
+				"(5, -7, NULL, 12345678.90, FALSE, NULL), " +
+				"(6, 8, '\"', 1, TRUE, NULL)");
+	}
+
+	/**
+	 * @return the file contents as written before columns were written by type: a String or Character
+	 * is quoted as needed with quotes doubled, and any other value is written with toString()
+	 */
+	private String expected(boolean noQuotes) throws Exception {
+
+		StringBuilder expected = new StringBuilder("\"ID\",\"BIG\",\"NAME\",\"AMOUNT\",\"FLAG\",\"STAMP\"\n");
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(select)) {
+			int columnCount = rs.getMetaData().getColumnCount();
+			while (rs.next()) {
+				for (int column = 1; column <= columnCount; ++column) {
+					if (1 < column) {
+						expected.append(',');
+					}
+					Object object = rs.getObject(column);
+					if (object != null) {
+						String value = object.toString();
+						if ((object instanceof String) && (value.contains("\"") || value.contains(",") || !noQuotes)) {
+							value = "\"" + value.replace("\"", "\"\"") + "\"";
+						}
+						expected.append(value);
+					}
+				}
+				expected.append('\n');
+			}
+		}
+		return expected.toString();
+	}
+
+	public void testWriteMatchesToString() throws Exception {
+
+		runScript(processId, "TASK Quoted WRITE CSV 'quoted.csv' LF FROM SQL " + select + " END SQL END TASK\n");
+		assertEquals(expected(false), readFile("quoted.csv"));
+
+		runScript(processId, "TASK Unquoted WRITE CSV 'unquoted.csv' LF NOQUOTES FROM SQL " + select + " END SQL END TASK\n");
+		assertEquals(expected(true).replace("\"ID\",\"BIG\",\"NAME\",\"AMOUNT\",\"FLAG\",\"STAMP\"", "ID,BIG,NAME,AMOUNT,FLAG,STAMP"), readFile("unquoted.csv"));
+	}
+
+	public void testLargeWrite() throws Exception {
+
+		execute("INSERT INTO source SELECT X + 100, X * 1000000000, CONCAT('name \"', X, '\", here'), X / 100.0, MOD(X, 2) = 0, NULL FROM SYSTEM_RANGE(1, 20000)");
+
+		runScript(processId, "TASK Large WRITE CSV 'large.csv' LF FROM SQL " + select + " END SQL END TASK\n");
+		assertEquals(expected(false), readFile("large.csv"));
+	}
+}
@@ -91,4 +91,195 @@ public class FlowTaskTest extends TaskTest {
 
 		runScript(processId, logLevel, logToConsole, script, null, null, DbProcessTestTables.assureExist);
 	}
+
+	public void testFlowPipelined() throws Exception {
+
+		String processId = "FlowPipelinedTest";
+		String script =
+				"PROCESS\n" +
+				"DECLARE n INT;\n" +
+				"RUN SQL TRUNCATE TABLE test.importtarget END SQL;\n" +
+				"FLOW FROM SQL SELECT size AS number, name AS word FROM test.things END SQL INTO TABLE 'test.importtarget' PIPELINED BUFFER 2;\n" +
+				"UPDATE n FROM SQL SELECT COUNT(*) FROM test.importtarget END SQL;\n" +
+				"DECLARE expected INT;\n" +
+				"UPDATE expected FROM SQL SELECT COUNT(*) FROM test.things END SQL;\n" +
+				"IF n <> expected FAIL;\n" +
+				"END PROCESS\n";
+
+		Level logLevel = Level.info;
+		boolean logToConsole = true;
+
+		runScript(processId, logLevel, logToConsole, script, null, null, DbProcessTestTables.assureExist);
+	}
+
+	public void testPipelinedSyntax() throws Exception {
+
+		assertGoodSyntax(
+				"PROCESS\n" +
+				"FLOW FROM VALUES (1, 'one') INTO SQL INSERT INTO t VALUES (?,?) END SQL PIPELINED;\n" +
+				"FLOW FROM TABLE 'source' INTO TABLE 'target' PIPELINED BUFFER 8;\n" +
+				"END PROCESS\n");
+	}
+
+	public void testFlowPartitioned() throws Exception {
+
+		String processId = "FlowPartitionedTest";
+		String script =
+				"PROCESS\n" +
+				"DECLARE n INT, expected INT;\n" +
+				"UPDATE expected FROM SQL SELECT COUNT(*) FROM test.things END SQL;\n" +
+				"RUN SQL TRUNCATE TABLE test.importtarget END SQL;\n" +
+				"FLOW FROM SQL SELECT size AS number, name AS word FROM test.things END SQL INTO TABLE 'test.importtarget' PARTITION BY MODULO 'number' INTO 3;\n" +
+				"UPDATE n FROM SQL SELECT COUNT(*) FROM test.importtarget END SQL;\n" +
+				"IF n <> expected FAIL;\n" +
+				"RUN SQL TRUNCATE TABLE test.importtarget END SQL;\n" +
+				"FLOW FROM STATEMENT 'SELECT size, name FROM test.things' INTO SQL INSERT INTO test.importtarget (number, word) VALUES (?, ?) END SQL PARTITION BY RANGE 'size' FROM 0 TO 100 INTO 4;\n" +
+				"UPDATE n FROM SQL SELECT COUNT(*) FROM test.importtarget END SQL;\n" +
+				"IF n <> expected FAIL;\n" +
+				"RUN SQL TRUNCATE TABLE test.importtarget END SQL;\n" +
+				"FLOW FROM SQL SELECT size AS number, name AS word FROM test.things END SQL INTO TABLE 'test.importtarget' PIPELINED PARTITION BY 'number < 10', 'number >= 10 OR number IS NULL';\n" +
+				"UPDATE n FROM SQL SELECT COUNT(*) FROM test.importtarget END SQL;\n" +
+				"IF n <> expected FAIL;\n" +
+				"END PROCESS\n";
+
+		Level logLevel = Level.info;
+		boolean logToConsole = true;
+
+		runScript(processId, logLevel, logToConsole, script, null, null, DbProcessTestTables.assureExist);
+	}
+
+	public void testFlowPartitionedMaxdop() throws Exception {
+
+		// With a limit of one, the partitions can only run on the slot held by the FLOW task,
+		// and the pipelined source is read on the task thread.
+
+		String processId = "FlowPartitionedMaxdopTest";
+		String script =
+				"PROCESS\n" +
+				"VARIABLES n INT, expected INT;\n" +
+				"MAXDOP 1;\n" +
+				"UPDATE expected FROM SQL SELECT COUNT(*) FROM test.things END SQL;\n" +
+				"RUN SQL TRUNCATE TABLE test.importtarget END SQL;\n" +
+				"FLOW FROM SQL SELECT size AS number, name AS word FROM test.things END SQL INTO TABLE 'test.importtarget' PARTITION BY MODULO 'number' INTO 3;\n" +
+				"UPDATE n FROM SQL SELECT COUNT(*) FROM test.importtarget END SQL;\n" +
+				"IF n <> expected FAIL;\n" +
+				"RUN SQL TRUNCATE TABLE test.importtarget END SQL;\n" +
+				"FLOW FROM SQL SELECT size AS number, name AS word FROM test.things END SQL INTO TABLE 'test.importtarget' PIPELINED;\n" +
+				"UPDATE n FROM SQL SELECT COUNT(*) FROM test.importtarget END SQL;\n" +
+				"IF n <> expected FAIL;\n" +
+				"END PROCESS\n";
+
+		Level logLevel = Level.info;
+		boolean logToConsole = true;
+
+		runScript(processId, logLevel, logToConsole, script, null, null, DbProcessTestTables.assureExist);
+	}
+
+	public void testPartitionedSyntax() throws Exception {
+
+		assertGoodSyntax(
+				"PROCESS\n" +
+				"FLOW FROM TABLE 'source' INTO TABLE 'target' PARTITION BY MODULO 'id' INTO 8;\n" +
+				"FLOW FROM SQL SELECT * FROM source END SQL INTO TABLE 'target' PIPELINED BUFFER 2 PARTITION BY RANGE 'id' FROM 1 TO 1000000 INTO 4;\n" +
+				"FLOW FROM STATEMENT 'SELECT * FROM source' INTO TABLE 'target' PARTITION BY 'region = ''east''', 'region <> ''east'' OR region IS NULL';\n" +
+				"END PROCESS\n");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"FLOW FROM VALUES (1, 'one') INTO TABLE 'target' PARTITION BY MODULO 'id' INTO 2;\n" +
+				"END PROCESS\n",
+				"At line 2: PARTITION BY requires a database SQL, STATEMENT or TABLE source");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"FLOW FROM TABLE 'source' INTO TABLE 'target' PARTITION BY RANGE 'id' INTO 2;\n" +
+				"END PROCESS\n",
+				"At line 2: Expecting FROM after RANGE column");
+	}
+
+	public void testBulkSyntax() throws Exception {
+
+		assertGoodSyntax(
+				"PROCESS\n" +
+				"FLOW FROM TABLE 'source' INTO TABLE 'target' BULK;\n" +
+				"FLOW FROM TABLE 'source' INTO BATCH SIZE 100000 TABLE 'target' DELIMITER '\"' BULK PIPELINED PARTITION BY MODULO 'id' INTO 2;\n" +
+				"READ CSV 'file.csv' INTO TABLE 'target' BULK;\n" +
+				"END PROCESS\n");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"FLOW FROM TABLE 'source' INTO TABLE 'target' PREFIX 'SET IDENTITY_INSERT target ON;' BULK;\n" +
+				"END PROCESS\n",
+				"At line 2: Cannot use PREFIX with BULK TABLE data target");
+	}
+
+	public void testMultiRowSyntax() throws Exception {
+
+		assertGoodSyntax(
+				"PROCESS\n" +
+				"FLOW FROM TABLE 'source' INTO TABLE 'target' MULTIROW 100;\n" +
+				"FLOW FROM TABLE 'source' INTO BATCH SIZE 5000 TABLE 'target' PREFIX 'SET NOCOUNT ON;' MULTIROW 10 * 10 PIPELINED;\n" +
+				"READ CSV 'file.csv' INTO TABLE 'target' MULTIROW 50;\n" +
+				"END PROCESS\n");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"FLOW FROM TABLE 'source' INTO TABLE 'target' MULTIROW 100 BULK;\n" +
+				"END PROCESS\n",
+				"At line 2: Cannot use MULTIROW with BULK TABLE data target");
+	}
+
+	public void testAutoBatchSizeSyntax() throws Exception {
+
+		assertGoodSyntax(
+				"PROCESS\n" +
+				"FLOW FROM TABLE 'source' INTO BATCH SIZE AUTO TABLE 'target';\n" +
+				"FLOW FROM TABLE 'source' INTO BATCH SIZE AUTO LATENCY 250 TABLE 'target' MULTIROW 100 PIPELINED;\n" +
+				"READ CSV 'file.csv' INTO BATCH SIZE AUTO LATENCY 1000 STATEMENT 'INSERT INTO target VALUES (?, ?)';\n" +
+				"END PROCESS\n");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"FLOW FROM TABLE 'source' INTO BATCH AUTO TABLE 'target';\n" +
+				"END PROCESS\n",
+				"At line 2: Expecting BATCH to be followed by SIZE");
+	}
+
+	public void testMergeSyntax() throws Exception {
+
+		assertGoodSyntax(
+				"PROCESS\n" +
+				"FLOW FROM TABLE 'source' INTO MERGE 'target' ON 'id';\n" +
+				"FLOW FROM TABLE 'source' INTO BATCH SIZE 50000 COMMIT EVERY 100000 MERGE 'target' ON 'region', 'id' DELIMITER '\"' PIPELINED;\n" +
+				"READ CSV 'file.csv' INTO MERGE 'target' ON 'id';\n" +
+				"END PROCESS\n");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"FLOW FROM TABLE 'source' INTO MERGE 'target' 'id';\n" +
+				"END PROCESS\n",
+				"At line 2: Expecting ON and key columns after MERGE table name");
+	}
+
+	public void testIncrementalSyntax() throws Exception {
+
+		assertGoodSyntax(
+				"PROCESS\n" +
+				"FLOW FROM TABLE 'source' INCREMENTAL ON 'id' INTO TABLE 'target';\n" +
+				"FLOW FROM SQL SELECT * FROM source END SQL INCREMENTAL ON 'updated' INTO TABLE 'target' PARTITION BY MODULO 'id' INTO 4;\n" +
+				"WRITE CSV 'file.csv' FROM FETCH SIZE 1000 STATEMENT 'SELECT * FROM source' INCREMENTAL ON 'updated';\n" +
+				"END PROCESS\n");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"FLOW FROM TABLE 'source' INCREMENTAL 'id' INTO TABLE 'target';\n" +
+				"END PROCESS\n",
+				"At line 2: Expecting INCREMENTAL to be followed by ON");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"WRITE CSV 'file.csv' FROM PROCEDURE 'proc' 'arg' INCREMENTAL ON 'id';\n" +
+				"END PROCESS\n",
+				"At line 2: INCREMENTAL requires a database SQL, STATEMENT or TABLE source");
+	}
 }
@@ -16,6 +16,11 @@
 
 package com.hauldata.dbpa.task;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.hauldata.dbpa.DbProcessTestTables;
 import com.hauldata.dbpa.log.Analyzer;
 import com.hauldata.dbpa.log.Logger.Level;
 
@@ -52,6 +57,131 @@ public class ForValuesTaskTest extends TaskTest {
 		assertFalse(recordIterator.hasNext());
 	}
 
+	public void testForValuesConcurrently() throws Exception {
+
+		String processId = "ForValuesConcurrentlyTest";
+		String script =
+				"PROCESS VARIABLES i INT, total INT;\n" +
+				"SET i = 0, total = 0;\n" +
+				"Loop: FOR i FROM VALUES (1), (2), (3), (4), (5), (6) CONCURRENTLY 3\n" +
+				"	Echo: LOG FORMAT(i, 'd');\n" +
+				"	SET total = total + i;\n" +
+				"	WAITFOR DELAY '0:0:1';\n" +
+				"END FOR;\n" +
+				"IF i <> 0 OR total <> 0 FAIL 'Iteration variables escaped the loop';\n" +
+				"END PROCESS\n" +
+				"";
+
+		Level logLevel = Level.info;
+		boolean logToConsole = true;
+
+		Analyzer analyzer = runScript(processId, logLevel, logToConsole, script, null, null, null);
+
+		Analyzer.RecordIterator recordIterator = analyzer.recordIterator(processId, "LOOP.ECHO");
+		TreeSet<String> messages = new TreeSet<String>();
+		while (recordIterator.hasNext()) {
+			messages.add(recordIterator.next().message);
+		}
+
+		assertEquals("[1, 2, 3, 4, 5, 6]", messages.toString());
+	}
+
+	public void testForValuesConcurrentlyMaxdop() throws Exception {
+
+		String load = "FLOW FROM SQL SELECT data_id AS number, description AS word FROM test.lotsofdata END SQL INTO TABLE 'test.importtarget' PARTITION BY MODULO 'number' INTO 3";
+
+		String processId = "ForValuesConcurrentlyMaxdopTest";
+		String script =
+				"PROCESS VARIABLES i INT, n INT, expected INT;\n" +
+				"MAXDOP 1;\n" +
+				"UPDATE expected FROM SQL SELECT 6 * COUNT(*) FROM test.lotsofdata END SQL;\n" +
+				"RUN SQL TRUNCATE TABLE test.importtarget END SQL;\n" +
+				"Loop: FOR i FROM VALUES (1), (2), (3) CONCURRENTLY 3\n" +
+				"	Transfer: " + load + ";\n" +
+				"	Child: RUN PROCESS 'child';\n" +
+				"END FOR;\n" +
+				"UPDATE n FROM SQL SELECT COUNT(*) FROM test.importtarget END SQL;\n" +
+				"IF n <> expected FAIL;\n" +
+				"END PROCESS\n" +
+				"";
+
+		Map<String, String> nestedScripts = new HashMap<String, String>();
+		nestedScripts.put("child", "PROCESS\nTransfer: " + load + ";\nEND PROCESS\n");
+
+		Analyzer analyzer = runScript(processId, Level.info, false, script, null, nestedScripts, DbProcessTestTables.assureExist);
+
+		// With a limit of one, the partitioned transfers of the iterations and of the processes
+		// they run each finish before the next one starts.
+
+		int running = 0;
+		int succeeded = 0;
+		Analyzer.RecordIterator recordIterator = analyzer.recordIterator();
+		while (recordIterator.hasNext()) {
+			Analyzer.Record record = recordIterator.next();
+			if (record.taskId.endsWith("TRANSFER")) {
+				if (record.message.equals(Task.startMessage)) {
+					assertEquals(0, running++);
+				}
+				else if (record.message.equals(Task.succeedMessage)) {
+					--running;
+					++succeeded;
+				}
+			}
+		}
+		assertEquals(6, succeeded);
+	}
+
+	public void testForValuesConcurrentlyOrdered() throws Exception {
+
+		String processId = "ForValuesConcurrentlyOrderedTest";
+		String script =
+				"PROCESS VARIABLES i INT, last INT;\n" +
+				"FOR i FROM VALUES (1), (2), (3), (4), (5), (6) CONCURRENTLY 2 ORDERED\n" +
+				"	WAITFOR DELAY IIF(i % 2 = 1, '0:0:1', '0:0:0');\n" +
+				"	SET last = i;\n" +
+				"END FOR;\n" +
+				"IF i <> 6 OR last <> 6 FAIL 'Ordered iterations did not complete in order';\n" +
+				"END PROCESS\n" +
+				"";
+
+		Level logLevel = Level.info;
+		boolean logToConsole = true;
+
+		runScript(processId, logLevel, logToConsole, script, null, null, null);
+	}
+
+	public void testForValuesConcurrentlyBreak() throws Exception {
+
+		String processId = "ForValuesConcurrentlyBreakTest";
+		String script =
+				"PROCESS VARIABLES i INT;\n" +
+				"FOR i FROM VALUES (1), (2), (3), (4), (5), (6) CONCURRENTLY 2 ORDERED\n" +
+				"	IF i = 3 BREAK;\n" +
+				"END FOR;\n" +
+				"IF i <> 3 FAIL 'Did not break at the right iteration';\n" +
+				"END PROCESS\n" +
+				"";
+
+		Level logLevel = Level.info;
+		boolean logToConsole = true;
+
+		runScript(processId, logLevel, logToConsole, script, null, null, null);
+	}
+
+	public void testForValuesConcurrentlyFails() throws Exception {
+
+		String processId = "ForValuesConcurrentlyFailsTest";
+		String script =
+				"PROCESS VARIABLES i INT;\n" +
+				"Loop: FOR i FROM VALUES (1), (2), (3), (4), (5), (6) CONCURRENTLY 2\n" +
+				"	IF i = 2 FAIL 'Failed at ' + FORMAT(i, 'd');\n" +
+				"END FOR;\n" +
+				"END PROCESS\n" +
+				"";
+
+		assertScriptFails(processId, script, "LOOP", "Failed at 2");
+	}
+
 	public void testOfNewSyntax() {
 
 		String script =
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.task;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import com.hauldata.dbpa.file.flat.TextFile;
+import com.hauldata.dbpa.loader.TestLoader;
+import com.hauldata.dbpa.log.Analyzer;
+import com.hauldata.dbpa.log.Logger.Level;
+import com.hauldata.dbpa.process.Context;
+
+/**
+ * Base for task tests that need SQL particular to H2 or tables of their own rather than
+ * the tables of DbProcessTestTables.  Each test class has its own in-memory H2 database,
+ * in which runScript() runs scripts, and a temporary directory from which they read and
+ * to which they write files.  Tables created with createTable() are dropped and the
+ * directory is deleted after each test.
+ */
+public abstract class H2TaskTest extends TaskTest {
+
+	protected Connection conn;
+	protected Path directory;
+
+	private String url;
+	private List<String> tables;
+
+	protected H2TaskTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+
+		String name = getClass().getSimpleName();
+
+		url = "jdbc:h2:mem:" + name.toLowerCase() + ";DB_CLOSE_DELAY=-1";
+		conn = DriverManager.getConnection(url);
+		tables = new ArrayList<String>();
+
+		directory = Files.createTempDirectory(name);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+
+		try (Statement stmt = conn.createStatement()) {
+			for (int i = tables.size() - 1; 0 <= i; --i) {
+				stmt.executeUpdate("DROP TABLE IF EXISTS " + tables.get(i));
+			}
+		}
+		conn.close();
+
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : (Iterable<Path>)paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	@Override
+	protected Context newContext(Map<String, String> nestedScripts) {
+
+		Properties connProps = new Properties();
+		connProps.put("driver", "org.h2.Driver");
+		connProps.put("url", url);
+
+		Properties pathProps = new Properties();
+		pathProps.put("read", directory.toString());
+		pathProps.put("write", directory.toString());
+
+		return new Context(connProps, new Properties(), new Properties(), pathProps, new TestLoader(nestedScripts));
+	}
+
+	/**
+	 * Run a script that is expected to succeed
+	 */
+	protected Analyzer runScript(String processId, String script) throws Exception {
+		return runScript(processId, Level.info, false, script, null, null, null);
+	}
+
+	/**
+	 * Run a script that is expected to succeed after setting up its context
+	 */
+	protected Analyzer runScript(String processId, String script, ContextAction setup) throws Exception {
+		return runScript(processId, Level.info, false, script, null, null, setup);
+	}
+
+	/**
+	 * Run a script that is expected to fail
+	 *
+	 * @return the message of the exception the script failed with
+	 */
+	protected String runFailingScript(String processId, String script, ContextAction setup) throws Exception {
+
+		String message = null;
+		try {
+			runScript(processId, Level.info, false, script, null, null, setup);
+		}
+		catch (Exception ex) {
+			message = ex.getMessage();
+		}
+		assertNotNull("Script should have failed", message);
+		return message;
+	}
+
+	protected String runFailingScript(String processId, String script) throws Exception {
+		return runFailingScript(processId, script, null);
+	}
+
+	/**
+	 * Create a table that is dropped after the test
+	 */
+	protected void createTable(String table, String columns) throws SQLException {
+		execute("CREATE TABLE " + table + " (" + columns + ")");
+		tables.add(table);
+	}
+
+	protected void execute(String... statements) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			for (String sql : statements) {
+				stmt.executeUpdate(sql);
+			}
+		}
+	}
+
+	/**
+	 * @return the integer in the first column of the first row of a query
+	 */
+	protected int queryInt(String sql) throws SQLException {
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+
+	protected void writeFile(String fileName, String contents) throws Exception {
+		Files.write(directory.resolve(fileName), contents.getBytes(StandardCharsets.UTF_8));
+	}
+
+	protected String readFile(String fileName) throws Exception {
+		return new String(Files.readAllBytes(directory.resolve(fileName)), TextFile.getDefaultCharset());
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.task;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import com.hauldata.dbpa.log.Analyzer;
+import com.hauldata.dbpa.log.Logger.Level;
+
+public class ParallelReadTest extends H2TaskTest {
+
+	private static final String processId = "ParallelReadTest";
+
+	public ParallelReadTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		createTable("target", "id INT PRIMARY KEY, name VARCHAR(50)");
+	}
+
+	private void write(String fileName, String contents) throws Exception {
+		writeFile(fileName, contents);
+	}
+
+	private void run(String script) throws Exception {
+		runScript(processId, script);
+	}
+
+	private String contents() throws Exception {
+		StringBuilder contents = new StringBuilder();
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT id, name FROM target ORDER BY id")) {
+			while (rs.next()) {
+				contents.append(rs.getInt(1)).append(',').append(rs.getString(2)).append('\n');
+			}
+		}
+		return contents.toString();
+	}
+
+	private void truncate() throws Exception {
+		execute("DELETE FROM target");
+	}
+
+	/**
+	 * @return CSV text whose quoted fields contain separators, quotes and line breaks
+	 */
+	private static String csv(int rowCount, String endOfLine) {
+		StringBuilder csv = new StringBuilder("id,name").append(endOfLine);
+		for (int id = 1; id <= rowCount; ++id) {
+			csv.append(id).append(',');
+			switch (id % 4) {
+			case 0: csv.append("plain").append(id); break;
+			case 1: csv.append("\"with, comma ").append(id).append('"'); break;
+			case 2: csv.append("\"with \"\"quote\"\"").append(endOfLine).append("and line ").append(id).append('"'); break;
+			case 3: csv.append(""); break;
+			}
+			csv.append(endOfLine);
+		}
+		return csv.toString();
+	}
+
+	public void testCsvMatchesSerialRead() throws Exception {
+
+		for (String endOfLine : new String[] { "\n", "\r\n" }) {
+			write("in.csv", csv(1000, endOfLine));
+
+			run("TASK Serial READ CSV 'in.csv' WITH HEADERS 'id', 'name' INTO TABLE 'target' END TASK\n");
+			String serial = contents();
+			truncate();
+
+			run("TASK Parallel READ CSV 'in.csv' WITH HEADERS 'id', 'name' INTO TABLE 'target' PARALLEL 4 END TASK\n");
+			assertEquals(serial, contents());
+			truncate();
+
+			// More chunks than rows and a file without headers.
+
+			write("small.csv", "1,a\n2,\"b\nc\"\n3,d");
+			run("TASK Small READ CSV 'small.csv' WITH NO HEADERS INTO SQL INSERT INTO target VALUES (?, ?) END SQL PARALLEL 8 END TASK\n");
+			assertEquals("1,a\n2,b\nc\n3,d\n", contents());
+			truncate();
+		}
+	}
+
+	public void testMaxdop() throws Exception {
+
+		// With a limit of one, the chunks can only run on the slot held by the READ task.
+
+		write("in.csv", csv(1000, "\n"));
+
+		run("TASK Serial READ CSV 'in.csv' WITH HEADERS 'id', 'name' INTO TABLE 'target' END TASK\n");
+		String serial = contents();
+		truncate();
+
+		run("PROCESS MAXDOP 1;\nParallel: READ CSV 'in.csv' WITH HEADERS 'id', 'name' INTO TABLE 'target' PARALLEL 4;\nEND PROCESS\n");
+		assertEquals(serial, contents());
+	}
+
+	public void testTxt() throws Exception {
+
+		StringBuilder txt = new StringBuilder("name\n");
+		for (int i = 1; i <= 500; ++i) {
+			txt.append("line ").append(i).append('\n');
+		}
+		write("in.txt", txt.toString());
+
+		createTable("lines", "name VARCHAR(50) PRIMARY KEY");
+
+		run("TASK Lines READ TXT 'in.txt' WITH HEADERS 'name' INTO TABLE 'lines' PARALLEL 3 END TASK\n");
+
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*), COUNT(DISTINCT name) FROM lines")) {
+			rs.next();
+			assertEquals(500, rs.getInt(1));
+			assertEquals(500, rs.getInt(2));
+		}
+	}
+
+	public void testErrorReportsFileLine() throws Exception {
+
+		StringBuilder csv = new StringBuilder(csv(400, "\n"));
+		int badLine = csv.toString().split("\n", -1).length;
+		csv.append("401,bad,extra\n");
+		for (int id = 402; id <= 500; ++id) {
+			csv.append(id).append(",plain\n");
+		}
+		write("bad.csv", csv.toString());
+
+		Analyzer analyzer = runScript(processId, Level.info, false,
+				"TASK Bad READ CSV 'bad.csv' WITH HEADERS 'id', 'name' INTO TABLE 'target' PARALLEL 4 END TASK\n", null, null, null, false);
+
+		String expected = "At line " + String.valueOf(badLine) + ": Too many columns on line";
+		int failedCount = 0;
+		int succeededCount = 0;
+		String failure = null;
+		Analyzer.RecordIterator records = analyzer.recordIterator(processId, "BAD");
+		while (records.hasNext()) {
+			Analyzer.Record record = records.next();
+			if (record.message.contains("chunks failed")) {
+				failure = record.message;
+			}
+			else if (record.message.startsWith(FileTask.chunkFailedMessage)) {
+				++failedCount;
+				assertTrue(record.message, record.message.contains(expected));
+			}
+			else if (record.message.startsWith(FileTask.chunkSucceededMessage)) {
+				++succeededCount;
+			}
+		}
+		assertEquals(1, failedCount);
+		assertEquals(3, succeededCount);
+		assertNotNull(failure);
+		assertTrue(failure, failure.contains("1 of 4 chunks failed"));
+
+		// The serial read reports the same line.
+
+		truncate();
+		String message = runFailingScript(processId, "TASK BadSerial READ CSV 'bad.csv' WITH HEADERS 'id', 'name' INTO TABLE 'target' END TASK\n");
+		assertTrue(message, message.contains(expected));
+	}
+}
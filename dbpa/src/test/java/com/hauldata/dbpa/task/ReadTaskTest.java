@@ -443,4 +443,43 @@ public class ReadTaskTest extends TaskTest {
 
 		assertScriptFails("ReadFixedNullColums", script, "1@7", "Start and/or end column in COLUMNS clause evaluates to NULL");
 	}
+
+	public void testCommitEverySyntax() throws Exception {
+
+		assertGoodSyntax(
+				"PROCESS\n" +
+				"READ CSV 'file.csv' INTO COMMIT EVERY 10000 TABLE 'target';\n" +
+				"READ CSV 'file.csv' INTO BATCH SIZE 500 COMMIT EVERY 5000 STATEMENT 'INSERT INTO target VALUES (?, ?)';\n" +
+				"READ FIXED 'fixed.txt' DATA COLUMNS 1 10 KEEP INTO COMMIT EVERY 1000 SQL INSERT INTO target VALUES (?) END SQL;\n" +
+				"FLOW FROM TABLE 'source' INTO BATCH SIZE AUTO COMMIT EVERY 50000 TABLE 'target' MULTIROW 100;\n" +
+				"END PROCESS\n");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"READ CSV 'file.csv' INTO COMMIT 10000 TABLE 'target';\n" +
+				"END PROCESS\n",
+				"At line 2: Expecting COMMIT to be followed by EVERY");
+	}
+
+	public void testParallelSyntax() throws Exception {
+
+		assertGoodSyntax(
+				"PROCESS\n" +
+				"READ CSV 'file.csv' WITH HEADERS 'id', 'name' INTO TABLE 'target' PARALLEL 4;\n" +
+				"READ TXT 'file.txt' INTO STATEMENT 'INSERT INTO target VALUES (?)' PARALLEL 2 + 2;\n" +
+				"READ CSV 'file.csv' INTO SQL INSERT INTO target VALUES (?, ?) END SQL PARALLEL 8;\n" +
+				"END PROCESS\n");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"READ CSV 'file.csv' INTO TABLE 'target' PARALLEL 'four';\n" +
+				"END PROCESS\n",
+				"At line 2: Invalid INTEGER expression term: 'four'");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"READ TXT 'file.txt' INTO COMMIT EVERY 10000 STATEMENT 'INSERT INTO target VALUES (?)' PARALLEL 4;\n" +
+				"END PROCESS\n",
+				"At line 2: PARALLEL is not allowed with COMMIT EVERY");
+	}
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.task;
+
+public class SyncTaskTest extends TaskTest {
+
+	public SyncTaskTest(String name) {
+		super(name);
+	}
+
+	public void testSyncSyntax() throws Exception {
+
+		assertGoodSyntax(
+				"PROCESS\n" +
+				"SYNC TABLE 'source' INTO TABLE 'target' ON 'id';\n" +
+				"SYNC FROM TABLE 'source' INTO TABLE 'target' ON 'id' CHUNK 50000 DRY RUN;\n" +
+				"END PROCESS\n");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"SYNC TABLE 'source' INTO 'target' ON 'id';\n" +
+				"END PROCESS\n",
+				"At line 2: Expecting TABLE target in SYNC TASK");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"SYNC TABLE 'source' INTO TABLE 'target' 'id';\n" +
+				"END PROCESS\n",
+				"At line 2: Expecting ON and key column after SYNC target table name");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"SYNC TABLE 'source' INTO TABLE 'target' ON 'id' DRY CHUNK 10;\n" +
+				"END PROCESS\n",
+				"At line 2: Expecting DRY to be followed by RUN");
+	}
+}
@@ -51,24 +51,7 @@ public abstract class TaskTest extends TestCase {
 			ContextAction setup,
 			boolean exceptionOnTaskFailed) throws Exception {
 
-		final String testPropsClass = "com.hauldata.dbpa.DbProcessTestProperties";
-		DbProcessTestPropertiesBase testProps = null;
-		try {
-			testProps = (DbProcessTestPropertiesBase) Class.forName(testPropsClass).newInstance();
-		}
-		catch (Exception ex) {
-			System.err.println("Error attempting to load class " + testPropsClass);
-			System.err.println(ex.getLocalizedMessage());
-			System.err.println("You must provide an implementation of this class in order to run task tests");
-			throw ex;
-		}
-
-		Context context = new Context(
-				testProps.getConnectionProperties(),
-				testProps.getMailProperties(),
-				testProps.getFtpProperties(),
-				testProps.getPathProperties(),
-				new TestLoader(nestedScripts));
+		Context context = newContext(nestedScripts);
 
 		RootLogger logger = new RootLogger(processId);
 		Analyzer analyzer = new Analyzer(logLevel);
@@ -117,6 +100,31 @@ public abstract class TaskTest extends TestCase {
 		return runScript(processId, logLevel, logToConsole, script, args, nestedScripts, setup, true);
 	}
 
+	/**
+	 * Construct the context in which runScript() runs a script
+	 */
+	protected Context newContext(Map<String, String> nestedScripts) throws Exception {
+
+		final String testPropsClass = "com.hauldata.dbpa.DbProcessTestProperties";
+		DbProcessTestPropertiesBase testProps = null;
+		try {
+			testProps = (DbProcessTestPropertiesBase) Class.forName(testPropsClass).newInstance();
+		}
+		catch (Exception ex) {
+			System.err.println("Error attempting to load class " + testPropsClass);
+			System.err.println(ex.getLocalizedMessage());
+			System.err.println("You must provide an implementation of this class in order to run task tests");
+			throw ex;
+		}
+
+		return new Context(
+				testProps.getConnectionProperties(),
+				testProps.getMailProperties(),
+				testProps.getFtpProperties(),
+				testProps.getPathProperties(),
+				new TestLoader(nestedScripts));
+	}
+
 	protected void assertBadSyntax(String script, String expectedMessage) {
 
 		DbProcess process = null;
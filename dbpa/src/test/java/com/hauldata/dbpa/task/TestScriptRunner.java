@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026, Ronald DeSantis
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+
+package com.hauldata.dbpa.task;
+
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import com.hauldata.dbpa.loader.TestLoader;
+import com.hauldata.dbpa.process.Context;
+import com.hauldata.dbpa.process.DbProcess;
+
+/**
+ * Runner of scripts against a given database, usually an in-memory H2 database,
+ * for benchmarks, which run from main() rather than as test cases.
+ * Test cases run scripts with TaskTest.runScript(); see H2TaskTest.
+ */
+public class TestScriptRunner {
+
+	private Properties connProps;
+	private Properties pathProps;
+
+	/**
+	 * Construct a runner for an H2 database
+	 *
+	 * @param url is the H2 JDBC URL
+	 */
+	public TestScriptRunner(String url) {
+
+		connProps = new Properties();
+		connProps.put("driver", "org.h2.Driver");
+		connProps.put("url", url);
+
+		pathProps = new Properties();
+	}
+
+	/**
+	 * Construct a runner for any database
+	 *
+	 * @param connProps are the connection properties
+	 */
+	public TestScriptRunner(Properties connProps) {
+		this.connProps = connProps;
+		pathProps = new Properties();
+	}
+
+	/**
+	 * Write files to a directory
+	 * @return this runner
+	 */
+	public TestScriptRunner writeTo(Path directory) {
+		pathProps.put("write", directory.toString());
+		return this;
+	}
+
+	public String getUrl() {
+		return connProps.getProperty("url");
+	}
+
+	/**
+	 * @return a new context for running a script
+	 */
+	public Context newContext() {
+		return new Context(connProps, new Properties(), new Properties(), pathProps, new TestLoader(null));
+	}
+
+	/**
+	 * Run a script in a new context
+	 */
+	public void run(String script, String... args) throws Exception {
+		run(script, newContext(), args);
+	}
+
+	/**
+	 * Run a script in the context and close the context
+	 */
+	public void run(String script, Context context, String... args) throws Exception {
+		try {
+			DbProcess process = DbProcess.parse(new StringReader(script));
+			process.run(args, context);
+		}
+		finally {
+			context.close();
+		}
+	}
+}
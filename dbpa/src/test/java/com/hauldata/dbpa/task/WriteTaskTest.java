@@ -281,4 +281,20 @@ public class WriteTaskTest extends TaskTest {
 
 		assertScriptFails("WriteNullSheetName", script, "WRITEXLSX", "Sheet name expression evaluates to NULL");
 	}
+
+	public void testFetchSizeSyntax() throws Exception {
+
+		assertGoodSyntax(
+				"PROCESS\n" +
+				"WRITE CSV 'big.csv' FROM FETCH SIZE 10000 SQL SELECT * FROM big END SQL;\n" +
+				"WRITE CSV 'big.csv' FROM FETCH SIZE 5000 * 2 STATEMENT 'SELECT * FROM big';\n" +
+				"FLOW FROM FETCH SIZE 10000 TABLE 'big' INTO TABLE 'copy';\n" +
+				"END PROCESS\n");
+
+		assertBadSyntax(
+				"PROCESS\n" +
+				"WRITE CSV 'big.csv' FROM FETCH 10000 SQL SELECT * FROM big END SQL;\n" +
+				"END PROCESS\n",
+				"At line 2: Expecting FETCH to be followed by SIZE");
+	}
 }